@@ -0,0 +1,116 @@
+package com.laneful.examples.loadgen;
+
+import com.laneful.exceptions.ValidationException;
+import com.laneful.models.Address;
+import com.laneful.models.Attachment;
+import com.laneful.models.Email;
+
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Weighted mix of email shapes to send.
+ *
+ * <p>A small pool of emails is built per shape up front and reused, so the
+ * run measures the client and the wire rather than the email builder.
+ */
+final class EmailMix {
+
+    enum Shape {
+        /** Short plain-text and HTML body. */
+        TEXT,
+        /** Template ID with template data. */
+        TEMPLATE,
+        /** Text body with one attachment. */
+        ATTACHMENT,
+        /** Text body to many recipients. */
+        RECIPIENTS
+    }
+
+    private static final int VARIANTS = 16;
+
+    private final Shape[] wheel;
+    private final Map<Shape, List<Email>> pools = new EnumMap<>(Shape.class);
+    private final int batchSize;
+
+    EmailMix(LoadOptions options) throws ValidationException {
+        List<Shape> slots = new ArrayList<>();
+        options.mix.forEach((shape, weight) -> {
+            for (int i = 0; i < weight; i++) {
+                slots.add(shape);
+            }
+        });
+        this.wheel = slots.toArray(new Shape[0]);
+        this.batchSize = options.batchSize;
+
+        byte[] attachment = new byte[options.attachmentKb * 1024];
+        new Random(42).nextBytes(attachment);
+        String attachmentContent = Base64.getEncoder().encodeToString(attachment);
+        Address from = new Address(options.fromEmail, "Load Generator");
+        for (Shape shape : Shape.values()) {
+            if (options.mix.getOrDefault(shape, 0) == 0) {
+                continue;
+            }
+            List<Email> pool = new ArrayList<>(VARIANTS);
+            for (int i = 0; i < VARIANTS; i++) {
+                pool.add(build(shape, i, from, options.recipients, attachmentContent));
+            }
+            pools.put(shape, pool);
+        }
+    }
+
+    /**
+     * Picks the emails for one send request.
+     */
+    List<Email> next() {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        if (batchSize == 1) {
+            return List.of(pick(random));
+        }
+        List<Email> batch = new ArrayList<>(batchSize);
+        for (int i = 0; i < batchSize; i++) {
+            batch.add(pick(random));
+        }
+        return batch;
+    }
+
+    private Email pick(ThreadLocalRandom random) {
+        List<Email> pool = pools.get(wheel[random.nextInt(wheel.length)]);
+        return pool.get(random.nextInt(pool.size()));
+    }
+
+    private static Email build(Shape shape, int variant, Address from, int recipients, String attachmentContent)
+            throws ValidationException {
+        Email.Builder builder = new Email.Builder()
+            .from(from)
+            .to(new Address("user" + variant + "@example.com", "User " + variant))
+            .subject("Load test " + shape.name().toLowerCase() + " " + variant)
+            .tag("load-test");
+        return switch (shape) {
+            case TEXT -> builder
+                .textContent("Hello from the load generator, variant " + variant + ".")
+                .htmlContent("<p>Hello from the <b>load generator</b>, variant " + variant + ".</p>")
+                .build();
+            case TEMPLATE -> builder
+                .templateId("load-test-template")
+                .templateData(Map.of("name", "User " + variant, "variant", variant, "items", List.of("a", "b", "c")))
+                .build();
+            case ATTACHMENT -> builder
+                .textContent("Report attached.")
+                .attachment(new Attachment("report-" + variant + ".bin", "application/octet-stream", attachmentContent))
+                .build();
+            case RECIPIENTS -> {
+                builder.textContent("Announcement to many recipients.");
+                for (int i = 1; i < recipients; i++) {
+                    builder.to(new Address("user" + variant + "." + i + "@example.com"));
+                }
+                yield builder.build();
+            }
+        };
+    }
+}
@@ -0,0 +1,78 @@
+package com.laneful.examples.loadgen;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Lock-free log-linear histogram of latencies in microseconds.
+ *
+ * <p>Values below 128 are counted exactly; larger values fall into buckets
+ * that are 1/64 of their power of two wide, so percentiles are accurate to
+ * within about 1.6% from microseconds up to hours.
+ */
+final class LatencyHistogram {
+
+    private static final int SUB_BITS = 7;
+    private static final int HALF = 1 << (SUB_BITS - 1);
+
+    private final AtomicLongArray counts = new AtomicLongArray((64 - SUB_BITS + 2) * HALF);
+    private final AtomicLong max = new AtomicLong();
+
+    void record(long micros) {
+        long value = Math.max(0, micros);
+        counts.incrementAndGet(index(value));
+        max.accumulateAndGet(value, Math::max);
+    }
+
+    long count() {
+        long total = 0;
+        for (int i = 0; i < counts.length(); i++) {
+            total += counts.get(i);
+        }
+        return total;
+    }
+
+    long max() {
+        return max.get();
+    }
+
+    /**
+     * Returns the smallest recorded bucket's upper bound below which the
+     * given percentage of values fall.
+     *
+     * @param percentile Between 0 and 100
+     * @return Microseconds, or 0 if nothing has been recorded
+     */
+    long percentile(double percentile) {
+        long total = count();
+        if (total == 0) {
+            return 0;
+        }
+        long target = Math.max(1, (long) Math.ceil(percentile / 100 * total));
+        long seen = 0;
+        for (int i = 0; i < counts.length(); i++) {
+            seen += counts.get(i);
+            if (seen >= target) {
+                return Math.min(upperBound(i), max.get());
+            }
+        }
+        return max.get();
+    }
+
+    static int index(long value) {
+        if (value < 2 * HALF) {
+            return (int) value;
+        }
+        int shift = 63 - Long.numberOfLeadingZeros(value) - SUB_BITS + 1;
+        return shift * HALF + (int) (value >>> shift);
+    }
+
+    static long upperBound(int index) {
+        if (index < 2 * HALF) {
+            return index;
+        }
+        int shift = index / HALF - 1;
+        long mantissa = index - (long) shift * HALF;
+        return ((mantissa + 1) << shift) - 1;
+    }
+}
@@ -0,0 +1,252 @@
+package com.laneful.examples.loadgen;
+
+import com.laneful.client.LanefulClient;
+import com.laneful.exceptions.ApiException;
+import com.laneful.exceptions.HttpException;
+import com.laneful.exceptions.LanefulException;
+import com.laneful.models.Email;
+import okhttp3.ConnectionPool;
+import okhttp3.OkHttpClient;
+
+import java.lang.management.ManagementFactory;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Drives a mix of emails through {@link LanefulClient} against a local
+ * endpoint and reports throughput, latency percentiles, bytes on the wire
+ * and allocation rate.
+ *
+ * <p>In the default closed loop, a fixed number of senders each wait for a
+ * response before sending again, which shows the most the endpoint and
+ * client can sustain. With {@code --rate}, sends start on a fixed schedule
+ * whatever the response times, as real traffic does. Latency is then
+ * measured from when each send was due rather than when it actually started,
+ * so a stall shows up in the percentiles instead of silently lowering the
+ * rate.
+ *
+ * <pre>
+ * mvn -P load-generator exec:java -Dexec.args="--rate=500 --duration=60s"
+ * </pre>
+ */
+public final class LoadGenerator {
+
+    private final LoadOptions options;
+    private final EmailMix mix;
+    private final WireCounter wire = new WireCounter();
+    private final LanefulClient client;
+    private final LatencyHistogram latencies = new LatencyHistogram();
+    private final LongAdder succeeded = new LongAdder();
+    private final LongAdder emailsSent = new LongAdder();
+    private final LongAdder skipped = new LongAdder();
+    private final Map<String, LongAdder> failures = new ConcurrentHashMap<>();
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private volatile long measureFrom;
+
+    private LoadGenerator(LoadOptions options) throws LanefulException {
+        this.options = options;
+        this.mix = new EmailMix(options);
+        OkHttpClient httpClient = new OkHttpClient.Builder()
+            .connectTimeout(options.timeout.toMillis(), TimeUnit.MILLISECONDS)
+            .readTimeout(options.timeout.toMillis(), TimeUnit.MILLISECONDS)
+            .writeTimeout(options.timeout.toMillis(), TimeUnit.MILLISECONDS)
+            .connectionPool(new ConnectionPool(Math.max(options.concurrency, 64), 1, TimeUnit.MINUTES))
+            .eventListener(wire)
+            .build();
+        this.client = new LanefulClient(options.baseUrl, options.authToken, options.timeout, httpClient);
+    }
+
+    public static void main(String[] args) {
+        LoadOptions options;
+        try {
+            options = LoadOptions.parse(args);
+        } catch (IllegalArgumentException e) {
+            System.err.println("❌ " + e.getMessage());
+            System.err.println(LoadOptions.usage());
+            System.exit(1);
+            return;
+        }
+
+        try {
+            new LoadGenerator(options).run();
+        } catch (LanefulException e) {
+            System.err.println("✗ Could not set up the run: " + e.getMessage());
+            System.exit(1);
+        }
+    }
+
+    private void run() {
+        System.out.printf("🚀 %s against %s for %ds after %ds warm-up%n",
+            options.openLoop()
+                ? String.format("Open loop at %.0f sends/s", options.rate)
+                : "Closed loop with " + options.concurrency + " senders",
+            options.baseUrl, options.duration.toSeconds(), options.warmup.toSeconds());
+
+        long start = System.nanoTime();
+        measureFrom = start + options.warmup.toNanos();
+        long end = measureFrom + options.duration.toNanos();
+        AtomicReference<Snapshot> atMeasureStart = new AtomicReference<>(new Snapshot(measureFrom, 0, 0, 0));
+        ScheduledExecutorService reporter = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "load-generator-reporter");
+            thread.setDaemon(true);
+            return thread;
+        });
+        reporter.schedule(() -> atMeasureStart.set(snapshot()), options.warmup.toNanos(), TimeUnit.NANOSECONDS);
+        long[] lastCount = new long[1];
+        reporter.scheduleAtFixedRate(() -> {
+            long count = succeeded.sum() + failed();
+            System.out.printf("  %4ds  %7d sends/s  %6d in flight  %6d failed%n",
+                TimeUnit.NANOSECONDS.toSeconds(System.nanoTime() - start), count - lastCount[0],
+                inFlight.get(), failed());
+            lastCount[0] = count;
+        }, 1, 1, TimeUnit.SECONDS);
+
+        try (ExecutorService senders = Executors.newVirtualThreadPerTaskExecutor()) {
+            if (options.openLoop()) {
+                runOpenLoop(senders, start, end);
+            } else {
+                runClosedLoop(senders, end);
+            }
+        }
+        Snapshot atEnd = snapshot();
+        reporter.shutdownNow();
+        report(atMeasureStart.get(), atEnd);
+    }
+
+    /**
+     * Starts sends on a fixed schedule, skipping those that would exceed the
+     * in-flight cap.
+     */
+    private void runOpenLoop(ExecutorService senders, long start, long end) {
+        Semaphore permits = new Semaphore(options.maxInFlight);
+        double intervalNanos = 1e9 / options.rate;
+        for (long i = 0; ; i++) {
+            long due = start + (long) (i * intervalNanos);
+            if (due - end >= 0) {
+                break;
+            }
+            long wait = due - System.nanoTime();
+            if (wait > 0) {
+                LockSupport.parkNanos(wait);
+            }
+            if (!permits.tryAcquire()) {
+                if (due - measureFrom >= 0) {
+                    skipped.increment();
+                }
+                continue;
+            }
+            senders.execute(() -> {
+                try {
+                    send(due);
+                } finally {
+                    permits.release();
+                }
+            });
+        }
+    }
+
+    private void runClosedLoop(ExecutorService senders, long end) {
+        for (int i = 0; i < options.concurrency; i++) {
+            senders.execute(() -> {
+                while (System.nanoTime() - end < 0) {
+                    send(System.nanoTime());
+                }
+            });
+        }
+    }
+
+    private void send(long due) {
+        List<Email> emails = mix.next();
+        inFlight.incrementAndGet();
+        String failure = null;
+        try {
+            client.sendEmails(emails);
+        } catch (ApiException e) {
+            failure = "API " + e.getStatusCode();
+        } catch (HttpException e) {
+            failure = e.getStatusCode() == 0 ? "I/O" : "HTTP " + e.getStatusCode();
+        } catch (LanefulException e) {
+            failure = e.getClass().getSimpleName();
+        } finally {
+            inFlight.decrementAndGet();
+        }
+        if (due - measureFrom < 0) {
+            return;
+        }
+        latencies.record(TimeUnit.NANOSECONDS.toMicros(System.nanoTime() - due));
+        if (failure == null) {
+            succeeded.increment();
+            emailsSent.add(emails.size());
+        } else {
+            failures.computeIfAbsent(failure, key -> new LongAdder()).increment();
+        }
+    }
+
+    private long failed() {
+        return failures.values().stream().mapToLong(LongAdder::sum).sum();
+    }
+
+    private Snapshot snapshot() {
+        return new Snapshot(System.nanoTime(), wire.sent(), wire.received(), allocatedBytes());
+    }
+
+    /**
+     * Bytes allocated by all threads so far, or -1 if the JVM does not track
+     * it.
+     */
+    private static long allocatedBytes() {
+        if (ManagementFactory.getThreadMXBean() instanceof com.sun.management.ThreadMXBean threads
+                && threads.isThreadAllocatedMemorySupported() && threads.isThreadAllocatedMemoryEnabled()) {
+            return threads.getTotalThreadAllocatedBytes();
+        }
+        return -1;
+    }
+
+    private void report(Snapshot from, Snapshot to) {
+        double seconds = (to.nanos - from.nanos) / 1e9;
+        long ok = succeeded.sum();
+        long failed = failed();
+        long requests = ok + failed;
+
+        System.out.println();
+        System.out.println("📊 Results over " + String.format("%.1f", seconds) + "s");
+        System.out.printf("  Requests     %d ok, %d failed, %d skipped%n", ok, failed, skipped.sum());
+        if (failed > 0) {
+            new TreeMap<>(failures).forEach((reason, count) ->
+                System.out.printf("               %s: %d%n", reason, count.sum()));
+        }
+        System.out.printf("  Throughput   %.1f sends/s, %.1f emails/s%n", ok / seconds, emailsSent.sum() / seconds);
+        System.out.printf("  Latency      p50 %s  p90 %s  p99 %s  p99.9 %s  max %s%n",
+            millis(latencies.percentile(50)), millis(latencies.percentile(90)),
+            millis(latencies.percentile(99)), millis(latencies.percentile(99.9)), millis(latencies.max()));
+        long sent = to.sent - from.sent;
+        long received = to.received - from.received;
+        System.out.printf("  Wire         %.1f MB/s out, %.1f MB/s in, %s per request%n",
+            sent / seconds / 1e6, received / seconds / 1e6,
+            requests == 0 ? "n/a" : (sent + received) / requests + " bytes");
+        if (from.allocated >= 0 && to.allocated >= 0) {
+            long allocated = to.allocated - from.allocated;
+            System.out.printf("  Allocation   %.1f MB/s, %s per request (whole JVM, including this tool)%n",
+                allocated / seconds / 1e6, requests == 0 ? "n/a" : allocated / requests / 1024 + " KB");
+        } else {
+            System.out.println("  Allocation   not available on this JVM");
+        }
+    }
+
+    private static String millis(long micros) {
+        return String.format("%.2fms", micros / 1000.0);
+    }
+
+    private record Snapshot(long nanos, long sent, long received, long allocated) {}
+}
@@ -0,0 +1,189 @@
+package com.laneful.examples.loadgen;
+
+import java.net.URI;
+import java.time.Duration;
+import java.util.EnumMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Command-line settings for {@link LoadGenerator}, given as
+ * {@code --name=value} arguments.
+ */
+final class LoadOptions {
+
+    private static final Set<String> LOCAL_HOSTS = Set.of("localhost", "127.0.0.1", "[::1]", "::1");
+
+    String baseUrl = envOrDefault("LANEFUL_BASE_URL", "http://localhost:8080");
+    String authToken = envOrDefault("LANEFUL_AUTH_TOKEN", "load-test-token");
+    String fromEmail = envOrDefault("LANEFUL_FROM_EMAIL", "loadtest@example.com");
+    double rate;
+    int concurrency = 32;
+    Duration duration = Duration.ofSeconds(30);
+    Duration warmup = Duration.ofSeconds(5);
+    Duration timeout = Duration.ofSeconds(30);
+    Map<EmailMix.Shape, Integer> mix = defaultMix();
+    int batchSize = 1;
+    int recipients = 50;
+    int attachmentKb = 64;
+    int maxInFlight = 10_000;
+    boolean allowRemote;
+
+    static String usage() {
+        return """
+            Usage: LoadGenerator [--name=value ...]
+
+              --url=URL              API base URL (default $LANEFUL_BASE_URL or http://localhost:8080)
+              --token=TOKEN          Auth token (default $LANEFUL_AUTH_TOKEN or load-test-token)
+              --rate=N               Open loop: start N sends per second regardless of response times
+              --concurrency=N        Closed loop: N senders back to back, used when no rate is given (default 32)
+              --duration=30s         Measured run time
+              --warmup=5s            Run time before measuring starts
+              --timeout=30s          HTTP connect, read and write timeout
+              --mix=text=70,template=10,attachment=10,recipients=10
+                                     Relative weights of the email shapes
+              --batch=1              Emails per send request
+              --recipients=50        Recipients of each 'recipients' email
+              --attachment-kb=64     Size of each attachment
+              --max-in-flight=10000  Open loop: sends skipped beyond this many outstanding
+              --allow-remote         Permit a base URL that is not localhost
+            """;
+    }
+
+    static LoadOptions parse(String[] args) {
+        LoadOptions options = new LoadOptions();
+        for (String arg : args) {
+            if (!arg.startsWith("--")) {
+                throw new IllegalArgumentException("Unexpected argument: " + arg);
+            }
+            int equals = arg.indexOf('=');
+            String name = equals < 0 ? arg.substring(2) : arg.substring(2, equals);
+            String value = equals < 0 ? "" : arg.substring(equals + 1);
+            switch (name) {
+                case "url" -> options.baseUrl = value;
+                case "token" -> options.authToken = value;
+                case "rate" -> options.rate = positiveDouble(name, value);
+                case "concurrency" -> options.concurrency = positiveInt(name, value);
+                case "duration" -> options.duration = duration(name, value);
+                case "warmup" -> options.warmup = value.equals("0") ? Duration.ZERO : duration(name, value);
+                case "timeout" -> options.timeout = duration(name, value);
+                case "mix" -> options.mix = mix(value);
+                case "batch" -> options.batchSize = positiveInt(name, value);
+                case "recipients" -> options.recipients = positiveInt(name, value);
+                case "attachment-kb" -> options.attachmentKb = positiveInt(name, value);
+                case "max-in-flight" -> options.maxInFlight = positiveInt(name, value);
+                case "allow-remote" -> options.allowRemote = true;
+                default -> throw new IllegalArgumentException("Unknown option: --" + name);
+            }
+        }
+        options.checkLocal();
+        return options;
+    }
+
+    boolean openLoop() {
+        return rate > 0;
+    }
+
+    /**
+     * Refuses to load anything but a local endpoint unless told otherwise,
+     * so a stray environment variable cannot point the tool at production.
+     */
+    private void checkLocal() {
+        String host;
+        try {
+            host = URI.create(baseUrl).getHost();
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Invalid base URL: " + baseUrl);
+        }
+        if (host == null) {
+            throw new IllegalArgumentException("Invalid base URL: " + baseUrl);
+        }
+        if (!allowRemote && !LOCAL_HOSTS.contains(host.toLowerCase(Locale.ROOT))) {
+            throw new IllegalArgumentException(
+                "Refusing to generate load against " + host + "; pass --allow-remote if this is intended");
+        }
+    }
+
+    private static Map<EmailMix.Shape, Integer> defaultMix() {
+        Map<EmailMix.Shape, Integer> mix = new EnumMap<>(EmailMix.Shape.class);
+        mix.put(EmailMix.Shape.TEXT, 70);
+        mix.put(EmailMix.Shape.TEMPLATE, 10);
+        mix.put(EmailMix.Shape.ATTACHMENT, 10);
+        mix.put(EmailMix.Shape.RECIPIENTS, 10);
+        return mix;
+    }
+
+    private static Map<EmailMix.Shape, Integer> mix(String value) {
+        Map<EmailMix.Shape, Integer> mix = new EnumMap<>(EmailMix.Shape.class);
+        for (String part : value.split(",")) {
+            String[] weight = part.split("=", 2);
+            EmailMix.Shape shape;
+            try {
+                shape = EmailMix.Shape.valueOf(weight[0].trim().toUpperCase(Locale.ROOT));
+            } catch (IllegalArgumentException e) {
+                throw new IllegalArgumentException("Unknown email shape: " + weight[0]);
+            }
+            int parsed = weight.length == 1 ? 1 : Integer.parseInt(weight[1].trim());
+            if (parsed < 0) {
+                throw new IllegalArgumentException("Weights cannot be negative: " + part);
+            }
+            mix.put(shape, parsed);
+        }
+        if (mix.values().stream().mapToInt(Integer::intValue).sum() == 0) {
+            throw new IllegalArgumentException("At least one email shape needs a positive weight");
+        }
+        return mix;
+    }
+
+    private static Duration duration(String name, String value) {
+        String text = value.trim().toLowerCase(Locale.ROOT);
+        try {
+            Duration parsed;
+            if (text.endsWith("ms")) {
+                parsed = Duration.ofMillis(Long.parseLong(text.substring(0, text.length() - 2)));
+            } else if (text.endsWith("s")) {
+                parsed = Duration.ofSeconds(Long.parseLong(text.substring(0, text.length() - 1)));
+            } else if (text.endsWith("m")) {
+                parsed = Duration.ofMinutes(Long.parseLong(text.substring(0, text.length() - 1)));
+            } else {
+                parsed = Duration.ofSeconds(Long.parseLong(text));
+            }
+            if (parsed.isNegative() || parsed.isZero()) {
+                throw new IllegalArgumentException("--" + name + " must be positive");
+            }
+            return parsed;
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Invalid duration for --" + name + ": " + value);
+        }
+    }
+
+    private static int positiveInt(String name, String value) {
+        try {
+            int parsed = Integer.parseInt(value.trim());
+            if (parsed <= 0) {
+                throw new IllegalArgumentException("--" + name + " must be positive");
+            }
+            return parsed;
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Invalid number for --" + name + ": " + value);
+        }
+    }
+
+    private static double positiveDouble(String name, String value) {
+        try {
+            double parsed = Double.parseDouble(value.trim());
+            if (!(parsed > 0) || Double.isInfinite(parsed)) {
+                throw new IllegalArgumentException("--" + name + " must be positive");
+            }
+            return parsed;
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Invalid number for --" + name + ": " + value);
+        }
+    }
+
+    private static String envOrDefault(String name, String fallback) {
+        String value = System.getenv(name);
+        return value == null || value.isBlank() ? fallback : value;
+    }
+}
@@ -0,0 +1,47 @@
+package com.laneful.examples.loadgen;
+
+import okhttp3.Call;
+import okhttp3.EventListener;
+import okhttp3.Request;
+import okhttp3.Response;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Counts the HTTP bytes sent and received, headers included, as reported by
+ * OkHttp after each part of an exchange. TLS and TCP overhead are not
+ * counted.
+ */
+final class WireCounter extends EventListener {
+
+    private final LongAdder sent = new LongAdder();
+    private final LongAdder received = new LongAdder();
+
+    @Override
+    public void requestHeadersEnd(Call call, Request request) {
+        sent.add(request.headers().byteCount());
+    }
+
+    @Override
+    public void requestBodyEnd(Call call, long byteCount) {
+        sent.add(byteCount);
+    }
+
+    @Override
+    public void responseHeadersEnd(Call call, Response response) {
+        received.add(response.headers().byteCount());
+    }
+
+    @Override
+    public void responseBodyEnd(Call call, long byteCount) {
+        received.add(byteCount);
+    }
+
+    long sent() {
+        return sent.sum();
+    }
+
+    long received() {
+        return received.sum();
+    }
+}
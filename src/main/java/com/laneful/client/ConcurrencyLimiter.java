@@ -0,0 +1,446 @@
+package com.laneful.client;
+
+import com.laneful.exceptions.ConcurrencyLimitException;
+
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Limits how many sends a client has in flight, adjusting the limit from
+ * measured round-trip times and errors.
+ *
+ * <p>A fixed cap is either too low, leaving throughput unused, or too high,
+ * letting requests queue inside the API where they only add latency. The
+ * limiter instead starts from an initial limit and moves it with a
+ * {@link LimitAlgorithm}: up while requests complete quickly, down when
+ * latency rises or the API answers with 429 or 5xx, or a request times out.
+ * Register it on a client with
+ * {@link LanefulClient#withConcurrencyLimiter(ConcurrencyLimiter)}:
+ *
+ * <pre>{@code
+ * ConcurrencyLimiter limiter = new ConcurrencyLimiter.Builder()
+ *     .algorithm(LimitAlgorithm.VEGAS)
+ *     .queue(1000, Duration.ofSeconds(5))
+ *     .build();
+ * LanefulClient client = new LanefulClient(baseUrl, token).withConcurrencyLimiter(limiter);
+ * }</pre>
+ *
+ * <p>Sends beyond the limit wait in a first-come, first-served queue, up to
+ * the queue's size and wait time and never past the send's own deadline. By
+ * default there is no queue and they fail at once with a
+ * {@link ConcurrencyLimitException}, so callers can shed load or retry
+ * elsewhere. The limit only grows while at least half of it is in use, so a
+ * quiet period does not leave it far above what the API has shown it can
+ * take.
+ *
+ * <p>Instances are thread-safe and can be shared by several clients that
+ * send to the same API.
+ */
+public final class ConcurrencyLimiter {
+
+    // Weight of each new sample in the smoothed round-trip time, as in TCP
+    private static final double RTT_SMOOTHING = 0.125;
+
+    private final LimitAlgorithm algorithm;
+    private final int minLimit;
+    private final int maxLimit;
+    private final double backoffRatio;
+    private final int maxWaiting;
+    private final long maxWaitNanos;
+    private final int probeInterval;
+
+    private final ArrayDeque<CompletableFuture<Permit>> waiters = new ArrayDeque<>();
+    private double limit;
+    private int inFlight;
+    private long minRttNanos = Long.MAX_VALUE;
+    private double smoothedRttNanos;
+    private long lastDecreaseNanos;
+    private int samplesUntilProbe;
+
+    private final LongAdder acquired = new LongAdder();
+    private final LongAdder rejected = new LongAdder();
+    private final LongAdder timedOut = new LongAdder();
+    private final LongAdder dropped = new LongAdder();
+
+    private ConcurrencyLimiter(Builder builder) {
+        this.algorithm = builder.algorithm;
+        this.minLimit = builder.minLimit;
+        this.maxLimit = builder.maxLimit;
+        this.backoffRatio = builder.backoffRatio;
+        this.maxWaiting = builder.maxWaiting;
+        this.maxWaitNanos = builder.maxWait == null ? 0 : saturatedNanos(builder.maxWait);
+        this.probeInterval = builder.probeInterval;
+        this.limit = Math.max(minLimit, Math.min(maxLimit, builder.initialLimit));
+        this.samplesUntilProbe = probeInterval;
+    }
+
+    /**
+     * The current limit on sends in flight.
+     */
+    public synchronized int limit() {
+        return (int) limit;
+    }
+
+    /**
+     * Current limit, usage and counters since the limiter was built.
+     */
+    public Stats stats() {
+        int currentLimit;
+        int currentInFlight;
+        int currentWaiting;
+        long minRtt;
+        long smoothedRtt;
+        synchronized (this) {
+            currentLimit = (int) limit;
+            currentInFlight = inFlight;
+            currentWaiting = waiters.size();
+            minRtt = minRttNanos == Long.MAX_VALUE ? 0 : minRttNanos;
+            smoothedRtt = (long) smoothedRttNanos;
+        }
+        return new Stats(currentLimit, currentInFlight, currentWaiting, acquired.sum(), rejected.sum(),
+            timedOut.sum(), dropped.sum(), TimeUnit.NANOSECONDS.toMicros(minRtt),
+            TimeUnit.NANOSECONDS.toMicros(smoothedRtt));
+    }
+
+    /**
+     * Takes a slot for one send, waiting in the queue if the limit is
+     * reached and the queue allows it.
+     *
+     * @param budgetNanos Longest the caller can wait, or {@link Long#MAX_VALUE} for no deadline
+     * @return A permit, or a future that completes with one; fails with a
+     *     {@link ConcurrencyLimitException} if the send is turned away, and
+     *     can be cancelled to stop waiting
+     */
+    CompletableFuture<Permit> acquire(long budgetNanos) {
+        CompletableFuture<Permit> waiter;
+        int currentLimit;
+        synchronized (this) {
+            currentLimit = (int) limit;
+            if (inFlight < currentLimit && waiters.isEmpty()) {
+                inFlight++;
+                acquired.increment();
+                return CompletableFuture.completedFuture(new Permit(this, inFlight));
+            }
+            if (waiters.size() < maxWaiting && maxWaitNanos > 0 && budgetNanos > 0) {
+                waiter = new CompletableFuture<>();
+                waiters.addLast(waiter);
+            } else {
+                waiter = null;
+            }
+        }
+        if (waiter == null) {
+            rejected.increment();
+            return CompletableFuture.failedFuture(new ConcurrencyLimitException(
+                "Concurrency limit of " + currentLimit + " reached", currentLimit));
+        }
+
+        // Leave the queue when cancelled; a slot handed to a waiter that is
+        // already gone is passed on in dispatch()
+        waiter.whenComplete((permit, error) -> {
+            if (error != null) {
+                synchronized (this) {
+                    waiters.remove(waiter);
+                }
+            }
+        });
+        long waitNanos = Math.min(maxWaitNanos, budgetNanos);
+        if (waitNanos != Long.MAX_VALUE) {
+            CompletableFuture.delayedExecutor(waitNanos, TimeUnit.NANOSECONDS).execute(() -> {
+                int limitNow;
+                synchronized (this) {
+                    if (!waiters.remove(waiter)) {
+                        // Already granted a slot or cancelled
+                        return;
+                    }
+                    limitNow = (int) limit;
+                }
+                timedOut.increment();
+                waiter.completeExceptionally(new ConcurrencyLimitException(
+                    "Timed out after " + TimeUnit.NANOSECONDS.toMillis(waitNanos)
+                        + " ms waiting under a concurrency limit of " + limitNow, limitNow));
+            });
+        }
+        return waiter;
+    }
+
+    /**
+     * Returns a slot and feeds the outcome to the limit algorithm.
+     *
+     * @param rttNanos Round-trip time, or a negative value to return the slot without a sample
+     * @param drop Whether the request was rate limited, failed on the server or timed out
+     */
+    private void complete(Permit permit, long rttNanos, boolean drop) {
+        synchronized (this) {
+            inFlight--;
+            if (drop) {
+                onDrop(System.nanoTime());
+            } else if (rttNanos >= 0) {
+                onSample(rttNanos, permit.inFlightAtStart);
+            }
+        }
+        if (drop) {
+            dropped.increment();
+        }
+        dispatch();
+    }
+
+    /**
+     * Hands free slots to waiters, in order. Waiters are completed outside
+     * the lock, since completing one may run its send.
+     */
+    private void dispatch() {
+        while (true) {
+            CompletableFuture<Permit> next;
+            Permit permit;
+            synchronized (this) {
+                if (waiters.isEmpty() || inFlight >= (int) limit) {
+                    return;
+                }
+                next = waiters.pollFirst();
+                inFlight++;
+                permit = new Permit(this, inFlight);
+            }
+            if (next.complete(permit)) {
+                acquired.increment();
+            } else {
+                // Timed out or cancelled in the meantime
+                synchronized (this) {
+                    inFlight--;
+                }
+            }
+        }
+    }
+
+    private void onSample(long rttNanos, int inFlightAtStart) {
+        rttNanos = Math.max(1, rttNanos);
+        smoothedRttNanos = smoothedRttNanos == 0
+            ? rttNanos
+            : smoothedRttNanos + RTT_SMOOTHING * (rttNanos - smoothedRttNanos);
+        if (--samplesUntilProbe <= 0) {
+            // Let the baseline rise if the API has become slower for good
+            samplesUntilProbe = probeInterval;
+            minRttNanos = rttNanos;
+        } else if (rttNanos < minRttNanos) {
+            minRttNanos = rttNanos;
+        }
+
+        // Only a limit that is actually in use shows whether more would fit
+        boolean limited = inFlightAtStart * 2 >= limit;
+        switch (algorithm) {
+            case AIMD -> {
+                if (limited) {
+                    setLimit(limit + 1 / limit);
+                }
+            }
+            case VEGAS -> {
+                double step = Math.max(1, Math.log10(limit));
+                double queued = limit * (1 - (double) minRttNanos / rttNanos);
+                if (queued > 6 * step) {
+                    setLimit(limit - step);
+                } else if (!limited) {
+                    return;
+                } else if (queued <= step) {
+                    setLimit(limit + 6 * step);
+                } else if (queued < 3 * step) {
+                    setLimit(limit + step);
+                }
+            }
+        }
+    }
+
+    private void onDrop(long now) {
+        // One cut per round trip; a burst of failures is one congestion signal
+        if (lastDecreaseNanos != 0 && now - lastDecreaseNanos < smoothedRttNanos) {
+            return;
+        }
+        lastDecreaseNanos = now;
+        setLimit(switch (algorithm) {
+            case AIMD -> limit * backoffRatio;
+            case VEGAS -> limit - Math.max(1, Math.log10(limit));
+        });
+    }
+
+    private void setLimit(double newLimit) {
+        limit = Math.max(minLimit, Math.min(maxLimit, newLimit));
+    }
+
+    private static long saturatedNanos(Duration duration) {
+        try {
+            return duration.toNanos();
+        } catch (ArithmeticException e) {
+            return Long.MAX_VALUE;
+        }
+    }
+
+    /**
+     * A slot for one send. Exactly one of the completion methods takes
+     * effect; later calls are ignored.
+     */
+    static final class Permit {
+
+        /**
+         * Permit for a client without a limiter.
+         */
+        static final Permit NONE = new Permit(null, 0);
+
+        private final ConcurrencyLimiter limiter;
+        private final int inFlightAtStart;
+        private final long startNanos = System.nanoTime();
+        private final AtomicBoolean completed = new AtomicBoolean();
+
+        private Permit(ConcurrencyLimiter limiter, int inFlightAtStart) {
+            this.limiter = limiter;
+            this.inFlightAtStart = inFlightAtStart;
+        }
+
+        /**
+         * Records a response. 429 and 5xx count as drops; other statuses,
+         * including client errors, were answered promptly and count as
+         * round-trip samples.
+         */
+        void onResponse(int status) {
+            if (status == 429 || status >= 500) {
+                complete(-1, true);
+            } else {
+                complete(System.nanoTime() - startNanos, false);
+            }
+        }
+
+        /**
+         * Records an I/O failure or timeout, which counts as a drop.
+         */
+        void onFailure() {
+            complete(-1, true);
+        }
+
+        /**
+         * Returns the slot without affecting the limit, as for a send
+         * cancelled by the caller or never made.
+         */
+        void release() {
+            complete(-1, false);
+        }
+
+        void complete(long rttNanos, boolean drop) {
+            if (limiter != null && completed.compareAndSet(false, true)) {
+                limiter.complete(this, rttNanos, drop);
+            }
+        }
+    }
+
+    /**
+     * Current limit, usage and counters since the limiter was built.
+     *
+     * @param limit Current limit on sends in flight
+     * @param inFlight Sends holding a slot
+     * @param waiting Sends queued for a slot
+     * @param acquired Slots handed out
+     * @param rejected Sends turned away because the queue was full or not allowed
+     * @param timedOut Sends turned away after waiting too long
+     * @param dropped Sends that were rate limited, failed on the server or timed out
+     * @param minRttMicros Lowest recent round-trip time, or 0 before the first sample
+     * @param smoothedRttMicros Smoothed round-trip time, or 0 before the first sample
+     */
+    public record Stats(int limit, int inFlight, int waiting, long acquired, long rejected, long timedOut,
+                        long dropped, long minRttMicros, long smoothedRttMicros) {}
+
+    /**
+     * Builder for creating ConcurrencyLimiter instances.
+     */
+    public static class Builder {
+        private LimitAlgorithm algorithm = LimitAlgorithm.VEGAS;
+        private int initialLimit = 20;
+        private int minLimit = 1;
+        private int maxLimit = 200;
+        private double backoffRatio = 0.9;
+        private int maxWaiting;
+        private Duration maxWait;
+        private int probeInterval = 1000;
+
+        /**
+         * Sets how the limit is adjusted. Defaults to
+         * {@link LimitAlgorithm#VEGAS}.
+         */
+        public Builder algorithm(LimitAlgorithm algorithm) {
+            if (algorithm == null) {
+                throw new IllegalArgumentException("Algorithm cannot be null");
+            }
+            this.algorithm = algorithm;
+            return this;
+        }
+
+        /**
+         * Sets the limit to start from. Defaults to 20.
+         */
+        public Builder initialLimit(int initialLimit) {
+            if (initialLimit <= 0) {
+                throw new IllegalArgumentException("Initial limit must be positive");
+            }
+            this.initialLimit = initialLimit;
+            return this;
+        }
+
+        /**
+         * Sets the range the limit stays within. Defaults to 1 to 200.
+         */
+        public Builder limitRange(int minLimit, int maxLimit) {
+            if (minLimit <= 0 || maxLimit < minLimit) {
+                throw new IllegalArgumentException("Limits must be positive, with max at least min");
+            }
+            this.minLimit = minLimit;
+            this.maxLimit = maxLimit;
+            return this;
+        }
+
+        /**
+         * Sets the factor {@link LimitAlgorithm#AIMD} multiplies the limit
+         * by on a drop. Defaults to 0.9.
+         */
+        public Builder backoffRatio(double backoffRatio) {
+            if (!(backoffRatio >= 0.5 && backoffRatio < 1)) {
+                throw new IllegalArgumentException("Backoff ratio must be at least 0.5 and below 1");
+            }
+            this.backoffRatio = backoffRatio;
+            return this;
+        }
+
+        /**
+         * Lets up to {@code maxWaiting} sends wait for a slot, each for at
+         * most {@code maxWait} or until its deadline, whichever is sooner.
+         * Without a queue, sends beyond the limit fail at once.
+         */
+        public Builder queue(int maxWaiting, Duration maxWait) {
+            if (maxWaiting < 0) {
+                throw new IllegalArgumentException("Max waiting cannot be negative");
+            }
+            if (maxWait == null || maxWait.isNegative()) {
+                throw new IllegalArgumentException("Max wait cannot be negative");
+            }
+            this.maxWaiting = maxWaiting;
+            this.maxWait = maxWait;
+            return this;
+        }
+
+        /**
+         * Sets how many samples {@link LimitAlgorithm#VEGAS} takes before
+         * resetting its no-queueing round-trip time to the latest sample, so
+         * the baseline can rise when the API gets slower for good. Defaults
+         * to 1000.
+         */
+        public Builder probeInterval(int probeInterval) {
+            if (probeInterval <= 0) {
+                throw new IllegalArgumentException("Probe interval must be positive");
+            }
+            this.probeInterval = probeInterval;
+            return this;
+        }
+
+        public ConcurrencyLimiter build() {
+            return new ConcurrencyLimiter(this);
+        }
+    }
+}
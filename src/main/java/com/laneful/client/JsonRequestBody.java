@@ -0,0 +1,104 @@
+package com.laneful.client;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import okhttp3.MediaType;
+import okhttp3.RequestBody;
+import okio.BufferedSink;
+
+import java.io.FilterOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+
+/**
+ * Request body that serializes its value straight into the HTTP sink.
+ *
+ * <p>Nothing is buffered as a String first, so streamed attachments are read and
+ * encoded while the request is written. The body is repeatable: every call to
+ * {@link #writeTo(BufferedSink)} serializes the value again.
+ *
+ * <p>A failure to produce the body, such as an attachment source that cannot
+ * be read, is thrown as a {@link BodyWriteException}, so it can be told apart
+ * from the connection failing.
+ */
+final class JsonRequestBody extends RequestBody {
+
+    private static final MediaType JSON = MediaType.get("application/json");
+
+    private final ObjectWriter writer;
+    private final Object value;
+
+    JsonRequestBody(ObjectWriter writer, Object value) {
+        // The sink is owned by OkHttp, so the generator must not close it
+        this.writer = writer.without(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+        this.value = value;
+    }
+
+    @Override
+    public MediaType contentType() {
+        return JSON;
+    }
+
+    @Override
+    public void writeTo(BufferedSink sink) throws IOException {
+        SinkStream out = new SinkStream(sink.outputStream());
+        try {
+            writer.writeValue(out, value);
+        } catch (IOException e) {
+            if (out.failed) {
+                throw e;
+            }
+            throw new BodyWriteException(e);
+        }
+    }
+
+    /**
+     * Thrown when the body could not be produced, as opposed to written.
+     */
+    static final class BodyWriteException extends IOException {
+        BodyWriteException(IOException cause) {
+            super(cause.getMessage(), cause);
+        }
+    }
+
+    /**
+     * Records whether the sink itself threw.
+     */
+    private static final class SinkStream extends FilterOutputStream {
+        boolean failed;
+
+        SinkStream(OutputStream out) {
+            super(out);
+        }
+
+        @Override
+        public void write(int b) throws IOException {
+            try {
+                out.write(b);
+            } catch (IOException e) {
+                failed = true;
+                throw e;
+            }
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) throws IOException {
+            try {
+                out.write(b, off, len);
+            } catch (IOException e) {
+                failed = true;
+                throw e;
+            }
+        }
+
+        @Override
+        public void flush() throws IOException {
+            try {
+                out.flush();
+            } catch (IOException e) {
+                failed = true;
+                throw e;
+            }
+        }
+    }
+}
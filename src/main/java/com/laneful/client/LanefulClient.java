@@ -3,16 +3,29 @@ package com.laneful.client;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
 import com.laneful.exceptions.ApiException;
+import com.laneful.exceptions.ConcurrencyLimitException;
 import com.laneful.exceptions.HttpException;
+import com.laneful.exceptions.SuppressedRecipientsException;
 import com.laneful.exceptions.ValidationException;
+import com.laneful.models.Address;
+import com.laneful.models.Attachment;
 import com.laneful.models.Email;
+import com.laneful.models.OffHeapContent;
+import com.laneful.suppression.SuppressionList;
+import com.laneful.suppression.SuppressionMode;
 import okhttp3.*;
 import okhttp3.HttpUrl;
 import java.io.IOException;
 import java.time.Duration;
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
 import java.util.concurrent.TimeUnit;
 
 /**
@@ -28,6 +41,11 @@ public class LanefulClient {
     private final String authToken;
     private final OkHttpClient httpClient;
     private final ObjectMapper objectMapper;
+    private final SuppressionList suppressionList;
+    private final SuppressionMode suppressionMode;
+    private final ConcurrencyLimiter concurrencyLimiter;
+    // Cancels async calls at their deadline; shared with derived clients
+    private final ScheduledThreadPoolExecutor deadlineTimer;
     
     /**
      * Creates a new LanefulClient with the specified configuration.
@@ -85,6 +103,62 @@ public class LanefulClient {
                     .build();
             case OkHttpClient client -> client;
         };
+        this.suppressionList = null;
+        this.suppressionMode = null;
+        this.concurrencyLimiter = null;
+        this.deadlineTimer = new ScheduledThreadPoolExecutor(1, runnable -> {
+            Thread thread = new Thread(runnable, "laneful-send-deadlines");
+            thread.setDaemon(true);
+            return thread;
+        });
+        // Finished sends drop their timer task, and with it the call and its body
+        deadlineTimer.setRemoveOnCancelPolicy(true);
+    }
+    
+    private LanefulClient(LanefulClient base, SuppressionList suppressionList, SuppressionMode suppressionMode,
+                          ConcurrencyLimiter concurrencyLimiter) {
+        this.baseUrl = base.baseUrl;
+        this.authToken = base.authToken;
+        this.objectMapper = base.objectMapper;
+        this.httpClient = base.httpClient;
+        this.suppressionList = suppressionList;
+        this.suppressionMode = suppressionMode;
+        this.concurrencyLimiter = concurrencyLimiter;
+        this.deadlineTimer = base.deadlineTimer;
+    }
+    
+    /**
+     * Creates a client that checks recipients against a suppression list
+     * before sending. The new client shares this client's HTTP connections.
+     * 
+     * @param suppressionList The addresses not to send to
+     * @param mode Whether suppressed recipients are dropped or rejected
+     * @return New LanefulClient instance
+     */
+    public LanefulClient withSuppressionList(SuppressionList suppressionList, SuppressionMode mode) {
+        if (suppressionList == null || mode == null) {
+            throw new IllegalArgumentException("Suppression list and mode are required");
+        }
+        return new LanefulClient(this, suppressionList, mode, concurrencyLimiter);
+    }
+    
+    /**
+     * Creates a client that limits how many sends it has in flight, with a
+     * limit that adapts to the API's latency and errors. The new client
+     * shares this client's HTTP connections and suppression list.
+     * 
+     * <p>Sends beyond the limit wait for a slot if the limiter has a queue,
+     * or fail with a {@link ConcurrencyLimitException} without making a
+     * request.
+     * 
+     * @param limiter The limiter, which may be shared with other clients
+     * @return New LanefulClient instance
+     */
+    public LanefulClient withConcurrencyLimiter(ConcurrencyLimiter limiter) {
+        if (limiter == null) {
+            throw new IllegalArgumentException("Concurrency limiter cannot be null");
+        }
+        return new LanefulClient(this, suppressionList, suppressionMode, limiter);
     }
     
     /**
@@ -100,16 +174,200 @@ public class LanefulClient {
         return sendEmails(Arrays.asList(email));
     }
     
+    /**
+     * Sends a single email with per-call options.
+     * 
+     * @param email The email to send
+     * @param options Per-call settings such as a deadline
+     * @return API response data
+     * @throws ApiException When the API returns an error
+     * @throws HttpException When HTTP communication fails or the deadline passes
+     * @throws ValidationException When input validation fails
+     */
+    public Map<String, Object> sendEmail(Email email, SendOptions options)
+            throws ApiException, HttpException, ValidationException {
+        return sendEmails(Arrays.asList(email), options);
+    }
+    
     /**
      * Sends multiple emails.
      * 
+     * <p>With a suppression list, suppressed recipients are checked before
+     * the request is built. If they are dropped and no recipients remain, no
+     * request is made and an empty map is returned.
+     * 
      * @param emails List of emails to send
      * @return API response data
      * @throws ApiException When the API returns an error
      * @throws HttpException When HTTP communication fails
      * @throws ValidationException When input validation fails
+     * @throws SuppressedRecipientsException When recipients are suppressed and the mode is {@link SuppressionMode#REJECT}
      */
     public Map<String, Object> sendEmails(List<Email> emails) throws ApiException, HttpException, ValidationException {
+        return sendEmails(emails, SendOptions.DEFAULT);
+    }
+    
+    /**
+     * Sends multiple emails with per-call options.
+     * 
+     * <p>A deadline in the options bounds the whole call, from this method
+     * being called to the response being read, on top of the client's
+     * connect, read and write timeouts.
+     * 
+     * @param emails List of emails to send
+     * @param options Per-call settings such as a deadline
+     * @return API response data
+     * @throws ApiException When the API returns an error
+     * @throws HttpException When HTTP communication fails or the deadline passes
+     * @throws ConcurrencyLimitException When the client's concurrency limiter turns the send away
+     * @throws ValidationException When input validation fails
+     * @throws SuppressedRecipientsException When recipients are suppressed and the mode is {@link SuppressionMode#REJECT}
+     */
+    public Map<String, Object> sendEmails(List<Email> emails, SendOptions options)
+            throws ApiException, HttpException, ValidationException {
+        long start = System.nanoTime();
+        long budget = budgetNanos(options);
+        emails = prepare(emails);
+        if (emails.isEmpty()) {
+            return Map.of();
+        }
+        
+        // Keep off-heap attachment content alive until the request completes
+        List<OffHeapContent> retained = retainOffHeapContent(emails);
+        ConcurrencyLimiter.Permit permit = ConcurrencyLimiter.Permit.NONE;
+        try {
+            permit = awaitPermit(start, budget);
+            Call call = newCall(emails, start, budget);
+            try (Response response = call.execute()) {
+                permit.onResponse(response.code());
+                return handleResponse(response);
+            }
+        } catch (IOException e) {
+            reportFailure(permit, e, start, budget);
+            throw requestFailed(e, start, budget, false);
+        } finally {
+            permit.release();
+            retained.forEach(OffHeapContent::release);
+        }
+    }
+    
+    /**
+     * Starts sending emails and returns a handle for the result, which can
+     * also cancel the send.
+     * 
+     * <p>The request runs on the HTTP client's dispatcher. A deadline in the
+     * options includes time spent queued there behind other requests, and
+     * waiting for a slot from the client's concurrency limiter. Validation
+     * and suppression happen before this method returns; HTTP and API
+     * errors, including a missed deadline or a send turned away by the
+     * limiter, complete the handle's result exceptionally.
+     * 
+     * @param emails List of emails to send
+     * @param options Per-call settings such as a deadline
+     * @return A handle for the send in progress
+     * @throws ValidationException When input validation fails
+     * @throws SuppressedRecipientsException When recipients are suppressed and the mode is {@link SuppressionMode#REJECT}
+     */
+    public SendHandle sendEmailsAsync(List<Email> emails, SendOptions options) throws ValidationException {
+        long start = System.nanoTime();
+        long budget = budgetNanos(options);
+        emails = prepare(emails);
+        if (emails.isEmpty()) {
+            return SendHandle.completed(Map.of());
+        }
+        
+        List<OffHeapContent> retained = retainOffHeapContent(emails);
+        SendHandle handle = new SendHandle();
+        if (concurrencyLimiter == null) {
+            startCall(handle, emails, retained, ConcurrencyLimiter.Permit.NONE, start, budget);
+            return handle;
+        }
+        
+        CompletableFuture<ConcurrencyLimiter.Permit> permit = concurrencyLimiter.acquire(remainingNanos(start, budget));
+        handle.waitFor(permit);
+        List<Email> prepared = emails;
+        permit.whenComplete((acquired, error) -> {
+            if (error != null) {
+                retained.forEach(OffHeapContent::release);
+                handle.fail(permitFailed(error, start, budget));
+            } else {
+                startCall(handle, prepared, retained, acquired, start, budget);
+            }
+        });
+        return handle;
+    }
+    
+    /**
+     * Makes the HTTP call for an async send once it holds a concurrency
+     * slot, completing the handle when the call finishes.
+     */
+    private void startCall(SendHandle handle, List<Email> emails, List<OffHeapContent> retained,
+                           ConcurrencyLimiter.Permit permit, long start, long budget) {
+        Call call;
+        try {
+            call = newCall(emails, start, budget);
+        } catch (HttpException e) {
+            permit.release();
+            retained.forEach(OffHeapContent::release);
+            handle.fail(e);
+            return;
+        }
+        handle.attach(call);
+        call.enqueue(new Callback() {
+            @Override
+            public void onFailure(Call call, IOException e) {
+                if (handle.isCancelled()) {
+                    permit.release();
+                } else {
+                    reportFailure(permit, e, start, budget);
+                }
+                retained.forEach(OffHeapContent::release);
+                handle.fail(requestFailed(e, start, budget, handle.isCancelled()));
+            }
+            
+            @Override
+            public void onResponse(Call call, Response response) {
+                permit.onResponse(response.code());
+                try (response) {
+                    handle.complete(handleResponse(response));
+                } catch (ApiException | HttpException e) {
+                    handle.fail(e);
+                } catch (RuntimeException e) {
+                    // Otherwise lost on the dispatcher thread, leaving the handle incomplete
+                    handle.fail(new HttpException(
+                        "Failed to handle response: " + e.getMessage(), response.code(), e));
+                } finally {
+                    retained.forEach(OffHeapContent::release);
+                }
+            }
+        });
+        if (budget != Long.MAX_VALUE) {
+            // The call's own timeout only starts once the dispatcher runs it
+            long remaining = Math.max(0, remainingNanos(start, budget));
+            ScheduledFuture<?> deadline = deadlineTimer.schedule(() -> {
+                if (!handle.result().isDone()) {
+                    call.cancel();
+                }
+            }, remaining, TimeUnit.NANOSECONDS);
+            handle.result().whenComplete((response, error) -> deadline.cancel(false));
+        }
+    }
+    
+    /**
+     * Number of async sends whose deadline timer is still scheduled.
+     */
+    int pendingDeadlines() {
+        return deadlineTimer.getQueue().size();
+    }
+    
+    /**
+     * Validates the emails and applies the suppression list.
+     * 
+     * @param emails The emails to send
+     * @return The emails left to send, possibly none
+     * @throws ValidationException When input validation fails or suppressed recipients are rejected
+     */
+    private List<Email> prepare(List<Email> emails) throws ValidationException {
         if (emails == null || emails.isEmpty()) {
             throw new ValidationException("Emails list cannot be empty");
         }
@@ -121,26 +379,201 @@ public class LanefulClient {
             }
         }
         
+        if (suppressionList != null) {
+            emails = applySuppression(emails);
+        }
+        return emails;
+    }
+    
+    private static long budgetNanos(SendOptions options) throws ValidationException {
+        if (options == null) {
+            throw new ValidationException("Send options cannot be null");
+        }
+        return options.budgetNanos();
+    }
+    
+    private static long remainingNanos(long start, long budget) {
+        return budget == Long.MAX_VALUE ? Long.MAX_VALUE : budget - (System.nanoTime() - start);
+    }
+    
+    /**
+     * Waits for a slot from the concurrency limiter, if there is one.
+     * 
+     * @throws HttpException When the send is turned away, the deadline passes or the thread is interrupted
+     */
+    private ConcurrencyLimiter.Permit awaitPermit(long start, long budget) throws HttpException {
+        if (concurrencyLimiter == null) {
+            return ConcurrencyLimiter.Permit.NONE;
+        }
+        CompletableFuture<ConcurrencyLimiter.Permit> permit = concurrencyLimiter.acquire(remainingNanos(start, budget));
         try {
-            // Prepare request data
-            Map<String, Object> requestData = Map.of("emails", emails);
-            String jsonBody = objectMapper.writeValueAsString(requestData);
-            
-            // Build request
-            Request request = new Request.Builder()
-                    .url(buildUrl("/email/send"))
-                    .post(RequestBody.create(jsonBody, null))
-                    .headers(getDefaultHeaders())
-                    .build();
-            
-            // Execute request
-            try (Response response = httpClient.newCall(request).execute()) {
-                return handleResponse(response);
+            return permit.get();
+        } catch (InterruptedException e) {
+            if (!permit.cancel(false) && !permit.isCompletedExceptionally()) {
+                // Granted just as the wait was interrupted
+                permit.join().release();
             }
-            
-        } catch (IOException e) {
-            throw new HttpException("HTTP request failed: " + e.getMessage(), 0, e);
+            Thread.currentThread().interrupt();
+            throw new HttpException("Interrupted while waiting for a concurrency slot", 0, e);
+        } catch (ExecutionException e) {
+            throw permitFailed(e.getCause(), start, budget);
+        }
+    }
+    
+    /**
+     * Describes why no slot was granted: cancelled, out of time or turned
+     * away by the limiter.
+     */
+    private static HttpException permitFailed(Throwable cause, long start, long budget) {
+        if (cause instanceof CancellationException) {
+            return new HttpException("HTTP request was cancelled", 0, cause);
+        }
+        if (deadlinePassed(start, budget)) {
+            return deadlineExceeded(budget, null);
+        }
+        if (cause instanceof ConcurrencyLimitException limited) {
+            return limited;
+        }
+        return new HttpException("Failed to acquire a concurrency slot: " + cause.getMessage(), 0, cause);
+    }
+    
+    /**
+     * Builds the HTTP call for a send, limited to what is left of its
+     * deadline.
+     * 
+     * @throws HttpException When the deadline has already passed
+     */
+    private Call newCall(List<Email> emails, long start, long budget) throws HttpException {
+        long remaining = remainingNanos(start, budget);
+        if (remaining <= 0) {
+            throw deadlineExceeded(budget, null);
+        }
+        
+        // Prepare request data; serialized while the body is written
+        Map<String, Object> requestData = Map.of("emails", emails);
+        
+        // Build request
+        Request request = new Request.Builder()
+                .url(buildUrl("/email/send"))
+                .post(new JsonRequestBody(objectMapper.writer(), requestData))
+                .headers(getDefaultHeaders())
+                .build();
+        
+        Call call = httpClient.newCall(request);
+        if (remaining != Long.MAX_VALUE) {
+            call.timeout().timeout(remaining, TimeUnit.NANOSECONDS);
+        }
+        return call;
+    }
+    
+    /**
+     * Describes why a call failed: cancelled, out of time or an I/O error.
+     */
+    private static HttpException requestFailed(IOException e, long start, long budget, boolean cancelled) {
+        if (cancelled) {
+            return new HttpException("HTTP request was cancelled", 0, e);
         }
+        if (deadlinePassed(start, budget)) {
+            return deadlineExceeded(budget, e);
+        }
+        return new HttpException("HTTP request failed: " + e.getMessage(), 0, e);
+    }
+    
+    /**
+     * Passes a failed request to the concurrency limiter. The caller's own
+     * deadline running out and a body that could not be produced say nothing
+     * about the API's load, so they return the slot without counting as a drop.
+     */
+    private static void reportFailure(ConcurrencyLimiter.Permit permit, IOException e, long start, long budget) {
+        if (e instanceof JsonRequestBody.BodyWriteException || deadlinePassed(start, budget)) {
+            permit.release();
+        } else {
+            permit.onFailure();
+        }
+    }
+    
+    private static boolean deadlinePassed(long start, long budget) {
+        return budget != Long.MAX_VALUE && System.nanoTime() - start >= budget;
+    }
+    
+    private static HttpException deadlineExceeded(long budget, IOException cause) {
+        return new HttpException(
+            "HTTP request deadline of " + TimeUnit.NANOSECONDS.toMillis(Math.max(0, budget)) + " ms exceeded", 0, cause);
+    }
+    
+    /**
+     * Removes or rejects suppressed recipients.
+     * 
+     * @param emails The emails about to be sent
+     * @return The emails to send, which is the given list if nothing is suppressed
+     * @throws ValidationException When recipients are suppressed and the mode is {@link SuppressionMode#REJECT}
+     */
+    private List<Email> applySuppression(List<Email> emails) throws ValidationException {
+        List<String> suppressed = new ArrayList<>();
+        List<Email> result = new ArrayList<>(emails.size());
+        for (Email email : emails) {
+            int before = suppressed.size();
+            List<Address> to = unsuppressed(email.getTo(), suppressed);
+            List<Address> cc = unsuppressed(email.getCc(), suppressed);
+            List<Address> bcc = unsuppressed(email.getBcc(), suppressed);
+            if (suppressed.size() == before) {
+                result.add(email);
+            } else if (!to.isEmpty() || !cc.isEmpty() || !bcc.isEmpty()) {
+                result.add(email.withRecipients(to, cc, bcc));
+            }
+        }
+        if (suppressed.isEmpty()) {
+            return emails;
+        }
+        if (suppressionMode == SuppressionMode.REJECT) {
+            throw new SuppressedRecipientsException(
+                "Recipients are on the suppression list: " + String.join(", ", suppressed), suppressed);
+        }
+        return result;
+    }
+    
+    /**
+     * Returns the addresses that are not suppressed, adding the others to {@code suppressed}.
+     */
+    private List<Address> unsuppressed(List<Address> addresses, List<String> suppressed) {
+        List<Address> kept = addresses;
+        for (int i = 0; i < addresses.size(); i++) {
+            Address address = addresses.get(i);
+            if (suppressionList.contains(address.email())) {
+                if (kept == addresses) {
+                    kept = new ArrayList<>(addresses.subList(0, i));
+                }
+                suppressed.add(address.email());
+            } else if (kept != addresses) {
+                kept.add(address);
+            }
+        }
+        return kept;
+    }
+    
+    /**
+     * Takes a reference on every off-heap attachment in the given emails.
+     * 
+     * @param emails The emails about to be sent
+     * @return The retained content, to be released after the request
+     * @throws ValidationException When an attachment has already been released
+     */
+    private static List<OffHeapContent> retainOffHeapContent(List<Email> emails) throws ValidationException {
+        List<OffHeapContent> retained = new ArrayList<>();
+        for (Email email : emails) {
+            for (Attachment attachment : email.getAttachments()) {
+                if (attachment.source() instanceof OffHeapContent content) {
+                    try {
+                        retained.add(content.retain());
+                    } catch (IllegalStateException e) {
+                        retained.forEach(OffHeapContent::release);
+                        throw new ValidationException(
+                            "Attachment " + attachment.filename() + " has been released", e);
+                    }
+                }
+            }
+        }
+        return retained;
     }
     
     /**
@@ -240,8 +673,8 @@ public class LanefulClient {
         }
         
         // Enhanced error reporting
-        String errorMessage = (String) data.getOrDefault("error", "Unknown API error");
-        String details = (String) data.getOrDefault("details", "");
+        String errorMessage = errorField(data, "error", "Unknown API error");
+        String details = errorField(data, "details", "");
         String fullError = errorMessage + (details.isEmpty() ? "" : " - " + details);
         
         throw new ApiException(
@@ -250,4 +683,13 @@ public class LanefulClient {
             fullError
         );
     }
+    
+    /**
+     * Reads a field of an error body as text, tolerating a body that is
+     * JSON {@code null} or a field that is not a string.
+     */
+    private static String errorField(Map<String, Object> data, String name, String fallback) {
+        Object value = data == null ? null : data.get(name);
+        return value == null ? fallback : value.toString();
+    }
 }
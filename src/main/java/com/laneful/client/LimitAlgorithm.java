@@ -0,0 +1,27 @@
+package com.laneful.client;
+
+/**
+ * How a {@link ConcurrencyLimiter} adjusts its limit from completed
+ * requests.
+ */
+public enum LimitAlgorithm {
+
+    /**
+     * Additive increase, multiplicative decrease, as in TCP congestion
+     * control. The limit grows by about one per round trip while requests
+     * succeed and is cut by the backoff ratio when one is rate limited,
+     * fails with a server error or times out. Reacts only to errors, so
+     * latency may climb before the limit comes down.
+     */
+    AIMD,
+
+    /**
+     * Delay-based, after TCP Vegas. The lowest round-trip time seen is taken
+     * as the time a request takes with no queueing; the limit times the
+     * fraction by which a sample exceeds it estimates how many requests are
+     * queued inside the API. The limit grows while that estimate is small and
+     * shrinks as it grows, so it settles before latency inflates. Errors
+     * shrink it as well.
+     */
+    VEGAS
+}
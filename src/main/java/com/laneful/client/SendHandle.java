@@ -0,0 +1,139 @@
+package com.laneful.client;
+
+import com.laneful.exceptions.ApiException;
+import com.laneful.exceptions.HttpException;
+import com.laneful.exceptions.LanefulException;
+import com.laneful.exceptions.ValidationException;
+import okhttp3.Call;
+
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+
+/**
+ * A send in progress, returned by
+ * {@link LanefulClient#sendEmailsAsync(java.util.List, SendOptions)}.
+ *
+ * <p>The result completes with the API response, or exceptionally with the
+ * same exceptions the blocking methods throw. Cancelling aborts the HTTP
+ * call wherever it is, including while it waits for a concurrency slot or
+ * in the HTTP client's queue:
+ *
+ * <pre>{@code
+ * SendHandle handle = client.sendEmailsAsync(emails, options);
+ * userRequest.onAbort(handle::cancel);
+ * Map<String, Object> response = handle.await();
+ * }</pre>
+ */
+public final class SendHandle {
+
+    private final CompletableFuture<Map<String, Object>> result = new CompletableFuture<>();
+    private volatile Call call;
+    private volatile Future<?> waiting;
+    private volatile boolean cancelled;
+
+    SendHandle() {
+    }
+
+    static SendHandle completed(Map<String, Object> response) {
+        SendHandle handle = new SendHandle();
+        handle.result.complete(response);
+        return handle;
+    }
+
+    static SendHandle failed(LanefulException e) {
+        SendHandle handle = new SendHandle();
+        handle.result.completeExceptionally(e);
+        return handle;
+    }
+
+    /**
+     * Sets the HTTP call, cancelling it if the send was already cancelled.
+     */
+    void attach(Call call) {
+        this.call = call;
+        if (cancelled) {
+            call.cancel();
+        }
+    }
+
+    /**
+     * Sets what the send waits on before its call is made, such as a
+     * concurrency slot, cancelling it if the send was already cancelled.
+     */
+    void waitFor(Future<?> waiting) {
+        this.waiting = waiting;
+        if (cancelled) {
+            waiting.cancel(false);
+        }
+    }
+
+    void complete(Map<String, Object> response) {
+        result.complete(response);
+    }
+
+    void fail(LanefulException e) {
+        result.completeExceptionally(e);
+    }
+
+    /**
+     * The API response data, completing exceptionally with an
+     * {@link ApiException} or {@link HttpException}.
+     */
+    public CompletableFuture<Map<String, Object>> result() {
+        return result;
+    }
+
+    /**
+     * Waits for the send to finish. If the waiting thread is interrupted,
+     * the send is cancelled.
+     *
+     * @return API response data
+     * @throws ApiException When the API returns an error
+     * @throws HttpException When HTTP communication fails, the deadline passes or the send was cancelled
+     * @throws ValidationException When input validation fails
+     */
+    public Map<String, Object> await() throws ApiException, HttpException, ValidationException {
+        try {
+            return result.get();
+        } catch (InterruptedException e) {
+            cancel();
+            Thread.currentThread().interrupt();
+            throw new HttpException("Interrupted while waiting for the request", 0, e);
+        } catch (ExecutionException e) {
+            switch (e.getCause()) {
+                case ApiException api -> throw api;
+                case HttpException http -> throw http;
+                case ValidationException validation -> throw validation;
+                case RuntimeException runtime -> throw runtime;
+                case Error error -> throw error;
+                default -> throw new HttpException("HTTP request failed: " + e.getCause().getMessage(), 0, e.getCause());
+            }
+        }
+    }
+
+    /**
+     * Cancels the send. A request already received by the API may still be
+     * processed.
+     *
+     * @return true if the send had not finished yet
+     */
+    public boolean cancel() {
+        if (result.isDone()) {
+            return false;
+        }
+        cancelled = true;
+        Call current = call;
+        if (current != null) {
+            current.cancel();
+        } else if (waiting != null) {
+            waiting.cancel(false);
+        }
+        return true;
+    }
+
+    public boolean isCancelled() {
+        return cancelled;
+    }
+}
@@ -0,0 +1,108 @@
+package com.laneful.client;
+
+import java.time.Duration;
+import java.time.Instant;
+
+/**
+ * Per-call settings for a send, such as a deadline tighter than the client's
+ * timeout.
+ *
+ * <p>A deadline covers the whole call: time spent waiting for a connection
+ * or in the HTTP client's queue, writing the request, any retries and
+ * redirects the HTTP client makes, and reading the response. The client's
+ * connect, read and write timeouts still apply to each step.
+ *
+ * <pre>{@code
+ * SendOptions passwordResets = new SendOptions.Builder().timeout(Duration.ofSeconds(2)).build();
+ * client.sendEmail(resetEmail, passwordResets);
+ * }</pre>
+ *
+ * <p>Options are immutable and can be shared between calls; a timeout is
+ * measured from the start of each call.
+ */
+public final class SendOptions {
+
+    /**
+     * Options with no deadline beyond the client's own timeouts.
+     */
+    public static final SendOptions DEFAULT = new Builder().build();
+
+    private final Duration timeout;
+    private final Instant deadline;
+
+    private SendOptions(Builder builder) {
+        this.timeout = builder.timeout;
+        this.deadline = builder.deadline;
+    }
+
+    /** Time allowed for each call, or null. */
+    public Duration getTimeout() {
+        return timeout;
+    }
+
+    /** Time by which each call must complete, or null. */
+    public Instant getDeadline() {
+        return deadline;
+    }
+
+    /**
+     * Time left for a call starting now.
+     *
+     * @return Nanoseconds, zero or less if the deadline has passed, or {@link Long#MAX_VALUE} if there is none
+     */
+    long budgetNanos() {
+        Duration budget = timeout;
+        if (deadline != null) {
+            Duration untilDeadline = Duration.between(Instant.now(), deadline);
+            if (budget == null || untilDeadline.compareTo(budget) < 0) {
+                budget = untilDeadline;
+            }
+        }
+        if (budget == null) {
+            return Long.MAX_VALUE;
+        }
+        try {
+            return budget.toNanos();
+        } catch (ArithmeticException e) {
+            // Centuries either way
+            return budget.isNegative() ? 0 : Long.MAX_VALUE;
+        }
+    }
+
+    /**
+     * Builder for creating SendOptions instances.
+     */
+    public static class Builder {
+        private Duration timeout;
+        private Instant deadline;
+
+        /**
+         * Sets how long each call may take, measured from when the send
+         * method is called.
+         */
+        public Builder timeout(Duration timeout) {
+            if (timeout == null || timeout.isNegative() || timeout.isZero()) {
+                throw new IllegalArgumentException("Timeout must be positive");
+            }
+            this.timeout = timeout;
+            return this;
+        }
+
+        /**
+         * Sets a point in time by which each call must complete, for example
+         * one passed down from an incoming request. If a timeout is also set,
+         * whichever comes first applies.
+         */
+        public Builder deadline(Instant deadline) {
+            if (deadline == null) {
+                throw new IllegalArgumentException("Deadline cannot be null");
+            }
+            this.deadline = deadline;
+            return this;
+        }
+
+        public SendOptions build() {
+            return new SendOptions(this);
+        }
+    }
+}
@@ -0,0 +1,23 @@
+package com.laneful.exceptions;
+
+/**
+ * Exception thrown when a send is turned away by the client's concurrency
+ * limiter, because the limit is reached and no wait is allowed, the wait
+ * queue is full, or the wait timed out. No request was made.
+ */
+public class ConcurrencyLimitException extends HttpException {
+
+    private final int limit;
+
+    public ConcurrencyLimitException(String message, int limit) {
+        super(message, 0);
+        this.limit = limit;
+    }
+
+    /**
+     * The concurrency limit when the send was turned away.
+     */
+    public int getLimit() {
+        return limit;
+    }
+}
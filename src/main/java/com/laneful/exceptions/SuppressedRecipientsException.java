@@ -0,0 +1,24 @@
+package com.laneful.exceptions;
+
+import java.util.List;
+
+/**
+ * Exception thrown when emails are addressed to suppressed recipients and the
+ * client is set to reject them.
+ */
+public class SuppressedRecipientsException extends ValidationException {
+    
+    private final List<String> recipients;
+    
+    public SuppressedRecipientsException(String message, List<String> recipients) {
+        super(message);
+        this.recipients = List.copyOf(recipients);
+    }
+    
+    /**
+     * The suppressed addresses, in the order they were found.
+     */
+    public List<String> getRecipients() {
+        return recipients;
+    }
+}
@@ -1,5 +1,6 @@
 package com.laneful.models;
 
+import com.fasterxml.jackson.annotation.JsonCreator;
 import com.fasterxml.jackson.annotation.JsonInclude;
 import com.fasterxml.jackson.annotation.JsonProperty;
 import java.util.Objects;
@@ -7,42 +8,63 @@ import java.util.Objects;
 /**
  * Represents an email address with an optional name.
  */
-public record Address(
-    @JsonProperty("email") String email,
-    @JsonProperty("name") String name
-) {
-    
+public final class Address {
+
+    @JsonProperty("email")
+    private final String email;
+
+    @JsonProperty("name")
+    private final String name;
+
     /**
      * Creates a new Address with email and optional name.
-     * 
+     *
      * @param email The email address (required)
      * @param name The display name (optional)
      * @throws IllegalArgumentException if email is null or invalid
      */
-    public Address {
-        if (email == null || email.trim().isEmpty()) {
-            throw new IllegalArgumentException("Email address cannot be empty");
-        }
-        
-        // Basic email validation
-        if (!email.matches("^[A-Za-z0-9+_.-]+@[A-Za-z0-9.-]+\\.[A-Za-z]{2,}$")) {
-            throw new IllegalArgumentException("Invalid email address format: " + email);
-        }
+    @JsonCreator
+    public Address(@JsonProperty("email") String email, @JsonProperty("name") String name) {
+        this(email, name, ValidationMode.STRICT);
     }
-    
+
     /**
      * Creates a new Address with just an email address.
-     * 
+     *
      * @param email The email address (required)
      * @throws IllegalArgumentException if email is null or invalid
      */
     public Address(String email) {
         this(email, null);
     }
-    
+
+    private Address(String email, String name, ValidationMode mode) {
+        if (email == null || email.isBlank()) {
+            throw new IllegalArgumentException("Email address cannot be empty");
+        }
+        if (!AddressValidator.isValid(email, mode)) {
+            throw new IllegalArgumentException("Invalid email address format: " + email);
+        }
+        this.email = email;
+        this.name = name;
+    }
+
+    /**
+     * Creates an Address, checking the email with the given validation mode.
+     *
+     * @param email The email address (required)
+     * @param name The display name (optional)
+     * @param mode How strictly to check the email address
+     * @return New Address instance
+     * @throws IllegalArgumentException if email is empty or invalid in that mode
+     */
+    public static Address of(String email, String name, ValidationMode mode) {
+        return new Address(email, name, mode);
+    }
+
     /**
      * Creates an Address from a map representation.
-     * 
+     *
      * @param data Map containing email and optional name
      * @return New Address instance
      * @throws IllegalArgumentException if email is null or invalid
@@ -52,7 +74,23 @@ public record Address(
         String name = (String) data.get("name");
         return new Address(email, name);
     }
-    
+
+    public String email() { return email; }
+    public String name() { return name; }
+
+    @Override
+    public boolean equals(Object obj) {
+        if (this == obj) return true;
+        if (obj == null || getClass() != obj.getClass()) return false;
+        Address address = (Address) obj;
+        return email.equals(address.email) && Objects.equals(name, address.name);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(email, name);
+    }
+
     @Override
     public String toString() {
         if (name != null && !name.trim().isEmpty()) {
@@ -0,0 +1,147 @@
+package com.laneful.models;
+
+/**
+ * Allocation-free email address validation.
+ *
+ * <p>The checks scan the address once without regular expressions, substrings
+ * or temporary objects, so they are cheap enough to run for every recipient of
+ * a large batch.
+ */
+public final class AddressValidator {
+
+    private static final int MAX_ADDRESS_LENGTH = 254;
+    private static final int MAX_LOCAL_LENGTH = 64;
+    private static final int MAX_LABEL_LENGTH = 63;
+
+    // RFC 5322 atext characters allowed in a dot-atom local part
+    private static final boolean[] ATEXT = new boolean[128];
+
+    static {
+        for (char c = 'a'; c <= 'z'; c++) ATEXT[c] = true;
+        for (char c = 'A'; c <= 'Z'; c++) ATEXT[c] = true;
+        for (char c = '0'; c <= '9'; c++) ATEXT[c] = true;
+        for (char c : "!#$%&'*+-/=?^_`{|}~".toCharArray()) ATEXT[c] = true;
+    }
+
+    private AddressValidator() {
+    }
+
+    /**
+     * Checks an email address using the given mode.
+     *
+     * @param email The address to check
+     * @param mode The validation mode
+     * @return true if the address is acceptable in that mode
+     */
+    public static boolean isValid(String email, ValidationMode mode) {
+        return switch (mode) {
+            case STRICT -> isValidStrict(email);
+            case LENIENT -> isValidLenient(email);
+            case TRUSTED -> email != null;
+        };
+    }
+
+    /**
+     * Checks an address against pragmatic RFC 5321/5322 rules.
+     *
+     * <p>The local part is a dot-atom of at most 64 characters. The domain is a
+     * sequence of at least two hostname labels of 1-63 letters, digits or
+     * hyphens that do not start or end with a hyphen, and the last label is at
+     * least two letters.
+     *
+     * @param email The address to check
+     * @return true if the address is valid
+     */
+    public static boolean isValidStrict(String email) {
+        if (email == null) {
+            return false;
+        }
+        int length = email.length();
+        if (length == 0 || length > MAX_ADDRESS_LENGTH) {
+            return false;
+        }
+
+        // Local part: atext runs separated by single dots
+        int i = 0;
+        char previous = '.';
+        for (; i < length; i++) {
+            char c = email.charAt(i);
+            if (c == '@') {
+                break;
+            }
+            if (c == '.') {
+                if (previous == '.') {
+                    return false;
+                }
+            } else if (c >= 128 || !ATEXT[c]) {
+                return false;
+            }
+            previous = c;
+        }
+        if (i == 0 || i > MAX_LOCAL_LENGTH || i == length || previous == '.') {
+            return false;
+        }
+
+        // Domain: hostname labels, last one alphabetic
+        int labels = 0;
+        int labelStart = i + 1;
+        boolean alphabetic = true;
+        for (int j = labelStart; j <= length; j++) {
+            char c = j < length ? email.charAt(j) : '.';
+            if (c == '.') {
+                int labelLength = j - labelStart;
+                if (labelLength == 0 || labelLength > MAX_LABEL_LENGTH
+                        || email.charAt(labelStart) == '-' || email.charAt(j - 1) == '-') {
+                    return false;
+                }
+                labels++;
+                if (j == length) {
+                    return labels >= 2 && alphabetic && labelLength >= 2;
+                }
+                labelStart = j + 1;
+                alphabetic = true;
+            } else if ((c >= 'a' && c <= 'z') || (c >= 'A' && c <= 'Z')) {
+                // letter
+            } else if ((c >= '0' && c <= '9') || c == '-') {
+                alphabetic = false;
+            } else {
+                return false;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Checks only the overall shape of an address.
+     *
+     * <p>Accepts any address with exactly one '@', a non-empty local part and a
+     * domain containing a dot that is neither its first nor last character, as
+     * long as it has no whitespace or control characters.
+     *
+     * @param email The address to check
+     * @return true if the address is plausible
+     */
+    public static boolean isValidLenient(String email) {
+        if (email == null) {
+            return false;
+        }
+        int length = email.length();
+        int at = -1;
+        int lastDot = -1;
+        for (int i = 0; i < length; i++) {
+            char c = email.charAt(i);
+            if (c <= ' ' || c == 0x7F) {
+                return false;
+            }
+            if (c == '@') {
+                if (at >= 0) {
+                    return false;
+                }
+                at = i;
+            } else if (c == '.' && at >= 0) {
+                lastDot = i;
+            }
+        }
+        return at > 0 && lastDot > at + 1 && lastDot < length - 1;
+    }
+}
@@ -1,8 +1,17 @@
 package com.laneful.models;
 
+import com.fasterxml.jackson.annotation.JsonCreator;
 import com.fasterxml.jackson.annotation.JsonProperty;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.SerializerProvider;
+import com.fasterxml.jackson.databind.annotation.JsonSerialize;
+import com.fasterxml.jackson.databind.ser.std.StdSerializer;
 import java.io.File;
 import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.util.Base64;
@@ -10,75 +19,212 @@ import java.util.Objects;
 
 /**
  * Represents a file attachment for an email.
+ *
+ * <p>An attachment either holds its Base64-encoded content in memory or is
+ * backed by an {@link AttachmentSource}. Source-backed attachments keep only a
+ * reference to their data and are encoded on the fly while the request body is
+ * written, so large files never have to be held on the heap.
  */
-public record Attachment(
-    @JsonProperty("file_name") String filename,
-    @JsonProperty("content_type") String contentType,
-    @JsonProperty("content") String content
-) {
-    
+@JsonSerialize(using = Attachment.Serializer.class)
+public final class Attachment {
+
+    private static final String DEFAULT_CONTENT_TYPE = "application/octet-stream";
+
+    private final String filename;
+    private final String contentType;
+    private final String content;
+    private final AttachmentSource source;
+
+    /**
+     * Creates an attachment from raw data.
+     *
+     * @param filename The filename
+     * @param contentType The MIME type
+     * @param content Base64-encoded content
+     */
+    @JsonCreator
+    public Attachment(
+        @JsonProperty("file_name") String filename,
+        @JsonProperty("content_type") String contentType,
+        @JsonProperty("content") String content
+    ) {
+        this(filename, contentType, content, null);
+        if (content == null || content.trim().isEmpty()) {
+            throw new IllegalArgumentException("Content cannot be empty");
+        }
+    }
+
+    private Attachment(String filename, String contentType, String content, AttachmentSource source) {
+        if (filename == null || filename.trim().isEmpty()) {
+            throw new IllegalArgumentException("Filename cannot be empty");
+        }
+        if (contentType == null || contentType.trim().isEmpty()) {
+            throw new IllegalArgumentException("Content type cannot be empty");
+        }
+        this.filename = filename;
+        this.contentType = contentType;
+        this.content = content;
+        this.source = source;
+    }
+
     /**
      * Creates an attachment from a file.
-     * 
+     *
      * @param file The file to attach
      * @throws IOException if the file cannot be read
      */
     public static Attachment fromFile(File file) throws IOException {
         return fromFile(file.toPath());
     }
-    
+
     /**
      * Creates an attachment from a file path.
-     * 
+     *
      * @param path The path to the file
      * @throws IOException if the file cannot be read
      */
     public static Attachment fromFile(Path path) throws IOException {
-        String filename = path.getFileName().toString();
-        String contentType = Files.probeContentType(path);
-        if (contentType == null) {
-            contentType = "application/octet-stream";
-        }
-        
         byte[] bytes = Files.readAllBytes(path);
         String content = Base64.getEncoder().encodeToString(bytes);
-        
-        return new Attachment(filename, contentType, content);
+
+        return new Attachment(path.getFileName().toString(), probeContentType(path), content);
     }
-    
+
     /**
-     * Creates an attachment from raw data.
-     * 
+     * Creates an attachment that streams the file from disk when the email is sent.
+     *
+     * <p>Only the path is retained; the file is read and Base64-encoded directly
+     * into the request body, so heap use does not grow with the file size. The
+     * file must still exist and be readable when the email is sent.
+     *
+     * @param path The path to the file
+     * @return New Attachment instance
+     * @throws IOException if the file is not a readable regular file
+     */
+    public static Attachment streamFromFile(Path path) throws IOException {
+        if (!Files.isRegularFile(path) || !Files.isReadable(path)) {
+            throw new IOException("File is not readable: " + path);
+        }
+        return new Attachment(
+            path.getFileName().toString(), probeContentType(path), null, new FileSource(path)
+        );
+    }
+
+    /**
+     * Creates an attachment whose content is supplied by the given source.
+     *
      * @param filename The filename
      * @param contentType The MIME type
-     * @param content Base64-encoded content
+     * @param source Supplier of the raw content, or of Base64 text if the source is encoded
+     * @return New Attachment instance
+     * @throws IllegalArgumentException if any argument is missing
      */
-    public Attachment {
-        if (filename == null || filename.trim().isEmpty()) {
-            throw new IllegalArgumentException("Filename cannot be empty");
-        }
-        if (contentType == null || contentType.trim().isEmpty()) {
-            throw new IllegalArgumentException("Content type cannot be empty");
-        }
-        if (content == null || content.trim().isEmpty()) {
-            throw new IllegalArgumentException("Content cannot be empty");
+    public static Attachment fromSource(String filename, String contentType, AttachmentSource source) {
+        if (source == null) {
+            throw new IllegalArgumentException("Attachment source cannot be null");
         }
+        return new Attachment(filename, contentType, null, source);
     }
-    
+
     /**
      * Creates an attachment from a map representation.
-     * 
+     *
      * @param data Map containing attachment data
      * @return New Attachment instance
      * @throws IllegalArgumentException if the data is invalid
      */
     public static Attachment fromMap(java.util.Map<String, Object> data) throws IllegalArgumentException {
-        String filename = (String) data.get("filename");
+        // Accept the serialized "file_name" key as well as the legacy "filename"
+        String filename = (String) data.getOrDefault("file_name", data.get("filename"));
         String contentType = (String) data.get("content_type");
         String content = (String) data.get("content");
         return new Attachment(filename, contentType, content);
     }
-    
+
+    private static String probeContentType(Path path) throws IOException {
+        String contentType = Files.probeContentType(path);
+        return contentType != null ? contentType : DEFAULT_CONTENT_TYPE;
+    }
+
+    public String filename() { return filename; }
+    public String contentType() { return contentType; }
+
+    /**
+     * Returns the Base64-encoded content.
+     *
+     * <p>For source-backed attachments this reads and encodes the whole source,
+     * so it should be avoided on hot paths; serialization never calls it.
+     *
+     * @return Base64-encoded content
+     * @throws UncheckedIOException if the source cannot be read
+     */
+    public String content() {
+        if (source == null) {
+            return content;
+        }
+        try (InputStream in = source.openStream()) {
+            byte[] bytes = in.readAllBytes();
+            return source.isEncoded()
+                ? new String(bytes, StandardCharsets.US_ASCII)
+                : Base64.getEncoder().encodeToString(bytes);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to read attachment " + filename, e);
+        }
+    }
+
+    /**
+     * Returns the source backing this attachment.
+     *
+     * @return The source, or null if the content is held in memory
+     */
+    public AttachmentSource source() {
+        return source;
+    }
+
+    /**
+     * Returns whether the content is streamed from a source at send time.
+     *
+     * @return true if the attachment is source-backed
+     */
+    public boolean isStreamed() {
+        return source != null;
+    }
+
+    /**
+     * Writes the Base64-encoded content as a JSON string value.
+     */
+    void writeContent(JsonGenerator gen) throws IOException {
+        if (source == null) {
+            gen.writeString(content);
+            return;
+        }
+        try (InputStream in = source.openStream()) {
+            if (source.isEncoded()) {
+                // Copies the Base64 text through the generator without building a String
+                gen.writeString(new InputStreamReader(in, StandardCharsets.US_ASCII), -1);
+            } else {
+                // Encodes chunk by chunk into the generator's buffer
+                gen.writeBinary(in, -1);
+            }
+        }
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+        if (this == obj) return true;
+        if (obj == null || getClass() != obj.getClass()) return false;
+        Attachment that = (Attachment) obj;
+        return Objects.equals(filename, that.filename) &&
+               Objects.equals(contentType, that.contentType) &&
+               Objects.equals(content, that.content) &&
+               Objects.equals(source, that.source);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(filename, contentType, content, source);
+    }
+
     @Override
     public String toString() {
         return """
@@ -89,7 +235,38 @@ public record Attachment(
             }""".formatted(
                 filename,
                 contentType,
-                content != null ? content.length() : 0
+                content != null ? content.length() : -1
             );
     }
+
+    /**
+     * Attachment source reading from a file on each open.
+     */
+    private record FileSource(Path path) implements AttachmentSource {
+        @Override
+        public InputStream openStream() throws IOException {
+            return Files.newInputStream(path);
+        }
+    }
+
+    /**
+     * Serializes attachments without materializing streamed content.
+     */
+    static final class Serializer extends StdSerializer<Attachment> {
+
+        Serializer() {
+            super(Attachment.class);
+        }
+
+        @Override
+        public void serialize(Attachment value, JsonGenerator gen, SerializerProvider provider)
+                throws IOException {
+            gen.writeStartObject();
+            gen.writeStringField("file_name", value.filename);
+            gen.writeStringField("content_type", value.contentType);
+            gen.writeFieldName("content");
+            value.writeContent(gen);
+            gen.writeEndObject();
+        }
+    }
 }
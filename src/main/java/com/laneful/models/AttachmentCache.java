@@ -0,0 +1,155 @@
+package com.laneful.models;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Shares encoded attachments between emails.
+ *
+ * <p>Files are keyed by path, modification time and size, so a file is read and
+ * encoded once until it changes on disk. In-memory attachments can be interned
+ * by content hash so equal attachments resolve to a single instance. The cache is
+ * bounded by the total length of the encoded content it holds and evicts the
+ * least recently used entries first. All methods are thread-safe.
+ */
+public final class AttachmentCache {
+
+    private final long maxBytes;
+    private final LinkedHashMap<Object, Attachment> entries = new LinkedHashMap<>(16, 0.75f, true);
+    private long sizeBytes;
+    private long hits;
+    private long misses;
+    private long evictions;
+
+    /**
+     * Creates a cache holding at most the given amount of encoded content.
+     *
+     * @param maxBytes Upper bound on the total encoded content length
+     * @throws IllegalArgumentException if maxBytes is not positive
+     */
+    public AttachmentCache(long maxBytes) {
+        if (maxBytes <= 0) {
+            throw new IllegalArgumentException("Cache size must be positive");
+        }
+        this.maxBytes = maxBytes;
+    }
+
+    /**
+     * Returns a shared attachment for the file, reading it only on a miss.
+     *
+     * @param path The path to the file
+     * @return Cached or newly encoded attachment
+     * @throws IOException if the file cannot be read
+     */
+    public Attachment fromFile(Path path) throws IOException {
+        Path absolute = path.toAbsolutePath().normalize();
+        BasicFileAttributes attributes = Files.readAttributes(absolute, BasicFileAttributes.class);
+        FileKey key = new FileKey(absolute, attributes.lastModifiedTime().toMillis(), attributes.size());
+
+        Attachment cached = lookup(key);
+        if (cached != null) {
+            return cached;
+        }
+        // Read outside the lock; a concurrent miss on the same file keeps the first result
+        return store(key, Attachment.fromFile(absolute));
+    }
+
+    /**
+     * Returns the shared instance equal to the given attachment.
+     *
+     * <p>Streamed attachments hold no content and are returned unchanged.
+     *
+     * @param attachment The attachment to intern
+     * @return The cached instance, or the argument if it was not cached yet
+     */
+    public Attachment intern(Attachment attachment) {
+        if (attachment.isStreamed()) {
+            return attachment;
+        }
+        ContentKey key = new ContentKey(attachment.filename(), attachment.contentType(), hash(attachment.content()));
+        Attachment cached = lookup(key);
+        return cached != null ? cached : store(key, attachment);
+    }
+
+    /**
+     * Removes all entries. Statistics are kept.
+     */
+    public synchronized void clear() {
+        entries.clear();
+        sizeBytes = 0;
+    }
+
+    /**
+     * Returns a snapshot of the cache statistics.
+     *
+     * @return Current statistics
+     */
+    public synchronized Stats stats() {
+        return new Stats(hits, misses, evictions, entries.size(), sizeBytes);
+    }
+
+    private synchronized Attachment lookup(Object key) {
+        Attachment cached = entries.get(key);
+        if (cached != null) {
+            hits++;
+        } else {
+            misses++;
+        }
+        return cached;
+    }
+
+    private synchronized Attachment store(Object key, Attachment attachment) {
+        Attachment existing = entries.get(key);
+        if (existing != null) {
+            return existing;
+        }
+        long weight = attachment.content().length();
+        if (weight > maxBytes) {
+            return attachment;
+        }
+        entries.put(key, attachment);
+        sizeBytes += weight;
+
+        Iterator<Map.Entry<Object, Attachment>> it = entries.entrySet().iterator();
+        while (sizeBytes > maxBytes && it.hasNext()) {
+            Attachment eldest = it.next().getValue();
+            it.remove();
+            sizeBytes -= eldest.content().length();
+            evictions++;
+        }
+        return attachment;
+    }
+
+    private static String hash(String content) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            return HexFormat.of().formatHex(digest.digest(content.getBytes(StandardCharsets.ISO_8859_1)));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+
+    private record FileKey(Path path, long lastModified, long size) {}
+
+    private record ContentKey(String filename, String contentType, String sha256) {}
+
+    /**
+     * Cache statistics.
+     *
+     * @param hits Number of lookups served from the cache
+     * @param misses Number of lookups that had to read or store content
+     * @param evictions Number of entries evicted to stay within the size bound
+     * @param entries Number of entries currently cached
+     * @param sizeBytes Total encoded content length currently cached
+     */
+    public record Stats(long hits, long misses, long evictions, int entries, long sizeBytes) {}
+}
@@ -0,0 +1,35 @@
+package com.laneful.models;
+
+import java.io.IOException;
+import java.io.InputStream;
+
+/**
+ * Supplies the content of a streamed attachment.
+ *
+ * <p>A source is opened each time the attachment is serialized, so it must be
+ * able to produce the same content more than once (for example when the HTTP
+ * client retries a request).
+ */
+@FunctionalInterface
+public interface AttachmentSource {
+
+    /**
+     * Opens a new stream over the attachment content.
+     *
+     * @return A fresh input stream; the caller closes it
+     * @throws IOException if the content cannot be read
+     */
+    InputStream openStream() throws IOException;
+
+    /**
+     * Returns whether the stream yields Base64 text rather than raw bytes.
+     *
+     * <p>Encoded sources are copied into the request body as-is instead of being
+     * encoded again.
+     *
+     * @return true if the content is already Base64-encoded
+     */
+    default boolean isEncoded() {
+        return false;
+    }
+}
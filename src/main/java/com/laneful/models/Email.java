@@ -1,9 +1,18 @@
 package com.laneful.models;
 
+import com.fasterxml.jackson.annotation.JsonCreator;
 import com.fasterxml.jackson.annotation.JsonProperty;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.JsonMappingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
 import com.laneful.exceptions.ValidationException;
+import java.io.IOException;
+import java.io.InputStream;
 import java.time.Instant;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
 import java.util.Map;
 import java.util.Objects;
@@ -13,6 +22,11 @@ import java.util.Objects;
  */
 public class Email {
     
+    // Unknown fields are ignored, matching fromMap
+    private static final ObjectReader JSON_READER = new ObjectMapper()
+            .readerFor(Email.class)
+            .without(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES);
+    
     @JsonProperty("from")
     private final Address from;
     
@@ -76,15 +90,16 @@ public class Email {
     
     private Email(Builder builder) throws ValidationException {
         this.from = builder.from;
-        this.to = new ArrayList<>(builder.to);
-        this.cc = new ArrayList<>(builder.cc);
-        this.bcc = new ArrayList<>(builder.bcc);
+        // List.copyOf returns lists shared from a derived builder without copying
+        this.to = immutableList(builder.to, "Recipient");
+        this.cc = immutableList(builder.cc, "CC recipient");
+        this.bcc = immutableList(builder.bcc, "BCC recipient");
         this.subject = builder.subject;
         this.textContent = builder.textContent;
         this.htmlContent = builder.htmlContent;
         this.templateId = builder.templateId;
         this.templateData = builder.templateData;
-        this.attachments = new ArrayList<>(builder.attachments);
+        this.attachments = immutableList(builder.attachments, "Attachment");
         this.headers = builder.headers;
         this.replyTo = builder.replyTo;
         this.sendTime = builder.sendTime;
@@ -92,7 +107,106 @@ public class Email {
         this.tag = builder.tag;
         this.tracking = builder.tracking;
         
-        validate();
+        validate(builder.requireFutureSendTime);
+    }
+    
+    private static <T> List<T> immutableList(List<T> list, String description) throws ValidationException {
+        // Immutable lists reject contains(null), so check element by element
+        for (T item : list) {
+            if (item == null) {
+                throw new ValidationException(description + " cannot be null");
+            }
+        }
+        return List.copyOf(list);
+    }
+    
+    /**
+     * Creates a builder initialized with this email's fields.
+     * 
+     * <p>Lists and maps are shared with this email rather than copied; a list is
+     * only copied when something is added to it through the builder.
+     * 
+     * @return New Builder instance
+     */
+    public Builder toBuilder() {
+        Builder builder = new Builder();
+        builder.from = from;
+        builder.to = to;
+        builder.cc = cc;
+        builder.bcc = bcc;
+        builder.subject = subject;
+        builder.textContent = textContent;
+        builder.htmlContent = htmlContent;
+        builder.templateId = templateId;
+        builder.templateData = templateData;
+        builder.attachments = attachments;
+        builder.headers = headers;
+        builder.replyTo = replyTo;
+        builder.sendTime = sendTime;
+        builder.webhookData = webhookData;
+        builder.tag = tag;
+        builder.tracking = tracking;
+        return builder;
+    }
+    
+    /**
+     * Creates a copy of this email with different "to" recipients.
+     * 
+     * <p>All other fields are shared with this email.
+     * 
+     * @param to The new recipients
+     * @return New Email instance
+     * @throws ValidationException if the resulting email is invalid
+     */
+    public Email withTo(List<Address> to) throws ValidationException {
+        Builder builder = toBuilder();
+        builder.to = to;
+        return builder.build();
+    }
+    
+    /**
+     * Creates a copy of this email with different "to" recipients.
+     * 
+     * @param to The new recipients
+     * @return New Email instance
+     * @throws ValidationException if the resulting email is invalid
+     */
+    public Email withTo(Address... to) throws ValidationException {
+        return withTo(Arrays.asList(to));
+    }
+    
+    /**
+     * Creates a copy of this email with different "to", "cc" and "bcc" recipients.
+     * 
+     * <p>All other fields are shared with this email.
+     * 
+     * @param to The new "to" recipients
+     * @param cc The new "cc" recipients
+     * @param bcc The new "bcc" recipients
+     * @return New Email instance
+     * @throws ValidationException if the resulting email is invalid
+     */
+    public Email withRecipients(List<Address> to, List<Address> cc, List<Address> bcc) throws ValidationException {
+        Builder builder = toBuilder();
+        builder.to = to;
+        builder.cc = cc;
+        builder.bcc = bcc;
+        return builder.build();
+    }
+    
+    /**
+     * Creates a copy of this email with different template data.
+     * 
+     * <p>All other fields are shared with this email.
+     * 
+     * @param templateData The new template data
+     * @return New Email instance
+     * @throws ValidationException if the resulting email is invalid
+     */
+    public Email withTemplateData(Map<String, Object> templateData) throws ValidationException {
+        Builder builder = toBuilder();
+        builder.templateData = templateData;
+        return builder.build();
     }
     
     /**
@@ -202,7 +316,8 @@ public class Email {
         }
         
         if (data.containsKey("send_time")) {
-            builder.sendTime((Long) data.get("send_time"));
+            Number sendTime = (Number) data.get("send_time");
+            builder.sendTime(sendTime != null ? sendTime.longValue() : null);
         }
         
         if (data.containsKey("webhook_data")) {
@@ -224,7 +339,102 @@ public class Email {
         return builder.build();
     }
     
-    private void validate() throws ValidationException {
+    /**
+     * Reads an Email directly from its JSON representation.
+     * 
+     * <p>Nested addresses, attachments and tracking settings are bound without an
+     * intermediate map, and validation matches {@link #fromMap(Map)}.
+     * 
+     * @param json UTF-8 encoded JSON
+     * @return New Email instance
+     * @throws ValidationException if the JSON is malformed or the email is invalid
+     */
+    public static Email fromJson(byte[] json) throws ValidationException {
+        try {
+            return JSON_READER.readValue(json);
+        } catch (JsonProcessingException e) {
+            throw toValidationException(e);
+        } catch (IOException e) {
+            throw new ValidationException("Failed to read email JSON: " + e.getMessage(), e);
+        }
+    }
+    
+    /**
+     * Reads an Email directly from a JSON stream.
+     * 
+     * @param json Stream of UTF-8 encoded JSON; not closed by this method
+     * @return New Email instance
+     * @throws ValidationException if the JSON is malformed or the email is invalid
+     * @throws IOException if the stream cannot be read
+     */
+    public static Email fromJson(InputStream json) throws ValidationException, IOException {
+        try {
+            return JSON_READER.readValue(json);
+        } catch (JsonProcessingException e) {
+            throw toValidationException(e);
+        }
+    }
+    
+    @JsonCreator
+    private static Email fromJsonProperties(
+            @JsonProperty("from") Address from,
+            @JsonProperty("to") List<Address> to,
+            @JsonProperty("cc") List<Address> cc,
+            @JsonProperty("bcc") List<Address> bcc,
+            @JsonProperty("subject") String subject,
+            @JsonProperty("text_content") String textContent,
+            @JsonProperty("html_content") String htmlContent,
+            @JsonProperty("template_id") String templateId,
+            @JsonProperty("template_data") Map<String, Object> templateData,
+            @JsonProperty("attachments") List<Attachment> attachments,
+            @JsonProperty("headers") Map<String, String> headers,
+            @JsonProperty("reply_to") Address replyTo,
+            @JsonProperty("send_time") Long sendTime,
+            @JsonProperty("webhook_data") Map<String, String> webhookData,
+            @JsonProperty("tag") String tag,
+            @JsonProperty("tracking") TrackingSettings tracking) throws ValidationException {
+        Builder builder = new Builder();
+        builder.from = from;
+        builder.to = to != null ? to : List.of();
+        builder.cc = cc != null ? cc : List.of();
+        builder.bcc = bcc != null ? bcc : List.of();
+        builder.subject = subject;
+        builder.textContent = textContent;
+        builder.htmlContent = htmlContent;
+        builder.templateId = templateId;
+        builder.templateData = templateData;
+        builder.attachments = attachments != null ? attachments : List.of();
+        builder.headers = headers;
+        builder.replyTo = replyTo;
+        builder.sendTime = sendTime;
+        builder.webhookData = webhookData;
+        builder.tag = tag;
+        builder.tracking = tracking;
+        return builder.build();
+    }
+    
+    /**
+     * Maps a Jackson failure to the ValidationException fromMap would throw.
+     */
+    private static ValidationException toValidationException(JsonProcessingException e) {
+        Throwable cause = e.getCause();
+        if (cause instanceof ValidationException validationException) {
+            return validationException;
+        }
+        if (cause instanceof IllegalArgumentException && e instanceof JsonMappingException mappingException
+                && !mappingException.getPath().isEmpty()) {
+            String field = mappingException.getPath().get(0).getFieldName();
+            String prefix = switch (field == null ? "" : field) {
+                case "attachments" -> "Invalid attachment: ";
+                case "from", "to", "cc", "bcc", "reply_to" -> "Invalid " + field + " address: ";
+                default -> "Invalid " + field + ": ";
+            };
+            return new ValidationException(prefix + cause.getMessage(), e);
+        }
+        return new ValidationException("Invalid email JSON: " + e.getOriginalMessage(), e);
+    }
+    
+    private void validate(boolean requireFutureSendTime) throws ValidationException {
         if (from == null) {
             throw new ValidationException("From address is required");
         }
@@ -244,22 +454,22 @@ public class Email {
         }
         
         // Validate send time
-        if (sendTime != null && sendTime <= Instant.now().getEpochSecond()) {
+        if (requireFutureSendTime && sendTime != null && sendTime <= Instant.now().getEpochSecond()) {
             throw new ValidationException("Send time must be in the future");
         }
     }
     
-    // Getters
+    // Getters; lists are immutable and returned without copying
     public Address getFrom() { return from; }
-    public List<Address> getTo() { return new ArrayList<>(to); }
-    public List<Address> getCc() { return new ArrayList<>(cc); }
-    public List<Address> getBcc() { return new ArrayList<>(bcc); }
+    public List<Address> getTo() { return to; }
+    public List<Address> getCc() { return cc; }
+    public List<Address> getBcc() { return bcc; }
     public String getSubject() { return subject; }
     public String getTextContent() { return textContent; }
     public String getHtmlContent() { return htmlContent; }
     public String getTemplateId() { return templateId; }
     public Map<String, Object> getTemplateData() { return templateData; }
-    public List<Attachment> getAttachments() { return new ArrayList<>(attachments); }
+    public List<Attachment> getAttachments() { return attachments; }
     public Map<String, String> getHeaders() { return headers; }
     public Address getReplyTo() { return replyTo; }
     public Long getSendTime() { return sendTime; }
@@ -324,21 +534,35 @@ public class Email {
      */
     public static class Builder {
         private Address from;
-        private final List<Address> to = new ArrayList<>();
-        private final List<Address> cc = new ArrayList<>();
-        private final List<Address> bcc = new ArrayList<>();
+        private List<Address> to = new ArrayList<>();
+        private List<Address> cc = new ArrayList<>();
+        private List<Address> bcc = new ArrayList<>();
         private String subject;
         private String textContent;
         private String htmlContent;
         private String templateId;
         private Map<String, Object> templateData;
-        private final List<Attachment> attachments = new ArrayList<>();
+        private List<Attachment> attachments = new ArrayList<>();
         private Map<String, String> headers;
         private Address replyTo;
         private Long sendTime;
         private Map<String, String> webhookData;
         private String tag;
         private TrackingSettings tracking;
+        private ValidationMode validationMode = ValidationMode.STRICT;
+        private boolean requireFutureSendTime = true;
+        
+        /**
+         * Sets how addresses passed as strings to this builder are validated.
+         * Defaults to {@link ValidationMode#STRICT}.
+         * 
+         * @param validationMode The validation mode
+         * @return This builder
+         */
+        public Builder validationMode(ValidationMode validationMode) {
+            this.validationMode = Objects.requireNonNull(validationMode, "validationMode");
+            return this;
+        }
         
         public Builder from(Address from) {
             this.from = from;
@@ -346,42 +570,42 @@ public class Email {
         }
         
         public Builder to(Address to) {
-            this.to.add(to);
+            this.to = append(this.to, to);
             return this;
         }
         
         public Builder to(String email) {
-            return to(new Address(email));
+            return to(Address.of(email, null, validationMode));
         }
         
         public Builder to(String email, String name) {
-            return to(new Address(email, name));
+            return to(Address.of(email, name, validationMode));
         }
         
         public Builder cc(Address cc) {
-            this.cc.add(cc);
+            this.cc = append(this.cc, cc);
             return this;
         }
         
         public Builder cc(String email) {
-            return cc(new Address(email));
+            return cc(Address.of(email, null, validationMode));
         }
         
         public Builder cc(String email, String name) {
-            return cc(new Address(email, name));
+            return cc(Address.of(email, name, validationMode));
         }
         
         public Builder bcc(Address bcc) {
-            this.bcc.add(bcc);
+            this.bcc = append(this.bcc, bcc);
             return this;
         }
         
         public Builder bcc(String email) {
-            return bcc(new Address(email));
+            return bcc(Address.of(email, null, validationMode));
         }
         
         public Builder bcc(String email, String name) {
-            return bcc(new Address(email, name));
+            return bcc(Address.of(email, name, validationMode));
         }
         
         public Builder subject(String subject) {
@@ -410,7 +634,7 @@ public class Email {
         }
         
         public Builder attachment(Attachment attachment) {
-            this.attachments.add(attachment);
+            this.attachments = append(this.attachments, attachment);
             return this;
         }
         
@@ -425,11 +649,11 @@ public class Email {
         }
         
         public Builder replyTo(String email) {
-            return replyTo(new Address(email));
+            return replyTo(Address.of(email, null, validationMode));
         }
         
         public Builder replyTo(String email, String name) {
-            return replyTo(new Address(email, name));
+            return replyTo(Address.of(email, name, validationMode));
         }
         
         public Builder sendTime(Long sendTime) {
@@ -452,8 +676,26 @@ public class Email {
             return this;
         }
         
+        /**
+         * Accepts a send time that has passed, for emails that were checked
+         * when first built and are now being restored.
+         */
+        Builder allowPastSendTime() {
+            this.requireFutureSendTime = false;
+            return this;
+        }
+        
         public Email build() throws ValidationException {
             return new Email(this);
         }
+        
+        /**
+         * Adds to a list, copying it first if it is shared with an existing email.
+         */
+        private static <T> List<T> append(List<T> list, T item) {
+            List<T> mutable = list instanceof ArrayList<T> ? list : new ArrayList<>(list);
+            mutable.add(item);
+            return mutable;
+        }
     }
 }
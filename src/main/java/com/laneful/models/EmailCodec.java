@@ -0,0 +1,637 @@
+package com.laneful.models;
+
+import com.laneful.exceptions.ValidationException;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Compact binary encoding of {@link Email} for passing emails between services
+ * and spooling them to disk.
+ *
+ * <p>A record is a header ({@code 'L' 'E'}, a format version byte and the body
+ * length as a varint) followed by tagged fields. Strings are length-prefixed
+ * UTF-8, integers are varints and attachment content is stored as raw bytes
+ * rather than Base64, so records are much smaller than the JSON form.
+ *
+ * <p>Decoding is zero-copy for attachments: decoded attachments stream their
+ * bytes from a slice of the input array, so the array stays reachable for as
+ * long as the email does. Addresses are not re-validated on decode because
+ * they were validated when the encoded email was built. For the same reason
+ * the send time need not still be in the future, so an email spooled before
+ * its send time passed still decodes.
+ *
+ * <p>Readers reject records with a newer format version than they support.
+ */
+public final class EmailCodec {
+
+    /** Current format version. */
+    public static final int VERSION = 1;
+
+    private static final byte MAGIC_0 = 'L';
+    private static final byte MAGIC_1 = 'E';
+
+    private static final int TAG_END = 0;
+    private static final int TAG_FROM = 1;
+    private static final int TAG_TO = 2;
+    private static final int TAG_CC = 3;
+    private static final int TAG_BCC = 4;
+    private static final int TAG_SUBJECT = 5;
+    private static final int TAG_TEXT_CONTENT = 6;
+    private static final int TAG_HTML_CONTENT = 7;
+    private static final int TAG_TEMPLATE_ID = 8;
+    private static final int TAG_TEMPLATE_DATA = 9;
+    private static final int TAG_ATTACHMENTS = 10;
+    private static final int TAG_HEADERS = 11;
+    private static final int TAG_REPLY_TO = 12;
+    private static final int TAG_SEND_TIME = 13;
+    private static final int TAG_WEBHOOK_DATA = 14;
+    private static final int TAG_TAG = 15;
+    private static final int TAG_TRACKING = 16;
+
+    private static final int CONTENT_RAW = 0;
+    private static final int CONTENT_BASE64 = 1;
+
+    private static final int VALUE_NULL = 0;
+    private static final int VALUE_FALSE = 1;
+    private static final int VALUE_TRUE = 2;
+    private static final int VALUE_INT = 3;
+    private static final int VALUE_DOUBLE = 4;
+    private static final int VALUE_STRING = 5;
+    private static final int VALUE_LIST = 6;
+    private static final int VALUE_MAP = 7;
+
+    // Matches Jackson's default limit for JSON input
+    private static final int MAX_DEPTH = 1000;
+
+    private EmailCodec() {
+    }
+
+    /**
+     * Encodes an email into a new byte array.
+     *
+     * @param email The email to encode
+     * @return Encoded record
+     * @throws ValidationException if template data holds values other than
+     *         null, booleans, numbers, strings, collections and maps, or an
+     *         attachment source cannot be read
+     */
+    public static byte[] encode(Email email) throws ValidationException {
+        Writer body = writeBody(email);
+        Writer header = new Writer(8);
+        writeHeader(header, body.size);
+        byte[] record = Arrays.copyOf(header.buf, header.size + body.size);
+        System.arraycopy(body.buf, 0, record, header.size, body.size);
+        return record;
+    }
+
+    /**
+     * Encodes an email onto a stream. Records are self-delimiting, so several
+     * can be written to the same stream and read back with {@link #decode(InputStream)}.
+     *
+     * @param email The email to encode
+     * @param out The target stream; not closed
+     * @throws ValidationException if the email cannot be encoded
+     * @throws IOException if writing fails
+     */
+    public static void encode(Email email, OutputStream out) throws ValidationException, IOException {
+        Writer body = writeBody(email);
+        Writer header = new Writer(8);
+        writeHeader(header, body.size);
+        out.write(header.buf, 0, header.size);
+        out.write(body.buf, 0, body.size);
+    }
+
+    /**
+     * Decodes an email from a byte array holding exactly one record.
+     *
+     * @param record The encoded record
+     * @return Decoded Email
+     * @throws ValidationException if the record is malformed, has an unsupported
+     *         version or describes an invalid email
+     */
+    public static Email decode(byte[] record) throws ValidationException {
+        Reader reader = new Reader(record, 0, record.length);
+        int length = readHeader(reader);
+        if (length != reader.remaining()) {
+            throw new ValidationException("Invalid encoded email: length mismatch");
+        }
+        return readBody(reader);
+    }
+
+    /**
+     * Reads the next record from a stream.
+     *
+     * @param in The source stream; not closed
+     * @return Decoded Email, or null at end of stream
+     * @throws ValidationException if the record is malformed or invalid
+     * @throws IOException if reading fails or the stream ends mid-record
+     */
+    public static Email decode(InputStream in) throws ValidationException, IOException {
+        byte[] header = new byte[8];
+        int first = in.read();
+        if (first < 0) {
+            return null;
+        }
+        header[0] = (byte) first;
+        int headerSize = 1;
+        // Magic, version and at least one varint byte, then the rest of the varint
+        do {
+            int b = in.read();
+            if (b < 0) {
+                throw new IOException("Truncated encoded email header");
+            }
+            header[headerSize++] = (byte) b;
+        } while (headerSize < 4 || ((header[headerSize - 1] & 0x80) != 0 && headerSize < header.length));
+
+        int length = readHeader(new Reader(header, 0, headerSize));
+        byte[] body = in.readNBytes(length);
+        if (body.length != length) {
+            throw new IOException("Truncated encoded email");
+        }
+        return readBody(new Reader(body, 0, length));
+    }
+
+    private static void writeHeader(Writer writer, int bodyLength) {
+        writer.writeByte(MAGIC_0);
+        writer.writeByte(MAGIC_1);
+        writer.writeByte(VERSION);
+        writer.writeVarint(bodyLength);
+    }
+
+    private static int readHeader(Reader reader) throws ValidationException {
+        if (reader.remaining() < 4 || reader.readByte() != MAGIC_0 || reader.readByte() != MAGIC_1) {
+            throw new ValidationException("Invalid encoded email: bad header");
+        }
+        int version = reader.readByte() & 0xFF;
+        if (version > VERSION) {
+            throw new ValidationException("Unsupported encoded email version: " + version);
+        }
+        return reader.readVarint();
+    }
+
+    private static Writer writeBody(Email email) throws ValidationException {
+        Writer w = new Writer(256);
+
+        w.writeVarint(TAG_FROM);
+        writeAddress(w, email.getFrom());
+        writeAddressList(w, TAG_TO, email.getTo());
+        writeAddressList(w, TAG_CC, email.getCc());
+        writeAddressList(w, TAG_BCC, email.getBcc());
+        writeStringField(w, TAG_SUBJECT, email.getSubject());
+        writeStringField(w, TAG_TEXT_CONTENT, email.getTextContent());
+        writeStringField(w, TAG_HTML_CONTENT, email.getHtmlContent());
+        writeStringField(w, TAG_TEMPLATE_ID, email.getTemplateId());
+        if (email.getTemplateData() != null) {
+            w.writeVarint(TAG_TEMPLATE_DATA);
+            writeValue(w, email.getTemplateData());
+        }
+        if (!email.getAttachments().isEmpty()) {
+            w.writeVarint(TAG_ATTACHMENTS);
+            w.writeVarint(email.getAttachments().size());
+            for (Attachment attachment : email.getAttachments()) {
+                writeAttachment(w, attachment);
+            }
+        }
+        writeStringMap(w, TAG_HEADERS, email.getHeaders());
+        if (email.getReplyTo() != null) {
+            w.writeVarint(TAG_REPLY_TO);
+            writeAddress(w, email.getReplyTo());
+        }
+        if (email.getSendTime() != null) {
+            w.writeVarint(TAG_SEND_TIME);
+            w.writeVarlong(zigzag(email.getSendTime()));
+        }
+        writeStringMap(w, TAG_WEBHOOK_DATA, email.getWebhookData());
+        writeStringField(w, TAG_TAG, email.getTag());
+        TrackingSettings tracking = email.getTracking();
+        if (tracking != null) {
+            w.writeVarint(TAG_TRACKING);
+            w.writeByte((tracking.opens() ? 1 : 0) | (tracking.clicks() ? 2 : 0) | (tracking.unsubscribes() ? 4 : 0));
+        }
+        w.writeVarint(TAG_END);
+        return w;
+    }
+
+    private static Email readBody(Reader r) throws ValidationException {
+        Email.Builder builder = new Email.Builder().validationMode(ValidationMode.TRUSTED).allowPastSendTime();
+        try {
+            int tag;
+            while ((tag = r.readVarint()) != TAG_END) {
+                switch (tag) {
+                    case TAG_FROM -> builder.from(readAddress(r));
+                    case TAG_TO -> {
+                        for (int n = r.readCount(); n > 0; n--) builder.to(readAddress(r));
+                    }
+                    case TAG_CC -> {
+                        for (int n = r.readCount(); n > 0; n--) builder.cc(readAddress(r));
+                    }
+                    case TAG_BCC -> {
+                        for (int n = r.readCount(); n > 0; n--) builder.bcc(readAddress(r));
+                    }
+                    case TAG_SUBJECT -> builder.subject(r.readString());
+                    case TAG_TEXT_CONTENT -> builder.textContent(r.readString());
+                    case TAG_HTML_CONTENT -> builder.htmlContent(r.readString());
+                    case TAG_TEMPLATE_ID -> builder.templateId(r.readString());
+                    case TAG_TEMPLATE_DATA -> {
+                        @SuppressWarnings("unchecked")
+                        Map<String, Object> templateData = (Map<String, Object>) readValue(r, 0);
+                        builder.templateData(templateData);
+                    }
+                    case TAG_ATTACHMENTS -> {
+                        for (int n = r.readCount(); n > 0; n--) builder.attachment(readAttachment(r));
+                    }
+                    case TAG_HEADERS -> builder.headers(readStringMap(r));
+                    case TAG_REPLY_TO -> builder.replyTo(readAddress(r));
+                    case TAG_SEND_TIME -> builder.sendTime(unzigzag(r.readVarlong()));
+                    case TAG_WEBHOOK_DATA -> builder.webhookData(readStringMap(r));
+                    case TAG_TAG -> builder.tag(r.readString());
+                    case TAG_TRACKING -> {
+                        int flags = r.readByte();
+                        builder.tracking(new TrackingSettings((flags & 1) != 0, (flags & 2) != 0, (flags & 4) != 0));
+                    }
+                    default -> throw new ValidationException("Invalid encoded email: unknown field " + tag);
+                }
+            }
+        } catch (IndexOutOfBoundsException | ClassCastException | IllegalArgumentException e) {
+            throw new ValidationException("Invalid encoded email: " + e.getMessage(), e);
+        }
+        return builder.build();
+    }
+
+    private static void writeStringField(Writer w, int tag, String value) {
+        if (value != null) {
+            w.writeVarint(tag);
+            w.writeString(value);
+        }
+    }
+
+    private static void writeAddress(Writer w, Address address) {
+        w.writeString(address.email());
+        w.writeString(address.name());
+    }
+
+    private static Address readAddress(Reader r) {
+        String email = r.readString();
+        String name = r.readString();
+        return Address.of(email, name, ValidationMode.TRUSTED);
+    }
+
+    private static void writeAddressList(Writer w, int tag, List<Address> addresses) {
+        if (!addresses.isEmpty()) {
+            w.writeVarint(tag);
+            w.writeVarint(addresses.size());
+            for (Address address : addresses) {
+                writeAddress(w, address);
+            }
+        }
+    }
+
+    private static void writeStringMap(Writer w, int tag, Map<String, String> map) {
+        if (map != null) {
+            w.writeVarint(tag);
+            w.writeVarint(map.size());
+            for (Map.Entry<String, String> entry : map.entrySet()) {
+                w.writeString(entry.getKey());
+                w.writeString(entry.getValue());
+            }
+        }
+    }
+
+    private static Map<String, String> readStringMap(Reader r) {
+        int size = r.readCount();
+        Map<String, String> map = new LinkedHashMap<>(Math.max(4, size * 2));
+        for (int i = 0; i < size; i++) {
+            map.put(r.readString(), r.readString());
+        }
+        return map;
+    }
+
+    private static void writeAttachment(Writer w, Attachment attachment) throws ValidationException {
+        w.writeString(attachment.filename());
+        w.writeString(attachment.contentType());
+        AttachmentSource source = attachment.source();
+        if (source == null) {
+            String content = attachment.content();
+            byte[] raw;
+            try {
+                raw = Base64.getDecoder().decode(content);
+            } catch (IllegalArgumentException e) {
+                // Not plain Base64 (e.g. MIME line breaks); keep the text as given
+                w.writeByte(CONTENT_BASE64);
+                w.writeBytes(content.getBytes(StandardCharsets.US_ASCII));
+                return;
+            }
+            w.writeByte(CONTENT_RAW);
+            w.writeBytes(raw);
+            return;
+        }
+        try (InputStream in = source.openStream()) {
+            w.writeByte(source.isEncoded() ? CONTENT_BASE64 : CONTENT_RAW);
+            w.writeBytes(in.readAllBytes());
+        } catch (IOException e) {
+            throw new ValidationException("Failed to read attachment " + attachment.filename(), e);
+        }
+    }
+
+    private static Attachment readAttachment(Reader r) {
+        String filename = r.readString();
+        String contentType = r.readString();
+        boolean encoded = r.readByte() == CONTENT_BASE64;
+        int length = r.readVarint();
+        int offset = r.skip(length);
+        return Attachment.fromSource(filename, contentType, new SliceSource(r.buf, offset, length, encoded));
+    }
+
+    private static void writeValue(Writer w, Object value) throws ValidationException {
+        switch (value) {
+            case null -> w.writeByte(VALUE_NULL);
+            case Boolean b -> w.writeByte(b ? VALUE_TRUE : VALUE_FALSE);
+            case Integer i -> writeInteger(w, i);
+            case Long l -> writeInteger(w, l);
+            case Short s -> writeInteger(w, s);
+            case Byte b -> writeInteger(w, b);
+            case Double d -> writeDouble(w, d);
+            case Float f -> writeDouble(w, f);
+            case CharSequence s -> {
+                w.writeByte(VALUE_STRING);
+                w.writeString(s.toString());
+            }
+            case Collection<?> c -> {
+                w.writeByte(VALUE_LIST);
+                w.writeVarint(c.size());
+                for (Object item : c) {
+                    writeValue(w, item);
+                }
+            }
+            case Map<?, ?> m -> {
+                w.writeByte(VALUE_MAP);
+                w.writeVarint(m.size());
+                for (Map.Entry<?, ?> entry : m.entrySet()) {
+                    w.writeString(String.valueOf(entry.getKey()));
+                    writeValue(w, entry.getValue());
+                }
+            }
+            default -> throw new ValidationException(
+                "Unsupported template data value type: " + value.getClass().getName());
+        }
+    }
+
+    private static void writeInteger(Writer w, long value) {
+        w.writeByte(VALUE_INT);
+        w.writeVarlong(zigzag(value));
+    }
+
+    private static void writeDouble(Writer w, double value) {
+        w.writeByte(VALUE_DOUBLE);
+        w.writeLong(Double.doubleToRawLongBits(value));
+    }
+
+    private static Object readValue(Reader r, int depth) {
+        if (depth > MAX_DEPTH) {
+            throw new IllegalArgumentException("template data nested deeper than " + MAX_DEPTH + " levels");
+        }
+        int type = r.readByte();
+        return switch (type) {
+            case VALUE_NULL -> null;
+            case VALUE_FALSE -> Boolean.FALSE;
+            case VALUE_TRUE -> Boolean.TRUE;
+            case VALUE_INT -> {
+                // Mirror Jackson: Integer when it fits, Long otherwise
+                long value = unzigzag(r.readVarlong());
+                yield value == (int) value ? (Object) (int) value : (Object) value;
+            }
+            case VALUE_DOUBLE -> Double.longBitsToDouble(r.readLong());
+            case VALUE_STRING -> r.readString();
+            case VALUE_LIST -> {
+                int size = r.readCount();
+                List<Object> list = new ArrayList<>(size);
+                for (int i = 0; i < size; i++) {
+                    list.add(readValue(r, depth + 1));
+                }
+                yield list;
+            }
+            case VALUE_MAP -> {
+                int size = r.readCount();
+                Map<String, Object> map = new LinkedHashMap<>(Math.max(4, size * 2));
+                for (int i = 0; i < size; i++) {
+                    map.put(r.readString(), readValue(r, depth + 1));
+                }
+                yield map;
+            }
+            default -> throw new IllegalArgumentException("unknown value type " + type);
+        };
+    }
+
+    private static long zigzag(long value) {
+        return (value << 1) ^ (value >> 63);
+    }
+
+    private static long unzigzag(long value) {
+        return (value >>> 1) ^ -(value & 1);
+    }
+
+    /**
+     * Attachment source over a region of a decoded record.
+     */
+    private record SliceSource(byte[] buf, int offset, int length, boolean isEncoded) implements AttachmentSource {
+        @Override
+        public InputStream openStream() {
+            return new ByteArrayInputStream(buf, offset, length);
+        }
+    }
+
+    /**
+     * Growable output buffer with varint and UTF-8 helpers.
+     */
+    private static final class Writer {
+        private byte[] buf;
+        private int size;
+
+        Writer(int capacity) {
+            this.buf = new byte[capacity];
+        }
+
+        private void ensure(int extra) {
+            if (size + extra > buf.length) {
+                buf = Arrays.copyOf(buf, Math.max(buf.length * 2, size + extra));
+            }
+        }
+
+        void writeByte(int b) {
+            ensure(1);
+            buf[size++] = (byte) b;
+        }
+
+        void writeVarint(int value) {
+            writeVarlong(value & 0xFFFFFFFFL);
+        }
+
+        void writeVarlong(long value) {
+            ensure(10);
+            while ((value & ~0x7FL) != 0) {
+                buf[size++] = (byte) ((value & 0x7F) | 0x80);
+                value >>>= 7;
+            }
+            buf[size++] = (byte) value;
+        }
+
+        void writeLong(long value) {
+            ensure(8);
+            for (int shift = 56; shift >= 0; shift -= 8) {
+                buf[size++] = (byte) (value >>> shift);
+            }
+        }
+
+        void writeBytes(byte[] bytes) {
+            writeVarint(bytes.length);
+            ensure(bytes.length);
+            System.arraycopy(bytes, 0, buf, size, bytes.length);
+            size += bytes.length;
+        }
+
+        /**
+         * Writes a nullable string as varint(length + 1) and UTF-8 bytes, encoding
+         * straight into the buffer; zero marks null.
+         */
+        void writeString(String value) {
+            if (value == null) {
+                writeVarint(0);
+                return;
+            }
+            int chars = value.length();
+            int utf8Length = 0;
+            for (int i = 0; i < chars; i++) {
+                char c = value.charAt(i);
+                if (c < 0x80) {
+                    utf8Length++;
+                } else if (c < 0x800) {
+                    utf8Length += 2;
+                } else if (Character.isHighSurrogate(c) && i + 1 < chars
+                        && Character.isLowSurrogate(value.charAt(i + 1))) {
+                    utf8Length += 4;
+                    i++;
+                } else {
+                    utf8Length += 3;
+                }
+            }
+            writeVarint(utf8Length + 1);
+            ensure(utf8Length);
+            for (int i = 0; i < chars; i++) {
+                char c = value.charAt(i);
+                if (c < 0x80) {
+                    buf[size++] = (byte) c;
+                } else if (c < 0x800) {
+                    buf[size++] = (byte) (0xC0 | (c >> 6));
+                    buf[size++] = (byte) (0x80 | (c & 0x3F));
+                } else if (Character.isHighSurrogate(c) && i + 1 < chars
+                        && Character.isLowSurrogate(value.charAt(i + 1))) {
+                    int cp = Character.toCodePoint(c, value.charAt(++i));
+                    buf[size++] = (byte) (0xF0 | (cp >> 18));
+                    buf[size++] = (byte) (0x80 | ((cp >> 12) & 0x3F));
+                    buf[size++] = (byte) (0x80 | ((cp >> 6) & 0x3F));
+                    buf[size++] = (byte) (0x80 | (cp & 0x3F));
+                } else {
+                    // Lone surrogates are written as-is (CESU-style) to keep the length exact
+                    buf[size++] = (byte) (0xE0 | (c >> 12));
+                    buf[size++] = (byte) (0x80 | ((c >> 6) & 0x3F));
+                    buf[size++] = (byte) (0x80 | (c & 0x3F));
+                }
+            }
+        }
+    }
+
+    /**
+     * Bounds-checked cursor over an input array.
+     */
+    private static final class Reader {
+        private final byte[] buf;
+        private final int limit;
+        private int pos;
+
+        Reader(byte[] buf, int offset, int length) {
+            this.buf = buf;
+            this.pos = offset;
+            this.limit = offset + length;
+        }
+
+        int remaining() {
+            return limit - pos;
+        }
+
+        int readByte() {
+            if (pos >= limit) {
+                throw new IndexOutOfBoundsException("unexpected end of data");
+            }
+            return buf[pos++];
+        }
+
+        int readVarint() {
+            long value = readVarlong();
+            if (value < 0 || value > Integer.MAX_VALUE) {
+                throw new IllegalArgumentException("length out of range");
+            }
+            return (int) value;
+        }
+
+        /**
+         * Reads an element count. Every element takes at least one byte, so a
+         * count beyond the remaining data is corrupt, and collections sized
+         * from it stay within the record's own size.
+         */
+        int readCount() {
+            int count = readVarint();
+            if (count > remaining()) {
+                throw new IllegalArgumentException("count " + count + " exceeds remaining data");
+            }
+            return count;
+        }
+
+        long readVarlong() {
+            long value = 0;
+            for (int shift = 0; shift < 64; shift += 7) {
+                int b = readByte();
+                value |= (long) (b & 0x7F) << shift;
+                if ((b & 0x80) == 0) {
+                    return value;
+                }
+            }
+            throw new IllegalArgumentException("malformed varint");
+        }
+
+        long readLong() {
+            long value = 0;
+            for (int i = 0; i < 8; i++) {
+                value = (value << 8) | (readByte() & 0xFF);
+            }
+            return value;
+        }
+
+        int skip(int length) {
+            if (length > remaining()) {
+                throw new IndexOutOfBoundsException("unexpected end of data");
+            }
+            int start = pos;
+            pos += length;
+            return start;
+        }
+
+        String readString() {
+            int length = readVarint();
+            if (length == 0) {
+                return null;
+            }
+            int start = skip(length - 1);
+            return new String(buf, start, length - 1, StandardCharsets.UTF_8);
+        }
+    }
+}
@@ -0,0 +1,185 @@
+package com.laneful.models;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Base64;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Keeps encoded attachment content in direct buffers outside the Java heap.
+ *
+ * <p>Every attachment returned by this store is backed by an {@link OffHeapContent}
+ * holding one reference owned by the caller, who must release it when done.
+ * Once the last reference is released the buffer no longer counts towards
+ * {@link #allocatedBytes()}, and its memory is returned by the buffer's
+ * cleaner when it becomes unreachable. It is not freed eagerly: readers such
+ * as {@link Attachment#content()} may still hold a view of it, and reading
+ * freed native memory could crash the JVM.
+ */
+public final class OffHeapAttachmentStore {
+
+    private static final int MAX_BUFFER_SIZE = Integer.MAX_VALUE - 8;
+    private static final int INITIAL_STREAM_CAPACITY = 64 * 1024;
+
+    private final AtomicLong allocatedBytes = new AtomicLong();
+    private final AtomicInteger liveBuffers = new AtomicInteger();
+
+    /**
+     * Copies an attachment's encoded content off-heap.
+     *
+     * <p>Attachments that are already stored off-heap are shared: a new reference
+     * is taken and the same attachment is returned.
+     *
+     * @param attachment The attachment to store
+     * @return Attachment backed by off-heap content
+     * @throws IOException if a streamed source cannot be read
+     */
+    public Attachment store(Attachment attachment) throws IOException {
+        if (attachment.source() instanceof OffHeapContent content) {
+            content.retain();
+            return attachment;
+        }
+
+        ByteBuffer buffer;
+        if (attachment.source() == null) {
+            String encoded = attachment.content();
+            buffer = allocate(encoded.length());
+            for (int i = 0; i < encoded.length(); i++) {
+                buffer.put((byte) encoded.charAt(i));
+            }
+        } else {
+            AttachmentSource source = attachment.source();
+            try (InputStream in = source.openStream()) {
+                buffer = source.isEncoded()
+                    ? copy(in, INITIAL_STREAM_CAPACITY)
+                    : encode(in, INITIAL_STREAM_CAPACITY);
+            }
+        }
+        return wrap(attachment.filename(), attachment.contentType(), buffer);
+    }
+
+    /**
+     * Reads and encodes a file straight into off-heap memory.
+     *
+     * @param path The path to the file
+     * @return Attachment backed by off-heap content
+     * @throws IOException if the file cannot be read or is too large
+     */
+    public Attachment storeFile(Path path) throws IOException {
+        long size = Files.size(path);
+        long encodedLength = 4 * ((size + 2) / 3);
+        if (encodedLength > MAX_BUFFER_SIZE) {
+            throw new IOException("File is too large for off-heap storage: " + path);
+        }
+        Attachment attachment = Attachment.streamFromFile(path);
+        try (InputStream in = Files.newInputStream(path)) {
+            ByteBuffer buffer = encode(in, (int) Math.max(encodedLength, 4));
+            return wrap(attachment.filename(), attachment.contentType(), buffer);
+        }
+    }
+
+    /**
+     * Returns the number of bytes currently allocated off-heap.
+     *
+     * @return Allocated bytes
+     */
+    public long allocatedBytes() {
+        return allocatedBytes.get();
+    }
+
+    /**
+     * Returns the number of buffers that have not been released yet.
+     *
+     * @return Live buffer count
+     */
+    public int liveBuffers() {
+        return liveBuffers.get();
+    }
+
+    /**
+     * Stops counting a buffer that is no longer referenced. Its memory is
+     * reclaimed by its cleaner once it is unreachable.
+     */
+    void free(ByteBuffer buffer) {
+        allocatedBytes.addAndGet(-buffer.capacity());
+        liveBuffers.decrementAndGet();
+    }
+
+    private Attachment wrap(String filename, String contentType, ByteBuffer buffer) {
+        buffer.flip();
+        return Attachment.fromSource(filename, contentType, new OffHeapContent(buffer, this));
+    }
+
+    private ByteBuffer allocate(int capacity) {
+        ByteBuffer buffer = ByteBuffer.allocateDirect(capacity);
+        allocatedBytes.addAndGet(capacity);
+        liveBuffers.incrementAndGet();
+        return buffer;
+    }
+
+    private ByteBuffer encode(InputStream in, int capacity) throws IOException {
+        BufferOutputStream out = new BufferOutputStream(allocate(capacity));
+        try (OutputStream encoder = Base64.getEncoder().wrap(out)) {
+            in.transferTo(encoder);
+        } catch (IOException | RuntimeException e) {
+            free(out.buffer);
+            throw e;
+        }
+        return out.buffer;
+    }
+
+    private ByteBuffer copy(InputStream in, int capacity) throws IOException {
+        BufferOutputStream out = new BufferOutputStream(allocate(capacity));
+        try {
+            in.transferTo(out);
+        } catch (IOException | RuntimeException e) {
+            free(out.buffer);
+            throw e;
+        }
+        return out.buffer;
+    }
+
+    /**
+     * Writes into a direct buffer, doubling it when full.
+     */
+    private final class BufferOutputStream extends OutputStream {
+        private ByteBuffer buffer;
+
+        BufferOutputStream(ByteBuffer buffer) {
+            this.buffer = buffer;
+        }
+
+        @Override
+        public void write(int b) throws IOException {
+            ensureCapacity(1);
+            buffer.put((byte) b);
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) throws IOException {
+            ensureCapacity(len);
+            buffer.put(b, off, len);
+        }
+
+        private void ensureCapacity(int extra) throws IOException {
+            if (buffer.remaining() >= extra) {
+                return;
+            }
+            long required = (long) buffer.position() + extra;
+            if (required > MAX_BUFFER_SIZE) {
+                throw new IOException("Attachment is too large for off-heap storage");
+            }
+            int capacity = (int) Math.min(Math.max(required, 2L * buffer.capacity()), MAX_BUFFER_SIZE);
+            ByteBuffer grown = allocate(capacity);
+            buffer.flip();
+            grown.put(buffer);
+            free(buffer);
+            buffer = grown;
+        }
+    }
+}
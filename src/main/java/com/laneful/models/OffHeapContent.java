@@ -0,0 +1,138 @@
+package com.laneful.models;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Reference-counted Base64 attachment content held in a direct buffer.
+ *
+ * <p>Content is created by an {@link OffHeapAttachmentStore} with a reference
+ * count of one, owned by the caller. {@link com.laneful.client.LanefulClient}
+ * retains the content for the duration of each send, so the owner can call
+ * {@link #release()} as soon as it has queued its emails; the buffer is
+ * released once the last in-flight send completes. Reads after that fail
+ * with an {@link IOException}; a read already in progress completes safely,
+ * since the memory is only returned once the buffer is unreachable.
+ */
+public final class OffHeapContent implements AttachmentSource {
+
+    private final ByteBuffer buffer;
+    private final OffHeapAttachmentStore store;
+    private final AtomicInteger refCount = new AtomicInteger(1);
+
+    OffHeapContent(ByteBuffer buffer, OffHeapAttachmentStore store) {
+        this.buffer = buffer;
+        this.store = store;
+    }
+
+    /**
+     * Returns the length of the encoded content.
+     *
+     * @return Encoded length in bytes
+     */
+    public int length() {
+        return buffer.limit();
+    }
+
+    /**
+     * Returns the current reference count.
+     *
+     * @return Reference count; zero once released
+     */
+    public int refCount() {
+        return refCount.get();
+    }
+
+    /**
+     * Adds a reference.
+     *
+     * @return This content
+     * @throws IllegalStateException if the content has already been released
+     */
+    public OffHeapContent retain() {
+        int count;
+        do {
+            count = refCount.get();
+            if (count <= 0) {
+                throw new IllegalStateException("Attachment content has been released");
+            }
+        } while (!refCount.compareAndSet(count, count + 1));
+        return this;
+    }
+
+    /**
+     * Drops a reference, releasing the buffer when none remain.
+     *
+     * @return true if this call dropped the last reference
+     * @throws IllegalStateException if the content has already been released
+     */
+    public boolean release() {
+        int count = refCount.decrementAndGet();
+        if (count < 0) {
+            refCount.incrementAndGet();
+            throw new IllegalStateException("Attachment content has been released");
+        }
+        if (count == 0) {
+            store.free(buffer);
+            return true;
+        }
+        return false;
+    }
+
+    @Override
+    public InputStream openStream() throws IOException {
+        if (refCount.get() <= 0) {
+            throw new IOException("Attachment content has been released");
+        }
+        return new BufferInputStream(buffer.duplicate());
+    }
+
+    @Override
+    public boolean isEncoded() {
+        return true;
+    }
+
+    /**
+     * Reads from an independent view of the shared buffer.
+     */
+    private final class BufferInputStream extends InputStream {
+        private final ByteBuffer view;
+
+        BufferInputStream(ByteBuffer view) {
+            this.view = view;
+        }
+
+        @Override
+        public int read() throws IOException {
+            ensureLive();
+            return view.hasRemaining() ? view.get() & 0xFF : -1;
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) throws IOException {
+            ensureLive();
+            if (len == 0) {
+                return 0;
+            }
+            if (!view.hasRemaining()) {
+                return -1;
+            }
+            int n = Math.min(len, view.remaining());
+            view.get(b, off, n);
+            return n;
+        }
+
+        @Override
+        public int available() {
+            return view.remaining();
+        }
+
+        private void ensureLive() throws IOException {
+            if (refCount.get() <= 0) {
+                throw new IOException("Attachment content has been released");
+            }
+        }
+    }
+}
@@ -0,0 +1,24 @@
+package com.laneful.models;
+
+/**
+ * Controls how strictly email addresses are checked when an {@link Address} is created.
+ */
+public enum ValidationMode {
+
+    /**
+     * Pragmatic RFC 5321/5322 checks: dot-atom local part, hostname labels and
+     * an alphabetic top-level domain.
+     */
+    STRICT,
+
+    /**
+     * Only checks the overall shape: a single '@', a non-empty local part and a
+     * dotted domain, without whitespace or control characters.
+     */
+    LENIENT,
+
+    /**
+     * Skips format checks for input that was already validated upstream.
+     */
+    TRUSTED
+}
@@ -0,0 +1,21 @@
+package com.laneful.scheduling;
+
+import com.laneful.exceptions.LanefulException;
+import com.laneful.models.Email;
+
+import java.util.List;
+
+/**
+ * Sends a batch of emails, typically {@code client::sendEmails}.
+ */
+@FunctionalInterface
+public interface BatchSender {
+
+    /**
+     * Sends the given emails in one request.
+     *
+     * @param emails The emails to send
+     * @throws LanefulException When sending fails
+     */
+    void send(List<Email> emails) throws LanefulException;
+}
@@ -0,0 +1,312 @@
+package com.laneful.scheduling;
+
+import com.laneful.exceptions.ValidationException;
+import com.laneful.models.Email;
+import com.laneful.models.EmailCodec;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Path;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BiConsumer;
+
+/**
+ * Holds emails locally until their release time, then sends them in batches.
+ *
+ * <p>Pending emails live in a hierarchical timing wheel, so scheduling and
+ * cancelling are O(1) regardless of how many emails are waiting. A background
+ * thread advances the wheel once per tick and hands every email that came due
+ * to the {@link BatchSender}, split into batches of at most
+ * {@code maxBatchSize}.
+ *
+ * <p>With a journal configured, every scheduled email is appended to it and
+ * pending emails are restored when a scheduler is built on the same file.
+ * Emails are marked complete only after their send has been attempted, so an
+ * email in flight during a crash is sent again after restart. A restored
+ * email keeps its {@code send_time} even if that has passed by then.
+ *
+ * <pre>{@code
+ * EmailScheduler scheduler = new EmailScheduler.Builder(client::sendEmails)
+ *     .journal(Path.of("scheduled-emails.log"))
+ *     .build();
+ * ScheduledEmail reminder = scheduler.schedule(email, Instant.now().plus(Duration.ofDays(3)));
+ * }</pre>
+ */
+public final class EmailScheduler implements AutoCloseable {
+
+    private static final System.Logger LOGGER = System.getLogger(EmailScheduler.class.getName());
+
+    private final BatchSender sender;
+    private final int maxBatchSize;
+    private final Executor executor;
+    private final boolean ownsExecutor;
+    private final Clock clock;
+    private final BiConsumer<List<Email>, Exception> onError;
+    private final ScheduleJournal journal;
+    private final TimingWheel<ScheduledEmail> wheel;
+    private final ScheduledExecutorService ticker;
+    private long nextId;
+    private boolean closed;
+
+    private EmailScheduler(Builder builder) throws IOException {
+        this.sender = builder.sender;
+        this.maxBatchSize = builder.maxBatchSize;
+        this.ownsExecutor = builder.executor == null;
+        this.executor = ownsExecutor ? Executors.newVirtualThreadPerTaskExecutor() : builder.executor;
+        this.clock = builder.clock;
+        this.onError = builder.onError;
+        this.wheel = new TimingWheel<>(builder.tick.toMillis(), clock.millis());
+        this.journal = builder.journal == null ? null : new ScheduleJournal(builder.journal);
+
+        if (journal != null) {
+            for (ScheduleJournal.Entry entry : journal.pending()) {
+                nextId = Math.max(nextId, entry.id() + 1);
+                Email email;
+                try {
+                    email = EmailCodec.decode(entry.email());
+                } catch (ValidationException e) {
+                    onError.accept(List.of(), e);
+                    journal.done(entry.id());
+                    continue;
+                }
+                ScheduledEmail scheduled = new ScheduledEmail(this, entry.id(), email,
+                    Instant.ofEpochMilli(entry.releaseAtMillis()));
+                scheduled.timer = wheel.add(scheduled, entry.releaseAtMillis());
+            }
+        }
+
+        long tickMillis = builder.tick.toMillis();
+        this.ticker = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "laneful-email-scheduler");
+            thread.setDaemon(true);
+            return thread;
+        });
+        ticker.scheduleAtFixedRate(this::tick, tickMillis, tickMillis, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Schedules an email to be sent at the given time.
+     *
+     * <p>Emails whose release time has already passed are sent on the next tick.
+     *
+     * @param email The email to send
+     * @param releaseAt When to hand the email to the sender
+     * @return Handle that can cancel the email while it is pending
+     * @throws ValidationException if the email cannot be written to the journal
+     * @throws IllegalStateException if the scheduler has been closed
+     * @throws UncheckedIOException if appending to the journal fails
+     */
+    public ScheduledEmail schedule(Email email, Instant releaseAt) throws ValidationException {
+        if (email == null || releaseAt == null) {
+            throw new IllegalArgumentException("Email and release time are required");
+        }
+        byte[] encoded = journal == null ? null : EmailCodec.encode(email);
+        long releaseAtMillis = releaseAt.toEpochMilli();
+        synchronized (this) {
+            if (closed) {
+                throw new IllegalStateException("Scheduler is closed");
+            }
+            ScheduledEmail scheduled = new ScheduledEmail(this, nextId++, email, releaseAt);
+            if (journal != null) {
+                try {
+                    journal.scheduled(scheduled.id(), releaseAtMillis, encoded);
+                } catch (IOException e) {
+                    throw new UncheckedIOException("Failed to journal scheduled email", e);
+                }
+            }
+            scheduled.timer = wheel.add(scheduled, releaseAtMillis);
+            return scheduled;
+        }
+    }
+
+    /**
+     * Number of emails waiting for their release time.
+     */
+    public synchronized int pendingCount() {
+        return wheel.size();
+    }
+
+    /**
+     * Stops the scheduler. Pending emails are not sent; with a journal they are
+     * restored by the next scheduler built on the same file.
+     */
+    @Override
+    public void close() throws IOException {
+        synchronized (this) {
+            if (closed) {
+                return;
+            }
+            closed = true;
+        }
+        ticker.shutdownNow();
+        if (ownsExecutor) {
+            ((ExecutorService) executor).close();
+        }
+        if (journal != null) {
+            journal.close();
+        }
+    }
+
+    synchronized boolean cancel(ScheduledEmail scheduled) {
+        if (closed || !wheel.cancel(scheduled.timer)) {
+            return false;
+        }
+        markDone(List.of(scheduled));
+        return true;
+    }
+
+    /**
+     * Releases every email due at the given time. Runs on the ticker thread;
+     * visible for tests that drive the clock themselves.
+     */
+    void advanceTo(long nowMillis) {
+        List<ScheduledEmail> due = new ArrayList<>();
+        synchronized (this) {
+            if (closed) {
+                return;
+            }
+            wheel.advanceTo(nowMillis, timer -> due.add(timer.value));
+        }
+        for (int from = 0; from < due.size(); from += maxBatchSize) {
+            List<ScheduledEmail> batch = due.subList(from, Math.min(from + maxBatchSize, due.size()));
+            executor.execute(() -> send(batch));
+        }
+    }
+
+    private void tick() {
+        try {
+            advanceTo(clock.millis());
+        } catch (RuntimeException e) {
+            LOGGER.log(System.Logger.Level.ERROR, "Email scheduler tick failed", e);
+        }
+    }
+
+    private void send(List<ScheduledEmail> batch) {
+        List<Email> emails = new ArrayList<>(batch.size());
+        for (ScheduledEmail scheduled : batch) {
+            emails.add(scheduled.email());
+        }
+        try {
+            sender.send(emails);
+        } catch (Exception e) {
+            onError.accept(emails, e);
+        } finally {
+            synchronized (this) {
+                if (!closed) {
+                    markDone(batch);
+                }
+            }
+        }
+    }
+
+    private void markDone(List<ScheduledEmail> scheduled) {
+        if (journal == null) {
+            return;
+        }
+        try {
+            for (ScheduledEmail email : scheduled) {
+                journal.done(email.id());
+            }
+        } catch (IOException e) {
+            LOGGER.log(System.Logger.Level.WARNING, "Failed to journal completed emails", e);
+        }
+    }
+
+    /**
+     * Builder for creating EmailScheduler instances.
+     */
+    public static class Builder {
+        private final BatchSender sender;
+        private Duration tick = Duration.ofMillis(100);
+        private int maxBatchSize = 100;
+        private Executor executor;
+        private Clock clock = Clock.systemUTC();
+        private BiConsumer<List<Email>, Exception> onError = (emails, e) ->
+            LOGGER.log(System.Logger.Level.WARNING, "Failed to send " + emails.size() + " scheduled emails", e);
+        private Path journal;
+
+        /**
+         * Creates a builder for a scheduler that sends through the given sender.
+         *
+         * @param sender Sends each batch, typically {@code client::sendEmails}
+         */
+        public Builder(BatchSender sender) {
+            if (sender == null) {
+                throw new IllegalArgumentException("Sender cannot be null");
+            }
+            this.sender = sender;
+        }
+
+        /**
+         * Sets the wheel resolution. Emails are released up to one tick late.
+         */
+        public Builder tick(Duration tick) {
+            if (tick == null || tick.toMillis() <= 0) {
+                throw new IllegalArgumentException("Tick must be at least one millisecond");
+            }
+            this.tick = tick;
+            return this;
+        }
+
+        /**
+         * Sets the largest number of emails passed to the sender at once.
+         */
+        public Builder maxBatchSize(int maxBatchSize) {
+            if (maxBatchSize <= 0) {
+                throw new IllegalArgumentException("Max batch size must be positive");
+            }
+            this.maxBatchSize = maxBatchSize;
+            return this;
+        }
+
+        /**
+         * Sets the executor that runs sends. The scheduler does not shut it down.
+         * Defaults to a virtual thread per batch.
+         */
+        public Builder executor(Executor executor) {
+            this.executor = executor;
+            return this;
+        }
+
+        public Builder clock(Clock clock) {
+            this.clock = clock;
+            return this;
+        }
+
+        /**
+         * Sets the handler for batches that fail to send and journal entries
+         * that cannot be restored. Defaults to logging a warning.
+         */
+        public Builder onError(BiConsumer<List<Email>, Exception> onError) {
+            this.onError = onError;
+            return this;
+        }
+
+        /**
+         * Persists pending emails to the given file.
+         */
+        public Builder journal(Path journal) {
+            this.journal = journal;
+            return this;
+        }
+
+        /**
+         * Builds the scheduler, restores pending emails from the journal and
+         * starts the ticker.
+         *
+         * @throws IOException if the journal cannot be read or rewritten
+         */
+        public EmailScheduler build() throws IOException {
+            return new EmailScheduler(this);
+        }
+    }
+}
@@ -0,0 +1,144 @@
+package com.laneful.scheduling;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Append-only log of scheduled and completed emails.
+ *
+ * <p>Opening a journal replays it, keeps the entries that were never completed
+ * and rewrites the file with only those, so it does not grow across restarts.
+ * While open, it is rewritten the same way once records of completed emails
+ * outnumber those of pending ones. A record cut short by a crash is ignored.
+ */
+final class ScheduleJournal implements Closeable {
+
+    private static final System.Logger LOGGER = System.getLogger(ScheduleJournal.class.getName());
+    private static final byte OP_SCHEDULE = 1;
+    private static final byte OP_DONE = 2;
+    private static final int DEFAULT_MIN_DEAD_RECORDS = 1024;
+
+    private final Path path;
+    private final int minDeadRecords;
+    private final List<Entry> pending;
+    private DataOutputStream out;
+    // Schedule records not yet completed, and records made obsolete by completions
+    private long liveRecords;
+    private long deadRecords;
+
+    record Entry(long id, long releaseAtMillis, byte[] email) {}
+
+    ScheduleJournal(Path path) throws IOException {
+        this(path, DEFAULT_MIN_DEAD_RECORDS);
+    }
+
+    ScheduleJournal(Path path, int minDeadRecords) throws IOException {
+        this.path = path;
+        this.minDeadRecords = minDeadRecords;
+        this.pending = compact();
+    }
+
+    /**
+     * Entries that were scheduled but not completed when the journal was opened.
+     */
+    List<Entry> pending() {
+        return pending;
+    }
+
+    synchronized void scheduled(long id, long releaseAtMillis, byte[] email) throws IOException {
+        writeSchedule(out, id, releaseAtMillis, email);
+        out.flush();
+        liveRecords++;
+    }
+
+    synchronized void done(long id) throws IOException {
+        out.writeByte(OP_DONE);
+        out.writeLong(id);
+        out.flush();
+        liveRecords--;
+        deadRecords += 2;
+        if (deadRecords >= minDeadRecords && deadRecords > liveRecords) {
+            out.close();
+            try {
+                compact();
+            } catch (IOException e) {
+                // The completion is recorded; keep appending to whichever file is in place
+                LOGGER.log(System.Logger.Level.WARNING, "Failed to compact schedule journal " + path, e);
+                out = openForAppend();
+            }
+        }
+    }
+
+    @Override
+    public synchronized void close() throws IOException {
+        out.close();
+    }
+
+    /**
+     * Replays the file, rewrites it with the pending entries only and opens
+     * it for appending.
+     */
+    private List<Entry> compact() throws IOException {
+        Map<Long, Entry> live = new LinkedHashMap<>();
+        if (Files.exists(path)) {
+            try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(path)))) {
+                while (true) {
+                    byte op = in.readByte();
+                    long id = in.readLong();
+                    if (op == OP_SCHEDULE) {
+                        long releaseAt = in.readLong();
+                        byte[] email = new byte[in.readInt()];
+                        in.readFully(email);
+                        live.put(id, new Entry(id, releaseAt, email));
+                    } else if (op == OP_DONE) {
+                        live.remove(id);
+                    } else {
+                        break;
+                    }
+                }
+            } catch (EOFException e) {
+                // End of journal, possibly a torn final record
+            }
+        }
+        List<Entry> entries = new ArrayList<>(live.values());
+
+        Path compacted = path.resolveSibling(path.getFileName() + ".tmp");
+        try (DataOutputStream rewrite = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(compacted)))) {
+            for (Entry entry : entries) {
+                writeSchedule(rewrite, entry.id(), entry.releaseAtMillis(), entry.email());
+            }
+        }
+        Files.move(compacted, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        this.out = openForAppend();
+        liveRecords = entries.size();
+        deadRecords = 0;
+        return entries;
+    }
+
+    private DataOutputStream openForAppend() throws IOException {
+        return new DataOutputStream(new BufferedOutputStream(
+            Files.newOutputStream(path, StandardOpenOption.APPEND)));
+    }
+
+    private static void writeSchedule(DataOutputStream out, long id, long releaseAtMillis, byte[] email)
+            throws IOException {
+        out.writeByte(OP_SCHEDULE);
+        out.writeLong(id);
+        out.writeLong(releaseAtMillis);
+        out.writeInt(email.length);
+        out.write(email);
+    }
+}
@@ -0,0 +1,46 @@
+package com.laneful.scheduling;
+
+import com.laneful.models.Email;
+
+import java.time.Instant;
+
+/**
+ * Handle for an email held by an {@link EmailScheduler}.
+ */
+public final class ScheduledEmail {
+
+    private final EmailScheduler scheduler;
+    private final long id;
+    private final Email email;
+    private final Instant releaseAt;
+    TimingWheel.Timer<ScheduledEmail> timer;
+
+    ScheduledEmail(EmailScheduler scheduler, long id, Email email, Instant releaseAt) {
+        this.scheduler = scheduler;
+        this.id = id;
+        this.email = email;
+        this.releaseAt = releaseAt;
+    }
+
+    public long id() { return id; }
+    public Email email() { return email; }
+    public Instant releaseAt() { return releaseAt; }
+
+    /**
+     * Cancels the email if it has not been released yet.
+     *
+     * @return true if the email was pending and will not be sent
+     */
+    public boolean cancel() {
+        return scheduler.cancel(this);
+    }
+
+    /**
+     * Whether the email is still waiting for its release time.
+     */
+    public boolean isPending() {
+        synchronized (scheduler) {
+            return timer.isPending();
+        }
+    }
+}
@@ -0,0 +1,169 @@
+package com.laneful.scheduling;
+
+import java.util.function.Consumer;
+
+/**
+ * Hierarchical timing wheel with O(1) insert and cancel.
+ *
+ * <p>Time is divided into ticks. Level 0 has one slot per tick for the next 64
+ * ticks, and each higher level has 64 slots that each cover a whole rotation of
+ * the level below. Timers far in the future sit in a coarse slot and are moved
+ * ("cascaded") down a level when their slot comes up, so advancing the wheel
+ * costs O(1) per tick plus the timers that move or fire.
+ *
+ * <p>Not thread-safe; callers synchronize externally.
+ *
+ * @param <T> Type of the value held by each timer
+ */
+final class TimingWheel<T> {
+
+    private static final int SLOT_BITS = 6;
+    private static final int SLOTS = 1 << SLOT_BITS;
+    private static final int SLOT_MASK = SLOTS - 1;
+    private static final int LEVELS = 6;
+
+    private final long tickMillis;
+    private final long startMillis;
+    private final Timer<T>[][] wheels;
+    private long currentTick;
+    private int size;
+
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    TimingWheel(long tickMillis, long startMillis) {
+        if (tickMillis <= 0) {
+            throw new IllegalArgumentException("Tick duration must be positive");
+        }
+        this.tickMillis = tickMillis;
+        this.startMillis = startMillis;
+        this.wheels = new Timer[LEVELS][SLOTS];
+        for (Timer<T>[] wheel : wheels) {
+            for (int slot = 0; slot < SLOTS; slot++) {
+                wheel[slot] = Timer.sentinel();
+            }
+        }
+    }
+
+    /**
+     * Adds a timer. Deadlines that are already due fire on the next tick.
+     */
+    Timer<T> add(T value, long deadlineMillis) {
+        long deadlineTick = Math.max(Math.ceilDiv(deadlineMillis - startMillis, tickMillis), currentTick + 1);
+        Timer<T> timer = new Timer<>(value, deadlineMillis, deadlineTick);
+        place(timer);
+        size++;
+        return timer;
+    }
+
+    /**
+     * Removes a pending timer.
+     *
+     * @return true if the timer was pending and is now cancelled
+     */
+    boolean cancel(Timer<T> timer) {
+        if (timer.prev == null) {
+            return false;
+        }
+        timer.unlink();
+        size--;
+        return true;
+    }
+
+    /**
+     * Advances the wheel to the given time, passing every expired timer to the
+     * consumer in deadline-tick order.
+     */
+    void advanceTo(long nowMillis, Consumer<Timer<T>> expired) {
+        long targetTick = Math.floorDiv(nowMillis - startMillis, tickMillis);
+        while (currentTick < targetTick) {
+            currentTick++;
+            cascade();
+            Timer<T> head = wheels[0][(int) (currentTick & SLOT_MASK)];
+            while (head.next != head) {
+                Timer<T> timer = head.next;
+                timer.unlink();
+                size--;
+                expired.accept(timer);
+            }
+        }
+    }
+
+    int size() {
+        return size;
+    }
+
+    private void cascade() {
+        // Highest level whose slot boundary was crossed, then move its timers down
+        int level = 0;
+        while (level < LEVELS - 1 && (currentTick & ((1L << (SLOT_BITS * (level + 1))) - 1)) == 0) {
+            level++;
+        }
+        for (; level >= 1; level--) {
+            Timer<T> head = wheels[level][(int) ((currentTick >>> (SLOT_BITS * level)) & SLOT_MASK)];
+            if (head.next == head) {
+                continue;
+            }
+            // Detach the slot first: a timer beyond the top level's range may land back in it
+            Timer<T> timer = head.next;
+            head.prev.next = null;
+            head.next = head;
+            head.prev = head;
+            while (timer != null) {
+                Timer<T> following = timer.next;
+                place(timer);
+                timer = following;
+            }
+        }
+    }
+
+    private void place(Timer<T> timer) {
+        long delta = timer.deadlineTick - currentTick;
+        int level = 0;
+        while (level < LEVELS - 1 && delta >= (1L << (SLOT_BITS * (level + 1)))) {
+            level++;
+        }
+        int slot = (int) ((timer.deadlineTick >>> (SLOT_BITS * level)) & SLOT_MASK);
+        timer.linkBefore(wheels[level][slot]);
+    }
+
+    /**
+     * Pending timer; a node in its slot's circular list.
+     */
+    static final class Timer<T> {
+        final T value;
+        final long deadlineMillis;
+        final long deadlineTick;
+        private Timer<T> prev;
+        private Timer<T> next;
+
+        private Timer(T value, long deadlineMillis, long deadlineTick) {
+            this.value = value;
+            this.deadlineMillis = deadlineMillis;
+            this.deadlineTick = deadlineTick;
+        }
+
+        static <T> Timer<T> sentinel() {
+            Timer<T> head = new Timer<>(null, 0, 0);
+            head.prev = head;
+            head.next = head;
+            return head;
+        }
+
+        boolean isPending() {
+            return prev != null;
+        }
+
+        private void linkBefore(Timer<T> head) {
+            prev = head.prev;
+            next = head;
+            head.prev.next = this;
+            head.prev = this;
+        }
+
+        private void unlink() {
+            prev.next = next;
+            next.prev = prev;
+            prev = null;
+            next = null;
+        }
+    }
+}
@@ -0,0 +1,313 @@
+package com.laneful.suppression;
+
+import com.laneful.webhooks.BounceEvent;
+import com.laneful.webhooks.SpamComplaintEvent;
+import com.laneful.webhooks.UnsubscribeEvent;
+import com.laneful.webhooks.WebhookEvent;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.StampedLock;
+import java.util.function.Consumer;
+
+/**
+ * Set of email addresses that must not be mailed again, such as hard
+ * bounces, spam complaints and unsubscribes.
+ *
+ * <p>Addresses are trimmed, lower-cased and hashed to 64 bits. The hashes are
+ * kept in an open-addressing table in direct memory, outside the Java heap,
+ * so tens of millions of addresses cost 12 to 24 bytes each and add nothing
+ * to garbage collection. A blocked Bloom filter in front of the table answers
+ * most lookups for addresses that are not suppressed with a single memory
+ * access.
+ *
+ * <p>The list implements {@code Consumer<WebhookEvent>} so it can be
+ * registered as a webhook handler. Register it on a client with
+ * {@link com.laneful.client.LanefulClient#withSuppressionList} to check
+ * recipients before every send:
+ *
+ * <pre>{@code
+ * SuppressionList suppressions = new SuppressionList.Builder().capacity(20_000_000).build();
+ * WebhookReceiver receiver = new WebhookReceiver.Builder("your-webhook-secret")
+ *     .handler(suppressions)
+ *     .build();
+ * LanefulClient client = new LanefulClient(baseUrl, token)
+ *     .withSuppressionList(suppressions, SuppressionMode.DROP);
+ * }</pre>
+ *
+ * <p>Lookups do not block and may run concurrently with updates. Two
+ * different addresses with the same 64-bit hash are indistinguishable, which
+ * is vanishingly unlikely at this size. Once the list holds its capacity,
+ * further addresses are not recorded and are counted in
+ * {@link Stats#overflows()}.
+ */
+public final class SuppressionList implements Consumer<WebhookEvent> {
+
+    private static final VarHandle LONGS =
+        MethodHandles.byteBufferViewVarHandle(long[].class, ByteOrder.nativeOrder());
+    // Keeps the table within one direct buffer
+    private static final int MAX_SLOTS = 1 << 27;
+    private static final int BLOOM_BITS_PER_KEY = 10;
+    private static final int BLOOM_HASHES = 6;
+
+    private final ByteBuffer table;
+    private final int mask;
+    private final int limit;
+    private final ByteBuffer bloom;
+    private final int bloomMask;
+    private final boolean suppressGroupUnsubscribes;
+    private final StampedLock lock = new StampedLock();
+    private final LongAdder overflows = new LongAdder();
+    private int size;
+
+    private SuppressionList(Builder builder) {
+        this.limit = builder.capacity;
+        // Load factor of at most three quarters
+        int slots = Integer.highestOneBit(Math.max(2, (int) Math.min(MAX_SLOTS, limit * 4L / 3))) << 1;
+        slots = Math.min(slots, MAX_SLOTS);
+        this.table = ByteBuffer.allocateDirect(slots * Long.BYTES).order(ByteOrder.nativeOrder());
+        this.mask = slots - 1;
+        long bloomWords = Math.max(1, (long) limit * BLOOM_BITS_PER_KEY / Long.SIZE);
+        int words = Integer.highestOneBit((int) Math.min(MAX_SLOTS / 2, bloomWords * 2 - 1));
+        this.bloom = ByteBuffer.allocateDirect(Math.max(1, words) * Long.BYTES).order(ByteOrder.nativeOrder());
+        this.bloomMask = Math.max(1, words) - 1;
+        this.suppressGroupUnsubscribes = builder.suppressGroupUnsubscribes;
+    }
+
+    /**
+     * Suppresses an address.
+     *
+     * @return true if the address was not already suppressed
+     */
+    public boolean add(String email) {
+        long key = key(email);
+        long stamp = lock.writeLock();
+        try {
+            int slot = find(key);
+            if (slot >= 0) {
+                return false;
+            }
+            if (size >= limit) {
+                overflows.increment();
+                return false;
+            }
+            setBloom(key);
+            int i = (int) key & mask;
+            while (slot(i) != 0) {
+                i = (i + 1) & mask;
+            }
+            LONGS.setRelease(table, i * Long.BYTES, key);
+            size++;
+            return true;
+        } finally {
+            lock.unlockWrite(stamp);
+        }
+    }
+
+    /**
+     * Lifts the suppression of an address, for example after it has been
+     * confirmed again.
+     *
+     * @return true if the address was suppressed
+     */
+    public boolean remove(String email) {
+        long key = key(email);
+        long stamp = lock.writeLock();
+        try {
+            int hole = find(key);
+            if (hole < 0) {
+                return false;
+            }
+            // Shift later entries of the probe sequence back so lookups still find them
+            for (int i = (hole + 1) & mask; ; i = (i + 1) & mask) {
+                long entry = slot(i);
+                if (entry == 0) {
+                    break;
+                }
+                int home = (int) entry & mask;
+                if (((i - home) & mask) >= ((i - hole) & mask)) {
+                    LONGS.setRelease(table, hole * Long.BYTES, entry);
+                    hole = i;
+                }
+            }
+            LONGS.setRelease(table, hole * Long.BYTES, 0L);
+            size--;
+            return true;
+        } finally {
+            lock.unlockWrite(stamp);
+        }
+    }
+
+    /**
+     * Checks whether an address is suppressed.
+     */
+    public boolean contains(String email) {
+        long key = key(email);
+        if (!mightContain(key)) {
+            return false;
+        }
+        long stamp = lock.tryOptimisticRead();
+        if (stamp != 0) {
+            boolean found = find(key) >= 0;
+            if (lock.validate(stamp)) {
+                return found;
+            }
+        }
+        stamp = lock.readLock();
+        try {
+            return find(key) >= 0;
+        } finally {
+            lock.unlockRead(stamp);
+        }
+    }
+
+    /**
+     * Suppresses the recipient of a hard bounce, spam complaint or
+     * unsubscribe. Other events are ignored.
+     */
+    @Override
+    public void accept(WebhookEvent event) {
+        boolean suppress = switch (event) {
+            case BounceEvent bounce -> bounce.isHard();
+            case SpamComplaintEvent complaint -> true;
+            case UnsubscribeEvent unsubscribe ->
+                unsubscribe.unsubscribeGroupId() == null || suppressGroupUnsubscribes;
+            default -> false;
+        };
+        if (suppress && event.email() != null) {
+            add(event.email());
+        }
+    }
+
+    public int size() {
+        long stamp = lock.readLock();
+        try {
+            return size;
+        } finally {
+            lock.unlockRead(stamp);
+        }
+    }
+
+    public Stats stats() {
+        return new Stats(size(), table.capacity() + (long) bloom.capacity(), overflows.sum());
+    }
+
+    /**
+     * Probes the table for a key, returning its slot or -1.
+     */
+    private int find(long key) {
+        for (int i = (int) key & mask; ; i = (i + 1) & mask) {
+            long entry = slot(i);
+            if (entry == key) {
+                return i;
+            }
+            if (entry == 0) {
+                return -1;
+            }
+        }
+    }
+
+    private long slot(int i) {
+        return (long) LONGS.getAcquire(table, i * Long.BYTES);
+    }
+
+    private boolean mightContain(long key) {
+        long bits = bloomBits(key);
+        long word = (long) LONGS.getAcquire(bloom, bloomWord(key) * Long.BYTES);
+        return (word & bits) == bits;
+    }
+
+    private void setBloom(long key) {
+        LONGS.getAndBitwiseOrRelease(bloom, bloomWord(key) * Long.BYTES, bloomBits(key));
+    }
+
+    private int bloomWord(long key) {
+        return (int) (key >>> 32) & bloomMask;
+    }
+
+    /**
+     * Picks the filter bits within one 64-bit word, six bits of the key per
+     * hash.
+     */
+    private static long bloomBits(long key) {
+        long bits = 0;
+        for (int i = 0; i < BLOOM_HASHES; i++) {
+            bits |= 1L << ((key >>> (i * 6)) & 63);
+        }
+        return bits;
+    }
+
+    /**
+     * Hashes an address, ignoring surrounding whitespace and case.
+     */
+    static long key(String email) {
+        if (email == null) {
+            throw new IllegalArgumentException("Email cannot be null");
+        }
+        int start = 0;
+        int end = email.length();
+        while (start < end && Character.isWhitespace(email.charAt(start))) {
+            start++;
+        }
+        while (end > start && Character.isWhitespace(email.charAt(end - 1))) {
+            end--;
+        }
+        long hash = 0xcbf29ce484222325L;
+        for (int i = start; i < end; i++) {
+            hash = (hash ^ Character.toLowerCase(email.charAt(i))) * 0x100000001b3L;
+        }
+        hash ^= hash >>> 33;
+        hash *= 0xff51afd7ed558ccdL;
+        hash ^= hash >>> 33;
+        hash *= 0xc4ceb9fe1a85ec53L;
+        hash ^= hash >>> 33;
+        return hash == 0 ? 1 : hash;
+    }
+
+    /**
+     * Suppression list usage.
+     *
+     * @param size Addresses suppressed
+     * @param offHeapBytes Direct memory used by the table and filter
+     * @param overflows Addresses not recorded because the list was full
+     */
+    public record Stats(int size, long offHeapBytes, long overflows) {}
+
+    /**
+     * Builder for creating SuppressionList instances.
+     */
+    public static class Builder {
+        private int capacity = 1_000_000;
+        private boolean suppressGroupUnsubscribes;
+
+        /**
+         * Sets how many addresses the list can hold. Memory is allocated up
+         * front, 12 to 24 bytes per address depending on how close the
+         * capacity is to a power of two. Defaults to one million.
+         */
+        public Builder capacity(int capacity) {
+            if (capacity <= 0 || capacity > MAX_SLOTS / 4 * 3) {
+                throw new IllegalArgumentException("Capacity must be between 1 and " + MAX_SLOTS / 4 * 3);
+            }
+            this.capacity = capacity;
+            return this;
+        }
+
+        /**
+         * Also suppresses addresses that unsubscribed from a single
+         * unsubscribe group. By default only global unsubscribes are
+         * suppressed.
+         */
+        public Builder suppressGroupUnsubscribes(boolean suppressGroupUnsubscribes) {
+            this.suppressGroupUnsubscribes = suppressGroupUnsubscribes;
+            return this;
+        }
+
+        public SuppressionList build() {
+            return new SuppressionList(this);
+        }
+    }
+}
@@ -0,0 +1,20 @@
+package com.laneful.suppression;
+
+/**
+ * Controls what a client does with recipients on its {@link SuppressionList}.
+ */
+public enum SuppressionMode {
+
+    /**
+     * Removes suppressed recipients and sends to the rest. Emails left without
+     * recipients are not sent.
+     */
+    DROP,
+
+    /**
+     * Sends nothing and throws a
+     * {@link com.laneful.exceptions.SuppressedRecipientsException} listing the
+     * suppressed recipients.
+     */
+    REJECT
+}
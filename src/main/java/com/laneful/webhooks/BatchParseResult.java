@@ -0,0 +1,25 @@
+package com.laneful.webhooks;
+
+import java.util.List;
+
+/**
+ * Outcome of parsing a batch where invalid events are reported rather than
+ * failing the whole batch.
+ *
+ * @param events Valid events in payload order
+ * @param errors Invalid events in payload order
+ */
+public record BatchParseResult(List<WebhookEvent> events, List<EventError> errors) {
+
+    /**
+     * An event that failed validation.
+     *
+     * @param index Position of the event in the batch array
+     * @param message Why the event was rejected
+     */
+    public record EventError(int index, String message) {}
+
+    public boolean hasErrors() {
+        return !errors.isEmpty();
+    }
+}
@@ -0,0 +1,25 @@
+package com.laneful.webhooks;
+
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Email bounced; {@code isHard} distinguishes permanent failures.
+ */
+public record BounceEvent(
+    String email,
+    UUID laneId,
+    String messageId,
+    long timestamp,
+    String tag,
+    Map<String, Object> metadata,
+    boolean isHard,
+    String text,
+    String reason
+) implements WebhookEvent {
+
+    @Override
+    public WebhookEventType type() {
+        return WebhookEventType.BOUNCE;
+    }
+}
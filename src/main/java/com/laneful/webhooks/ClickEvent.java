@@ -0,0 +1,26 @@
+package com.laneful.webhooks;
+
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Link clicked in an email.
+ */
+public record ClickEvent(
+    String email,
+    UUID laneId,
+    String messageId,
+    long timestamp,
+    String tag,
+    Map<String, Object> metadata,
+    String url,
+    String clientDevice,
+    String clientOs,
+    String clientIp
+) implements WebhookEvent {
+
+    @Override
+    public WebhookEventType type() {
+        return WebhookEventType.CLICK;
+    }
+}
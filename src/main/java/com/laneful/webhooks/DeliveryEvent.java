@@ -0,0 +1,22 @@
+package com.laneful.webhooks;
+
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Email delivered successfully.
+ */
+public record DeliveryEvent(
+    String email,
+    UUID laneId,
+    String messageId,
+    long timestamp,
+    String tag,
+    Map<String, Object> metadata
+) implements WebhookEvent {
+
+    @Override
+    public WebhookEventType type() {
+        return WebhookEventType.DELIVERY;
+    }
+}
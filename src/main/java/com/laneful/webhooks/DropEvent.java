@@ -0,0 +1,23 @@
+package com.laneful.webhooks;
+
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Email dropped before sending.
+ */
+public record DropEvent(
+    String email,
+    UUID laneId,
+    String messageId,
+    long timestamp,
+    String tag,
+    Map<String, Object> metadata,
+    String reason
+) implements WebhookEvent {
+
+    @Override
+    public WebhookEventType type() {
+        return WebhookEventType.DROP;
+    }
+}
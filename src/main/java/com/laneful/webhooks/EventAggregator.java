@@ -0,0 +1,446 @@
+package com.laneful.webhooks;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongFieldUpdater;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Consumer;
+
+/**
+ * In-process sliding-window counts of webhook events, overall and per
+ * {@code tag} and {@code lane_id}.
+ *
+ * <p>Each configured window (1, 5 and 60 minutes by default) is a ring of
+ * time buckets holding one {@link LongAdder} per event type. Recording an
+ * event increments the current bucket of every window without locking, and
+ * a snapshot sums the buckets still inside the window. Windows therefore
+ * slide in steps of one bucket, and an event recorded exactly as a bucket
+ * rotates may be counted in the neighbouring bucket. Events are bucketed by
+ * the time they are recorded, not by their {@code timestamp}.
+ *
+ * <pre>{@code
+ * EventAggregator aggregator = new EventAggregator.Builder().build();
+ * WebhookReceiver receiver = new WebhookReceiver.Builder("your-webhook-secret")
+ *     .handler(aggregator)
+ *     .build();
+ *
+ * EventAggregator.Snapshot lastHour = aggregator.byTag("newsletter", Duration.ofHours(1));
+ * if (lastHour.bounceRate() > 0.05) {
+ *     alert("newsletter bounce rate " + lastHour.bounceRate());
+ * }
+ * }</pre>
+ *
+ * <p>At most {@code maxKeys} distinct tags and lanes are tracked each. A key
+ * with no events left in any window is dropped when the limit is reached or
+ * the keys are listed, making room for new ones. Events for keys beyond the
+ * limit still count towards the totals and are reported in
+ * {@link Stats#overflows()}. An event recorded for a key at the moment it is
+ * dropped may be missed in that key's counts.
+ */
+public final class EventAggregator implements Consumer<WebhookEvent> {
+
+    private static final WebhookEventType[] TYPES = WebhookEventType.values();
+
+    private final Clock clock;
+    private final List<Duration> windows;
+    private final long[] bucketMillis;
+    private final int bucketsPerWindow;
+    private final int maxKeys;
+    private final Counters total;
+    private final ConcurrentHashMap<String, Counters> tags = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<UUID, Counters> lanes = new ConcurrentHashMap<>();
+    private final LongAdder overflows = new LongAdder();
+    // Keys can only age out at bucket boundaries, so sweeping on overflow is limited to one per bucket
+    private final long sweepMillis;
+    private final AtomicLong nextSweep = new AtomicLong();
+
+    private EventAggregator(Builder builder) {
+        this.clock = builder.clock;
+        this.windows = List.copyOf(builder.windows);
+        this.bucketsPerWindow = builder.bucketsPerWindow;
+        this.maxKeys = builder.maxKeys;
+        this.bucketMillis = new long[windows.size()];
+        for (int w = 0; w < bucketMillis.length; w++) {
+            bucketMillis[w] = Math.max(1, Math.ceilDiv(windows.get(w).toMillis(), bucketsPerWindow));
+        }
+        this.sweepMillis = Arrays.stream(bucketMillis).min().orElseThrow();
+        this.total = new Counters();
+    }
+
+    /**
+     * Records an event. Can be registered directly as a receiver or
+     * dispatcher handler.
+     */
+    @Override
+    public void accept(WebhookEvent event) {
+        long now = clock.millis();
+        int type = event.type().ordinal();
+        total.add(type, now);
+        if (event.tag() != null) {
+            Counters counters = countersFor(tags, event.tag(), now);
+            if (counters != null) {
+                counters.add(type, now);
+            }
+        }
+        if (event.laneId() != null) {
+            Counters counters = countersFor(lanes, event.laneId(), now);
+            if (counters != null) {
+                counters.add(type, now);
+            }
+        }
+    }
+
+    /**
+     * Counts for all events within a window.
+     *
+     * @param window One of the configured windows
+     */
+    public Snapshot total(Duration window) {
+        return total.snapshot(windowIndex(window), clock.millis());
+    }
+
+    /**
+     * Counts for events with the given tag within a window. Unknown tags
+     * return an empty snapshot.
+     *
+     * @param window One of the configured windows
+     */
+    public Snapshot byTag(String tag, Duration window) {
+        return snapshot(tags.get(tag), window);
+    }
+
+    /**
+     * Counts for events in the given lane within a window. Unknown lanes
+     * return an empty snapshot.
+     *
+     * @param window One of the configured windows
+     */
+    public Snapshot byLane(UUID laneId, Duration window) {
+        return snapshot(lanes.get(laneId), window);
+    }
+
+    /**
+     * Counts for every tracked tag within a window.
+     *
+     * @param window One of the configured windows
+     */
+    public Map<String, Snapshot> tags(Duration window) {
+        return snapshots(tags, window);
+    }
+
+    /**
+     * Counts for every tracked lane within a window.
+     *
+     * @param window One of the configured windows
+     */
+    public Map<UUID, Snapshot> lanes(Duration window) {
+        return snapshots(lanes, window);
+    }
+
+    public Stats stats() {
+        return new Stats(tags.size(), lanes.size(), overflows.sum());
+    }
+
+    private <K> Counters countersFor(ConcurrentHashMap<K, Counters> map, K key, long now) {
+        Counters counters = map.get(key);
+        if (counters != null) {
+            return counters;
+        }
+        if (map.size() >= maxKeys) {
+            long due = nextSweep.get();
+            if (now >= due && nextSweep.compareAndSet(due, now + sweepMillis)) {
+                sweep(tags, now);
+                sweep(lanes, now);
+            }
+            if (map.size() >= maxKeys) {
+                overflows.increment();
+                return null;
+            }
+        }
+        return map.computeIfAbsent(key, k -> new Counters());
+    }
+
+    /**
+     * Drops keys with no events left in any window.
+     */
+    private static <K> void sweep(ConcurrentHashMap<K, Counters> map, long now) {
+        map.forEach((key, counters) -> {
+            if (counters.idle(now)) {
+                map.remove(key, counters);
+            }
+        });
+    }
+
+    private Snapshot snapshot(Counters counters, Duration window) {
+        int w = windowIndex(window);
+        return counters == null ? Snapshot.empty(windows.get(w)) : counters.snapshot(w, clock.millis());
+    }
+
+    private <K> Map<K, Snapshot> snapshots(ConcurrentHashMap<K, Counters> map, Duration window) {
+        int w = windowIndex(window);
+        long now = clock.millis();
+        sweep(map, now);
+        Map<K, Snapshot> result = new HashMap<>();
+        map.forEach((key, counters) -> result.put(key, counters.snapshot(w, now)));
+        return result;
+    }
+
+    private int windowIndex(Duration window) {
+        int w = windows.indexOf(window);
+        if (w < 0) {
+            throw new IllegalArgumentException("Window " + window + " is not one of " + windows);
+        }
+        return w;
+    }
+
+    /**
+     * One ring of buckets per window for a single key.
+     */
+    private final class Counters {
+        private final Bucket[][] rings = new Bucket[windows.size()][bucketsPerWindow];
+
+        Counters() {
+            for (Bucket[] ring : rings) {
+                for (int b = 0; b < ring.length; b++) {
+                    ring[b] = new Bucket();
+                }
+            }
+        }
+
+        void add(int type, long now) {
+            for (int w = 0; w < rings.length; w++) {
+                long epoch = Math.floorDiv(now, bucketMillis[w]);
+                rings[w][Math.floorMod(epoch, bucketsPerWindow)].claim(epoch).counts[type].increment();
+            }
+        }
+
+        Snapshot snapshot(int w, long now) {
+            long epoch = Math.floorDiv(now, bucketMillis[w]);
+            long[] counts = new long[TYPES.length];
+            for (Bucket bucket : rings[w]) {
+                long bucketEpoch = bucket.epoch;
+                if (bucketEpoch > epoch - bucketsPerWindow && bucketEpoch <= epoch) {
+                    for (int t = 0; t < counts.length; t++) {
+                        counts[t] += bucket.counts[t].sum();
+                    }
+                }
+            }
+            return Snapshot.of(windows.get(w), counts);
+        }
+
+        /**
+         * Whether every bucket has aged out of its window.
+         */
+        boolean idle(long now) {
+            for (int w = 0; w < rings.length; w++) {
+                long epoch = Math.floorDiv(now, bucketMillis[w]);
+                for (Bucket bucket : rings[w]) {
+                    long bucketEpoch = bucket.epoch;
+                    // A bucket being reset is about to count an event
+                    if (bucketEpoch == Bucket.RESETTING || bucketEpoch > epoch - bucketsPerWindow) {
+                        return false;
+                    }
+                }
+            }
+            return true;
+        }
+    }
+
+    private static final class Bucket {
+        private static final AtomicLongFieldUpdater<Bucket> EPOCH =
+            AtomicLongFieldUpdater.newUpdater(Bucket.class, "epoch");
+        // Marks a bucket being cleared for a new epoch
+        private static final long RESETTING = Long.MIN_VALUE;
+
+        final LongAdder[] counts = new LongAdder[TYPES.length];
+        volatile long epoch = RESETTING + 1;
+
+        Bucket() {
+            Arrays.setAll(counts, t -> new LongAdder());
+        }
+
+        /**
+         * Returns this bucket ready to count events for the given epoch,
+         * clearing it first if it holds an older one.
+         */
+        Bucket claim(long target) {
+            while (true) {
+                long current = epoch;
+                if (current == target) {
+                    return this;
+                }
+                if (current == RESETTING) {
+                    Thread.onSpinWait();
+                } else if (current > target) {
+                    // The clock moved backwards; count in the newer bucket
+                    return this;
+                } else if (EPOCH.compareAndSet(this, current, RESETTING)) {
+                    for (LongAdder count : counts) {
+                        count.reset();
+                    }
+                    epoch = target;
+                    return this;
+                }
+            }
+        }
+    }
+
+    /**
+     * Event counts within a window.
+     */
+    public record Snapshot(
+        Duration window,
+        long delivered,
+        long opened,
+        long clicked,
+        long bounced,
+        long dropped,
+        long spamComplaints,
+        long unsubscribed
+    ) {
+
+        static Snapshot empty(Duration window) {
+            return new Snapshot(window, 0, 0, 0, 0, 0, 0, 0);
+        }
+
+        static Snapshot of(Duration window, long[] counts) {
+            return new Snapshot(window,
+                counts[WebhookEventType.DELIVERY.ordinal()],
+                counts[WebhookEventType.OPEN.ordinal()],
+                counts[WebhookEventType.CLICK.ordinal()],
+                counts[WebhookEventType.BOUNCE.ordinal()],
+                counts[WebhookEventType.DROP.ordinal()],
+                counts[WebhookEventType.SPAM_COMPLAINT.ordinal()],
+                counts[WebhookEventType.UNSUBSCRIBE.ordinal()]);
+        }
+
+        public long count(WebhookEventType type) {
+            return switch (type) {
+                case DELIVERY -> delivered;
+                case OPEN -> opened;
+                case CLICK -> clicked;
+                case BOUNCE -> bounced;
+                case DROP -> dropped;
+                case SPAM_COMPLAINT -> spamComplaints;
+                case UNSUBSCRIBE -> unsubscribed;
+            };
+        }
+
+        /**
+         * Emails that reached a final sending outcome: delivered, bounced or dropped.
+         */
+        public long attempted() {
+            return delivered + bounced + dropped;
+        }
+
+        /**
+         * Delivered emails as a fraction of attempted ones, or 0 if none.
+         */
+        public double deliveryRate() {
+            return ratio(delivered, attempted());
+        }
+
+        /**
+         * Bounced emails as a fraction of attempted ones, or 0 if none.
+         */
+        public double bounceRate() {
+            return ratio(bounced, attempted());
+        }
+
+        /**
+         * Spam complaints as a fraction of delivered emails, or 0 if none.
+         */
+        public double spamComplaintRate() {
+            return ratio(spamComplaints, delivered);
+        }
+
+        /**
+         * Open events as a fraction of delivered emails, or 0 if none. Counts
+         * every open, so repeated opens can push it above 1.
+         */
+        public double openRate() {
+            return ratio(opened, delivered);
+        }
+
+        private static double ratio(long count, long total) {
+            return total == 0 ? 0 : (double) count / total;
+        }
+    }
+
+    /**
+     * Key tracking counters.
+     *
+     * @param tags Distinct tags tracked
+     * @param lanes Distinct lanes tracked
+     * @param overflows Events not counted per tag or lane because the key limit was reached
+     */
+    public record Stats(int tags, int lanes, long overflows) {}
+
+    /**
+     * Builder for creating EventAggregator instances.
+     */
+    public static class Builder {
+        private List<Duration> windows = List.of(Duration.ofMinutes(1), Duration.ofMinutes(5), Duration.ofHours(1));
+        private int bucketsPerWindow = 12;
+        private int maxKeys = 1_000;
+        private Clock clock = Clock.systemUTC();
+
+        /**
+         * Sets the windows that can be queried. Defaults to 1, 5 and 60 minutes.
+         */
+        public Builder windows(Duration... windows) {
+            if (windows == null || windows.length == 0) {
+                throw new IllegalArgumentException("At least one window is required");
+            }
+            for (Duration window : windows) {
+                if (window == null || window.toMillis() <= 0) {
+                    throw new IllegalArgumentException("Windows must be positive");
+                }
+            }
+            this.windows = List.of(windows);
+            return this;
+        }
+
+        /**
+         * Sets how many buckets each window is divided into, and so how
+         * smoothly it slides. Defaults to 12.
+         */
+        public Builder bucketsPerWindow(int bucketsPerWindow) {
+            if (bucketsPerWindow < 2) {
+                throw new IllegalArgumentException("Buckets per window must be at least 2");
+            }
+            this.bucketsPerWindow = bucketsPerWindow;
+            return this;
+        }
+
+        /**
+         * Sets how many distinct tags, and separately lanes, are tracked.
+         * Each key holds one bucket of seven counters per bucket of every
+         * window, about 300 bytes, so about 11 KB with the default windows and
+         * buckets. Defaults to 1,000, about 11 MB each for tags and lanes.
+         */
+        public Builder maxKeys(int maxKeys) {
+            if (maxKeys < 0) {
+                throw new IllegalArgumentException("Max keys cannot be negative");
+            }
+            this.maxKeys = maxKeys;
+            return this;
+        }
+
+        public Builder clock(Clock clock) {
+            this.clock = clock;
+            return this;
+        }
+
+        public EventAggregator build() {
+            return new EventAggregator(this);
+        }
+    }
+}
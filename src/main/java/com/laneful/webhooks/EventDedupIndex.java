@@ -0,0 +1,331 @@
+package com.laneful.webhooks;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.OverlappingFileLockException;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Clock;
+import java.time.Duration;
+
+/**
+ * Persistent index of processed {@code (message_id, event)} pairs, used to
+ * skip webhook events that Laneful delivers more than once.
+ *
+ * <p>The index is a set of open-addressing hash tables of 64-bit keys in a
+ * memory-mapped file, so lookups touch no heap objects and entries survive
+ * restarts. Time is divided into generations. New keys go into the current
+ * generation, and the oldest generation is cleared when a new one begins, so
+ * the file has a fixed size and entries expire after the retention period.
+ *
+ * <pre>{@code
+ * try (EventDedupIndex index = new EventDedupIndex.Builder(Path.of("webhook-dedup.idx"))
+ *         .capacity(5_000_000)
+ *         .retention(Duration.ofDays(3))
+ *         .open()) {
+ *     WebhookEventParser.forEach(body, event -> {
+ *         if (index.markIfAbsent(event)) {
+ *             process(event);
+ *         }
+ *     });
+ * }
+ * }</pre>
+ *
+ * <p>Writes reach the operating system's page cache immediately and survive a
+ * process crash. Call {@link #force()} to also survive a power failure. If a
+ * generation fills up before it rotates, further keys are not recorded. They
+ * are still reported as new and counted in {@link Stats#overflows()}.
+ *
+ * <p>Only one process can have the file open at a time.
+ */
+public final class EventDedupIndex implements Closeable {
+
+    private static final int MAGIC = 0x4C444458; // "LDDX"
+    private static final int VERSION = 1;
+    private static final int FILE_HEADER_SIZE = 64;
+    private static final int GENERATION_HEADER_SIZE = 64;
+    private static final int EPOCH_OFFSET = 0;
+    private static final int COUNT_OFFSET = 8;
+    // Keeps each generation's mapping below 2 GB
+    private static final int MAX_SLOTS = 1 << 27;
+    private static final byte[] ZEROS = new byte[64 * 1024];
+
+    private final FileChannel channel;
+    private final Clock clock;
+    private final long generationMillis;
+    private final int slots;
+    private final int mask;
+    private final int limit;
+    private final MappedByteBuffer[] tables;
+    private final long[] epochs;
+    private final int[] counts;
+    private long currentEpoch = Long.MIN_VALUE;
+    private int current;
+    private long overflows;
+    private boolean closed;
+
+    private EventDedupIndex(Builder builder) throws IOException {
+        int generations = builder.generations;
+        this.clock = builder.clock;
+        this.generationMillis = Math.max(1, Math.ceilDiv(builder.retention.toMillis(), generations - 1));
+        this.limit = builder.capacity;
+        // Load factor of at most one half keeps probe sequences short
+        this.slots = Integer.highestOneBit(Math.max(2, limit * 2 - 1)) << 1;
+        this.mask = slots - 1;
+        long tableBytes = GENERATION_HEADER_SIZE + (long) slots * Long.BYTES;
+
+        this.channel = FileChannel.open(builder.path,
+            StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        try {
+            boolean locked;
+            try {
+                locked = channel.tryLock() != null;
+            } catch (OverlappingFileLockException e) {
+                locked = false;
+            }
+            if (!locked) {
+                throw new IOException("Dedup index " + builder.path + " is already open");
+            }
+            MappedByteBuffer header = channel.map(FileChannel.MapMode.READ_WRITE, 0, FILE_HEADER_SIZE);
+            if (header.getInt(0) == 0) {
+                header.putInt(4, VERSION);
+                header.putInt(8, generations);
+                header.putInt(12, slots);
+                header.putLong(16, generationMillis);
+                header.putInt(0, MAGIC);
+            } else if (header.getInt(0) != MAGIC || header.getInt(4) != VERSION) {
+                throw new IOException("Not a dedup index: " + builder.path);
+            } else if (header.getInt(8) != generations || header.getInt(12) != slots
+                    || header.getLong(16) != generationMillis) {
+                throw new IOException("Dedup index " + builder.path + " was created with different settings");
+            }
+
+            this.tables = new MappedByteBuffer[generations];
+            this.epochs = new long[generations];
+            this.counts = new int[generations];
+            for (int g = 0; g < generations; g++) {
+                tables[g] = channel.map(FileChannel.MapMode.READ_WRITE, FILE_HEADER_SIZE + g * tableBytes, tableBytes);
+                epochs[g] = tables[g].getLong(EPOCH_OFFSET);
+                counts[g] = tables[g].getInt(COUNT_OFFSET);
+            }
+        } catch (IOException | RuntimeException e) {
+            channel.close();
+            throw e;
+        }
+    }
+
+    /**
+     * Records an event if it has not been seen within the retention period.
+     *
+     * @param event The parsed event
+     * @return true if the event is new and should be processed
+     */
+    public boolean markIfAbsent(WebhookEvent event) {
+        return markIfAbsent(event.messageId(), event.type());
+    }
+
+    /**
+     * Records a {@code (message_id, event)} pair if it has not been seen
+     * within the retention period.
+     *
+     * @return true if the pair is new
+     */
+    public synchronized boolean markIfAbsent(String messageId, WebhookEventType type) {
+        long key = key(messageId, type);
+        rotate();
+        if (find(key)) {
+            return false;
+        }
+        if (counts[current] >= limit) {
+            overflows++;
+            return true;
+        }
+        MappedByteBuffer table = tables[current];
+        int i = (int) key & mask;
+        while (table.getLong(slotOffset(i)) != 0) {
+            i = (i + 1) & mask;
+        }
+        table.putLong(slotOffset(i), key);
+        table.putInt(COUNT_OFFSET, ++counts[current]);
+        return true;
+    }
+
+    /**
+     * Checks for an event without recording it.
+     */
+    public synchronized boolean contains(WebhookEvent event) {
+        rotate();
+        return find(key(event.messageId(), event.type()));
+    }
+
+    /**
+     * Writes recorded entries through to the storage device.
+     */
+    public synchronized void force() {
+        ensureOpen();
+        for (MappedByteBuffer table : tables) {
+            table.force();
+        }
+    }
+
+    public synchronized Stats stats() {
+        ensureOpen();
+        rotate();
+        long entries = 0;
+        for (int g = 0; g < tables.length; g++) {
+            if (isLive(g)) {
+                entries += counts[g];
+            }
+        }
+        return new Stats(entries, overflows);
+    }
+
+    @Override
+    public synchronized void close() throws IOException {
+        if (!closed) {
+            closed = true;
+            channel.close();
+        }
+    }
+
+    private boolean find(long key) {
+        for (int g = 0; g < tables.length; g++) {
+            if (counts[g] == 0 || !isLive(g)) {
+                continue;
+            }
+            MappedByteBuffer table = tables[g];
+            for (int i = (int) key & mask; ; i = (i + 1) & mask) {
+                long slot = table.getLong(slotOffset(i));
+                if (slot == key) {
+                    return true;
+                }
+                if (slot == 0) {
+                    break;
+                }
+            }
+        }
+        return false;
+    }
+
+    private boolean isLive(int generation) {
+        return epochs[generation] > currentEpoch - tables.length && epochs[generation] <= currentEpoch;
+    }
+
+    private void rotate() {
+        ensureOpen();
+        long epoch = Math.floorDiv(clock.millis(), generationMillis);
+        if (epoch <= currentEpoch) {
+            return;
+        }
+        currentEpoch = epoch;
+        current = Math.floorMod(epoch, tables.length);
+        if (epochs[current] != epoch) {
+            MappedByteBuffer table = tables[current];
+            long end = slotOffset(slots);
+            for (int offset = GENERATION_HEADER_SIZE; offset < end; offset += ZEROS.length) {
+                table.put(offset, ZEROS, 0, (int) Math.min(ZEROS.length, end - offset));
+            }
+            table.putInt(COUNT_OFFSET, 0);
+            table.putLong(EPOCH_OFFSET, epoch);
+            epochs[current] = epoch;
+            counts[current] = 0;
+        }
+    }
+
+    private void ensureOpen() {
+        if (closed) {
+            throw new IllegalStateException("Dedup index is closed");
+        }
+    }
+
+    private static int slotOffset(int slot) {
+        return GENERATION_HEADER_SIZE + slot * Long.BYTES;
+    }
+
+    private static long key(String messageId, WebhookEventType type) {
+        long key = ReplayGuard.eventKey(messageId, type);
+        return key == 0 ? 1 : key;
+    }
+
+    /**
+     * Index usage.
+     *
+     * @param entries Keys recorded in generations that have not expired
+     * @param overflows Keys not recorded since opening because their generation was full
+     */
+    public record Stats(long entries, long overflows) {}
+
+    /**
+     * Builder for opening EventDedupIndex files.
+     */
+    public static class Builder {
+        private final Path path;
+        private int capacity = 1_000_000;
+        private Duration retention = Duration.ofDays(1);
+        private int generations = 4;
+        private Clock clock = Clock.systemUTC();
+
+        /**
+         * Creates a builder for the index stored at the given path. The file
+         * is created if it does not exist.
+         */
+        public Builder(Path path) {
+            if (path == null) {
+                throw new IllegalArgumentException("Path cannot be null");
+            }
+            this.path = path;
+        }
+
+        /**
+         * Sets how many keys each generation holds. The file takes about 16
+         * bytes per key per generation.
+         */
+        public Builder capacity(int capacity) {
+            if (capacity <= 0 || capacity > MAX_SLOTS / 2) {
+                throw new IllegalArgumentException("Capacity must be between 1 and " + MAX_SLOTS / 2);
+            }
+            this.capacity = capacity;
+            return this;
+        }
+
+        /**
+         * Sets how long keys are remembered at minimum. Defaults to one day.
+         */
+        public Builder retention(Duration retention) {
+            if (retention == null || retention.toMillis() <= 0) {
+                throw new IllegalArgumentException("Retention must be positive");
+            }
+            this.retention = retention;
+            return this;
+        }
+
+        /**
+         * Sets how many generations the retention period is split into. More
+         * generations expire keys closer to the retention period at the cost
+         * of more tables to probe. Defaults to four.
+         */
+        public Builder generations(int generations) {
+            if (generations < 2 || generations > 64) {
+                throw new IllegalArgumentException("Generations must be between 2 and 64");
+            }
+            this.generations = generations;
+            return this;
+        }
+
+        public Builder clock(Clock clock) {
+            this.clock = clock;
+            return this;
+        }
+
+        /**
+         * Opens or creates the index file.
+         *
+         * @throws IOException if the file cannot be mapped or was created with different settings
+         */
+        public EventDedupIndex open() throws IOException {
+            return new EventDedupIndex(this);
+        }
+    }
+}
@@ -0,0 +1,351 @@
+package com.laneful.webhooks;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.BiConsumer;
+import java.util.function.Consumer;
+import java.util.function.Predicate;
+
+/**
+ * Runs webhook event handlers in parallel while keeping events for the same
+ * message in order.
+ *
+ * <p>Events are hashed by {@code message_id} onto a fixed number of
+ * partitions, each with a bounded queue and a single consumer thread. A
+ * delivery, open and click for one message are therefore handled one after
+ * another, while different messages proceed in parallel. Each event goes to
+ * the handlers registered for its type.
+ *
+ * <p>When a partition's queue is full, offers fail immediately instead of
+ * blocking. Callers should turn that into a 503 or 429 response so Laneful
+ * retries later, rather than letting a backlog build up.
+ *
+ * <pre>{@code
+ * EventDispatcher dispatcher = new EventDispatcher.Builder()
+ *     .partitions(16)
+ *     .queueCapacity(10_000)
+ *     .on(BounceEvent.class, bounce -> suppress(bounce.email()))
+ *     .on(ClickEvent.class, click -> recordClick(click))
+ *     .build();
+ * }</pre>
+ */
+public final class EventDispatcher implements AutoCloseable {
+
+    private static final System.Logger LOGGER = System.getLogger(EventDispatcher.class.getName());
+    // Queued after the last event on close; never handed to handlers
+    private static final Object STOP = new Object();
+
+    private final Partition[] partitions;
+    private final Map<Class<?>, List<Consumer<WebhookEvent>>> handlers;
+    private final List<Consumer<WebhookEvent>> anyHandlers;
+    private final BiConsumer<WebhookEvent, Exception> onHandlerError;
+    private final LongAdder dispatched = new LongAdder();
+    private final LongAdder rejected = new LongAdder();
+    private final LongAdder handlerErrors = new LongAdder();
+    // Offers hold the read lock so close cannot slip its stop marker in ahead of them
+    private final ReadWriteLock closeLock = new ReentrantReadWriteLock();
+    private boolean closed;
+
+    private EventDispatcher(Builder builder) {
+        this.handlers = new HashMap<>();
+        builder.handlers.forEach((type, list) -> handlers.put(type, List.copyOf(list)));
+        this.anyHandlers = List.copyOf(builder.anyHandlers);
+        this.onHandlerError = builder.onHandlerError;
+        this.partitions = new Partition[builder.partitions];
+        for (int i = 0; i < partitions.length; i++) {
+            partitions[i] = new Partition(builder.queueCapacity);
+            Partition partition = partitions[i];
+            partition.thread = Thread.ofVirtual()
+                .name("laneful-dispatch-" + i)
+                .start(() -> run(partition));
+        }
+    }
+
+    /**
+     * Queues one event.
+     *
+     * @return false if its partition is full or the dispatcher is closed
+     */
+    public boolean offer(WebhookEvent event) {
+        return offerAll(List.of(event), e -> true);
+    }
+
+    /**
+     * Queues a batch of events, or none of them.
+     *
+     * <p>Queue space is reserved for every event first. If any partition lacks
+     * room, nothing is queued, the filter is not called and false is
+     * returned, so the whole batch can be retried. Otherwise the filter is
+     * called for each event in order, and the events it accepts are queued.
+     *
+     * @param events The events to queue
+     * @param filter Decides which events to queue once space is reserved, e.g. a replay check
+     * @return false if the batch was rejected for lack of space or because the dispatcher is closed
+     */
+    public boolean offerAll(List<? extends WebhookEvent> events, Predicate<? super WebhookEvent> filter) {
+        closeLock.readLock().lock();
+        try {
+            if (closed) {
+                rejected.add(events.size());
+                return false;
+            }
+            return reserveAndQueue(events, filter);
+        } finally {
+            closeLock.readLock().unlock();
+        }
+    }
+
+    private boolean reserveAndQueue(List<? extends WebhookEvent> events, Predicate<? super WebhookEvent> filter) {
+        int[] counts = new int[partitions.length];
+        for (WebhookEvent event : events) {
+            counts[partitionOf(event)]++;
+        }
+        for (int i = 0; i < counts.length; i++) {
+            if (counts[i] > 0 && !partitions[i].reserve(counts[i])) {
+                for (int j = 0; j < i; j++) {
+                    partitions[j].release(counts[j]);
+                }
+                rejected.add(events.size());
+                return false;
+            }
+        }
+        for (WebhookEvent event : events) {
+            Partition partition = partitions[partitionOf(event)];
+            if (filter.test(event)) {
+                // Cannot fail: the reservation guarantees room
+                partition.queue.add(event);
+            } else {
+                partition.release(1);
+            }
+        }
+        return true;
+    }
+
+    public Stats stats() {
+        int queued = 0;
+        for (Partition partition : partitions) {
+            queued += partition.queue.size();
+        }
+        return new Stats(dispatched.sum(), rejected.sum(), handlerErrors.sum(), queued);
+    }
+
+    /**
+     * Stops accepting events, waits for queued events to be handled and stops
+     * the partition threads.
+     */
+    @Override
+    public void close() {
+        closeLock.writeLock().lock();
+        try {
+            if (closed) {
+                return;
+            }
+            closed = true;
+            for (Partition partition : partitions) {
+                partition.queue.add(STOP);
+            }
+        } finally {
+            closeLock.writeLock().unlock();
+        }
+        boolean interrupted = false;
+        for (Partition partition : partitions) {
+            while (true) {
+                try {
+                    partition.thread.join();
+                    break;
+                } catch (InterruptedException e) {
+                    interrupted = true;
+                }
+            }
+        }
+        if (interrupted) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private int partitionOf(WebhookEvent event) {
+        return partition(event.messageId(), partitions.length);
+    }
+
+    static int partition(String messageId, int partitions) {
+        int hash = messageId.hashCode();
+        hash ^= hash >>> 16;
+        return Math.floorMod(hash * 0x9E3779B9, partitions);
+    }
+
+    private void run(Partition partition) {
+        while (true) {
+            Object next;
+            try {
+                next = partition.queue.take();
+            } catch (InterruptedException e) {
+                return;
+            }
+            if (next == STOP) {
+                return;
+            }
+            try {
+                handle((WebhookEvent) next);
+            } finally {
+                partition.release(1);
+            }
+        }
+    }
+
+    private void handle(WebhookEvent event) {
+        dispatched.increment();
+        List<Consumer<WebhookEvent>> typed = handlers.get(event.getClass());
+        if (typed != null) {
+            for (Consumer<WebhookEvent> handler : typed) {
+                invoke(handler, event);
+            }
+        }
+        for (Consumer<WebhookEvent> handler : anyHandlers) {
+            invoke(handler, event);
+        }
+    }
+
+    private void invoke(Consumer<WebhookEvent> handler, WebhookEvent event) {
+        try {
+            handler.accept(event);
+        } catch (Exception e) {
+            handlerErrors.increment();
+            try {
+                onHandlerError.accept(event, e);
+            } catch (RuntimeException reportError) {
+                e.addSuppressed(reportError);
+                LOGGER.log(System.Logger.Level.ERROR, "Webhook handler failed for " + event.messageId(), e);
+            }
+        } catch (Error e) {
+            // Keep the partition running, or the rest of its messages would never be handled
+            handlerErrors.increment();
+            LOGGER.log(System.Logger.Level.ERROR, "Webhook handler failed for " + event.messageId(), e);
+        }
+    }
+
+    /**
+     * A bounded queue whose free space is reserved before events are added,
+     * so a batch can claim room atomically.
+     */
+    private static final class Partition {
+        final BlockingQueue<Object> queue;
+        // Free slots; includes room for the stop marker
+        final AtomicInteger free;
+        Thread thread;
+
+        Partition(int capacity) {
+            this.queue = new ArrayBlockingQueue<>(capacity + 1);
+            this.free = new AtomicInteger(capacity);
+        }
+
+        boolean reserve(int count) {
+            while (true) {
+                int available = free.get();
+                if (available < count) {
+                    return false;
+                }
+                if (free.compareAndSet(available, available - count)) {
+                    return true;
+                }
+            }
+        }
+
+        void release(int count) {
+            free.addAndGet(count);
+        }
+    }
+
+    /**
+     * Dispatcher counters.
+     *
+     * @param dispatched Events handed to handlers
+     * @param rejected Events refused because a partition was full or the dispatcher closed
+     * @param handlerErrors Handler invocations that threw
+     * @param queued Events currently waiting in partition queues
+     */
+    public record Stats(long dispatched, long rejected, long handlerErrors, int queued) {}
+
+    /**
+     * Builder for creating EventDispatcher instances.
+     */
+    public static class Builder {
+        private int partitions = Runtime.getRuntime().availableProcessors();
+        private int queueCapacity = 1024;
+        private final Map<Class<?>, List<Consumer<WebhookEvent>>> handlers = new HashMap<>();
+        private final List<Consumer<WebhookEvent>> anyHandlers = new ArrayList<>();
+        private BiConsumer<WebhookEvent, Exception> onHandlerError = (event, e) ->
+            LOGGER.log(System.Logger.Level.WARNING, "Webhook handler failed for " + event.messageId(), e);
+
+        /**
+         * Sets the number of partitions, and so the number of events handled
+         * at once. Defaults to the number of processors.
+         */
+        public Builder partitions(int partitions) {
+            if (partitions <= 0) {
+                throw new IllegalArgumentException("Partitions must be positive");
+            }
+            this.partitions = partitions;
+            return this;
+        }
+
+        /**
+         * Sets how many events each partition can hold, including the one
+         * being handled. Defaults to 1024.
+         */
+        public Builder queueCapacity(int queueCapacity) {
+            if (queueCapacity <= 0) {
+                throw new IllegalArgumentException("Queue capacity must be positive");
+            }
+            this.queueCapacity = queueCapacity;
+            return this;
+        }
+
+        /**
+         * Adds a handler for one event type.
+         */
+        @SuppressWarnings("unchecked")
+        public <E extends WebhookEvent> Builder on(Class<E> type, Consumer<? super E> handler) {
+            if (type == null || handler == null) {
+                throw new IllegalArgumentException("Event type and handler are required");
+            }
+            handlers.computeIfAbsent(type, t -> new ArrayList<>()).add((Consumer<WebhookEvent>) handler);
+            return this;
+        }
+
+        /**
+         * Adds a handler for every event, run after the type-specific handlers.
+         */
+        public Builder onAny(Consumer<? super WebhookEvent> handler) {
+            if (handler == null) {
+                throw new IllegalArgumentException("Handler cannot be null");
+            }
+            anyHandlers.add(handler::accept);
+            return this;
+        }
+
+        /**
+         * Sets what happens when a handler throws an exception. Defaults to
+         * logging a warning. Errors, and exceptions thrown by this callback,
+         * are logged and do not stop the partition.
+         */
+        public Builder onHandlerError(BiConsumer<WebhookEvent, Exception> onHandlerError) {
+            this.onHandlerError = onHandlerError;
+            return this;
+        }
+
+        /**
+         * Builds the dispatcher and starts one virtual thread per partition.
+         */
+        public EventDispatcher build() {
+            return new EventDispatcher(this);
+        }
+    }
+}
@@ -0,0 +1,588 @@
+package com.laneful.webhooks;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.laneful.webhooks.EventLogFormat.Block;
+
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.OverlappingFileLockException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Consumer;
+import java.util.zip.Deflater;
+
+/**
+ * Append-only, compressed log of webhook events for audits and for rebuilding
+ * downstream state.
+ *
+ * <p>Events are appended by any number of threads and written by a single
+ * writer thread with group commit: everything queued while the previous
+ * write was in progress goes into the next block, which is compressed,
+ * written and synced with one {@code fsync}. An append's future completes
+ * once its block is on disk. The log rolls over to a new segment file when
+ * the current one reaches its size limit, and each segment has a sparse
+ * index of block time ranges. Use {@link EventLogReader} to replay it.
+ *
+ * <pre>{@code
+ * try (EventLog log = new EventLog.Builder(Path.of("webhook-events")).open()) {
+ *     WebhookReceiver receiver = new WebhookReceiver.Builder("your-webhook-secret")
+ *         .handler(log)
+ *         .build();
+ *     ...
+ * }
+ * }</pre>
+ *
+ * <p>On open, a block left incomplete by a crash at the end of the last
+ * segment is discarded. A block whose write fails is cut off the segment
+ * again; if that fails too, the log stops accepting events. Only one process
+ * can have a log directory open at a time.
+ */
+public final class EventLog implements Consumer<WebhookEvent>, Closeable {
+
+    private static final System.Logger LOGGER = System.getLogger(EventLog.class.getName());
+    private static final JsonFactory JSON_FACTORY = new ObjectMapper().getFactory();
+    private static final Pending STOP = new Pending(List.of(), null);
+
+    private final Path directory;
+    private final long segmentBytes;
+    private final int maxBatchEvents;
+    private final boolean fsync;
+    private final Deflater deflater;
+    private final BlockingQueue<Pending> queue;
+    private final ReadWriteLock closeLock = new ReentrantReadWriteLock();
+    private final FileChannel lockChannel;
+    private final Thread writer;
+    private final ByteArrayOutputStream json = new ByteArrayOutputStream(64 * 1024);
+    private byte[] compressed = new byte[64 * 1024];
+    private volatile long segmentNumber;
+    private FileChannel segment;
+    private FileChannel index;
+    private long segmentSize;
+    private long indexSize;
+    private boolean closed;
+    private volatile Exception failure;
+
+    private volatile long events;
+    private volatile long blocks;
+    private volatile long bytesWritten;
+
+    private EventLog(Builder builder) throws IOException {
+        this.directory = builder.directory;
+        this.segmentBytes = builder.segmentBytes;
+        this.maxBatchEvents = builder.maxBatchEvents;
+        this.fsync = builder.fsync;
+        this.deflater = new Deflater(builder.compressionLevel);
+        this.queue = new ArrayBlockingQueue<>(builder.maxPendingAppends);
+
+        Files.createDirectories(directory);
+        this.lockChannel = FileChannel.open(directory.resolve("lock"),
+            StandardOpenOption.CREATE, StandardOpenOption.WRITE);
+        try {
+            boolean locked;
+            try {
+                locked = lockChannel.tryLock() != null;
+            } catch (OverlappingFileLockException e) {
+                locked = false;
+            }
+            if (!locked) {
+                throw new IOException("Event log " + directory + " is already open");
+            }
+            List<Path> segments = EventLogFormat.segments(directory);
+            if (segments.isEmpty()) {
+                openSegment(1);
+            } else {
+                recover(segments.get(segments.size() - 1));
+            }
+        } catch (IOException | RuntimeException e) {
+            closeQuietly();
+            throw e;
+        }
+
+        this.writer = Thread.ofPlatform()
+            .name("laneful-event-log")
+            .daemon()
+            .start(this::run);
+    }
+
+    /**
+     * Queues one event.
+     *
+     * @return A future that completes once the event is written
+     */
+    public CompletableFuture<Void> append(WebhookEvent event) {
+        return append(List.of(event));
+    }
+
+    /**
+     * Queues events to be written together, in order. Blocks while the
+     * configured number of appends are already waiting.
+     *
+     * @return A future that completes once the events are written, or
+     *     completes exceptionally if the write fails or an earlier failed
+     *     write could not be undone
+     * @throws IllegalStateException if the log is closed
+     */
+    public CompletableFuture<Void> append(List<? extends WebhookEvent> events) {
+        for (WebhookEvent event : events) {
+            if (event == null) {
+                throw new IllegalArgumentException("Event cannot be null");
+            }
+        }
+        CompletableFuture<Void> written = new CompletableFuture<>();
+        closeLock.readLock().lock();
+        try {
+            if (closed) {
+                throw new IllegalStateException("Event log is closed");
+            }
+            if (failure != null) {
+                return CompletableFuture.failedFuture(failedError());
+            }
+            queue.put(new Pending(List.copyOf(events), written));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            written.completeExceptionally(e);
+        } finally {
+            closeLock.readLock().unlock();
+        }
+        return written;
+    }
+
+    /**
+     * Queues an event without waiting for it to be written. Write failures
+     * are logged.
+     */
+    @Override
+    public void accept(WebhookEvent event) {
+        append(event);
+    }
+
+    public Stats stats() {
+        return new Stats(events, blocks, bytesWritten, segmentNumber);
+    }
+
+    /**
+     * Writes queued events and closes the log.
+     */
+    @Override
+    public void close() throws IOException {
+        closeLock.writeLock().lock();
+        try {
+            if (closed) {
+                return;
+            }
+            closed = true;
+        } finally {
+            closeLock.writeLock().unlock();
+        }
+        boolean interrupted = false;
+        while (true) {
+            try {
+                queue.put(STOP);
+                writer.join();
+                break;
+            } catch (InterruptedException e) {
+                interrupted = true;
+            }
+        }
+        try {
+            if (failure == null) {
+                index.force(true);
+                segment.force(true);
+            }
+        } finally {
+            closeQuietly();
+            if (interrupted) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    private void run() {
+        List<Pending> batch = new ArrayList<>();
+        List<WebhookEvent> pendingEvents = new ArrayList<>();
+        while (true) {
+            Pending first;
+            try {
+                first = queue.take();
+            } catch (InterruptedException e) {
+                continue;
+            }
+            boolean stop = first == STOP;
+            if (!stop) {
+                batch.add(first);
+                pendingEvents.addAll(first.events);
+                Pending next;
+                while (pendingEvents.size() < maxBatchEvents && (next = queue.poll()) != null) {
+                    if (next == STOP) {
+                        stop = true;
+                        break;
+                    }
+                    batch.add(next);
+                    pendingEvents.addAll(next.events);
+                }
+            }
+            if (!batch.isEmpty() && failure != null) {
+                IOException e = failedError();
+                batch.forEach(pending -> pending.written.completeExceptionally(e));
+                batch.clear();
+                pendingEvents.clear();
+            } else if (!batch.isEmpty()) {
+                try {
+                    if (!pendingEvents.isEmpty()) {
+                        writeBlock(pendingEvents);
+                    }
+                    batch.forEach(pending -> pending.written.complete(null));
+                } catch (IOException | RuntimeException e) {
+                    LOGGER.log(System.Logger.Level.ERROR, "Failed to write " + pendingEvents.size()
+                        + " events to event log " + directory, e);
+                    batch.forEach(pending -> pending.written.completeExceptionally(e));
+                }
+                batch.clear();
+                pendingEvents.clear();
+            }
+            if (stop) {
+                return;
+            }
+        }
+    }
+
+    private void writeBlock(List<WebhookEvent> batch) throws IOException {
+        if (segmentSize >= segmentBytes) {
+            try {
+                index.force(true);
+                segment.force(true);
+                segment.close();
+                index.close();
+                openSegment(segmentNumber + 1);
+            } catch (IOException | RuntimeException e) {
+                // The channels may be closed or belong to different segments
+                fail(e);
+                throw e;
+            }
+        }
+
+        json.reset();
+        long minTimestamp = Long.MAX_VALUE;
+        long maxTimestamp = Long.MIN_VALUE;
+        try (JsonGenerator generator = JSON_FACTORY.createGenerator(json)) {
+            generator.writeStartArray();
+            for (WebhookEvent event : batch) {
+                write(generator, event);
+                minTimestamp = Math.min(minTimestamp, event.timestamp());
+                maxTimestamp = Math.max(maxTimestamp, event.timestamp());
+            }
+            generator.writeEndArray();
+        }
+        byte[] raw = json.toByteArray();
+        int compressedLength = deflate(raw);
+
+        ByteBuffer header = ByteBuffer.allocate(EventLogFormat.BLOCK_HEADER_SIZE)
+            .putInt(EventLogFormat.BLOCK_MAGIC)
+            .putInt(batch.size())
+            .putLong(minTimestamp)
+            .putLong(maxTimestamp)
+            .putInt(raw.length)
+            .putInt(compressedLength)
+            .putInt(0)
+            .putInt(0)
+            .flip();
+        header.putInt(EventLogFormat.CRC_OFFSET,
+            EventLogFormat.blockCrc(header.array(), compressed, 0, compressedLength));
+        Block block = new Block(segmentSize, EventLogFormat.BLOCK_HEADER_SIZE + compressedLength,
+            batch.size(), minTimestamp, maxTimestamp);
+        try {
+            writeFully(segment, new ByteBuffer[] {header, ByteBuffer.wrap(compressed, 0, compressedLength)});
+            if (fsync) {
+                segment.force(false);
+            }
+            // The index is rebuilt from the segment after a crash, so it is only synced on roll and close
+            writeFully(index, new ByteBuffer[] {indexEntry(block)});
+        } catch (IOException | RuntimeException e) {
+            rollBack(e);
+            throw e;
+        }
+
+        segmentSize = block.end();
+        indexSize += EventLogFormat.INDEX_ENTRY_SIZE;
+        events += batch.size();
+        blocks++;
+        bytesWritten += block.length();
+    }
+
+    /**
+     * Cuts a partly written block off the segment and index, so the next
+     * block starts where the last complete one ended. Marks the log failed
+     * if that is not possible.
+     */
+    private void rollBack(Exception cause) {
+        try {
+            segment.truncate(segmentSize);
+            segment.position(segmentSize);
+            index.truncate(indexSize);
+            index.position(indexSize);
+        } catch (IOException | RuntimeException e) {
+            cause.addSuppressed(e);
+            fail(cause);
+        }
+    }
+
+    private void fail(Exception cause) {
+        failure = cause;
+        LOGGER.log(System.Logger.Level.ERROR, "Event log " + directory
+            + " could not recover from a failed write and no longer accepts events", cause);
+    }
+
+    private IOException failedError() {
+        return new IOException("Event log " + directory + " failed and no longer accepts events", failure);
+    }
+
+    private int deflate(byte[] raw) {
+        deflater.reset();
+        deflater.setInput(raw);
+        deflater.finish();
+        int length = 0;
+        while (!deflater.finished()) {
+            if (length == compressed.length) {
+                compressed = Arrays.copyOf(compressed, compressed.length * 2);
+            }
+            length += deflater.deflate(compressed, length, compressed.length - length);
+        }
+        return length;
+    }
+
+    private void openSegment(long number) throws IOException {
+        Path path = EventLogFormat.segmentPath(directory, number);
+        segment = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.WRITE);
+        segment.position(segment.size());
+        index = FileChannel.open(EventLogFormat.indexPath(path), StandardOpenOption.CREATE, StandardOpenOption.WRITE);
+        index.position(index.size());
+        segmentNumber = number;
+        segmentSize = segment.size();
+        indexSize = index.size();
+    }
+
+    /**
+     * Reopens the last segment, dropping a torn block at its end and
+     * rebuilding its index.
+     */
+    private void recover(Path path) throws IOException {
+        List<Block> blocks;
+        try (FileChannel channel = EventLogFormat.openForRead(path)) {
+            blocks = EventLogFormat.scan(channel, 0);
+        }
+        long end = blocks.isEmpty() ? 0 : blocks.get(blocks.size() - 1).end();
+        segment = FileChannel.open(path, StandardOpenOption.WRITE);
+        if (segment.size() > end) {
+            LOGGER.log(System.Logger.Level.WARNING, "Discarding " + (segment.size() - end)
+                + " bytes of incomplete events at the end of " + path);
+            segment.truncate(end);
+        }
+        segment.position(end);
+        index = FileChannel.open(EventLogFormat.indexPath(path), StandardOpenOption.CREATE,
+            StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING);
+        for (Block block : blocks) {
+            writeFully(index, new ByteBuffer[] {indexEntry(block)});
+        }
+        index.force(true);
+        segmentNumber = EventLogFormat.segmentNumber(path);
+        segmentSize = end;
+        indexSize = (long) blocks.size() * EventLogFormat.INDEX_ENTRY_SIZE;
+    }
+
+    private static ByteBuffer indexEntry(Block block) {
+        return ByteBuffer.allocate(EventLogFormat.INDEX_ENTRY_SIZE)
+            .putLong(block.offset())
+            .putInt(block.length())
+            .putInt(block.count())
+            .putLong(block.minTimestamp())
+            .putLong(block.maxTimestamp())
+            .flip();
+    }
+
+    private static void writeFully(FileChannel channel, ByteBuffer[] buffers) throws IOException {
+        long remaining = 0;
+        for (ByteBuffer buffer : buffers) {
+            remaining += buffer.remaining();
+        }
+        while (remaining > 0) {
+            remaining -= channel.write(buffers);
+        }
+    }
+
+    /**
+     * Writes an event in the webhook payload format, so it can be read back
+     * with {@link WebhookEventParser}.
+     */
+    private static void write(JsonGenerator generator, WebhookEvent event) throws IOException {
+        generator.writeStartObject();
+        generator.writeStringField("event", event.type().value());
+        generator.writeStringField("email", event.email());
+        generator.writeStringField("lane_id", event.laneId() == null ? null : event.laneId().toString());
+        generator.writeStringField("message_id", event.messageId());
+        generator.writeNumberField("timestamp", event.timestamp());
+        if (event.tag() != null) {
+            generator.writeStringField("tag", event.tag());
+        }
+        if (event.metadata() != null && !event.metadata().isEmpty()) {
+            generator.writeFieldName("metadata");
+            generator.writeObject(event.metadata());
+        }
+        switch (event) {
+            case OpenEvent open -> writeClient(generator, open.clientDevice(), open.clientOs(), open.clientIp());
+            case ClickEvent click -> {
+                writeOptional(generator, "url", click.url());
+                writeClient(generator, click.clientDevice(), click.clientOs(), click.clientIp());
+            }
+            case DropEvent drop -> writeOptional(generator, "reason", drop.reason());
+            case UnsubscribeEvent unsubscribe ->
+                writeOptional(generator, "unsubscribe_group_id", unsubscribe.unsubscribeGroupId());
+            case BounceEvent bounce -> {
+                generator.writeBooleanField("is_hard", bounce.isHard());
+                writeOptional(generator, "text", bounce.text());
+                writeOptional(generator, "reason", bounce.reason());
+            }
+            case DeliveryEvent delivery -> { }
+            case SpamComplaintEvent complaint -> { }
+        }
+        generator.writeEndObject();
+    }
+
+    private static void writeClient(JsonGenerator generator, String device, String os, String ip) throws IOException {
+        writeOptional(generator, "client_device", device);
+        writeOptional(generator, "client_os", os);
+        writeOptional(generator, "client_ip", ip);
+    }
+
+    private static void writeOptional(JsonGenerator generator, String name, String value) throws IOException {
+        if (value != null) {
+            generator.writeStringField(name, value);
+        }
+    }
+
+    private void closeQuietly() {
+        for (Closeable closeable : new Closeable[] {segment, index, lockChannel}) {
+            if (closeable != null) {
+                try {
+                    closeable.close();
+                } catch (IOException e) {
+                    LOGGER.log(System.Logger.Level.WARNING, "Failed to close event log file", e);
+                }
+            }
+        }
+        deflater.end();
+    }
+
+    private record Pending(List<? extends WebhookEvent> events, CompletableFuture<Void> written) {}
+
+    /**
+     * Counters since the log was opened.
+     *
+     * @param events Events written
+     * @param blocks Blocks written, one per group commit
+     * @param bytesWritten Compressed bytes written, including block headers
+     * @param segment Number of the segment being written
+     */
+    public record Stats(long events, long blocks, long bytesWritten, long segment) {}
+
+    /**
+     * Builder for opening EventLog directories.
+     */
+    public static class Builder {
+        private final Path directory;
+        private long segmentBytes = 64L * 1024 * 1024;
+        private int maxBatchEvents = 4096;
+        private int maxPendingAppends = 8192;
+        private boolean fsync = true;
+        private int compressionLevel = Deflater.BEST_SPEED;
+
+        /**
+         * Creates a builder for the log stored in the given directory. The
+         * directory is created if it does not exist.
+         */
+        public Builder(Path directory) {
+            if (directory == null) {
+                throw new IllegalArgumentException("Directory cannot be null");
+            }
+            this.directory = directory;
+        }
+
+        /**
+         * Sets the size at which a new segment is started. Defaults to 64 MB.
+         */
+        public Builder segmentBytes(long segmentBytes) {
+            if (segmentBytes <= 0) {
+                throw new IllegalArgumentException("Segment size must be positive");
+            }
+            this.segmentBytes = segmentBytes;
+            return this;
+        }
+
+        /**
+         * Sets how many events one block holds at most. Appends are never
+         * split, so a large append can exceed it. Defaults to 4096.
+         */
+        public Builder maxBatchEvents(int maxBatchEvents) {
+            if (maxBatchEvents <= 0) {
+                throw new IllegalArgumentException("Max batch events must be positive");
+            }
+            this.maxBatchEvents = maxBatchEvents;
+            return this;
+        }
+
+        /**
+         * Sets how many appends can wait for the writer before
+         * {@link EventLog#append} blocks. Defaults to 8192.
+         */
+        public Builder maxPendingAppends(int maxPendingAppends) {
+            if (maxPendingAppends <= 0) {
+                throw new IllegalArgumentException("Max pending appends must be positive");
+            }
+            this.maxPendingAppends = maxPendingAppends;
+            return this;
+        }
+
+        /**
+         * Sets whether each block is synced to the storage device before its
+         * appends complete. Without it, blocks survive a process crash but not
+         * a power failure. Defaults to true.
+         */
+        public Builder fsync(boolean fsync) {
+            this.fsync = fsync;
+            return this;
+        }
+
+        /**
+         * Sets the deflate level from 0 to 9. Defaults to 1, the fastest.
+         */
+        public Builder compressionLevel(int compressionLevel) {
+            if (compressionLevel < 0 || compressionLevel > 9) {
+                throw new IllegalArgumentException("Compression level must be between 0 and 9");
+            }
+            this.compressionLevel = compressionLevel;
+            return this;
+        }
+
+        /**
+         * Opens or creates the log.
+         *
+         * @throws IOException if the directory cannot be used or is already open
+         */
+        public EventLog open() throws IOException {
+            return new EventLog(this);
+        }
+    }
+}
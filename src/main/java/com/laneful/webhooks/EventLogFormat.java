@@ -0,0 +1,205 @@
+package com.laneful.webhooks;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Stream;
+import java.util.zip.CRC32;
+import java.util.zip.DataFormatException;
+import java.util.zip.Inflater;
+
+/**
+ * File layout shared by {@link EventLog} and {@link EventLogReader}.
+ *
+ * <p>A log directory holds numbered segment files. A segment is a sequence of
+ * blocks, each a 40-byte header followed by a deflate-compressed JSON array
+ * of events:
+ *
+ * <pre>
+ * 0  int  magic "LEVB"     24 int  JSON length
+ * 4  int  event count      28 int  compressed length
+ * 8  long min timestamp    32 int  CRC-32 of bytes 0-31 and compressed bytes
+ * 16 long max timestamp    36 int  reserved
+ * </pre>
+ *
+ * <p>The checksum covers the header fields before it as well as the payload,
+ * so a damaged count, timestamp or length is caught like damaged events.
+ *
+ * <p>Each segment has an index file with one 32-byte entry per block (offset,
+ * min and max timestamp, event count, block length), so replays can skip
+ * blocks older than a given time without decompressing them. The index may
+ * lag behind the segment after a crash; readers scan any blocks past its end.
+ */
+final class EventLogFormat {
+
+    static final int BLOCK_MAGIC = 0x4C455642; // "LEVB"
+    static final int BLOCK_HEADER_SIZE = 40;
+    // Header bytes before the checksum, all of which it covers
+    static final int CRC_OFFSET = 32;
+    // Deflate cannot compress by more than about 1032 to 1
+    private static final int MAX_DEFLATE_RATIO = 1032;
+    static final int INDEX_ENTRY_SIZE = 32;
+    static final String SEGMENT_SUFFIX = ".log";
+    static final String INDEX_SUFFIX = ".idx";
+
+    private EventLogFormat() {}
+
+    /**
+     * Location and time range of one block.
+     */
+    record Block(long offset, int length, int count, long minTimestamp, long maxTimestamp) {
+
+        long end() {
+            return offset + length;
+        }
+    }
+
+    static Path segmentPath(Path directory, long number) {
+        return directory.resolve(String.format("%020d%s", number, SEGMENT_SUFFIX));
+    }
+
+    static Path indexPath(Path segment) {
+        String name = segment.getFileName().toString();
+        return segment.resolveSibling(name.substring(0, name.length() - SEGMENT_SUFFIX.length()) + INDEX_SUFFIX);
+    }
+
+    static long segmentNumber(Path segment) {
+        String name = segment.getFileName().toString();
+        return Long.parseLong(name.substring(0, name.length() - SEGMENT_SUFFIX.length()));
+    }
+
+    /**
+     * Segment files in the directory, oldest first.
+     */
+    static List<Path> segments(Path directory) throws IOException {
+        try (Stream<Path> files = Files.list(directory)) {
+            return files
+                .filter(path -> path.getFileName().toString().matches("\\d{20}\\" + SEGMENT_SUFFIX))
+                .sorted()
+                .toList();
+        }
+    }
+
+    /**
+     * Lists the complete blocks of a segment, from its index and then by
+     * scanning whatever the index does not cover.
+     */
+    static List<Block> blocks(Path segment, FileChannel channel) throws IOException {
+        List<Block> blocks = readIndex(segment, channel.size());
+        long indexed = blocks.isEmpty() ? 0 : blocks.get(blocks.size() - 1).end();
+        blocks.addAll(scan(channel, indexed));
+        return blocks;
+    }
+
+    /**
+     * Reads index entries that point at blocks within the segment.
+     */
+    static List<Block> readIndex(Path segment, long segmentSize) throws IOException {
+        List<Block> blocks = new ArrayList<>();
+        byte[] bytes;
+        try {
+            bytes = Files.readAllBytes(indexPath(segment));
+        } catch (NoSuchFileException e) {
+            return blocks;
+        }
+        ByteBuffer index = ByteBuffer.wrap(bytes);
+        long expected = 0;
+        while (index.remaining() >= INDEX_ENTRY_SIZE) {
+            Block block = new Block(index.getLong(), index.getInt(), index.getInt(), index.getLong(), index.getLong());
+            if (block.offset() != expected || block.end() > segmentSize) {
+                break;
+            }
+            blocks.add(block);
+            expected = block.end();
+        }
+        return blocks;
+    }
+
+    /**
+     * Scans blocks from an offset, stopping at the end of the file or at the
+     * first block that is incomplete or fails its checksum.
+     */
+    static List<Block> scan(FileChannel channel, long offset) throws IOException {
+        List<Block> blocks = new ArrayList<>();
+        long size = channel.size();
+        ByteBuffer header = ByteBuffer.allocate(BLOCK_HEADER_SIZE);
+        while (offset + BLOCK_HEADER_SIZE <= size) {
+            header.clear();
+            readFully(channel, header, offset);
+            header.flip();
+            int compressedLength = header.getInt(28);
+            if (header.getInt(0) != BLOCK_MAGIC || compressedLength < 0
+                    || offset + BLOCK_HEADER_SIZE + compressedLength > size) {
+                break;
+            }
+            ByteBuffer payload = ByteBuffer.allocate(compressedLength);
+            readFully(channel, payload, offset + BLOCK_HEADER_SIZE);
+            if (blockCrc(header.array(), payload.array(), 0, compressedLength) != header.getInt(CRC_OFFSET)) {
+                break;
+            }
+            Block block = new Block(offset, BLOCK_HEADER_SIZE + compressedLength,
+                header.getInt(4), header.getLong(8), header.getLong(16));
+            blocks.add(block);
+            offset = block.end();
+        }
+        return blocks;
+    }
+
+    /**
+     * Reads, verifies and decompresses a block's JSON array.
+     */
+    static byte[] readBlock(FileChannel channel, Block block, Inflater inflater) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate(block.length());
+        readFully(channel, buffer, block.offset());
+        int rawLength = buffer.getInt(24);
+        int compressedLength = buffer.getInt(28);
+        if (buffer.getInt(0) != BLOCK_MAGIC || BLOCK_HEADER_SIZE + compressedLength != block.length()
+                || blockCrc(buffer.array(), buffer.array(), BLOCK_HEADER_SIZE, compressedLength)
+                    != buffer.getInt(CRC_OFFSET)
+                || rawLength < 0 || rawLength > (long) compressedLength * MAX_DEFLATE_RATIO) {
+            throw new IOException("Corrupt event log block at offset " + block.offset());
+        }
+        byte[] json = new byte[rawLength];
+        inflater.reset();
+        inflater.setInput(buffer.array(), BLOCK_HEADER_SIZE, compressedLength);
+        try {
+            if (inflater.inflate(json) != rawLength || !inflater.finished()) {
+                throw new IOException("Corrupt event log block at offset " + block.offset());
+            }
+        } catch (DataFormatException e) {
+            throw new IOException("Corrupt event log block at offset " + block.offset(), e);
+        }
+        return json;
+    }
+
+    /**
+     * Checksum of a block: the header up to the checksum field, then the
+     * compressed payload.
+     */
+    static int blockCrc(byte[] header, byte[] payload, int offset, int length) {
+        CRC32 crc = new CRC32();
+        crc.update(header, 0, CRC_OFFSET);
+        crc.update(payload, offset, length);
+        return (int) crc.getValue();
+    }
+
+    static FileChannel openForRead(Path segment) throws IOException {
+        return FileChannel.open(segment, StandardOpenOption.READ);
+    }
+
+    private static void readFully(FileChannel channel, ByteBuffer buffer, long position) throws IOException {
+        while (buffer.hasRemaining()) {
+            int read = channel.read(buffer, position);
+            if (read < 0) {
+                throw new IOException("Unexpected end of event log segment");
+            }
+            position += read;
+        }
+    }
+}
@@ -0,0 +1,186 @@
+package com.laneful.webhooks;
+
+import com.laneful.webhooks.EventLogFormat.Block;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Consumer;
+import java.util.zip.Inflater;
+
+/**
+ * Replays the events stored by an {@link EventLog}, for backfills and
+ * recovery.
+ *
+ * <p>Replays can start from a timestamp. Blocks whose events are all older
+ * are skipped using the segment indexes, without being read or
+ * decompressed. A log that is still being written can be replayed; events
+ * written after the replay started may or may not be included.
+ *
+ * <pre>{@code
+ * EventLogReader reader = new EventLogReader(Path.of("webhook-events"));
+ * long since = Instant.now().minus(Duration.ofDays(1)).getEpochSecond();
+ * reader.replay(since, event -> rebuild(event));
+ * }</pre>
+ */
+public final class EventLogReader {
+
+    private final Path directory;
+
+    /**
+     * Creates a reader for the log in the given directory.
+     */
+    public EventLogReader(Path directory) {
+        if (directory == null) {
+            throw new IllegalArgumentException("Directory cannot be null");
+        }
+        this.directory = directory;
+    }
+
+    /**
+     * Replays every event in the order it was appended.
+     *
+     * @return The number of events passed to the handler
+     * @throws IOException if the log cannot be read or a block is corrupt
+     */
+    public long replay(Consumer<? super WebhookEvent> handler) throws IOException {
+        return replay(Long.MIN_VALUE, handler);
+    }
+
+    /**
+     * Replays the events with a timestamp at or after the given one, in the
+     * order they were appended.
+     *
+     * @param fromTimestamp Unix timestamp in seconds
+     * @return The number of events passed to the handler
+     * @throws IOException if the log cannot be read or a block is corrupt
+     */
+    public long replay(long fromTimestamp, Consumer<? super WebhookEvent> handler) throws IOException {
+        long[] count = new long[1];
+        Consumer<WebhookEvent> filtered = event -> {
+            if (event.timestamp() >= fromTimestamp) {
+                handler.accept(event);
+                count[0]++;
+            }
+        };
+        Inflater inflater = new Inflater();
+        try {
+            for (Path path : EventLogFormat.segments(directory)) {
+                try (FileChannel channel = EventLogFormat.openForRead(path)) {
+                    for (Block block : EventLogFormat.blocks(path, channel)) {
+                        if (block.maxTimestamp() >= fromTimestamp) {
+                            WebhookEventParser.forEach(EventLogFormat.readBlock(channel, block, inflater), filtered);
+                        }
+                    }
+                }
+            }
+        } finally {
+            inflater.end();
+        }
+        return count[0];
+    }
+
+    /**
+     * Replays the events with a timestamp at or after the given one using
+     * the common pool.
+     *
+     * @see #replayParallel(long, Consumer, Executor, int)
+     */
+    public long replayParallel(long fromTimestamp, Consumer<? super WebhookEvent> handler) throws IOException {
+        return replayParallel(fromTimestamp, handler, ForkJoinPool.commonPool(),
+            ForkJoinPool.commonPool().getParallelism());
+    }
+
+    /**
+     * Replays the events with a timestamp at or after the given one,
+     * decompressing and parsing blocks in parallel.
+     *
+     * <p>The handler is called from several threads at once and must be
+     * thread-safe. Events within a block are delivered in order, but blocks
+     * are not, so events for the same message can arrive out of order.
+     *
+     * @param fromTimestamp Unix timestamp in seconds
+     * @param executor Runs the block tasks
+     * @param parallelism Maximum number of blocks processed at once
+     * @return The number of events passed to the handler
+     * @throws IOException if the log cannot be read or a block is corrupt
+     */
+    public long replayParallel(long fromTimestamp, Consumer<? super WebhookEvent> handler,
+                               Executor executor, int parallelism) throws IOException {
+        if (parallelism <= 0) {
+            throw new IllegalArgumentException("Parallelism must be positive");
+        }
+        LongAdder count = new LongAdder();
+        AtomicReference<Throwable> failure = new AtomicReference<>();
+        Semaphore permits = new Semaphore(parallelism);
+        ThreadLocal<Inflater> inflaters = ThreadLocal.withInitial(Inflater::new);
+        List<FileChannel> channels = new ArrayList<>();
+        List<CompletableFuture<Void>> tasks = new ArrayList<>();
+        try {
+            for (Path path : EventLogFormat.segments(directory)) {
+                FileChannel channel = EventLogFormat.openForRead(path);
+                channels.add(channel);
+                for (Block block : EventLogFormat.blocks(path, channel)) {
+                    if (block.maxTimestamp() < fromTimestamp) {
+                        continue;
+                    }
+                    permits.acquireUninterruptibly();
+                    if (failure.get() != null) {
+                        permits.release();
+                        break;
+                    }
+                    tasks.add(CompletableFuture.runAsync(() -> {
+                        try {
+                            byte[] json = EventLogFormat.readBlock(channel, block, inflaters.get());
+                            WebhookEventParser.forEach(json, event -> {
+                                if (event.timestamp() >= fromTimestamp) {
+                                    handler.accept(event);
+                                    count.increment();
+                                }
+                            });
+                        } catch (IOException e) {
+                            throw new UncheckedIOException(e);
+                        } finally {
+                            permits.release();
+                        }
+                    }, executor).whenComplete((ignored, e) -> {
+                        if (e != null) {
+                            failure.compareAndSet(null, e.getCause() != null ? e.getCause() : e);
+                        }
+                    }));
+                }
+                if (failure.get() != null) {
+                    break;
+                }
+            }
+            for (CompletableFuture<Void> task : tasks) {
+                task.exceptionally(e -> null).join();
+            }
+        } finally {
+            for (FileChannel channel : channels) {
+                channel.close();
+            }
+        }
+
+        Throwable error = failure.get();
+        if (error instanceof UncheckedIOException e) {
+            throw e.getCause();
+        }
+        if (error instanceof RuntimeException e) {
+            throw e;
+        }
+        if (error instanceof Error e) {
+            throw e;
+        }
+        return count.sum();
+    }
+}
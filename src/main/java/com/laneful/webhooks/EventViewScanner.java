@@ -0,0 +1,364 @@
+package com.laneful.webhooks;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Single pass over a payload that records where each known field's value
+ * lies, for {@link WebhookEventView}.
+ *
+ * <p>The scanner checks JSON syntax as it goes but decodes nothing except
+ * what validation needs. Values of unknown fields, including nested objects,
+ * are skipped.
+ */
+final class EventViewScanner {
+
+    static final int EVENT = 0;
+    static final int EMAIL = 1;
+    static final int LANE_ID = 2;
+    static final int MESSAGE_ID = 3;
+    static final int TIMESTAMP = 4;
+    static final int TAG = 5;
+    static final int METADATA = 6;
+    static final int URL = 7;
+    static final int IS_HARD = 8;
+    static final int TEXT = 9;
+    static final int REASON = 10;
+    static final int UNSUBSCRIBE_GROUP_ID = 11;
+    static final int CLIENT_DEVICE = 12;
+    static final int CLIENT_OS = 13;
+    static final int CLIENT_IP = 14;
+    static final int FIELDS = 15;
+
+    // Value kinds; 0 means the field is absent
+    static final byte STRING = 1;
+    static final byte ESCAPED_STRING = 2;
+    static final byte NULL = 3;
+    static final byte OBJECT = 4;
+    static final byte ARRAY = 5;
+    static final byte SCALAR = 6;
+
+    private static final byte[][] NAMES = {
+        bytes("event"), bytes("email"), bytes("lane_id"), bytes("message_id"), bytes("timestamp"),
+        bytes("tag"), bytes("metadata"), bytes("url"), bytes("is_hard"), bytes("text"), bytes("reason"),
+        bytes("unsubscribe_group_id"), bytes("client_device"), bytes("client_os"), bytes("client_ip"),
+    };
+    // Same limit as Jackson's default nesting depth
+    private static final int MAX_DEPTH = 1000;
+
+    private final byte[] payload;
+    private int pos;
+    private boolean escaped;
+
+    private EventViewScanner(byte[] payload) {
+        this.payload = payload;
+    }
+
+    /**
+     * Scans a single event or a batch of events.
+     *
+     * @throws IllegalArgumentException If the payload is malformed or an event is invalid
+     */
+    static List<WebhookEventView> scan(byte[] payload) {
+        return new EventViewScanner(payload).scanPayload();
+    }
+
+    private List<WebhookEventView> scanPayload() {
+        skipWhitespace();
+        if (pos == payload.length) {
+            throw new IllegalArgumentException("Payload cannot be empty");
+        }
+        List<WebhookEventView> views = new ArrayList<>();
+        if (payload[pos] == '{') {
+            views.add(scanEvent());
+        } else if (payload[pos] == '[') {
+            pos++;
+            skipWhitespace();
+            if (peek() == ']') {
+                pos++;
+            } else {
+                while (true) {
+                    skipWhitespace();
+                    if (peek() == ']') {
+                        throw syntax("trailing comma in batch");
+                    }
+                    if (peek() != '{') {
+                        throw new IllegalArgumentException("Event must be an object");
+                    }
+                    views.add(scanEvent());
+                    skipWhitespace();
+                    byte next = take();
+                    if (next == ']') {
+                        break;
+                    }
+                    if (next != ',') {
+                        throw syntax("expected ',' or ']' in batch");
+                    }
+                }
+            }
+        } else {
+            throw new IllegalArgumentException("Invalid webhook payload structure");
+        }
+        skipWhitespace();
+        if (pos != payload.length) {
+            throw syntax("unexpected content after payload");
+        }
+        return views;
+    }
+
+    private WebhookEventView scanEvent() {
+        int[] spans = new int[FIELDS * 2];
+        byte[] kinds = new byte[FIELDS];
+        pos++;
+        skipWhitespace();
+        if (peek() == '}') {
+            pos++;
+            return WebhookEventView.of(payload, spans, kinds);
+        }
+        while (true) {
+            skipWhitespace();
+            if (peek() != '"') {
+                throw syntax("expected field name");
+            }
+            int nameStart = pos + 1;
+            skipString();
+            int field = field(nameStart, pos - 1, escaped);
+            skipWhitespace();
+            if (take() != ':') {
+                throw syntax("expected ':' after field name");
+            }
+            skipWhitespace();
+            int start = pos;
+            byte kind = skipValue(0);
+            if (field >= 0) {
+                // Later duplicates replace earlier ones, as with the other parsers
+                boolean string = kind == STRING || kind == ESCAPED_STRING;
+                spans[field * 2] = string ? start + 1 : start;
+                spans[field * 2 + 1] = string ? pos - 1 : pos;
+                kinds[field] = kind;
+            }
+            skipWhitespace();
+            byte next = take();
+            if (next == '}') {
+                return WebhookEventView.of(payload, spans, kinds);
+            }
+            if (next != ',') {
+                throw syntax("expected ',' or '}' in event");
+            }
+        }
+    }
+
+    private int field(int start, int end, boolean escapedName) {
+        if (escapedName) {
+            byte[] name = WebhookEventView.decodeString(payload, start, end).getBytes(StandardCharsets.UTF_8);
+            for (int f = 0; f < FIELDS; f++) {
+                if (Arrays.equals(name, NAMES[f])) {
+                    return f;
+                }
+            }
+            return -1;
+        }
+        for (int f = 0; f < FIELDS; f++) {
+            byte[] name = NAMES[f];
+            if (name.length == end - start && Arrays.equals(payload, start, end, name, 0, name.length)) {
+                return f;
+            }
+        }
+        return -1;
+    }
+
+    private byte skipValue(int depth) {
+        if (depth > MAX_DEPTH) {
+            throw syntax("nesting too deep");
+        }
+        byte first = peek();
+        switch (first) {
+            case '"' -> {
+                skipString();
+                return escaped ? ESCAPED_STRING : STRING;
+            }
+            case '{' -> {
+                skipObject(depth);
+                return OBJECT;
+            }
+            case '[' -> {
+                skipArray(depth);
+                return ARRAY;
+            }
+            case 't' -> {
+                literal("true");
+                return SCALAR;
+            }
+            case 'f' -> {
+                literal("false");
+                return SCALAR;
+            }
+            case 'n' -> {
+                literal("null");
+                return NULL;
+            }
+            default -> {
+                if (first == '-' || (first >= '0' && first <= '9')) {
+                    skipNumber();
+                    return SCALAR;
+                }
+                throw syntax("unexpected character '" + (char) first + "'");
+            }
+        }
+    }
+
+    private void skipObject(int depth) {
+        pos++;
+        skipWhitespace();
+        if (peek() == '}') {
+            pos++;
+            return;
+        }
+        while (true) {
+            skipWhitespace();
+            if (peek() != '"') {
+                throw syntax("expected field name");
+            }
+            skipString();
+            skipWhitespace();
+            if (take() != ':') {
+                throw syntax("expected ':' after field name");
+            }
+            skipWhitespace();
+            skipValue(depth + 1);
+            skipWhitespace();
+            byte next = take();
+            if (next == '}') {
+                return;
+            }
+            if (next != ',') {
+                throw syntax("expected ',' or '}' in object");
+            }
+        }
+    }
+
+    private void skipArray(int depth) {
+        pos++;
+        skipWhitespace();
+        if (peek() == ']') {
+            pos++;
+            return;
+        }
+        while (true) {
+            skipWhitespace();
+            skipValue(depth + 1);
+            skipWhitespace();
+            byte next = take();
+            if (next == ']') {
+                return;
+            }
+            if (next != ',') {
+                throw syntax("expected ',' or ']' in array");
+            }
+        }
+    }
+
+    /**
+     * Skips a string starting at its opening quote, noting whether it
+     * contains escapes.
+     */
+    private void skipString() {
+        escaped = false;
+        pos++;
+        while (pos < payload.length) {
+            byte b = payload[pos++];
+            if (b == '"') {
+                return;
+            }
+            if (b == '\\') {
+                escaped = true;
+                byte e = take();
+                if (e == 'u') {
+                    for (int k = 0; k < 4; k++) {
+                        if (Character.digit(take(), 16) < 0) {
+                            throw syntax("invalid unicode escape");
+                        }
+                    }
+                } else if ("\"\\/bfnrt".indexOf(e) < 0) {
+                    throw syntax("invalid escape '\\" + (char) e + "'");
+                }
+            } else if (b >= 0 && b < 0x20) {
+                throw syntax("unescaped control character in string");
+            }
+        }
+        throw syntax("unexpected end of input in string");
+    }
+
+    private void skipNumber() {
+        if (peek() == '-') {
+            pos++;
+        }
+        if (digits() == 0) {
+            throw syntax("invalid number");
+        }
+        if (pos < payload.length && payload[pos] == '.') {
+            pos++;
+            if (digits() == 0) {
+                throw syntax("invalid number");
+            }
+        }
+        if (pos < payload.length && (payload[pos] == 'e' || payload[pos] == 'E')) {
+            pos++;
+            if (pos < payload.length && (payload[pos] == '+' || payload[pos] == '-')) {
+                pos++;
+            }
+            if (digits() == 0) {
+                throw syntax("invalid number");
+            }
+        }
+    }
+
+    private int digits() {
+        int start = pos;
+        while (pos < payload.length && payload[pos] >= '0' && payload[pos] <= '9') {
+            pos++;
+        }
+        return pos - start;
+    }
+
+    private void literal(String text) {
+        for (int k = 0; k < text.length(); k++) {
+            if (take() != text.charAt(k)) {
+                throw syntax("invalid literal");
+            }
+        }
+    }
+
+    private void skipWhitespace() {
+        while (pos < payload.length) {
+            byte b = payload[pos];
+            if (b != ' ' && b != '\t' && b != '\n' && b != '\r') {
+                return;
+            }
+            pos++;
+        }
+    }
+
+    private byte peek() {
+        if (pos >= payload.length) {
+            throw syntax("unexpected end of input");
+        }
+        return payload[pos];
+    }
+
+    private byte take() {
+        byte b = peek();
+        pos++;
+        return b;
+    }
+
+    private IllegalArgumentException syntax(String message) {
+        return new IllegalArgumentException("Invalid JSON payload: " + message + " at offset " + pos);
+    }
+
+    private static byte[] bytes(String name) {
+        return name.getBytes(StandardCharsets.US_ASCII);
+    }
+}
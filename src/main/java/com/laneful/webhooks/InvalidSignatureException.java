@@ -0,0 +1,11 @@
+package com.laneful.webhooks;
+
+/**
+ * Thrown when a webhook body does not match its signature.
+ */
+public class InvalidSignatureException extends IllegalArgumentException {
+
+    public InvalidSignatureException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,25 @@
+package com.laneful.webhooks;
+
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Email opened by the recipient.
+ */
+public record OpenEvent(
+    String email,
+    UUID laneId,
+    String messageId,
+    long timestamp,
+    String tag,
+    Map<String, Object> metadata,
+    String clientDevice,
+    String clientOs,
+    String clientIp
+) implements WebhookEvent {
+
+    @Override
+    public WebhookEventType type() {
+        return WebhookEventType.OPEN;
+    }
+}
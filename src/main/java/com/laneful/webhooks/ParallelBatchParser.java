@@ -0,0 +1,184 @@
+package com.laneful.webhooks;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+
+/**
+ * Splits a batch payload into its array elements and parses them in chunks
+ * on an executor.
+ *
+ * <p>The split is a single byte scan that only tracks strings and nesting, so
+ * the serial part of the work is small next to the per-event parsing and
+ * validation that runs in parallel.
+ */
+final class ParallelBatchParser {
+
+    // Below this many events per task, scheduling costs more than it saves
+    private static final int MIN_CHUNK_SIZE = 64;
+
+    private final JsonFactory factory;
+
+    ParallelBatchParser(JsonFactory factory) {
+        this.factory = factory;
+    }
+
+    BatchParseResult parse(byte[] payload, Executor executor, int parallelism) {
+        int[] bounds = split(payload);
+        int count = bounds.length / 2;
+        WebhookEvent[] events = new WebhookEvent[count];
+        String[] errors = new String[count];
+
+        int chunkSize = Math.max(MIN_CHUNK_SIZE, Math.ceilDiv(count, parallelism * 4));
+        if (count <= chunkSize) {
+            parseRange(payload, bounds, 0, count, events, errors);
+        } else {
+            List<CompletableFuture<Void>> tasks = new ArrayList<>();
+            for (int from = 0; from < count; from += chunkSize) {
+                int start = from;
+                int end = Math.min(from + chunkSize, count);
+                tasks.add(CompletableFuture.runAsync(
+                    () -> parseRange(payload, bounds, start, end, events, errors), executor));
+            }
+            CompletableFuture.allOf(tasks.toArray(CompletableFuture[]::new)).join();
+        }
+
+        List<WebhookEvent> valid = new ArrayList<>(count);
+        List<BatchParseResult.EventError> invalid = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            if (events[i] != null) {
+                valid.add(events[i]);
+            } else {
+                invalid.add(new BatchParseResult.EventError(i, errors[i]));
+            }
+        }
+        return new BatchParseResult(valid, invalid);
+    }
+
+    private void parseRange(byte[] payload, int[] bounds, int from, int to,
+                            WebhookEvent[] events, String[] errors) {
+        WebhookEventParser.EventReader reader = new WebhookEventParser.EventReader();
+        for (int i = from; i < to; i++) {
+            int offset = bounds[2 * i];
+            int length = bounds[2 * i + 1] - offset;
+            try (JsonParser parser = factory.createParser(payload, offset, length)) {
+                parser.nextToken();
+                events[i] = reader.read(parser);
+                if (parser.nextToken() != null) {
+                    errors[i] = "Invalid JSON payload: unexpected content after event";
+                    events[i] = null;
+                }
+            } catch (IllegalArgumentException e) {
+                errors[i] = e.getMessage();
+            } catch (IOException e) {
+                errors[i] = "Invalid JSON payload: " + e.getMessage();
+            }
+        }
+    }
+
+    /**
+     * Finds the start and end offsets of each element of a top-level array,
+     * or of the single top-level value if the payload is not an array.
+     *
+     * @return Start and end offsets, two entries per element
+     * @throws IllegalArgumentException If the payload is empty or its array is malformed
+     */
+    static int[] split(byte[] payload) {
+        int first = skipWhitespace(payload, 0);
+        if (first == payload.length) {
+            throw new IllegalArgumentException("Payload cannot be empty");
+        }
+        if (payload[first] != '[') {
+            if (payload[first] != '{') {
+                throw new IllegalArgumentException("Invalid webhook payload structure");
+            }
+            return new int[] {first, payload.length};
+        }
+
+        int[] bounds = new int[32];
+        int size = 0;
+        int depth = 0;
+        int start = -1;
+        int lastContent = -1;
+        boolean afterComma = false;
+        boolean inString = false;
+        for (int i = first + 1; i < payload.length; i++) {
+            byte b = payload[i];
+            if (inString) {
+                if (b == '\\') {
+                    i++;
+                } else if (b == '"') {
+                    inString = false;
+                }
+                lastContent = i;
+                continue;
+            }
+            switch (b) {
+                case ' ', '\t', '\n', '\r' -> {
+                    continue;
+                }
+                case '"' -> inString = true;
+                case '{', '[' -> depth++;
+                case '}' -> depth--;
+                case ']' -> {
+                    if (depth == 0) {
+                        if (start >= 0) {
+                            bounds = append(bounds, size, start, lastContent + 1);
+                            size += 2;
+                        } else if (afterComma) {
+                            throw new IllegalArgumentException("Invalid JSON payload: trailing comma in batch");
+                        }
+                        if (skipWhitespace(payload, i + 1) != payload.length) {
+                            throw new IllegalArgumentException("Invalid JSON payload: unexpected content after batch");
+                        }
+                        return Arrays.copyOf(bounds, size);
+                    }
+                    depth--;
+                }
+                case ',' -> {
+                    if (depth == 0) {
+                        if (start < 0) {
+                            throw new IllegalArgumentException("Invalid JSON payload: empty element in batch");
+                        }
+                        bounds = append(bounds, size, start, lastContent + 1);
+                        size += 2;
+                        start = -1;
+                        afterComma = true;
+                        continue;
+                    }
+                }
+                default -> {
+                }
+            }
+            if (start < 0) {
+                start = i;
+            }
+            lastContent = i;
+        }
+        throw new IllegalArgumentException("Invalid JSON payload: unexpected end of input");
+    }
+
+    private static int[] append(int[] bounds, int size, int start, int end) {
+        if (size + 2 > bounds.length) {
+            bounds = Arrays.copyOf(bounds, bounds.length * 2);
+        }
+        bounds[size] = start;
+        bounds[size + 1] = end;
+        return bounds;
+    }
+
+    private static int skipWhitespace(byte[] payload, int from) {
+        int i = from;
+        while (i < payload.length && (payload[i] == ' ' || payload[i] == '\t' || payload[i] == '\n' || payload[i] == '\r')) {
+            i++;
+        }
+        return i;
+    }
+}
@@ -0,0 +1,271 @@
+package com.laneful.webhooks;
+
+import java.time.Clock;
+import java.time.Duration;
+
+/**
+ * Rejects replayed webhooks.
+ *
+ * <p>Events are accepted only if their {@code timestamp} is within the
+ * configured tolerance of the current time. Within that window the guard
+ * remembers 64-bit hashes of the signatures and {@code (message_id, event)}
+ * pairs it has seen. They are kept in a ring of time buckets that are
+ * cleared as they age out, so memory is fixed at construction and lookups
+ * are O(1).
+ *
+ * <p>Check a signature only after it has been verified, so that unsigned
+ * traffic cannot fill the buckets:
+ *
+ * <pre>{@code
+ * if (!verifier.verify(body, signature) || !guard.checkSignature(signature)) {
+ *     return; // forged or replayed batch, dropped before parsing
+ * }
+ * WebhookEventParser.forEach(body, event -> {
+ *     if (guard.checkEvent(event)) {
+ *         process(event);
+ *     }
+ * });
+ * }</pre>
+ *
+ * <p>If a bucket fills up, further keys are not recorded until it rotates.
+ * They are still accepted, and each one is counted in
+ * {@link Stats#overflows()}.
+ */
+public final class ReplayGuard {
+
+    private static final int BUCKETS = 8;
+
+    private final Clock clock;
+    private final long toleranceSeconds;
+    private final long bucketMillis;
+    private final Bucket[] buckets = new Bucket[BUCKETS];
+    private long currentBucket;
+    private long replays;
+    private long outsideWindow;
+    private long overflows;
+
+    private ReplayGuard(Builder builder) {
+        this.clock = builder.clock;
+        this.toleranceSeconds = builder.tolerance.toSeconds();
+        // An event up to the tolerance in the future stays acceptable until twice the tolerance has passed
+        long retentionMillis = builder.tolerance.multipliedBy(2).toMillis();
+        this.bucketMillis = Math.max(1, Math.ceilDiv(retentionMillis, BUCKETS - 1));
+        int perBucket = Math.max(1, builder.maxEntries / BUCKETS);
+        for (int i = 0; i < BUCKETS; i++) {
+            buckets[i] = new Bucket(perBucket);
+        }
+        this.currentBucket = Math.floorDiv(clock.millis(), bucketMillis);
+    }
+
+    /**
+     * Records a verified batch signature.
+     *
+     * @param signature The signature header value (may include 'sha256=' prefix)
+     * @return true if the signature has not been seen within the window
+     */
+    public synchronized boolean checkSignature(String signature) {
+        if (signature == null) {
+            throw new IllegalArgumentException("Signature cannot be null");
+        }
+        return record(signatureKey(signature));
+    }
+
+    /**
+     * Checks an event's timestamp and records its {@code (message_id, event)}
+     * pair.
+     *
+     * @param event The parsed event
+     * @return true if the event is within the window and not a repeat
+     */
+    public synchronized boolean checkEvent(WebhookEvent event) {
+        long now = clock.millis();
+        long ageSeconds = Math.floorDiv(now, 1000) - event.timestamp();
+        if (ageSeconds > toleranceSeconds || ageSeconds < -toleranceSeconds) {
+            outsideWindow++;
+            return false;
+        }
+        return record(eventKey(event.messageId(), event.type()));
+    }
+
+    public synchronized Stats stats() {
+        return new Stats(replays, outsideWindow, overflows);
+    }
+
+    private boolean record(long key) {
+        rotate(clock.millis());
+        for (Bucket bucket : buckets) {
+            if (bucket.contains(key)) {
+                replays++;
+                return false;
+            }
+        }
+        if (!buckets[Math.floorMod(currentBucket, BUCKETS)].add(key)) {
+            overflows++;
+        }
+        return true;
+    }
+
+    private void rotate(long nowMillis) {
+        long bucket = Math.floorDiv(nowMillis, bucketMillis);
+        if (bucket <= currentBucket) {
+            return;
+        }
+        long stale = Math.min(bucket - currentBucket, BUCKETS);
+        for (long i = 1; i <= stale; i++) {
+            buckets[Math.floorMod(currentBucket + i, BUCKETS)].clear();
+        }
+        currentBucket = bucket;
+    }
+
+    /**
+     * Hash of a signature. Signatures are HMAC output, so their leading hex
+     * digits are already uniformly distributed.
+     */
+    static long signatureKey(String signature) {
+        int offset = signature.startsWith("sha256=") ? 7 : 0;
+        if (signature.length() - offset >= 16) {
+            long key = 0;
+            boolean hex = true;
+            for (int i = offset; i < offset + 16 && hex; i++) {
+                int digit = Character.digit(signature.charAt(i), 16);
+                hex = digit >= 0;
+                key = (key << 4) | digit;
+            }
+            if (hex) {
+                return key;
+            }
+        }
+        return mix(fnv1a(signature, 0xcbf29ce484222325L));
+    }
+
+    static long eventKey(String messageId, WebhookEventType type) {
+        long hash = fnv1a(messageId, 0xcbf29ce484222325L);
+        hash = (hash ^ (type.ordinal() + 1)) * 0x100000001b3L;
+        return mix(hash);
+    }
+
+    private static long fnv1a(String value, long hash) {
+        for (int i = 0; i < value.length(); i++) {
+            hash = (hash ^ value.charAt(i)) * 0x100000001b3L;
+        }
+        return hash;
+    }
+
+    private static long mix(long hash) {
+        hash ^= hash >>> 33;
+        hash *= 0xff51afd7ed558ccdL;
+        hash ^= hash >>> 33;
+        hash *= 0xc4ceb9fe1a85ec53L;
+        return hash ^ (hash >>> 33);
+    }
+
+    /**
+     * Counters for rejected and unrecorded keys.
+     *
+     * @param replays Signatures or events rejected as already seen
+     * @param outsideWindow Events rejected because their timestamp was outside the tolerance
+     * @param overflows Keys accepted without being recorded because their bucket was full
+     */
+    public record Stats(long replays, long outsideWindow, long overflows) {}
+
+    /**
+     * Fixed-capacity open-addressing set of longs.
+     */
+    private static final class Bucket {
+        private final long[] table;
+        private final int mask;
+        private final int limit;
+        private boolean hasZero;
+        private int size;
+
+        Bucket(int limit) {
+            // Load factor of at most one half keeps probe sequences short
+            int capacity = Integer.highestOneBit(Math.max(2, limit * 2 - 1)) << 1;
+            this.table = new long[capacity];
+            this.mask = capacity - 1;
+            this.limit = limit;
+        }
+
+        boolean contains(long key) {
+            if (key == 0) {
+                return hasZero;
+            }
+            for (int i = (int) key & mask; ; i = (i + 1) & mask) {
+                long slot = table[i];
+                if (slot == key) {
+                    return true;
+                }
+                if (slot == 0) {
+                    return false;
+                }
+            }
+        }
+
+        boolean add(long key) {
+            if (size >= limit) {
+                return false;
+            }
+            size++;
+            if (key == 0) {
+                hasZero = true;
+                return true;
+            }
+            int i = (int) key & mask;
+            while (table[i] != 0) {
+                i = (i + 1) & mask;
+            }
+            table[i] = key;
+            return true;
+        }
+
+        void clear() {
+            if (size > 0) {
+                java.util.Arrays.fill(table, 0);
+                hasZero = false;
+                size = 0;
+            }
+        }
+    }
+
+    /**
+     * Builder for creating ReplayGuard instances.
+     */
+    public static class Builder {
+        private Duration tolerance = Duration.ofMinutes(5);
+        private int maxEntries = 1 << 20;
+        private Clock clock = Clock.systemUTC();
+
+        /**
+         * Sets how far an event timestamp may be from the current time.
+         * Defaults to five minutes.
+         */
+        public Builder tolerance(Duration tolerance) {
+            if (tolerance == null || tolerance.toSeconds() <= 0) {
+                throw new IllegalArgumentException("Tolerance must be at least one second");
+            }
+            this.tolerance = tolerance;
+            return this;
+        }
+
+        /**
+         * Sets how many keys are remembered across the window. Memory use is
+         * about 16 bytes per entry.
+         */
+        public Builder maxEntries(int maxEntries) {
+            if (maxEntries <= 0) {
+                throw new IllegalArgumentException("Max entries must be positive");
+            }
+            this.maxEntries = maxEntries;
+            return this;
+        }
+
+        public Builder clock(Clock clock) {
+            this.clock = clock;
+            return this;
+        }
+
+        public ReplayGuard build() {
+            return new ReplayGuard(this);
+        }
+    }
+}
@@ -0,0 +1,23 @@
+package com.laneful.webhooks;
+
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Recipient unsubscribed.
+ */
+public record UnsubscribeEvent(
+    String email,
+    UUID laneId,
+    String messageId,
+    long timestamp,
+    String tag,
+    Map<String, Object> metadata,
+    String unsubscribeGroupId
+) implements WebhookEvent {
+
+    @Override
+    public WebhookEventType type() {
+        return WebhookEventType.UNSUBSCRIBE;
+    }
+}
@@ -0,0 +1,41 @@
+package com.laneful.webhooks;
+
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * A typed webhook event.
+ *
+ * <p>Each event type has its own record, so handlers can switch over the
+ * sealed hierarchy instead of casting map values:
+ *
+ * <pre>{@code
+ * switch (event) {
+ *     case BounceEvent bounce when bounce.isHard() -> suppress(bounce.email());
+ *     case ClickEvent click -> recordClick(click.url());
+ *     default -> { }
+ * }
+ * }</pre>
+ */
+public sealed interface WebhookEvent
+        permits DeliveryEvent, OpenEvent, ClickEvent, DropEvent, SpamComplaintEvent, UnsubscribeEvent, BounceEvent {
+
+    WebhookEventType type();
+
+    /** Recipient address. */
+    String email();
+
+    /** Lane the message was sent through. */
+    UUID laneId();
+
+    String messageId();
+
+    /** Event time in seconds since the epoch. */
+    long timestamp();
+
+    /** Tag set on the email, or null. */
+    String tag();
+
+    /** Metadata attached to the email; empty if none. */
+    Map<String, Object> metadata();
+}
@@ -0,0 +1,578 @@
+package com.laneful.webhooks;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.UUID;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+/**
+ * Parses webhook payloads into typed {@link WebhookEvent}s.
+ *
+ * <p>Events are read field by field from a streaming {@link JsonParser} rather
+ * than through a {@code JsonNode} tree and an intermediate map. Validation
+ * matches {@link WebhookVerifier#parseWebhookPayload(String)}: the same
+ * required fields, event types and formats are checked and the same messages
+ * are reported. Fields that do not apply to an event's type are ignored, and a
+ * JSON null in a required field counts as missing.
+ */
+public final class WebhookEventParser {
+
+    private static final ObjectMapper OBJECT_MAPPER = new ObjectMapper();
+    private static final TypeReference<Map<String, Object>> METADATA_TYPE = new TypeReference<>() {};
+    private static final ParallelBatchParser PARALLEL_PARSER = new ParallelBatchParser(OBJECT_MAPPER.getFactory());
+
+    private WebhookEventParser() {
+    }
+
+    /**
+     * Parses a single event or a batch of events.
+     *
+     * @param payload The raw webhook payload JSON
+     * @return The events in payload order
+     * @throws IllegalArgumentException If payload is invalid JSON or structure
+     */
+    public static List<WebhookEvent> parse(String payload) {
+        if (payload == null || payload.isBlank()) {
+            throw new IllegalArgumentException("Payload cannot be empty");
+        }
+        try (JsonParser parser = OBJECT_MAPPER.createParser(payload)) {
+            return parse(parser);
+        } catch (IOException e) {
+            throw invalidJson(e);
+        }
+    }
+
+    /**
+     * Parses a single event or a batch of events from the raw request body.
+     *
+     * @param payload The raw webhook payload as UTF-8 JSON
+     * @return The events in payload order
+     * @throws IllegalArgumentException If payload is invalid JSON or structure
+     */
+    public static List<WebhookEvent> parse(byte[] payload) {
+        if (payload == null || payload.length == 0) {
+            throw new IllegalArgumentException("Payload cannot be empty");
+        }
+        try (JsonParser parser = OBJECT_MAPPER.createParser(payload)) {
+            return parse(parser);
+        } catch (IOException e) {
+            throw invalidJson(e);
+        }
+    }
+
+    /**
+     * Parses a single event or a batch of events from a stream, which is not
+     * closed.
+     *
+     * @param payload The raw webhook payload as UTF-8 JSON
+     * @return The events in payload order
+     * @throws IllegalArgumentException If payload is invalid JSON or structure
+     * @throws UncheckedIOException If reading the stream fails
+     */
+    public static List<WebhookEvent> parse(InputStream payload) {
+        if (payload == null) {
+            throw new IllegalArgumentException("Payload cannot be empty");
+        }
+        try {
+            return read(payload);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to read webhook payload", e);
+        }
+    }
+
+    /**
+     * Parses events from a stream, leaving it open and passing read failures
+     * through.
+     */
+    static List<WebhookEvent> read(InputStream payload) throws IOException {
+        try (JsonParser parser = OBJECT_MAPPER.createParser(payload)) {
+            parser.disable(JsonParser.Feature.AUTO_CLOSE_SOURCE);
+            return parse(parser);
+        } catch (JsonProcessingException e) {
+            throw invalidJson(e);
+        }
+    }
+
+    /**
+     * Validates events one at a time and hands each to the handler as soon as
+     * it has been parsed from the stream, which is not closed.
+     *
+     * <p>Only one event is held in memory at a time, however large the batch.
+     * An invalid event stops iteration with an exception after the events
+     * before it have been handled.
+     *
+     * @param payload The raw webhook payload as UTF-8 JSON
+     * @param handler Receives each event in payload order
+     * @throws IllegalArgumentException If payload is invalid JSON or structure
+     * @throws UncheckedIOException If reading the stream fails
+     */
+    public static void forEach(InputStream payload, Consumer<? super WebhookEvent> handler) {
+        if (payload == null) {
+            throw new IllegalArgumentException("Payload cannot be empty");
+        }
+        try (JsonParser parser = OBJECT_MAPPER.createParser(payload)) {
+            parser.disable(JsonParser.Feature.AUTO_CLOSE_SOURCE);
+            forEach(parser, handler);
+        } catch (JsonProcessingException e) {
+            throw invalidJson(e);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to read webhook payload", e);
+        }
+    }
+
+    /**
+     * Validates events one at a time from the raw request body and hands
+     * each to the handler as soon as it has been parsed.
+     *
+     * @param payload The raw webhook payload as UTF-8 JSON
+     * @param handler Receives each event in payload order
+     * @throws IllegalArgumentException If payload is invalid JSON or structure
+     * @see #forEach(InputStream, Consumer)
+     */
+    public static void forEach(byte[] payload, Consumer<? super WebhookEvent> handler) {
+        if (payload == null || payload.length == 0) {
+            throw new IllegalArgumentException("Payload cannot be empty");
+        }
+        try (JsonParser parser = OBJECT_MAPPER.createParser(payload)) {
+            forEach(parser, handler);
+        } catch (IOException e) {
+            throw invalidJson(e);
+        }
+    }
+
+    /**
+     * Returns a lazy, sequential stream of events parsed from the input as the
+     * stream is consumed. Close the returned stream to release the parser; the
+     * input itself is not closed.
+     *
+     * @param payload The raw webhook payload as UTF-8 JSON
+     * @return Events in payload order
+     * @throws IllegalArgumentException If payload is invalid JSON or structure, when the bad event is reached
+     * @throws UncheckedIOException If reading the input fails
+     */
+    public static Stream<WebhookEvent> stream(InputStream payload) {
+        if (payload == null) {
+            throw new IllegalArgumentException("Payload cannot be empty");
+        }
+        JsonParser parser;
+        try {
+            parser = OBJECT_MAPPER.createParser(payload);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to read webhook payload", e);
+        }
+        parser.disable(JsonParser.Feature.AUTO_CLOSE_SOURCE);
+        EventCursor cursor = new EventCursor(parser);
+        Iterator<WebhookEvent> iterator = new Iterator<>() {
+            private WebhookEvent next;
+
+            @Override
+            public boolean hasNext() {
+                if (next == null) {
+                    next = cursor.nextUnchecked();
+                }
+                return next != null;
+            }
+
+            @Override
+            public WebhookEvent next() {
+                if (!hasNext()) {
+                    throw new NoSuchElementException();
+                }
+                WebhookEvent event = next;
+                next = null;
+                return event;
+            }
+        };
+        return StreamSupport.stream(
+                Spliterators.spliteratorUnknownSize(iterator, Spliterator.ORDERED | Spliterator.NONNULL), false)
+            .onClose(() -> {
+                try {
+                    parser.close();
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+    }
+
+    /**
+     * Parses a batch across the common fork-join pool, reporting invalid
+     * events instead of failing the batch.
+     *
+     * @param payload The raw webhook payload as UTF-8 JSON
+     * @return Valid events and per-event errors, each in payload order
+     * @throws IllegalArgumentException If the payload is empty or not a well-formed array or object
+     * @see #parseParallel(byte[], Executor, int)
+     */
+    public static BatchParseResult parseParallel(byte[] payload) {
+        return parseParallel(payload, ForkJoinPool.commonPool(), ForkJoinPool.getCommonPoolParallelism());
+    }
+
+    /**
+     * Parses a batch on the given executor, reporting invalid events instead
+     * of failing the batch.
+     *
+     * <p>The payload is first split into its array elements with a quick byte
+     * scan. The elements are then parsed and validated in chunks, about four
+     * per unit of parallelism, so one slow chunk does not hold up the rest.
+     * Small batches are parsed on the calling thread. An element that is not
+     * valid JSON is reported as an error for that index only.
+     *
+     * @param payload The raw webhook payload as UTF-8 JSON
+     * @param executor Runs the chunks, e.g. a fork-join pool or a virtual-thread executor
+     * @param parallelism Number of threads expected to work on the batch
+     * @return Valid events and per-event errors, each in payload order
+     * @throws IllegalArgumentException If the payload is empty or not a well-formed array or object
+     */
+    public static BatchParseResult parseParallel(byte[] payload, Executor executor, int parallelism) {
+        if (payload == null || payload.length == 0) {
+            throw new IllegalArgumentException("Payload cannot be empty");
+        }
+        if (executor == null || parallelism <= 0) {
+            throw new IllegalArgumentException("Executor and a positive parallelism are required");
+        }
+        return PARALLEL_PARSER.parse(payload, executor, parallelism);
+    }
+
+    /**
+     * Indexes a single event or a batch of events without decoding them.
+     *
+     * <p>The payload is scanned once and only the required fields of each
+     * event are validated; everything else is decoded when a view's accessor
+     * is called. This suits handlers that route on the type or message id and
+     * pass most events on untouched.
+     *
+     * @param payload The raw webhook payload as UTF-8 JSON; it is not copied and must not be modified afterwards
+     * @return A view of each event in payload order
+     * @throws IllegalArgumentException If payload is invalid JSON or structure
+     * @see WebhookEventView
+     */
+    public static List<WebhookEventView> views(byte[] payload) {
+        if (payload == null || payload.length == 0) {
+            throw new IllegalArgumentException("Payload cannot be empty");
+        }
+        return EventViewScanner.scan(payload);
+    }
+
+    private static List<WebhookEvent> parse(JsonParser parser) throws IOException {
+        List<WebhookEvent> events = new ArrayList<>();
+        forEach(parser, events::add);
+        return events;
+    }
+
+    private static void forEach(JsonParser parser, Consumer<? super WebhookEvent> handler) throws IOException {
+        EventCursor cursor = new EventCursor(parser);
+        WebhookEvent event;
+        while ((event = cursor.next()) != null) {
+            handler.accept(event);
+        }
+    }
+
+    /**
+     * Reads a metadata object from a slice of a payload.
+     */
+    static Map<String, Object> parseMetadata(byte[] payload, int offset, int length) {
+        try {
+            return Collections.unmodifiableMap(OBJECT_MAPPER.readValue(payload, offset, length, METADATA_TYPE));
+        } catch (IOException e) {
+            throw invalidJson(e);
+        }
+    }
+
+    private static IllegalArgumentException invalidJson(IOException e) {
+        return new IllegalArgumentException("Invalid JSON payload: " + e.getMessage(), e);
+    }
+
+    /**
+     * Walks a single event or a batch array, returning one event at a time.
+     */
+    static final class EventCursor {
+        private final JsonParser parser;
+        private final EventReader reader = new EventReader();
+        private boolean started;
+        private boolean done;
+
+        EventCursor(JsonParser parser) {
+            this.parser = parser;
+        }
+
+        /**
+         * Parses the next event.
+         *
+         * @return The event, or null after the last one
+         */
+        WebhookEvent next() throws IOException {
+            if (done) {
+                return null;
+            }
+            if (!started) {
+                started = true;
+                JsonToken token = parser.nextToken();
+                if (token == null) {
+                    throw new IllegalArgumentException("Payload cannot be empty");
+                }
+                if (token == JsonToken.START_OBJECT) {
+                    done = true;
+                    return reader.read(parser);
+                }
+                if (token != JsonToken.START_ARRAY) {
+                    throw new IllegalArgumentException("Invalid webhook payload structure");
+                }
+            }
+            if (parser.nextToken() == JsonToken.END_ARRAY) {
+                done = true;
+                return null;
+            }
+            return reader.read(parser);
+        }
+
+        WebhookEvent nextUnchecked() {
+            try {
+                return next();
+            } catch (JsonProcessingException e) {
+                throw invalidJson(e);
+            } catch (IOException e) {
+                throw new UncheckedIOException("Failed to read webhook payload", e);
+            }
+        }
+    }
+
+    /**
+     * Reads one event object, reusing its field holders between events.
+     */
+    static final class EventReader {
+        private String event;
+        private WebhookEventType type;
+        private String email;
+        private boolean hasLaneId;
+        private UUID laneId;
+        private String laneIdText;
+        private String messageId;
+        private boolean hasTimestamp;
+        private boolean validTimestamp;
+        private long timestamp;
+        private String tag;
+        private Map<String, Object> metadata;
+        private String url;
+        private boolean isHard;
+        private String text;
+        private String reason;
+        private String unsubscribeGroupId;
+        private String clientDevice;
+        private String clientOs;
+        private String clientIp;
+
+        /**
+         * Reads the event at the parser's current token and leaves the parser
+         * on its closing brace.
+         */
+        WebhookEvent read(JsonParser parser) throws IOException {
+            if (parser.currentToken() != JsonToken.START_OBJECT) {
+                throw new IllegalArgumentException("Event must be an object");
+            }
+            reset();
+            while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                String name = parser.currentName();
+                JsonToken value = parser.nextToken();
+                switch (name) {
+                    case "event" -> {
+                        event = text(parser, value);
+                        type = WebhookEventType.fromValue(event);
+                    }
+                    case "email" -> email = text(parser, value);
+                    case "lane_id" -> readLaneId(parser, value);
+                    case "message_id" -> messageId = text(parser, value);
+                    case "timestamp" -> readTimestamp(parser, value);
+                    case "metadata" -> readMetadata(parser, value);
+                    case "tag" -> tag = text(parser, value);
+                    case "url" -> url = text(parser, value);
+                    case "is_hard" -> isHard = value.isScalarValue() && parser.getValueAsBoolean();
+                    case "text" -> text = text(parser, value);
+                    case "reason" -> reason = text(parser, value);
+                    case "unsubscribe_group_id" -> unsubscribeGroupId = text(parser, value);
+                    case "client_device" -> clientDevice = text(parser, value);
+                    case "client_os" -> clientOs = text(parser, value);
+                    case "client_ip" -> clientIp = text(parser, value);
+                    default -> parser.skipChildren();
+                }
+            }
+            return build();
+        }
+
+        private void reset() {
+            event = null;
+            type = null;
+            email = null;
+            hasLaneId = false;
+            laneId = null;
+            laneIdText = null;
+            messageId = null;
+            hasTimestamp = false;
+            validTimestamp = false;
+            timestamp = 0;
+            tag = null;
+            metadata = Map.of();
+            url = null;
+            isHard = false;
+            text = null;
+            reason = null;
+            unsubscribeGroupId = null;
+            clientDevice = null;
+            clientOs = null;
+            clientIp = null;
+        }
+
+        private void readLaneId(JsonParser parser, JsonToken value) throws IOException {
+            if (value == JsonToken.VALUE_NULL) {
+                return;
+            }
+            hasLaneId = true;
+            if (value == JsonToken.VALUE_STRING) {
+                laneId = parseUuid(parser.getTextCharacters(), parser.getTextOffset(), parser.getTextLength());
+            }
+            if (laneId == null) {
+                laneIdText = text(parser, value);
+            }
+        }
+
+        private void readTimestamp(JsonParser parser, JsonToken value) throws IOException {
+            if (value == JsonToken.VALUE_NULL) {
+                return;
+            }
+            hasTimestamp = true;
+            if (value == JsonToken.VALUE_NUMBER_INT && parser.getNumberType() != JsonParser.NumberType.BIG_INTEGER) {
+                timestamp = parser.getLongValue();
+                validTimestamp = true;
+            } else if (value == JsonToken.VALUE_STRING) {
+                try {
+                    timestamp = Long.parseLong(parser.getText());
+                    validTimestamp = true;
+                } catch (NumberFormatException e) {
+                    validTimestamp = false;
+                }
+            } else {
+                parser.skipChildren();
+            }
+        }
+
+        private void readMetadata(JsonParser parser, JsonToken value) throws IOException {
+            if (value == JsonToken.VALUE_NULL) {
+                metadata = Map.of();
+            } else if (value == JsonToken.START_OBJECT) {
+                metadata = Collections.unmodifiableMap(OBJECT_MAPPER.readValue(parser, METADATA_TYPE));
+            } else {
+                throw new IllegalArgumentException("Invalid metadata format");
+            }
+        }
+
+        private WebhookEvent build() {
+            if (event == null) {
+                throw new IllegalArgumentException("Missing required field: event");
+            }
+            if (email == null) {
+                throw new IllegalArgumentException("Missing required field: email");
+            }
+            if (!hasLaneId) {
+                throw new IllegalArgumentException("Missing required field: lane_id");
+            }
+            if (messageId == null) {
+                throw new IllegalArgumentException("Missing required field: message_id");
+            }
+            if (!hasTimestamp) {
+                throw new IllegalArgumentException("Missing required field: timestamp");
+            }
+            if (type == null) {
+                throw new IllegalArgumentException("Invalid event type: " + event);
+            }
+            if (email.indexOf('@') < 0 || email.indexOf('.') < 0) {
+                throw new IllegalArgumentException("Invalid email format: " + email);
+            }
+            if (!validTimestamp) {
+                throw new IllegalArgumentException("Invalid timestamp format");
+            }
+            if (laneId == null) {
+                throw new IllegalArgumentException("Invalid lane_id format: " + laneIdText);
+            }
+
+            return switch (type) {
+                case DELIVERY -> new DeliveryEvent(email, laneId, messageId, timestamp, tag, metadata);
+                case OPEN -> new OpenEvent(email, laneId, messageId, timestamp, tag, metadata,
+                    clientDevice, clientOs, clientIp);
+                case CLICK -> new ClickEvent(email, laneId, messageId, timestamp, tag, metadata,
+                    url, clientDevice, clientOs, clientIp);
+                case DROP -> new DropEvent(email, laneId, messageId, timestamp, tag, metadata, reason);
+                case SPAM_COMPLAINT -> new SpamComplaintEvent(email, laneId, messageId, timestamp, tag, metadata);
+                case UNSUBSCRIBE -> new UnsubscribeEvent(email, laneId, messageId, timestamp, tag, metadata,
+                    unsubscribeGroupId);
+                case BOUNCE -> new BounceEvent(email, laneId, messageId, timestamp, tag, metadata,
+                    isHard, text, reason);
+            };
+        }
+
+        private static String text(JsonParser parser, JsonToken value) throws IOException {
+            if (value.isStructStart()) {
+                parser.skipChildren();
+                return "";
+            }
+            return parser.getValueAsString();
+        }
+    }
+
+    /**
+     * Parses a canonical 36-character UUID without allocating intermediate
+     * strings.
+     *
+     * @return The UUID, or null if the text is not a canonical UUID
+     */
+    static UUID parseUuid(char[] chars, int offset, int length) {
+        if (length != 36) {
+            return null;
+        }
+        long mostSignificant = 0;
+        long leastSignificant = 0;
+        for (int i = 0; i < 36; i++) {
+            char c = chars[offset + i];
+            if (i == 8 || i == 13 || i == 18 || i == 23) {
+                if (c != '-') {
+                    return null;
+                }
+                continue;
+            }
+            int digit = hexValue(c);
+            if (digit < 0) {
+                return null;
+            }
+            if (i < 18) {
+                mostSignificant = (mostSignificant << 4) | digit;
+            } else {
+                leastSignificant = (leastSignificant << 4) | digit;
+            }
+        }
+        return new UUID(mostSignificant, leastSignificant);
+    }
+
+    private static int hexValue(char c) {
+        if (c >= '0' && c <= '9') return c - '0';
+        if (c >= 'a' && c <= 'f') return c - 'a' + 10;
+        if (c >= 'A' && c <= 'F') return c - 'A' + 10;
+        return -1;
+    }
+}
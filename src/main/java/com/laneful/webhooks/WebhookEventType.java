@@ -0,0 +1,49 @@
+package com.laneful.webhooks;
+
+/**
+ * Webhook event types as documented.
+ */
+public enum WebhookEventType {
+    DELIVERY("delivery"),
+    OPEN("open"),
+    CLICK("click"),
+    DROP("drop"),
+    SPAM_COMPLAINT("spam_complaint"),
+    UNSUBSCRIBE("unsubscribe"),
+    BOUNCE("bounce");
+
+    private final String value;
+
+    WebhookEventType(String value) {
+        this.value = value;
+    }
+
+    /**
+     * The value of the {@code event} field for this type.
+     */
+    public String value() {
+        return value;
+    }
+
+    /**
+     * Looks up an event type by its {@code event} field value.
+     *
+     * @param value The field value
+     * @return The event type, or null if the value is not a known type
+     */
+    public static WebhookEventType fromValue(String value) {
+        if (value == null) {
+            return null;
+        }
+        return switch (value) {
+            case "delivery" -> DELIVERY;
+            case "open" -> OPEN;
+            case "click" -> CLICK;
+            case "drop" -> DROP;
+            case "spam_complaint" -> SPAM_COMPLAINT;
+            case "unsubscribe" -> UNSUBSCRIBE;
+            case "bounce" -> BOUNCE;
+            default -> null;
+        };
+    }
+}
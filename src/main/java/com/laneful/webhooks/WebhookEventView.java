@@ -0,0 +1,397 @@
+package com.laneful.webhooks;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.UUID;
+
+import static com.laneful.webhooks.EventViewScanner.*;
+
+/**
+ * A webhook event read lazily from the raw payload bytes.
+ *
+ * <p>Building a view scans the event once, recording where each field's value
+ * lies in the payload, and validates only the required fields, with the same
+ * checks and messages as {@link WebhookEventParser}. Every other field is
+ * decoded when its accessor is called, so a handler that routes on
+ * {@link #type()} and {@link #messageId()} never pays for metadata or client
+ * details:
+ *
+ * <pre>{@code
+ * for (WebhookEventView view : verifier.verifyAndParseViews(body, signature)) {
+ *     if (view.type() == WebhookEventType.BOUNCE) {
+ *         bounces.forward(view.messageId(), view.toEvent());
+ *     }
+ * }
+ * }</pre>
+ *
+ * <p>A view holds on to the whole payload array, which must not be modified
+ * while the view is in use. Accessors decode again on each call; call
+ * {@link #toEvent()} for an event that is decoded once and detached from the
+ * payload. Views are immutable and may be shared between threads.
+ */
+public final class WebhookEventView {
+
+    private static final int[] REQUIRED = {EVENT, EMAIL, LANE_ID, MESSAGE_ID, TIMESTAMP};
+    private static final byte[][] TYPE_NAMES = typeNames();
+
+    private final byte[] payload;
+    private final int[] spans;
+    private final byte[] kinds;
+    private final WebhookEventType type;
+    private final long timestamp;
+    private final long laneIdHigh;
+    private final long laneIdLow;
+
+    private WebhookEventView(byte[] payload, int[] spans, byte[] kinds, WebhookEventType type,
+                             long timestamp, long laneIdHigh, long laneIdLow) {
+        this.payload = payload;
+        this.spans = spans;
+        this.kinds = kinds;
+        this.type = type;
+        this.timestamp = timestamp;
+        this.laneIdHigh = laneIdHigh;
+        this.laneIdLow = laneIdLow;
+    }
+
+    /**
+     * Validates the required fields of a scanned event.
+     */
+    static WebhookEventView of(byte[] payload, int[] spans, byte[] kinds) {
+        for (int field : REQUIRED) {
+            if (kinds[field] == 0 || kinds[field] == NULL) {
+                throw new IllegalArgumentException("Missing required field: " + name(field));
+            }
+        }
+        WebhookEventType type = type(payload, spans, kinds);
+        if (type == null) {
+            throw new IllegalArgumentException("Invalid event type: " + text(payload, spans, kinds, EVENT));
+        }
+        if (!validEmail(payload, spans, kinds)) {
+            throw new IllegalArgumentException("Invalid email format: " + text(payload, spans, kinds, EMAIL));
+        }
+        long timestamp = timestamp(payload, spans, kinds);
+        long[] laneId = laneId(payload, spans, kinds);
+        if (laneId == null) {
+            throw new IllegalArgumentException("Invalid lane_id format: " + text(payload, spans, kinds, LANE_ID));
+        }
+        return new WebhookEventView(payload, spans, kinds, type, timestamp, laneId[0], laneId[1]);
+    }
+
+    public WebhookEventType type() {
+        return type;
+    }
+
+    /** Recipient address. */
+    public String email() {
+        return text(EMAIL);
+    }
+
+    /** Lane the message was sent through. */
+    public UUID laneId() {
+        return new UUID(laneIdHigh, laneIdLow);
+    }
+
+    public String messageId() {
+        return text(MESSAGE_ID);
+    }
+
+    /** Event time in seconds since the epoch. */
+    public long timestamp() {
+        return timestamp;
+    }
+
+    /** Tag set on the email, or null. */
+    public String tag() {
+        return text(TAG);
+    }
+
+    /**
+     * Metadata attached to the email; empty if none.
+     *
+     * @throws IllegalArgumentException If the metadata is not an object
+     */
+    public Map<String, Object> metadata() {
+        return switch (kinds[METADATA]) {
+            case 0, NULL -> Map.of();
+            case OBJECT -> WebhookEventParser.parseMetadata(payload, start(METADATA), length(METADATA));
+            default -> throw new IllegalArgumentException("Invalid metadata format");
+        };
+    }
+
+    /** Clicked link, for click events. */
+    public String url() {
+        return text(URL);
+    }
+
+    /** Whether a bounce is permanent, for bounce events. */
+    public boolean isHard() {
+        return switch (kinds[IS_HARD]) {
+            case STRING, ESCAPED_STRING -> "true".equals(text(IS_HARD).trim());
+            case SCALAR -> {
+                int start = start(IS_HARD);
+                int end = start + length(IS_HARD);
+                if (payload[start] == 't') {
+                    yield true;
+                }
+                // Integers other than zero count as true, as with Jackson
+                boolean nonZero = false;
+                for (int i = start; i < end; i++) {
+                    byte b = payload[i];
+                    if (b == '.' || b == 'e' || b == 'E' || b == 'f') {
+                        yield false;
+                    }
+                    nonZero |= b >= '1' && b <= '9';
+                }
+                yield nonZero;
+            }
+            default -> false;
+        };
+    }
+
+    /** Bounce message from the receiving server, for bounce events. */
+    public String text() {
+        return text(TEXT);
+    }
+
+    /** Why the message bounced or was dropped. */
+    public String reason() {
+        return text(REASON);
+    }
+
+    /** Group unsubscribed from, or null for a global unsubscribe. */
+    public String unsubscribeGroupId() {
+        return text(UNSUBSCRIBE_GROUP_ID);
+    }
+
+    public String clientDevice() {
+        return text(CLIENT_DEVICE);
+    }
+
+    public String clientOs() {
+        return text(CLIENT_OS);
+    }
+
+    public String clientIp() {
+        return text(CLIENT_IP);
+    }
+
+    /**
+     * Decodes every field into the typed event, equal to the one
+     * {@link WebhookEventParser} would return for the same JSON.
+     *
+     * @throws IllegalArgumentException If the metadata is not an object
+     */
+    public WebhookEvent toEvent() {
+        String email = email();
+        UUID laneId = laneId();
+        String messageId = messageId();
+        String tag = tag();
+        Map<String, Object> metadata = metadata();
+        return switch (type) {
+            case DELIVERY -> new DeliveryEvent(email, laneId, messageId, timestamp, tag, metadata);
+            case OPEN -> new OpenEvent(email, laneId, messageId, timestamp, tag, metadata,
+                clientDevice(), clientOs(), clientIp());
+            case CLICK -> new ClickEvent(email, laneId, messageId, timestamp, tag, metadata,
+                url(), clientDevice(), clientOs(), clientIp());
+            case DROP -> new DropEvent(email, laneId, messageId, timestamp, tag, metadata, reason());
+            case SPAM_COMPLAINT -> new SpamComplaintEvent(email, laneId, messageId, timestamp, tag, metadata);
+            case UNSUBSCRIBE -> new UnsubscribeEvent(email, laneId, messageId, timestamp, tag, metadata,
+                unsubscribeGroupId());
+            case BOUNCE -> new BounceEvent(email, laneId, messageId, timestamp, tag, metadata,
+                isHard(), text(), reason());
+        };
+    }
+
+    @Override
+    public String toString() {
+        return "WebhookEventView[type=" + type + ", messageId=" + messageId() + "]";
+    }
+
+    private String text(int field) {
+        return text(payload, spans, kinds, field);
+    }
+
+    private int start(int field) {
+        return spans[field * 2];
+    }
+
+    private int length(int field) {
+        return spans[field * 2 + 1] - spans[field * 2];
+    }
+
+    /**
+     * Reads a field as text the way the other parsers do: strings are
+     * decoded, other scalars are returned as written, objects and arrays are
+     * empty and null or absent fields are null.
+     */
+    private static String text(byte[] payload, int[] spans, byte[] kinds, int field) {
+        int start = spans[field * 2];
+        int end = spans[field * 2 + 1];
+        return switch (kinds[field]) {
+            case STRING -> new String(payload, start, end - start, StandardCharsets.UTF_8);
+            case ESCAPED_STRING -> decodeString(payload, start, end);
+            case SCALAR -> new String(payload, start, end - start, StandardCharsets.US_ASCII);
+            case OBJECT, ARRAY -> "";
+            default -> null;
+        };
+    }
+
+    private static WebhookEventType type(byte[] payload, int[] spans, byte[] kinds) {
+        int start = spans[EVENT * 2];
+        int end = spans[EVENT * 2 + 1];
+        if (kinds[EVENT] == ESCAPED_STRING) {
+            return WebhookEventType.fromValue(decodeString(payload, start, end));
+        }
+        if (kinds[EVENT] != STRING) {
+            return null;
+        }
+        for (int i = 0; i < TYPE_NAMES.length; i++) {
+            byte[] name = TYPE_NAMES[i];
+            if (name.length == end - start && Arrays.equals(payload, start, end, name, 0, name.length)) {
+                return WebhookEventType.values()[i];
+            }
+        }
+        return null;
+    }
+
+    private static boolean validEmail(byte[] payload, int[] spans, byte[] kinds) {
+        if (kinds[EMAIL] != STRING) {
+            String email = text(payload, spans, kinds, EMAIL);
+            return email.indexOf('@') >= 0 && email.indexOf('.') >= 0;
+        }
+        boolean at = false;
+        boolean dot = false;
+        for (int i = spans[EMAIL * 2]; i < spans[EMAIL * 2 + 1]; i++) {
+            at |= payload[i] == '@';
+            dot |= payload[i] == '.';
+        }
+        return at && dot;
+    }
+
+    /**
+     * Reads the timestamp, which may be an integer or a string holding one.
+     */
+    private static long timestamp(byte[] payload, int[] spans, byte[] kinds) {
+        int start = spans[TIMESTAMP * 2];
+        int end = spans[TIMESTAMP * 2 + 1];
+        switch (kinds[TIMESTAMP]) {
+            case STRING, ESCAPED_STRING -> {
+                try {
+                    return Long.parseLong(text(payload, spans, kinds, TIMESTAMP));
+                } catch (NumberFormatException e) {
+                    throw new IllegalArgumentException("Invalid timestamp format");
+                }
+            }
+            case SCALAR -> {
+                boolean negative = payload[start] == '-';
+                long value = 0;
+                for (int i = negative ? start + 1 : start; i < end; i++) {
+                    int digit = payload[i] - '0';
+                    if (digit < 0 || digit > 9) {
+                        throw new IllegalArgumentException("Invalid timestamp format");
+                    }
+                    // Accumulate negatively so Long.MIN_VALUE fits
+                    if (value < (Long.MIN_VALUE + digit) / 10) {
+                        throw new IllegalArgumentException("Invalid timestamp format");
+                    }
+                    value = value * 10 - digit;
+                }
+                if (!negative && value == Long.MIN_VALUE) {
+                    throw new IllegalArgumentException("Invalid timestamp format");
+                }
+                return negative ? value : -value;
+            }
+            default -> throw new IllegalArgumentException("Invalid timestamp format");
+        }
+    }
+
+    /**
+     * Parses a canonical UUID into its two halves without allocating it.
+     *
+     * @return The most and least significant bits, or null if invalid
+     */
+    private static long[] laneId(byte[] payload, int[] spans, byte[] kinds) {
+        if (kinds[LANE_ID] == ESCAPED_STRING) {
+            String text = decodeString(payload, spans[LANE_ID * 2], spans[LANE_ID * 2 + 1]);
+            UUID uuid = WebhookEventParser.parseUuid(text.toCharArray(), 0, text.length());
+            return uuid == null ? null : new long[] {uuid.getMostSignificantBits(), uuid.getLeastSignificantBits()};
+        }
+        int start = spans[LANE_ID * 2];
+        if (kinds[LANE_ID] != STRING || spans[LANE_ID * 2 + 1] - start != 36) {
+            return null;
+        }
+        long high = 0;
+        long low = 0;
+        for (int i = 0; i < 36; i++) {
+            int c = payload[start + i];
+            if (i == 8 || i == 13 || i == 18 || i == 23) {
+                if (c != '-') {
+                    return null;
+                }
+                continue;
+            }
+            int digit = Character.digit(c, 16);
+            if (digit < 0) {
+                return null;
+            }
+            if (i < 18) {
+                high = (high << 4) | digit;
+            } else {
+                low = (low << 4) | digit;
+            }
+        }
+        return new long[] {high, low};
+    }
+
+    /**
+     * Decodes the contents of a JSON string that contains escapes.
+     */
+    static String decodeString(byte[] payload, int start, int end) {
+        StringBuilder text = new StringBuilder(end - start);
+        int run = start;
+        int i = start;
+        while (i < end) {
+            if (payload[i] != '\\') {
+                i++;
+                continue;
+            }
+            text.append(new String(payload, run, i - run, StandardCharsets.UTF_8));
+            char escape = (char) payload[i + 1];
+            switch (escape) {
+                case 'b' -> text.append('\b');
+                case 'f' -> text.append('\f');
+                case 'n' -> text.append('\n');
+                case 'r' -> text.append('\r');
+                case 't' -> text.append('\t');
+                case 'u' -> {
+                    text.append((char) Integer.parseInt(new String(payload, i + 2, 4, StandardCharsets.US_ASCII), 16));
+                    i += 4;
+                }
+                default -> text.append(escape);
+            }
+            i += 2;
+            run = i;
+        }
+        return text.append(new String(payload, run, end - run, StandardCharsets.UTF_8)).toString();
+    }
+
+    private static String name(int field) {
+        return switch (field) {
+            case EVENT -> "event";
+            case EMAIL -> "email";
+            case LANE_ID -> "lane_id";
+            case MESSAGE_ID -> "message_id";
+            default -> "timestamp";
+        };
+    }
+
+    private static byte[][] typeNames() {
+        WebhookEventType[] types = WebhookEventType.values();
+        byte[][] names = new byte[types.length][];
+        for (int i = 0; i < types.length; i++) {
+            names[i] = types[i].value().getBytes(StandardCharsets.US_ASCII);
+        }
+        return names;
+    }
+}
@@ -0,0 +1,428 @@
+package com.laneful.webhooks;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.BiConsumer;
+import java.util.function.Consumer;
+import java.util.zip.GZIPInputStream;
+
+/**
+ * Embedded HTTP server that receives, verifies and dispatches Laneful
+ * webhooks.
+ *
+ * <p>Each POST body is read once into a byte array, up to a size limit and
+ * gzip-decoded if needed. Its signature header is verified with the shared
+ * {@link WebhookVerifier}, and the body is parsed into typed events. The
+ * request is acknowledged before the events are handed to the registered
+ * handlers, so Laneful is not kept waiting on slow handlers. Requests run on
+ * virtual threads by default, and connections are kept alive between
+ * requests.
+ *
+ * <pre>{@code
+ * WebhookReceiver receiver = new WebhookReceiver.Builder("your-webhook-secret")
+ *     .port(8080)
+ *     .handler(event -> System.out.println(event))
+ *     .build();
+ * receiver.start();
+ * }</pre>
+ *
+ * <p>With an {@link EventDispatcher}, events are queued on its partitions
+ * instead of being handled on the request thread. If the dispatcher has no
+ * room for the whole batch, the request is answered with 503 and a
+ * {@code Retry-After} header so Laneful delivers it again later.
+ *
+ * <p>Responses: 200 once the body is verified and parsed, or for a batch
+ * already seen by the replay guard; 400 for an invalid payload; 401 for a
+ * missing or invalid signature; 405 for methods other than POST; 413 for
+ * bodies over the limit; 415 for unsupported content encodings; 503 when the
+ * dispatcher is full.
+ */
+public final class WebhookReceiver implements AutoCloseable {
+
+    private static final System.Logger LOGGER = System.getLogger(WebhookReceiver.class.getName());
+
+    private final WebhookVerifier verifier;
+    private final ReplayGuard replayGuard;
+    private final int maxBodyBytes;
+    private final List<Consumer<? super WebhookEvent>> handlers;
+    private final BiConsumer<WebhookEvent, Exception> onHandlerError;
+    private final EventDispatcher dispatcher;
+    private final ExecutorService executor;
+    private final boolean ownsExecutor;
+    private final HttpServer server;
+
+    private final LongAdder requests = new LongAdder();
+    private final LongAdder events = new LongAdder();
+    private final LongAdder invalidSignatures = new LongAdder();
+    private final LongAdder invalidPayloads = new LongAdder();
+    private final LongAdder replays = new LongAdder();
+    private final LongAdder tooLarge = new LongAdder();
+    private final LongAdder shed = new LongAdder();
+
+    private WebhookReceiver(Builder builder) throws IOException {
+        this.verifier = builder.verifier;
+        this.replayGuard = builder.replayGuard;
+        this.maxBodyBytes = builder.maxBodyBytes;
+        this.handlers = List.copyOf(builder.handlers);
+        this.onHandlerError = builder.onHandlerError;
+        this.dispatcher = builder.dispatcher;
+        this.ownsExecutor = builder.executor == null;
+        this.executor = ownsExecutor ? Executors.newVirtualThreadPerTaskExecutor() : builder.executor;
+        this.server = HttpServer.create(builder.address, builder.backlog);
+        server.createContext(builder.path, this::handle);
+        server.setExecutor(executor);
+    }
+
+    /**
+     * Starts accepting requests.
+     */
+    public void start() {
+        server.start();
+    }
+
+    /**
+     * The port the server is bound to, useful when built with port 0.
+     */
+    public int port() {
+        return server.getAddress().getPort();
+    }
+
+    public Stats stats() {
+        return new Stats(requests.sum(), events.sum(), invalidSignatures.sum(),
+            invalidPayloads.sum(), replays.sum(), tooLarge.sum(), shed.sum());
+    }
+
+    /**
+     * Stops the server immediately. Handlers already running are not
+     * interrupted when a caller-supplied executor is used. A dispatcher is
+     * not closed.
+     */
+    @Override
+    public void close() {
+        server.stop(0);
+        if (ownsExecutor) {
+            executor.close();
+        }
+    }
+
+    private void handle(HttpExchange exchange) throws IOException {
+        List<WebhookEvent> received;
+        try (exchange) {
+            requests.increment();
+            if (!"POST".equals(exchange.getRequestMethod())) {
+                exchange.getResponseHeaders().set("Allow", "POST");
+                respond(exchange, 405, "Method not allowed");
+                return;
+            }
+
+            byte[] body = readBody(exchange);
+            if (body == null) {
+                return;
+            }
+
+            if (body.length == 0) {
+                invalidPayloads.increment();
+                respond(exchange, 400, "Empty payload");
+                return;
+            }
+            String signature = WebhookVerifier.extractSignatureFromHeaders(headers(exchange));
+            if (!verifier.verify(body, signature)) {
+                invalidSignatures.increment();
+                respond(exchange, 401, "Invalid webhook signature");
+                return;
+            }
+            // A batch shed with 503 is delivered again with the same signature,
+            // so with a dispatcher replays are only checked per event
+            if (dispatcher == null && replayGuard != null && !replayGuard.checkSignature(signature)) {
+                // Acknowledge so the batch is not delivered again
+                replays.increment();
+                respond(exchange, 200, null);
+                return;
+            }
+
+            try {
+                received = WebhookEventParser.parse(body);
+            } catch (IllegalArgumentException e) {
+                invalidPayloads.increment();
+                respond(exchange, 400, e.getMessage());
+                return;
+            }
+            if (dispatcher != null) {
+                if (dispatcher.offerAll(received, this::accept)) {
+                    respond(exchange, 200, null);
+                } else {
+                    shed.increment();
+                    exchange.getResponseHeaders().set("Retry-After", "1");
+                    respond(exchange, 503, "Event queues are full");
+                }
+                return;
+            }
+            respond(exchange, 200, null);
+        }
+        dispatch(received);
+    }
+
+    /**
+     * Reads the request body, or responds with an error and returns null.
+     */
+    private byte[] readBody(HttpExchange exchange) throws IOException {
+        String contentLength = exchange.getRequestHeaders().getFirst("Content-Length");
+        if (contentLength != null) {
+            try {
+                if (Long.parseLong(contentLength.trim()) > maxBodyBytes) {
+                    tooLarge.increment();
+                    respond(exchange, 413, "Payload too large");
+                    return null;
+                }
+            } catch (NumberFormatException e) {
+                respond(exchange, 400, "Invalid Content-Length");
+                return null;
+            }
+        }
+
+        InputStream in = exchange.getRequestBody();
+        String encoding = exchange.getRequestHeaders().getFirst("Content-Encoding");
+        if (encoding != null && !encoding.equalsIgnoreCase("identity")) {
+            if (!encoding.equalsIgnoreCase("gzip")) {
+                respond(exchange, 415, "Unsupported content encoding");
+                return null;
+            }
+            in = new GZIPInputStream(in);
+        }
+
+        byte[] body;
+        try {
+            // The limit also applies after decompression
+            body = in.readNBytes(maxBodyBytes + 1);
+        } catch (IOException e) {
+            invalidPayloads.increment();
+            respond(exchange, 400, "Unreadable request body");
+            return null;
+        }
+        if (body.length > maxBodyBytes) {
+            tooLarge.increment();
+            respond(exchange, 413, "Payload too large");
+            return null;
+        }
+        return body;
+    }
+
+    private void dispatch(List<WebhookEvent> received) {
+        for (WebhookEvent event : received) {
+            if (!accept(event)) {
+                continue;
+            }
+            for (Consumer<? super WebhookEvent> handler : handlers) {
+                try {
+                    handler.accept(event);
+                } catch (Exception e) {
+                    onHandlerError.accept(event, e);
+                }
+            }
+        }
+    }
+
+    /**
+     * Drops replayed events and counts the rest.
+     */
+    private boolean accept(WebhookEvent event) {
+        if (replayGuard != null && !replayGuard.checkEvent(event)) {
+            replays.increment();
+            return false;
+        }
+        events.increment();
+        return true;
+    }
+
+    private static Map<String, String> headers(HttpExchange exchange) {
+        Map<String, String> headers = new HashMap<>();
+        exchange.getRequestHeaders().forEach((name, values) -> {
+            if (!values.isEmpty()) {
+                headers.put(name.toLowerCase(Locale.ROOT), values.get(0));
+            }
+        });
+        return headers;
+    }
+
+    private static void respond(HttpExchange exchange, int status, String message) throws IOException {
+        if (message == null) {
+            exchange.sendResponseHeaders(status, -1);
+            return;
+        }
+        byte[] bytes = message.getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().set("Content-Type", "text/plain; charset=utf-8");
+        exchange.sendResponseHeaders(status, bytes.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(bytes);
+        }
+    }
+
+    /**
+     * Request and event counters since the receiver was built.
+     *
+     * @param requests HTTP requests received
+     * @param events Events handed to the handlers or queued on the dispatcher
+     * @param invalidSignatures Requests rejected for a missing or invalid signature
+     * @param invalidPayloads Requests rejected for an unreadable or invalid body
+     * @param replays Batches and events dropped by the replay guard
+     * @param tooLarge Requests rejected for exceeding the body size limit
+     * @param shed Requests answered with 503 because the dispatcher was full
+     */
+    public record Stats(long requests, long events, long invalidSignatures,
+                        long invalidPayloads, long replays, long tooLarge, long shed) {}
+
+    /**
+     * Builder for creating WebhookReceiver instances.
+     */
+    public static class Builder {
+        private final WebhookVerifier verifier;
+        private InetSocketAddress address = new InetSocketAddress(8080);
+        private String path = "/webhooks";
+        private int backlog = 0;
+        private int maxBodyBytes = 10 * 1024 * 1024;
+        private ReplayGuard replayGuard;
+        private ExecutorService executor;
+        private EventDispatcher dispatcher;
+        private final List<Consumer<? super WebhookEvent>> handlers = new ArrayList<>();
+        private BiConsumer<WebhookEvent, Exception> onHandlerError = (event, e) ->
+            LOGGER.log(System.Logger.Level.WARNING, "Webhook handler failed for " + event.messageId(), e);
+
+        /**
+         * Creates a builder for a receiver that verifies with the given secret.
+         */
+        public Builder(String secret) {
+            this(WebhookVerifier.forSecret(secret));
+        }
+
+        /**
+         * Creates a builder for a receiver that verifies with the given verifier.
+         */
+        public Builder(WebhookVerifier verifier) {
+            if (verifier == null) {
+                throw new IllegalArgumentException("Verifier cannot be null");
+            }
+            this.verifier = verifier;
+        }
+
+        /**
+         * Listens on all interfaces at the given port; 0 picks a free port.
+         * Defaults to 8080.
+         */
+        public Builder port(int port) {
+            this.address = new InetSocketAddress(port);
+            return this;
+        }
+
+        public Builder address(InetSocketAddress address) {
+            this.address = address;
+            return this;
+        }
+
+        /**
+         * Sets the path webhooks are posted to. Defaults to {@code /webhooks}.
+         */
+        public Builder path(String path) {
+            if (path == null || !path.startsWith("/")) {
+                throw new IllegalArgumentException("Path must start with '/'");
+            }
+            this.path = path;
+            return this;
+        }
+
+        /**
+         * Sets the largest accepted body, after gzip decoding. Defaults to 10 MB.
+         */
+        public Builder maxBodyBytes(int maxBodyBytes) {
+            if (maxBodyBytes <= 0 || maxBodyBytes == Integer.MAX_VALUE) {
+                throw new IllegalArgumentException("Max body size must be positive");
+            }
+            this.maxBodyBytes = maxBodyBytes;
+            return this;
+        }
+
+        /**
+         * Sets the maximum number of queued incoming connections; 0 uses the
+         * system default.
+         */
+        public Builder backlog(int backlog) {
+            this.backlog = backlog;
+            return this;
+        }
+
+        /**
+         * Drops replayed batches before parsing and replayed or stale events
+         * before dispatch.
+         */
+        public Builder replayGuard(ReplayGuard replayGuard) {
+            this.replayGuard = replayGuard;
+            return this;
+        }
+
+        /**
+         * Sets the executor that runs requests and handlers. The receiver does
+         * not shut it down. Defaults to a virtual thread per request.
+         */
+        public Builder executor(ExecutorService executor) {
+            this.executor = executor;
+            return this;
+        }
+
+        /**
+         * Adds a handler. Handlers run in registration order for each event,
+         * after the request has been acknowledged.
+         */
+        public Builder handler(Consumer<? super WebhookEvent> handler) {
+            if (handler == null) {
+                throw new IllegalArgumentException("Handler cannot be null");
+            }
+            handlers.add(handler);
+            return this;
+        }
+
+        /**
+         * Sets what happens when a handler throws. Defaults to logging a warning.
+         */
+        public Builder onHandlerError(BiConsumer<WebhookEvent, Exception> onHandlerError) {
+            this.onHandlerError = onHandlerError;
+            return this;
+        }
+
+        /**
+         * Queues events on a dispatcher instead of running handlers on the
+         * request thread, and answers 503 when it is full. Cannot be combined
+         * with {@link #handler(Consumer)}; register handlers on the
+         * dispatcher instead. The receiver does not close it.
+         */
+        public Builder dispatcher(EventDispatcher dispatcher) {
+            this.dispatcher = dispatcher;
+            return this;
+        }
+
+        /**
+         * Binds the server socket. Call {@link WebhookReceiver#start()} to
+         * begin accepting requests.
+         *
+         * @throws IOException if the address cannot be bound
+         */
+        public WebhookReceiver build() throws IOException {
+            if (dispatcher != null && !handlers.isEmpty()) {
+                throw new IllegalArgumentException("Register handlers on the dispatcher, not the receiver");
+            }
+            return new WebhookReceiver(this);
+        }
+    }
+}
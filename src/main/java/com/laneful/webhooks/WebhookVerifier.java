@@ -1,5 +1,6 @@
 package com.laneful.webhooks;
 
+import com.fasterxml.jackson.core.JsonParser;
 import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
@@ -8,19 +9,35 @@ import com.fasterxml.jackson.databind.node.ObjectNode;
 
 import javax.crypto.Mac;
 import javax.crypto.spec.SecretKeySpec;
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
 import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
 import java.security.InvalidKeyException;
+import java.security.MessageDigest;
 import java.security.NoSuchAlgorithmException;
 import java.util.*;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.function.Consumer;
 import java.util.regex.Pattern;
 
 /**
  * Utility class for verifying webhook signatures and processing webhook payloads.
+ *
+ * <p>The static methods set up a new key for every call. Services that verify
+ * many webhooks should create one instance per secret with
+ * {@link #forSecret(String)}, which initializes the key once and reuses
+ * {@link Mac} objects across calls and threads.
  */
 public class WebhookVerifier {
     
     private static final String ALGORITHM = "HmacSHA256";
     private static final String SIGNATURE_PREFIX = "sha256=";
+    private static final int SIGNATURE_LENGTH = 32;
+    private static final int POOL_SIZE = Math.max(4, 2 * Runtime.getRuntime().availableProcessors());
     private static final String SIGNATURE_HEADER_NAME = "x-webhook-signature";
     private static final ObjectMapper OBJECT_MAPPER = new ObjectMapper();
     
@@ -35,6 +52,317 @@ public class WebhookVerifier {
         Pattern.CASE_INSENSITIVE
     );
     
+    private final SecretKeySpec key;
+    private final Mac prototype;
+    // Lock-free slots rather than a ThreadLocal, which would hold one Mac per virtual thread
+    private final AtomicReferenceArray<Hmac> pool = new AtomicReferenceArray<>(POOL_SIZE);
+    
+    private WebhookVerifier(String secret) throws GeneralSecurityException {
+        this.key = new SecretKeySpec(secret.getBytes(StandardCharsets.UTF_8), ALGORITHM);
+        this.prototype = Mac.getInstance(ALGORITHM);
+        prototype.init(key);
+    }
+    
+    /**
+     * Creates a reusable verifier for the given secret.
+     * 
+     * <p>Instances are thread-safe. Verification decodes the signature into a
+     * pooled buffer and compares bytes in constant time, so verifying a byte
+     * payload does not allocate once the pool is warm.
+     * 
+     * @param secret The webhook secret
+     * @return A verifier bound to the secret
+     * @throws IllegalArgumentException If the secret is empty
+     */
+    public static WebhookVerifier forSecret(String secret) {
+        if (secret == null || secret.trim().isEmpty()) {
+            throw new IllegalArgumentException("Secret cannot be empty");
+        }
+        try {
+            return new WebhookVerifier(secret);
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException(ALGORITHM + " is not available", e);
+        }
+    }
+    
+    /**
+     * Verifies a signature over the UTF-8 bytes of a payload.
+     * 
+     * @param payload The webhook payload
+     * @param signature The signature to verify (may include 'sha256=' prefix)
+     * @return true if the signature is valid, false otherwise
+     * @throws IllegalArgumentException If the payload is empty
+     */
+    public boolean verify(String payload, String signature) {
+        if (payload == null || payload.isBlank()) {
+            throw new IllegalArgumentException("Payload cannot be empty");
+        }
+        return verify(payload.getBytes(StandardCharsets.UTF_8), signature);
+    }
+    
+    /**
+     * Verifies a signature over a raw payload.
+     * 
+     * @param payload The webhook payload bytes
+     * @param signature The signature to verify (may include 'sha256=' prefix)
+     * @return true if the signature is valid, false otherwise
+     * @throws IllegalArgumentException If the payload is empty
+     */
+    public boolean verify(byte[] payload, String signature) {
+        if (payload == null || payload.length == 0) {
+            throw new IllegalArgumentException("Payload cannot be empty");
+        }
+        if (signature == null) {
+            return false;
+        }
+        Hmac hmac = acquire();
+        try {
+            if (!hmac.decodeSignature(signature)) {
+                return false;
+            }
+            hmac.mac.update(payload);
+            return hmac.matches();
+        } finally {
+            release(hmac);
+        }
+    }
+    
+    /**
+     * Verifies a signature over the remaining bytes of a buffer, which may be
+     * direct.
+     * 
+     * @param payload The webhook payload; its position is left unchanged
+     * @param signature The signature to verify (may include 'sha256=' prefix)
+     * @return true if the signature is valid, false otherwise
+     * @throws IllegalArgumentException If the payload is empty
+     */
+    public boolean verify(ByteBuffer payload, String signature) {
+        if (payload == null || !payload.hasRemaining()) {
+            throw new IllegalArgumentException("Payload cannot be empty");
+        }
+        if (signature == null) {
+            return false;
+        }
+        Hmac hmac = acquire();
+        try {
+            if (!hmac.decodeSignature(signature)) {
+                return false;
+            }
+            int position = payload.position();
+            hmac.mac.update(payload);
+            payload.position(position);
+            return hmac.matches();
+        } finally {
+            release(hmac);
+        }
+    }
+    
+    /**
+     * Verifies a raw webhook body and parses it without decoding it into a
+     * String first.
+     * 
+     * @param body The raw request body
+     * @param signature The signature to verify (may include 'sha256=' prefix)
+     * @return WebhookData containing parsed events and batch mode flag
+     * @throws InvalidSignatureException If the signature does not match the body
+     * @throws IllegalArgumentException If the body is empty, invalid JSON or has an invalid structure
+     */
+    public WebhookData verifyAndParse(byte[] body, String signature) {
+        if (!verify(body, signature)) {
+            throw new InvalidSignatureException("Invalid webhook signature");
+        }
+        return parseBytes(body);
+    }
+    
+    /**
+     * Verifies and parses a webhook body in a single pass.
+     * 
+     * <p>Bytes are fed to the HMAC as the JSON parser reads them, so the body
+     * is never buffered whole or decoded into a String. The stream is read to
+     * the end but not closed. Events are only returned once the signature
+     * over the complete body has been checked.
+     * 
+     * @param body The raw request body
+     * @param signature The signature to verify (may include 'sha256=' prefix)
+     * @return WebhookData containing parsed events and batch mode flag
+     * @throws InvalidSignatureException If the signature does not match the body
+     * @throws IllegalArgumentException If the body is empty, invalid JSON or has an invalid structure
+     * @throws UncheckedIOException If reading the body fails
+     */
+    public WebhookData verifyAndParse(InputStream body, String signature) {
+        return verifyWhileReading(body, signature, WebhookVerifier::parseStream);
+    }
+    
+    /**
+     * Verifies a raw webhook body and parses it into typed events.
+     * 
+     * @param body The raw request body
+     * @param signature The signature to verify (may include 'sha256=' prefix)
+     * @return The events in payload order
+     * @throws InvalidSignatureException If the signature does not match the body
+     * @throws IllegalArgumentException If the body is empty, invalid JSON or has an invalid structure
+     * @see WebhookEventParser
+     */
+    public List<WebhookEvent> verifyAndParseEvents(byte[] body, String signature) {
+        if (!verify(body, signature)) {
+            throw new InvalidSignatureException("Invalid webhook signature");
+        }
+        return WebhookEventParser.parse(body);
+    }
+    
+    /**
+     * Verifies a raw webhook body and indexes its events without decoding
+     * them.
+     * 
+     * @param body The raw request body; views read from it, so it must not be modified afterwards
+     * @param signature The signature to verify (may include 'sha256=' prefix)
+     * @return A view of each event in payload order
+     * @throws InvalidSignatureException If the signature does not match the body
+     * @throws IllegalArgumentException If the body is empty, invalid JSON or has an invalid structure
+     * @see WebhookEventView
+     */
+    public List<WebhookEventView> verifyAndParseViews(byte[] body, String signature) {
+        if (!verify(body, signature)) {
+            throw new InvalidSignatureException("Invalid webhook signature");
+        }
+        return WebhookEventParser.views(body);
+    }
+    
+    /**
+     * Verifies and parses a webhook body into typed events in a single pass,
+     * as {@link #verifyAndParse(InputStream, String)} does for maps.
+     * 
+     * @param body The raw request body
+     * @param signature The signature to verify (may include 'sha256=' prefix)
+     * @return The events in payload order
+     * @throws InvalidSignatureException If the signature does not match the body
+     * @throws IllegalArgumentException If the body is empty, invalid JSON or has an invalid structure
+     * @throws UncheckedIOException If reading the body fails
+     * @see WebhookEventParser
+     */
+    public List<WebhookEvent> verifyAndParseEvents(InputStream body, String signature) {
+        return verifyWhileReading(body, signature, WebhookEventParser::read);
+    }
+    
+    /**
+     * Verifies a raw webhook body, then hands its events to the handler one
+     * at a time as they are parsed.
+     * 
+     * <p>The signature is checked over the whole body before the first event
+     * is parsed, so the handler never sees a forged event. Only the raw bytes
+     * and one event are in memory at a time.
+     * 
+     * @param body The raw request body
+     * @param signature The signature to verify (may include 'sha256=' prefix)
+     * @param handler Receives each event in payload order
+     * @throws InvalidSignatureException If the signature does not match the body
+     * @throws IllegalArgumentException If the body is empty, invalid JSON or has an invalid structure
+     * @see WebhookEventParser#forEach(byte[], Consumer)
+     */
+    public void verifyAndForEach(byte[] body, String signature, Consumer<? super WebhookEvent> handler) {
+        if (!verify(body, signature)) {
+            throw new InvalidSignatureException("Invalid webhook signature");
+        }
+        WebhookEventParser.forEach(body, handler);
+    }
+    
+    private <T> T verifyWhileReading(InputStream body, String signature, BodyReader<T> reader) {
+        if (body == null) {
+            throw new IllegalArgumentException("Payload cannot be empty");
+        }
+        Hmac hmac = acquire();
+        try {
+            if (signature == null || !hmac.decodeSignature(signature)) {
+                throw new InvalidSignatureException("Invalid webhook signature");
+            }
+            MacInputStream in = new MacInputStream(body, hmac.mac);
+            T data;
+            try {
+                data = reader.read(in);
+            } catch (IllegalArgumentException e) {
+                // Report a forged body as such rather than as malformed JSON
+                in.drain();
+                if (!hmac.matches()) {
+                    throw new InvalidSignatureException("Invalid webhook signature");
+                }
+                throw e;
+            }
+            in.drain();
+            if (!hmac.matches()) {
+                throw new InvalidSignatureException("Invalid webhook signature");
+            }
+            return data;
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to read webhook body", e);
+        } finally {
+            release(hmac);
+        }
+    }
+    
+    /**
+     * Signs a payload with this verifier's secret.
+     * 
+     * @param payload The payload to sign
+     * @return The hex signature without prefix
+     */
+    public String sign(String payload) {
+        return sign(payload.getBytes(StandardCharsets.UTF_8));
+    }
+    
+    /**
+     * Signs a raw payload with this verifier's secret.
+     * 
+     * @param payload The payload bytes to sign
+     * @return The hex signature without prefix
+     */
+    public String sign(byte[] payload) {
+        Hmac hmac = acquire();
+        try {
+            return HexFormat.of().formatHex(hmac.mac.doFinal(payload));
+        } finally {
+            release(hmac);
+        }
+    }
+    
+    private Hmac acquire() {
+        int start = (int) (Thread.currentThread().threadId() % POOL_SIZE);
+        for (int i = 0; i < POOL_SIZE; i++) {
+            int slot = (start + i) % POOL_SIZE;
+            Hmac hmac = pool.get(slot);
+            if (hmac != null && pool.compareAndSet(slot, hmac, null)) {
+                return hmac;
+            }
+        }
+        return new Hmac(newMac());
+    }
+    
+    private void release(Hmac hmac) {
+        // doFinal leaves the Mac reset; reset again in case an update was abandoned
+        hmac.mac.reset();
+        int start = (int) (Thread.currentThread().threadId() % POOL_SIZE);
+        for (int i = 0; i < POOL_SIZE; i++) {
+            if (pool.compareAndSet((start + i) % POOL_SIZE, null, hmac)) {
+                return;
+            }
+        }
+    }
+    
+    private Mac newMac() {
+        try {
+            synchronized (prototype) {
+                return (Mac) prototype.clone();
+            }
+        } catch (CloneNotSupportedException e) {
+            try {
+                Mac mac = Mac.getInstance(ALGORITHM);
+                mac.init(key);
+                return mac;
+            } catch (GeneralSecurityException ex) {
+                throw new IllegalStateException(ALGORITHM + " is not available", ex);
+            }
+        }
+    }
+    
     /**
      * Verifies a webhook signature with support for sha256= prefix.
      * 
@@ -54,17 +382,7 @@ public class WebhookVerifier {
             return false;
         }
         
-        try {
-            // Handle sha256= prefix as documented
-            String cleanSignature = signature.startsWith(SIGNATURE_PREFIX) 
-                ? signature.substring(SIGNATURE_PREFIX.length())
-                : signature;
-                
-            String expectedSignature = generateSignature(secret, payload);
-            return constantTimeEquals(expectedSignature, cleanSignature);
-        } catch (Exception e) {
-            return false;
-        }
+        return forSecret(secret).verify(payload, signature);
     }
     
     /**
@@ -85,7 +403,7 @@ public class WebhookVerifier {
         mac.init(secretKeySpec);
         
         byte[] hash = mac.doFinal(payload.getBytes(StandardCharsets.UTF_8));
-        return bytesToHex(hash);
+        return HexFormat.of().formatHex(hash);
     }
     
     /**
@@ -117,33 +435,51 @@ public class WebhookVerifier {
         }
         
         try {
-            JsonNode data = OBJECT_MAPPER.readTree(payload);
-            
-            if (data.isArray()) {
-                // Batch mode: array of events
-                List<Map<String, Object>> events = new ArrayList<>();
-                for (JsonNode event : data) {
-                    Map<String, Object> eventMap = validateAndParseEvent(event);
-                    events.add(eventMap);
-                }
-                return new WebhookData(true, events);
-            } else if (data.isObject()) {
-                // Single event mode
-                Map<String, Object> eventMap = validateAndParseEvent(data);
-                return new WebhookData(false, List.of(eventMap));
-            } else {
-                throw new IllegalArgumentException("Invalid webhook payload structure");
-            }
+            return toWebhookData(OBJECT_MAPPER.readTree(payload));
         } catch (JsonProcessingException e) {
             throw new IllegalArgumentException("Invalid JSON payload: " + e.getMessage(), e);
-        } catch (Exception e) {
-            if (e instanceof IllegalArgumentException) {
-                throw e;
-            }
+        }
+    }
+    
+    private static WebhookData parseBytes(byte[] payload) {
+        try {
+            return toWebhookData(OBJECT_MAPPER.readTree(payload));
+        } catch (IOException e) {
+            throw new IllegalArgumentException("Invalid JSON payload: " + e.getMessage(), e);
+        }
+    }
+    
+    private static WebhookData parseStream(InputStream payload) throws IOException {
+        try {
+            return toWebhookData(OBJECT_MAPPER.reader()
+                .without(JsonParser.Feature.AUTO_CLOSE_SOURCE)
+                .readTree(payload));
+        } catch (JsonProcessingException e) {
             throw new IllegalArgumentException("Invalid JSON payload: " + e.getMessage(), e);
         }
     }
     
+    private static WebhookData toWebhookData(JsonNode data) {
+        if (data == null || data.isMissingNode()) {
+            throw new IllegalArgumentException("Payload cannot be empty");
+        }
+        if (data.isArray()) {
+            // Batch mode: array of events
+            List<Map<String, Object>> events = new ArrayList<>();
+            for (JsonNode event : data) {
+                Map<String, Object> eventMap = validateAndParseEvent(event);
+                events.add(eventMap);
+            }
+            return new WebhookData(true, events);
+        } else if (data.isObject()) {
+            // Single event mode
+            Map<String, Object> eventMap = validateAndParseEvent(data);
+            return new WebhookData(false, List.of(eventMap));
+        } else {
+            throw new IllegalArgumentException("Invalid webhook payload structure");
+        }
+    }
+    
     /**
      * Validate individual event structure according to documentation.
      * 
@@ -283,36 +619,130 @@ public class WebhookVerifier {
     }
     
     /**
-     * Compares two strings in constant time to prevent timing attacks.
+     * Decodes a hex signature into the given buffer.
      * 
-     * @param a First string
-     * @param b Second string
-     * @return true if strings are equal, false otherwise
+     * @param hex The hex string
+     * @param offset Index of the first hex digit
+     * @param out Buffer sized to the expected signature length
+     * @return false if the length or any digit is invalid
      */
-    private static boolean constantTimeEquals(String a, String b) {
-        if (a.length() != b.length()) {
+    private static boolean decodeHex(String hex, int offset, byte[] out) {
+        if (hex.length() - offset != out.length * 2) {
+            return false;
+        }
+        for (int i = 0; i < out.length; i++) {
+            int high = hexDigit(hex.charAt(offset + 2 * i));
+            int low = hexDigit(hex.charAt(offset + 2 * i + 1));
+            if (high < 0 || low < 0) {
+                return false;
+            }
+            out[i] = (byte) ((high << 4) | low);
+        }
+        return true;
+    }
+    
+    /**
+     * Value of an ASCII hex digit, or -1. Unlike {@link Character#digit(char, int)},
+     * rejects other Unicode digits such as fullwidth ones.
+     */
+    private static int hexDigit(char c) {
+        if (c >= '0' && c <= '9') {
+            return c - '0';
+        }
+        if (c >= 'a' && c <= 'f') {
+            return c - 'a' + 10;
+        }
+        if (c >= 'A' && c <= 'F') {
+            return c - 'A' + 10;
+        }
+        return -1;
+    }
+    
+    @FunctionalInterface
+    private interface BodyReader<T> {
+        T read(InputStream in) throws IOException;
+    }
+    
+    /**
+     * Feeds every byte read through it to a Mac.
+     */
+    private static final class MacInputStream extends FilterInputStream {
+        private final Mac mac;
+        
+        MacInputStream(InputStream in, Mac mac) {
+            super(in);
+            this.mac = mac;
+        }
+        
+        @Override
+        public int read() throws IOException {
+            int b = in.read();
+            if (b >= 0) {
+                mac.update((byte) b);
+            }
+            return b;
+        }
+        
+        @Override
+        public int read(byte[] buffer, int offset, int length) throws IOException {
+            int read = in.read(buffer, offset, length);
+            if (read > 0) {
+                mac.update(buffer, offset, read);
+            }
+            return read;
+        }
+        
+        @Override
+        public long skip(long n) throws IOException {
+            // Skipped bytes must still be signed
+            byte[] buffer = new byte[(int) Math.min(n, 8192)];
+            int read = read(buffer, 0, buffer.length);
+            return Math.max(read, 0);
+        }
+        
+        @Override
+        public boolean markSupported() {
             return false;
         }
         
-        int result = 0;
-        for (int i = 0; i < a.length(); i++) {
-            result |= a.charAt(i) ^ b.charAt(i);
+        @Override
+        public void close() {
+            // The caller owns the underlying stream
+        }
+        
+        void drain() throws IOException {
+            byte[] buffer = new byte[512];
+            while (read(buffer, 0, buffer.length) >= 0) {
+                // Sign trailing bytes the parser did not consume
+            }
         }
-        return result == 0;
     }
     
     /**
-     * Converts a byte array to a hexadecimal string.
-     * 
-     * @param bytes The byte array
-     * @return Hexadecimal string
+     * A pooled Mac with buffers for the computed and provided signatures.
      */
-    private static String bytesToHex(byte[] bytes) {
-        StringBuilder result = new StringBuilder();
-        for (byte b : bytes) {
-            result.append(String.format("%02x", b));
+    private static final class Hmac {
+        final Mac mac;
+        final byte[] expected = new byte[SIGNATURE_LENGTH];
+        final byte[] provided = new byte[SIGNATURE_LENGTH];
+        
+        Hmac(Mac mac) {
+            this.mac = mac;
+        }
+        
+        boolean decodeSignature(String signature) {
+            int offset = signature.startsWith(SIGNATURE_PREFIX) ? SIGNATURE_PREFIX.length() : 0;
+            return decodeHex(signature, offset, provided);
+        }
+        
+        boolean matches() {
+            try {
+                mac.doFinal(expected, 0);
+            } catch (javax.crypto.ShortBufferException e) {
+                throw new IllegalStateException(e);
+            }
+            return MessageDigest.isEqual(expected, provided);
         }
-        return result.toString();
     }
     
     /**
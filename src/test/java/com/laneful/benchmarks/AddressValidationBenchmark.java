@@ -0,0 +1,60 @@
+package com.laneful.benchmarks;
+
+import com.laneful.models.Address;
+import com.laneful.models.AddressValidator;
+import com.laneful.models.ValidationMode;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares the hand-written address validator with the regex check it replaced.
+ *
+ * <p>Run with {@code mvn -P benchmark test-compile exec:exec -Dbenchmark=AddressValidation}
+ * and add {@code -prof gc} to the JMH arguments to see allocation rates.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class AddressValidationBenchmark {
+
+    private static final String LEGACY_REGEX = "^[A-Za-z0-9+_.-]+@[A-Za-z0-9.-]+\\.[A-Za-z]{2,}$";
+
+    private final String email = "first.last+newsletter@mail.example.com";
+
+    @Benchmark
+    public boolean legacyRegex() {
+        return email.matches(LEGACY_REGEX);
+    }
+
+    @Benchmark
+    public boolean strict() {
+        return AddressValidator.isValid(email, ValidationMode.STRICT);
+    }
+
+    @Benchmark
+    public boolean lenient() {
+        return AddressValidator.isValid(email, ValidationMode.LENIENT);
+    }
+
+    @Benchmark
+    public Address constructStrict() {
+        return Address.of(email, null, ValidationMode.STRICT);
+    }
+
+    @Benchmark
+    public Address constructTrusted() {
+        return Address.of(email, null, ValidationMode.TRUSTED);
+    }
+}
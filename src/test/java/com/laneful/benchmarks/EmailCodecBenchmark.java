@@ -0,0 +1,82 @@
+package com.laneful.benchmarks;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.laneful.exceptions.ValidationException;
+import com.laneful.models.Address;
+import com.laneful.models.Attachment;
+import com.laneful.models.Email;
+import com.laneful.models.EmailCodec;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Base64;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares the binary {@link EmailCodec} with the JSON form for encoding and decoding.
+ *
+ * <p>Run with {@code mvn -P benchmark test-compile exec:exec -Dbenchmark=EmailCodec}.
+ * The encoded sizes are printed during setup.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class EmailCodecBenchmark {
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private Email email;
+    private byte[] json;
+    private byte[] binary;
+
+    @Setup
+    public void setUp() throws Exception {
+        Email.Builder builder = new Email.Builder()
+            .from(new Address("sender@example.com", "Sender"))
+            .subject("Your invoice")
+            .templateId("invoice")
+            .templateData(Map.of("amount", 129.5, "invoice", 10042, "customer", "ACME Corp"))
+            .attachment(new Attachment("invoice.pdf", "application/pdf",
+                Base64.getEncoder().encodeToString(new byte[16 * 1024])))
+            .tag("billing");
+        for (int i = 0; i < 20; i++) {
+            builder.to("user" + i + "@example.com", "User " + i);
+        }
+        email = builder.build();
+        json = objectMapper.writeValueAsBytes(email);
+        binary = EmailCodec.encode(email);
+        System.out.printf("JSON: %d bytes, binary: %d bytes%n", json.length, binary.length);
+    }
+
+    @Benchmark
+    public byte[] encodeJson() throws JsonProcessingException {
+        return objectMapper.writeValueAsBytes(email);
+    }
+
+    @Benchmark
+    public byte[] encodeBinary() throws ValidationException {
+        return EmailCodec.encode(email);
+    }
+
+    @Benchmark
+    public Email decodeJson() throws ValidationException {
+        return Email.fromJson(json);
+    }
+
+    @Benchmark
+    public Email decodeBinary() throws ValidationException {
+        return EmailCodec.decode(binary);
+    }
+}
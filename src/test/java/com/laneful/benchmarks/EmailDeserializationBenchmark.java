@@ -0,0 +1,67 @@
+package com.laneful.benchmarks;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.laneful.exceptions.ValidationException;
+import com.laneful.models.Address;
+import com.laneful.models.Attachment;
+import com.laneful.models.Email;
+import com.laneful.models.TrackingSettings;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares direct JSON binding of {@link Email} with decoding to a map and calling fromMap.
+ *
+ * <p>Run with {@code mvn -P benchmark test-compile exec:exec -Dbenchmark=EmailDeserialization}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class EmailDeserializationBenchmark {
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private byte[] json;
+
+    @Setup
+    public void setUp() throws Exception {
+        Email.Builder builder = new Email.Builder()
+            .from(new Address("sender@example.com", "Sender"))
+            .subject("Monthly newsletter")
+            .templateId("newsletter")
+            .templateData(Map.of("month", "October", "issue", 42))
+            .attachment(new Attachment("brochure.txt", "text/plain", "YnJvY2h1cmUgY29udGVudHM="))
+            .tag("newsletter")
+            .tracking(new TrackingSettings(true, true, false));
+        for (int i = 0; i < 50; i++) {
+            builder.to("user" + i + "@example.com", "User " + i);
+        }
+        json = objectMapper.writeValueAsBytes(builder.build());
+    }
+
+    @Benchmark
+    public Email fromMap() throws IOException, ValidationException {
+        @SuppressWarnings("unchecked")
+        Map<String, Object> data = objectMapper.readValue(json, Map.class);
+        return Email.fromMap(data);
+    }
+
+    @Benchmark
+    public Email fromJson() throws ValidationException {
+        return Email.fromJson(json);
+    }
+}
@@ -0,0 +1,69 @@
+package com.laneful.benchmarks;
+
+import com.laneful.webhooks.DeliveryEvent;
+import com.laneful.webhooks.EventAggregator;
+import com.laneful.webhooks.OpenEvent;
+import com.laneful.webhooks.WebhookEvent;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures recording webhook events into rolling aggregates from many
+ * threads, and reading a per-tag snapshot.
+ *
+ * <p>Run with {@code mvn -P benchmark test-compile exec:exec -Dbenchmark=EventAggregator}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class EventAggregatorBenchmark {
+
+    private EventAggregator aggregator;
+    private WebhookEvent[] events;
+
+    @Setup
+    public void setUp() {
+        aggregator = new EventAggregator.Builder().build();
+        events = new WebhookEvent[64];
+        for (int i = 0; i < events.length; i++) {
+            UUID lane = new UUID(0, i % 8);
+            String tag = "tag-" + (i % 16);
+            events[i] = i % 2 == 0
+                ? new DeliveryEvent("user@example.com", lane, "m-" + i, 0, tag, Map.of())
+                : new OpenEvent("user@example.com", lane, "m-" + i, 0, tag, Map.of(), null, null, null);
+        }
+    }
+
+    @State(Scope.Thread)
+    public static class Cursor {
+        int next;
+    }
+
+    @Benchmark
+    @Threads(8)
+    public void record(Cursor cursor) {
+        aggregator.accept(events[cursor.next++ & (events.length - 1)]);
+    }
+
+    @Benchmark
+    public EventAggregator.Snapshot snapshot() {
+        return aggregator.byTag("tag-3", Duration.ofHours(1));
+    }
+}
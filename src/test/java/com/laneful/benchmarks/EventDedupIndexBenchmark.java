@@ -0,0 +1,74 @@
+package com.laneful.benchmarks;
+
+import com.laneful.webhooks.EventDedupIndex;
+import com.laneful.webhooks.WebhookEventType;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures dedup index lookups for repeated and new webhook events.
+ *
+ * <p>Run with {@code mvn -P benchmark test-compile exec:exec -Dbenchmark=EventDedupIndex}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class EventDedupIndexBenchmark {
+
+    private static final int PRELOADED = 1_000_000;
+
+    private Path file;
+    private EventDedupIndex index;
+    private String[] seen;
+    private long next;
+    private int cursor;
+
+    @Setup
+    public void setUp() throws IOException {
+        file = Files.createTempFile("dedup", ".idx");
+        Files.delete(file);
+        index = new EventDedupIndex.Builder(file).capacity(50_000_000).open();
+        seen = new String[1024];
+        for (int i = 0; i < PRELOADED; i++) {
+            String messageId = "H-1-019844e340027d728a7cfda6" + i;
+            index.markIfAbsent(messageId, WebhookEventType.DELIVERY);
+            if (i < seen.length) {
+                seen[i] = messageId;
+            }
+        }
+        next = PRELOADED;
+    }
+
+    @TearDown
+    public void tearDown() throws IOException {
+        index.close();
+        Files.deleteIfExists(file);
+    }
+
+    @Benchmark
+    public boolean duplicate() {
+        return index.markIfAbsent(seen[cursor++ & (seen.length - 1)], WebhookEventType.DELIVERY);
+    }
+
+    @Benchmark
+    public boolean newEvent() {
+        return index.markIfAbsent("H-1-019844e340027d728a7cfda6" + next++, WebhookEventType.DELIVERY);
+    }
+}
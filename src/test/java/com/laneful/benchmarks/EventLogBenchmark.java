@@ -0,0 +1,92 @@
+package com.laneful.benchmarks;
+
+import com.laneful.webhooks.DeliveryEvent;
+import com.laneful.webhooks.EventLog;
+import com.laneful.webhooks.EventLogReader;
+import com.laneful.webhooks.OpenEvent;
+import com.laneful.webhooks.WebhookEvent;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.stream.Stream;
+
+/**
+ * Measures replaying one million logged webhook events sequentially and in
+ * parallel.
+ *
+ * <p>Run with {@code mvn -P benchmark test-compile exec:exec -Dbenchmark=EventLog}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class EventLogBenchmark {
+
+    private static final int EVENTS = 1_000_000;
+
+    private Path directory;
+    private EventLogReader reader;
+    private final LongAdder sink = new LongAdder();
+
+    @Setup
+    public void setUp() throws IOException {
+        directory = Files.createTempDirectory("event-log");
+        UUID lane = UUID.randomUUID();
+        try (EventLog log = new EventLog.Builder(directory).fsync(false).open()) {
+            List<WebhookEvent> batch = new ArrayList<>();
+            for (int i = 0; i < EVENTS; i++) {
+                String messageId = "H-1-019844e340027d728a7cfda6" + i;
+                batch.add(i % 3 == 0
+                    ? new OpenEvent("user" + i + "@example.com", lane, messageId, 1_753_502_407L + i, "newsletter",
+                        Map.of(), "desktop", "macOS", "203.0.113.7")
+                    : new DeliveryEvent("user" + i + "@example.com", lane, messageId, 1_753_502_407L + i, "newsletter",
+                        Map.of()));
+                if (batch.size() == 1000) {
+                    log.append(batch);
+                    batch = new ArrayList<>();
+                }
+            }
+        }
+        reader = new EventLogReader(directory);
+    }
+
+    @TearDown
+    public void tearDown() throws IOException {
+        try (Stream<Path> files = Files.walk(directory)) {
+            for (Path path : files.sorted(Comparator.reverseOrder()).toList()) {
+                Files.delete(path);
+            }
+        }
+    }
+
+    @Benchmark
+    public long replay() throws IOException {
+        return reader.replay(event -> sink.increment());
+    }
+
+    @Benchmark
+    public long replayParallel() throws IOException {
+        return reader.replayParallel(Long.MIN_VALUE, event -> sink.increment());
+    }
+}
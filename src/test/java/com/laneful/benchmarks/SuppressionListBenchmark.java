@@ -0,0 +1,62 @@
+package com.laneful.benchmarks;
+
+import com.laneful.suppression.SuppressionList;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures suppression list lookups for suppressed addresses and for
+ * addresses rejected by the Bloom filter.
+ *
+ * <p>Run with {@code mvn -P benchmark test-compile exec:exec -Dbenchmark=SuppressionList}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SuppressionListBenchmark {
+
+    private static final int SUPPRESSED = 10_000_000;
+
+    private SuppressionList list;
+    private String[] suppressed;
+    private String[] clean;
+    private int cursor;
+
+    @Setup
+    public void setUp() {
+        list = new SuppressionList.Builder().capacity(SUPPRESSED).build();
+        suppressed = new String[1024];
+        clean = new String[1024];
+        for (int i = 0; i < SUPPRESSED; i++) {
+            String email = "bounced" + i + "@example.com";
+            list.add(email);
+            if (i < suppressed.length) {
+                suppressed[i] = email;
+                clean[i] = "recipient" + i + "@example.com";
+            }
+        }
+    }
+
+    @Benchmark
+    public boolean suppressed() {
+        return list.contains(suppressed[cursor++ & (suppressed.length - 1)]);
+    }
+
+    @Benchmark
+    public boolean notSuppressed() {
+        return list.contains(clean[cursor++ & (clean.length - 1)]);
+    }
+}
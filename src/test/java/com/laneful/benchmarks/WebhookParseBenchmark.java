@@ -0,0 +1,91 @@
+package com.laneful.benchmarks;
+
+import com.laneful.webhooks.BatchParseResult;
+import com.laneful.webhooks.WebhookEvent;
+import com.laneful.webhooks.WebhookEventParser;
+import com.laneful.webhooks.WebhookEventView;
+import com.laneful.webhooks.WebhookVerifier;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares the tree-and-map webhook parser with the streaming typed parser,
+ * serial and parallel, and with lazy views that read only the type and
+ * message ID, on batch payloads.
+ *
+ * <p>Run with {@code mvn -P benchmark test-compile exec:exec -Dbenchmark=WebhookParse}
+ * and add {@code -prof gc} to the JMH arguments to see allocation per batch.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class WebhookParseBenchmark {
+
+    private static final String[] TYPES = {"delivery", "open", "click", "bounce"};
+
+    @Param({"100", "10000"})
+    public int events;
+
+    private String payload;
+    private byte[] payloadBytes;
+
+    @Setup
+    public void setUp() {
+        StringBuilder builder = new StringBuilder("[");
+        for (int i = 0; i < events; i++) {
+            if (i > 0) {
+                builder.append(',');
+            }
+            builder.append("{\"event\":\"").append(TYPES[i % TYPES.length]).append('"')
+                .append(",\"email\":\"user").append(i).append("@example.com\"")
+                .append(",\"lane_id\":\"5805dd85-ed8c-44db-91a7-1d53a41c86a5\"")
+                .append(",\"message_id\":\"H-1-019844e340027d728a7cfda632e14d").append(1000 + i).append('"')
+                .append(",\"timestamp\":").append(1753502407L + i)
+                .append(",\"tag\":\"campaign\",\"metadata\":{\"user_id\":").append(i).append('}')
+                .append(",\"url\":\"https://example.com/offer\",\"is_hard\":false")
+                .append(",\"client_device\":\"desktop\",\"client_os\":\"macOS\"}");
+        }
+        payload = builder.append(']').toString();
+        payloadBytes = payload.getBytes(StandardCharsets.UTF_8);
+    }
+
+    @Benchmark
+    public WebhookVerifier.WebhookData mapParser() {
+        return WebhookVerifier.parseWebhookPayload(payload);
+    }
+
+    @Benchmark
+    public List<WebhookEvent> typedParser() {
+        return WebhookEventParser.parse(payloadBytes);
+    }
+
+    @Benchmark
+    public BatchParseResult parallelTypedParser() {
+        return WebhookEventParser.parseParallel(payloadBytes);
+    }
+
+    @Benchmark
+    public void lazyViews(Blackhole blackhole) {
+        for (WebhookEventView view : WebhookEventParser.views(payloadBytes)) {
+            blackhole.consume(view.type());
+            blackhole.consume(view.messageId());
+        }
+    }
+}
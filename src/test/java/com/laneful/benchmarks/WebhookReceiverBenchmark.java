@@ -0,0 +1,88 @@
+package com.laneful.benchmarks;
+
+import com.laneful.webhooks.WebhookReceiver;
+import com.laneful.webhooks.WebhookVerifier;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Load test for the embedded webhook receiver: many client threads posting
+ * signed batches over kept-alive connections.
+ *
+ * <p>Run with {@code mvn -P benchmark test-compile exec:exec -Dbenchmark=WebhookReceiver}.
+ * Throughput is in requests per second; multiply by {@code batchSize} for events.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@Threads(32)
+public class WebhookReceiverBenchmark {
+
+    private static final String SECRET = "benchmark-secret";
+
+    @Param({"1", "100"})
+    public int batchSize;
+
+    private WebhookReceiver receiver;
+    private HttpClient client;
+    private HttpRequest request;
+    private final LongAdder handled = new LongAdder();
+
+    @Setup
+    public void setUp() throws Exception {
+        receiver = new WebhookReceiver.Builder(SECRET)
+            .port(0)
+            .handler(event -> handled.increment())
+            .build();
+        receiver.start();
+
+        StringBuilder payload = new StringBuilder("[");
+        for (int i = 0; i < batchSize; i++) {
+            if (i > 0) {
+                payload.append(',');
+            }
+            payload.append("{\"event\":\"delivery\",\"email\":\"user").append(i).append("@example.com\",")
+                .append("\"lane_id\":\"5805dd85-ed8c-44db-91a7-1d53a41c86a5\",")
+                .append("\"message_id\":\"H-1-").append(i).append("\",\"timestamp\":1753502407}");
+        }
+        String body = payload.append(']').toString();
+
+        client = HttpClient.newBuilder().version(HttpClient.Version.HTTP_1_1).build();
+        request = HttpRequest.newBuilder(URI.create("http://localhost:" + receiver.port() + "/webhooks"))
+            .header("x-webhook-signature", WebhookVerifier.generateSignature(SECRET, body, true))
+            .POST(HttpRequest.BodyPublishers.ofString(body, StandardCharsets.UTF_8))
+            .build();
+    }
+
+    @TearDown
+    public void tearDown() {
+        receiver.close();
+    }
+
+    @Benchmark
+    public int post() throws Exception {
+        return client.send(request, HttpResponse.BodyHandlers.discarding()).statusCode();
+    }
+}
@@ -0,0 +1,79 @@
+package com.laneful.benchmarks;
+
+import com.laneful.webhooks.WebhookVerifier;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares per-call signature verification with a reusable verifier, and
+ * String-based verify-then-parse with the single-pass stream variant.
+ *
+ * <p>Run with {@code mvn -P benchmark test-compile exec:exec -Dbenchmark=WebhookVerifier}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@Threads(4)
+public class WebhookVerifierBenchmark {
+
+    private static final String SECRET = "benchmark-secret";
+
+    private final String payload = "{\"event\":\"delivery\",\"email\":\"user@example.com\","
+        + "\"lane_id\":\"5805dd85-ed8c-44db-91a7-1d53a41c86a5\","
+        + "\"message_id\":\"H-1-019844e340027d728a7cfda632e14d0a\",\"timestamp\":1753502407}";
+    private final byte[] payloadBytes = payload.getBytes(StandardCharsets.UTF_8);
+    private WebhookVerifier verifier;
+    private String signature;
+
+    @Setup
+    public void setUp() throws Exception {
+        verifier = WebhookVerifier.forSecret(SECRET);
+        signature = "sha256=" + WebhookVerifier.generateSignature(SECRET, payload);
+    }
+
+    @Benchmark
+    public boolean staticVerify() {
+        return WebhookVerifier.verifySignature(SECRET, payload, signature);
+    }
+
+    @Benchmark
+    public boolean instanceVerifyString() {
+        return verifier.verify(payload, signature);
+    }
+
+    @Benchmark
+    public boolean instanceVerifyBytes() {
+        return verifier.verify(payloadBytes, signature);
+    }
+
+    @Benchmark
+    public WebhookVerifier.WebhookData decodeVerifyAndParse() {
+        // The pattern the String-only API forces: decode, verify, then parse
+        String body = new String(payloadBytes, StandardCharsets.UTF_8);
+        if (!verifier.verify(body, signature)) {
+            throw new IllegalStateException();
+        }
+        return WebhookVerifier.parseWebhookPayload(body);
+    }
+
+    @Benchmark
+    public WebhookVerifier.WebhookData streamVerifyAndParse() {
+        return verifier.verifyAndParse(new ByteArrayInputStream(payloadBytes), signature);
+    }
+}
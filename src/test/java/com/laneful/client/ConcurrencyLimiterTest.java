@@ -0,0 +1,199 @@
+package com.laneful.client;
+
+import com.laneful.exceptions.ConcurrencyLimitException;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ConcurrencyLimiterTest {
+
+    private static final long MILLIS = TimeUnit.MILLISECONDS.toNanos(1);
+
+    private static List<ConcurrencyLimiter.Permit> hold(ConcurrencyLimiter limiter, int count) {
+        List<ConcurrencyLimiter.Permit> permits = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            permits.add(limiter.acquire(Long.MAX_VALUE).join());
+        }
+        return permits;
+    }
+
+    private static void succeed(ConcurrencyLimiter limiter, int times, long rttNanos) {
+        for (int i = 0; i < times; i++) {
+            limiter.acquire(Long.MAX_VALUE).join().complete(rttNanos, false);
+        }
+    }
+
+    @Test
+    void testRejectsBeyondLimitWithoutQueue() {
+        ConcurrencyLimiter limiter = new ConcurrencyLimiter.Builder().initialLimit(2).build();
+        hold(limiter, 2);
+
+        CompletableFuture<ConcurrencyLimiter.Permit> third = limiter.acquire(Long.MAX_VALUE);
+
+        ExecutionException e = assertThrows(ExecutionException.class, third::get);
+        ConcurrencyLimitException limited = assertInstanceOf(ConcurrencyLimitException.class, e.getCause());
+        assertEquals(2, limited.getLimit());
+        assertEquals(0, limited.getStatusCode());
+        assertEquals(2, limiter.stats().inFlight());
+        assertEquals(1, limiter.stats().rejected());
+    }
+
+    @Test
+    void testQueuedWaitersGetSlotsInOrder() throws Exception {
+        ConcurrencyLimiter limiter = new ConcurrencyLimiter.Builder()
+            .initialLimit(1)
+            .limitRange(1, 1)
+            .queue(2, Duration.ofMinutes(1))
+            .build();
+        ConcurrencyLimiter.Permit first = limiter.acquire(Long.MAX_VALUE).join();
+        CompletableFuture<ConcurrencyLimiter.Permit> second = limiter.acquire(Long.MAX_VALUE);
+        CompletableFuture<ConcurrencyLimiter.Permit> third = limiter.acquire(Long.MAX_VALUE);
+
+        assertTrue(limiter.acquire(Long.MAX_VALUE).isCompletedExceptionally(), "queue is full");
+        assertFalse(second.isDone());
+        first.release();
+        assertTrue(second.isDone());
+        assertFalse(third.isDone());
+        second.get().release();
+        third.get().release();
+
+        ConcurrencyLimiter.Stats stats = limiter.stats();
+        assertEquals(0, stats.inFlight());
+        assertEquals(0, stats.waiting());
+        assertEquals(3, stats.acquired());
+        assertEquals(1, stats.rejected());
+    }
+
+    @Test
+    void testWaitEndsAtBudget() {
+        ConcurrencyLimiter limiter = new ConcurrencyLimiter.Builder()
+            .initialLimit(1)
+            .queue(10, Duration.ofMinutes(1))
+            .build();
+        ConcurrencyLimiter.Permit held = limiter.acquire(Long.MAX_VALUE).join();
+
+        CompletableFuture<ConcurrencyLimiter.Permit> waiter = limiter.acquire(20 * MILLIS);
+
+        ExecutionException e = assertThrows(ExecutionException.class, () -> waiter.get(5, TimeUnit.SECONDS));
+        assertInstanceOf(ConcurrencyLimitException.class, e.getCause());
+        assertEquals(1, limiter.stats().timedOut());
+        assertEquals(0, limiter.stats().waiting());
+        held.release();
+        assertEquals(0, limiter.stats().inFlight());
+    }
+
+    @Test
+    void testSlotOfCancelledWaiterPassesToNext() {
+        ConcurrencyLimiter limiter = new ConcurrencyLimiter.Builder()
+            .initialLimit(1)
+            .limitRange(1, 1)
+            .queue(10, Duration.ofMinutes(1))
+            .build();
+        ConcurrencyLimiter.Permit held = limiter.acquire(Long.MAX_VALUE).join();
+        CompletableFuture<ConcurrencyLimiter.Permit> cancelled = limiter.acquire(Long.MAX_VALUE);
+        CompletableFuture<ConcurrencyLimiter.Permit> next = limiter.acquire(Long.MAX_VALUE);
+
+        cancelled.cancel(false);
+        held.release();
+
+        assertTrue(next.isDone() && !next.isCompletedExceptionally());
+        assertEquals(1, limiter.stats().inFlight());
+        next.join().release();
+        next.join().release();
+        assertEquals(0, limiter.stats().inFlight(), "completing a permit twice returns one slot");
+    }
+
+    @Test
+    void testAimdGrowsWhileBusyAndBacksOffOnDrop() {
+        ConcurrencyLimiter limiter = new ConcurrencyLimiter.Builder()
+            .algorithm(LimitAlgorithm.AIMD)
+            .initialLimit(10)
+            .build();
+
+        succeed(limiter, 50, MILLIS);
+        assertEquals(10, limiter.limit(), "an idle limiter does not grow");
+
+        List<ConcurrencyLimiter.Permit> busy = hold(limiter, 8);
+        succeed(limiter, 50, MILLIS);
+        int grown = limiter.limit();
+        assertTrue(grown > 10, "limit " + grown);
+
+        busy.get(0).onFailure();
+        assertTrue(limiter.limit() < grown && limiter.limit() >= (int) (grown * 0.9) - 1, "limit " + limiter.limit());
+        assertEquals(1, limiter.stats().dropped());
+    }
+
+    @Test
+    void testDropsWithinOneRoundTripCutOnce() {
+        ConcurrencyLimiter limiter = new ConcurrencyLimiter.Builder()
+            .algorithm(LimitAlgorithm.AIMD)
+            .initialLimit(10)
+            .build();
+        succeed(limiter, 1, TimeUnit.SECONDS.toNanos(10));
+        List<ConcurrencyLimiter.Permit> permits = hold(limiter, 3);
+
+        permits.get(0).onResponse(503);
+        permits.get(1).onResponse(429);
+        permits.get(2).onFailure();
+
+        assertEquals(9, limiter.limit());
+        assertEquals(3, limiter.stats().dropped());
+    }
+
+    @Test
+    void testVegasGrowsAtBaselineAndShrinksAsLatencyRises() {
+        ConcurrencyLimiter limiter = new ConcurrencyLimiter.Builder()
+            .algorithm(LimitAlgorithm.VEGAS)
+            .initialLimit(20)
+            .build();
+        List<ConcurrencyLimiter.Permit> busy = hold(limiter, 15);
+
+        succeed(limiter, 10, 10 * MILLIS);
+        int grown = limiter.limit();
+        assertTrue(grown > 20, "limit " + grown);
+        assertEquals(10_000, limiter.stats().minRttMicros());
+
+        busy.forEach(ConcurrencyLimiter.Permit::release);
+
+        // Five times the baseline: most requests are queued, not served
+        succeed(limiter, 50, 50 * MILLIS);
+        assertTrue(limiter.limit() < grown / 2, "limit " + limiter.limit());
+    }
+
+    @Test
+    void testLimitStaysInRange() throws InterruptedException {
+        ConcurrencyLimiter limiter = new ConcurrencyLimiter.Builder()
+            .algorithm(LimitAlgorithm.VEGAS)
+            .initialLimit(5)
+            .limitRange(4, 8)
+            .build();
+        List<ConcurrencyLimiter.Permit> busy = hold(limiter, 3);
+
+        succeed(limiter, 20, MILLIS);
+        assertEquals(8, limiter.limit());
+        busy.forEach(ConcurrencyLimiter.Permit::release);
+        for (int i = 0; i < 10; i++) {
+            // Drops closer together than a round trip count once
+            Thread.sleep(5);
+            limiter.acquire(Long.MAX_VALUE).join().onFailure();
+        }
+        assertEquals(4, limiter.limit());
+    }
+
+    @Test
+    void testBuilderValidation() {
+        assertThrows(IllegalArgumentException.class, () -> new ConcurrencyLimiter.Builder().initialLimit(0));
+        assertThrows(IllegalArgumentException.class, () -> new ConcurrencyLimiter.Builder().limitRange(5, 4));
+        assertThrows(IllegalArgumentException.class, () -> new ConcurrencyLimiter.Builder().backoffRatio(1));
+        assertThrows(IllegalArgumentException.class, () -> new ConcurrencyLimiter.Builder().queue(-1, Duration.ZERO));
+        assertThrows(IllegalArgumentException.class, () -> new ConcurrencyLimiter.Builder().algorithm(null));
+        assertEquals(200, new ConcurrencyLimiter.Builder().initialLimit(500).build().limit());
+    }
+}
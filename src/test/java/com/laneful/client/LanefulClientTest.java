@@ -1,10 +1,28 @@
 package com.laneful.client;
 
+import com.laneful.exceptions.ApiException;
+import com.laneful.exceptions.ConcurrencyLimitException;
+import com.laneful.exceptions.HttpException;
+import com.laneful.exceptions.SuppressedRecipientsException;
 import com.laneful.exceptions.ValidationException;
 import com.laneful.models.Email;
 import com.laneful.models.Address;
+import com.laneful.models.Attachment;
+import com.laneful.suppression.SuppressionList;
+import com.laneful.suppression.SuppressionMode;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.BeforeEach;
+import com.sun.net.httpserver.HttpServer;
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+
 import static org.junit.jupiter.api.Assertions.*;
 
 class LanefulClientTest {
@@ -68,4 +86,238 @@ class LanefulClientTest {
         assertEquals(1, email.getTo().size());
         assertEquals("recipient@example.com", email.getTo().get(0).email());
     }
+    
+    @Test
+    void testSuppressionListRejectsSuppressedRecipients() throws ValidationException {
+        SuppressionList suppressions = new SuppressionList.Builder().capacity(10).build();
+        suppressions.add("bounced@example.com");
+        LanefulClient rejecting = client.withSuppressionList(suppressions, SuppressionMode.REJECT);
+        Email email = new Email.Builder()
+            .from(new Address("sender@example.com"))
+            .to(new Address("Bounced@Example.com"))
+            .cc(new Address("ok@example.com"))
+            .subject("Test Email")
+            .textContent("This is a test email.")
+            .build();
+        
+        SuppressedRecipientsException e = assertThrows(SuppressedRecipientsException.class,
+            () -> rejecting.sendEmail(email));
+        assertEquals(List.of("Bounced@Example.com"), e.getRecipients());
+    }
+    
+    @Test
+    void testSuppressionListDropsEmailsWithoutRecipients() throws Exception {
+        SuppressionList suppressions = new SuppressionList.Builder().capacity(10).build();
+        suppressions.add("bounced@example.com");
+        Email email = new Email.Builder()
+            .from(new Address("sender@example.com"))
+            .to(new Address("bounced@example.com"))
+            .subject("Test Email")
+            .textContent("This is a test email.")
+            .build();
+        
+        // Nothing is left to send, so no request is made
+        assertEquals(Map.of(), client.withSuppressionList(suppressions, SuppressionMode.DROP).sendEmail(email));
+    }
+    
+    @Test
+    void testExpiredDeadlineFailsBeforeSending() throws ValidationException {
+        Email email = new Email.Builder()
+            .from(new Address("sender@example.com"))
+            .to(new Address("recipient@example.com"))
+            .subject("Test Email")
+            .textContent("This is a test email.")
+            .build();
+        SendOptions expired = new SendOptions.Builder().deadline(Instant.now().minusSeconds(1)).build();
+        
+        HttpException e = assertThrows(HttpException.class, () -> client.sendEmail(email, expired));
+        assertTrue(e.getMessage().contains("deadline"));
+        assertEquals(0, e.getStatusCode());
+        
+        SendHandle handle = client.sendEmailsAsync(List.of(email), expired);
+        assertTrue(handle.result().isCompletedExceptionally());
+        assertThrows(HttpException.class, handle::await);
+        assertFalse(handle.cancel());
+    }
+    
+    @Test
+    void testAsyncSendValidatesBeforeReturning() throws Exception {
+        SuppressionList suppressions = new SuppressionList.Builder().capacity(10).build();
+        suppressions.add("bounced@example.com");
+        Email email = new Email.Builder()
+            .from(new Address("sender@example.com"))
+            .to(new Address("bounced@example.com"))
+            .subject("Test Email")
+            .textContent("This is a test email.")
+            .build();
+        
+        assertThrows(ValidationException.class, () -> client.sendEmailsAsync(List.of(), SendOptions.DEFAULT));
+        assertThrows(ValidationException.class, () -> client.sendEmailsAsync(List.of(email), null));
+        SendHandle handle = client.withSuppressionList(suppressions, SuppressionMode.DROP)
+            .sendEmailsAsync(List.of(email), SendOptions.DEFAULT);
+        assertEquals(Map.of(), handle.await());
+    }
+    
+    @Test
+    void testConcurrencyLimiterTurnsAwaySendsBeyondLimit() throws Exception {
+        ConcurrencyLimiter limiter = new ConcurrencyLimiter.Builder().initialLimit(1).limitRange(1, 1).build();
+        ConcurrencyLimiter.Permit held = limiter.acquire(Long.MAX_VALUE).join();
+        LanefulClient limited = client.withConcurrencyLimiter(limiter);
+        Email email = new Email.Builder()
+            .from(new Address("sender@example.com"))
+            .to(new Address("recipient@example.com"))
+            .subject("Test Email")
+            .textContent("This is a test email.")
+            .build();
+        
+        ConcurrencyLimitException e = assertThrows(ConcurrencyLimitException.class, () -> limited.sendEmail(email));
+        assertEquals(1, e.getLimit());
+        SendHandle handle = limited.sendEmailsAsync(List.of(email), SendOptions.DEFAULT);
+        assertThrows(ConcurrencyLimitException.class, handle::await);
+        assertEquals(2, limiter.stats().rejected());
+        held.release();
+        assertEquals(0, limiter.stats().inFlight());
+    }
+    
+    @Test
+    void testCancellingQueuedAsyncSendLeavesQueue() throws Exception {
+        ConcurrencyLimiter limiter = new ConcurrencyLimiter.Builder()
+            .initialLimit(1)
+            .limitRange(1, 1)
+            .queue(10, Duration.ofMinutes(1))
+            .build();
+        ConcurrencyLimiter.Permit held = limiter.acquire(Long.MAX_VALUE).join();
+        Email email = new Email.Builder()
+            .from(new Address("sender@example.com"))
+            .to(new Address("recipient@example.com"))
+            .subject("Test Email")
+            .textContent("This is a test email.")
+            .build();
+        
+        SendHandle handle = client.withConcurrencyLimiter(limiter).sendEmailsAsync(List.of(email), SendOptions.DEFAULT);
+        assertEquals(1, limiter.stats().waiting());
+        assertTrue(handle.cancel());
+        HttpException e = assertThrows(HttpException.class, handle::await);
+        assertTrue(e.getMessage().contains("cancelled"));
+        assertEquals(0, limiter.stats().waiting());
+        held.release();
+        assertEquals(0, limiter.stats().inFlight());
+    }
+    
+    @Test
+    void testAsyncSendFailsOnMalformedErrorBody() throws Exception {
+        HttpServer server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        server.createContext("/", exchange -> {
+            byte[] body = "{\"error\":{}}".getBytes(StandardCharsets.UTF_8);
+            exchange.getResponseHeaders().set("Content-Type", "application/json");
+            exchange.sendResponseHeaders(500, body.length);
+            exchange.getResponseBody().write(body);
+            exchange.close();
+        });
+        server.start();
+        try {
+            LanefulClient local = new LanefulClient("http://127.0.0.1:" + server.getAddress().getPort(), "test-token");
+            Email email = new Email.Builder()
+                .from(new Address("sender@example.com"))
+                .to(new Address("recipient@example.com"))
+                .subject("Test Email")
+                .textContent("This is a test email.")
+                .build();
+            
+            SendHandle handle = local.sendEmailsAsync(List.of(email), SendOptions.DEFAULT);
+            ExecutionException e = assertThrows(ExecutionException.class,
+                () -> handle.result().get(5, TimeUnit.SECONDS));
+            ApiException api = assertInstanceOf(ApiException.class, e.getCause());
+            assertEquals(500, api.getStatusCode());
+            assertThrows(ApiException.class, () -> local.sendEmail(email));
+        } finally {
+            server.stop(0);
+        }
+    }
+    
+    @Test
+    void testLocalFailuresDoNotShrinkConcurrencyLimit() throws Exception {
+        HttpServer server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        server.createContext("/", exchange -> {
+            try {
+                Thread.sleep(1_000);
+                exchange.sendResponseHeaders(200, -1);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            } finally {
+                exchange.close();
+            }
+        });
+        server.setExecutor(java.util.concurrent.Executors.newCachedThreadPool());
+        server.start();
+        try {
+            ConcurrencyLimiter limiter = new ConcurrencyLimiter.Builder()
+                .algorithm(LimitAlgorithm.AIMD)
+                .initialLimit(10)
+                .build();
+            LanefulClient local = new LanefulClient("http://127.0.0.1:" + server.getAddress().getPort(), "test-token")
+                .withConcurrencyLimiter(limiter);
+            Email email = new Email.Builder()
+                .from(new Address("sender@example.com"))
+                .to(new Address("recipient@example.com"))
+                .subject("Test Email")
+                .textContent("This is a test email.")
+                .build();
+            Email unreadable = email.toBuilder()
+                .attachment(Attachment.fromSource("report.pdf", "application/pdf", () -> {
+                    throw new IOException("disk unavailable");
+                }))
+                .build();
+            SendOptions tight = new SendOptions.Builder().timeout(Duration.ofMillis(100)).build();
+            
+            HttpException bodyFailed = assertThrows(HttpException.class, () -> local.sendEmail(unreadable));
+            assertTrue(bodyFailed.getMessage().contains("disk unavailable"));
+            assertThrows(HttpException.class, () -> local.sendEmails(List.of(email), tight));
+            SendHandle handle = local.sendEmailsAsync(List.of(email), tight);
+            ExecutionException e = assertThrows(ExecutionException.class,
+                () -> handle.result().get(5, TimeUnit.SECONDS));
+            assertTrue(e.getCause().getMessage().contains("deadline"));
+            
+            assertEquals(0, limiter.stats().dropped());
+            assertEquals(10, limiter.limit());
+            assertEquals(0, limiter.stats().inFlight());
+        } finally {
+            server.stop(0);
+        }
+    }
+    
+    @Test
+    void testFinishedAsyncSendDropsDeadlineTimer() throws Exception {
+        HttpServer server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        server.createContext("/", exchange -> {
+            byte[] body = "{\"status\":\"accepted\"}".getBytes(StandardCharsets.UTF_8);
+            exchange.getResponseHeaders().set("Content-Type", "application/json");
+            exchange.sendResponseHeaders(200, body.length);
+            exchange.getResponseBody().write(body);
+            exchange.close();
+        });
+        server.start();
+        try {
+            LanefulClient local = new LanefulClient("http://127.0.0.1:" + server.getAddress().getPort(), "test-token");
+            Email email = new Email.Builder()
+                .from(new Address("sender@example.com"))
+                .to(new Address("recipient@example.com"))
+                .subject("Test Email")
+                .textContent("This is a test email.")
+                .build();
+            SendOptions options = new SendOptions.Builder().timeout(Duration.ofMinutes(10)).build();
+            
+            SendHandle handle = local.sendEmailsAsync(List.of(email), options);
+            assertEquals("accepted", handle.result().get(5, TimeUnit.SECONDS).get("status"));
+            
+            // The timer is cancelled by a completion callback, which may run just after get returns
+            long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+            while (local.pendingDeadlines() > 0 && System.nanoTime() < deadline) {
+                Thread.sleep(10);
+            }
+            assertEquals(0, local.pendingDeadlines());
+        } finally {
+            server.stop(0);
+        }
+    }
 }
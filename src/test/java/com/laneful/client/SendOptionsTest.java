@@ -0,0 +1,58 @@
+package com.laneful.client;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SendOptionsTest {
+
+    @Test
+    void testDefaultHasNoDeadline() {
+        assertNull(SendOptions.DEFAULT.getTimeout());
+        assertNull(SendOptions.DEFAULT.getDeadline());
+        assertEquals(Long.MAX_VALUE, SendOptions.DEFAULT.budgetNanos());
+    }
+
+    @Test
+    void testTimeoutBudget() {
+        SendOptions options = new SendOptions.Builder().timeout(Duration.ofMillis(250)).build();
+
+        assertEquals(Duration.ofMillis(250).toNanos(), options.budgetNanos());
+    }
+
+    @Test
+    void testEarlierOfTimeoutAndDeadlineApplies() {
+        SendOptions deadlineFirst = new SendOptions.Builder()
+            .timeout(Duration.ofMinutes(5))
+            .deadline(Instant.now().plusSeconds(1))
+            .build();
+        SendOptions timeoutFirst = new SendOptions.Builder()
+            .timeout(Duration.ofSeconds(1))
+            .deadline(Instant.now().plus(5, ChronoUnit.MINUTES))
+            .build();
+
+        assertTrue(deadlineFirst.budgetNanos() <= Duration.ofSeconds(1).toNanos());
+        assertEquals(Duration.ofSeconds(1).toNanos(), timeoutFirst.budgetNanos());
+    }
+
+    @Test
+    void testPassedDeadlineLeavesNoBudget() {
+        SendOptions options = new SendOptions.Builder().deadline(Instant.now().minusMillis(10)).build();
+
+        assertTrue(options.budgetNanos() <= 0);
+        assertEquals(0, new SendOptions.Builder().deadline(Instant.MIN).build().budgetNanos());
+        assertEquals(Long.MAX_VALUE, new SendOptions.Builder().deadline(Instant.MAX).build().budgetNanos());
+    }
+
+    @Test
+    void testRejectsInvalidValues() {
+        assertThrows(IllegalArgumentException.class, () -> new SendOptions.Builder().timeout(Duration.ZERO));
+        assertThrows(IllegalArgumentException.class, () -> new SendOptions.Builder().timeout(Duration.ofSeconds(-1)));
+        assertThrows(IllegalArgumentException.class, () -> new SendOptions.Builder().timeout(null));
+        assertThrows(IllegalArgumentException.class, () -> new SendOptions.Builder().deadline(null));
+    }
+}
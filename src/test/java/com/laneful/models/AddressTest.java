@@ -0,0 +1,74 @@
+package com.laneful.models;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+import static org.junit.jupiter.api.Assertions.*;
+
+class AddressTest {
+
+    @ParameterizedTest
+    @ValueSource(strings = {
+        "user@example.com",
+        "first.last+tag@mail.example.co.uk",
+        "o'brien@example.org",
+        "user_name-1@sub-domain.example.io"
+    })
+    void testStrictAcceptsValidAddresses(String email) {
+        assertTrue(AddressValidator.isValidStrict(email));
+        assertEquals(email, new Address(email).email());
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {
+        "plainaddress",
+        "@example.com",
+        "user@",
+        "user@example",
+        "user@example.c",
+        "user@example.c0m",
+        ".user@example.com",
+        "user.@example.com",
+        "us..er@example.com",
+        "user@-example.com",
+        "user@example-.com",
+        "user@exa..mple.com",
+        "us er@example.com",
+        "user@example.com.",
+        "user@@example.com"
+    })
+    void testStrictRejectsInvalidAddresses(String email) {
+        assertFalse(AddressValidator.isValidStrict(email));
+        assertThrows(IllegalArgumentException.class, () -> new Address(email));
+    }
+
+    @Test
+    void testLenientMode() {
+        assertTrue(AddressValidator.isValidLenient("user@localhost.internal"));
+        assertTrue(AddressValidator.isValidLenient("üser@exämple.com"));
+        assertFalse(AddressValidator.isValidLenient("user@localhost"));
+        assertFalse(AddressValidator.isValidLenient("us er@example.com"));
+        assertFalse(AddressValidator.isValidLenient("a@b@example.com"));
+    }
+
+    @Test
+    void testTrustedModeSkipsFormatChecks() {
+        Address address = Address.of("not-an-address", "Name", ValidationMode.TRUSTED);
+
+        assertEquals("not-an-address", address.email());
+        assertThrows(IllegalArgumentException.class, () -> Address.of(" ", null, ValidationMode.TRUSTED));
+    }
+
+    @Test
+    void testBuilderValidationMode() throws Exception {
+        Email email = new Email.Builder()
+            .validationMode(ValidationMode.LENIENT)
+            .from(new Address("sender@example.com"))
+            .to("ops@mail.internal.corp")
+            .textContent("Test content")
+            .build();
+
+        assertEquals("ops@mail.internal.corp", email.getTo().get(0).email());
+        assertThrows(IllegalArgumentException.class, () -> new Email.Builder().to("user@localhost"));
+    }
+}
@@ -0,0 +1,83 @@
+package com.laneful.models;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+
+class AttachmentCacheTest {
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    void testFileIsEncodedOnce() throws IOException {
+        Path file = tempDir.resolve("brochure.pdf");
+        Files.writeString(file, "brochure");
+        AttachmentCache cache = new AttachmentCache(1024);
+
+        Attachment first = cache.fromFile(file);
+        Attachment second = cache.fromFile(file);
+
+        assertSame(first, second);
+        assertEquals(1, cache.stats().hits());
+        assertEquals(1, cache.stats().misses());
+    }
+
+    @Test
+    void testModifiedFileIsReloaded() throws IOException {
+        Path file = tempDir.resolve("brochure.pdf");
+        Files.writeString(file, "version one");
+        AttachmentCache cache = new AttachmentCache(1024);
+
+        Attachment first = cache.fromFile(file);
+        Files.writeString(file, "version two, longer");
+        Files.setLastModifiedTime(file, FileTime.fromMillis(System.currentTimeMillis() + 5000));
+        Attachment second = cache.fromFile(file);
+
+        assertNotSame(first, second);
+        assertNotEquals(first.content(), second.content());
+    }
+
+    @Test
+    void testInternSharesEqualContent() {
+        AttachmentCache cache = new AttachmentCache(1024);
+
+        Attachment first = cache.intern(new Attachment("a.txt", "text/plain", "YWJj"));
+        Attachment second = cache.intern(new Attachment("a.txt", "text/plain", "YWJj"));
+        Attachment other = cache.intern(new Attachment("b.txt", "text/plain", "YWJj"));
+
+        assertSame(first, second);
+        assertNotSame(first, other);
+        assertEquals(2, cache.stats().entries());
+    }
+
+    @Test
+    void testLeastRecentlyUsedEntryIsEvicted() {
+        AttachmentCache cache = new AttachmentCache(8);
+
+        Attachment a = cache.intern(new Attachment("a.txt", "text/plain", "AAAA"));
+        cache.intern(new Attachment("b.txt", "text/plain", "BBBB"));
+        cache.intern(a);
+        cache.intern(new Attachment("c.txt", "text/plain", "CCCC"));
+
+        AttachmentCache.Stats stats = cache.stats();
+        assertEquals(1, stats.evictions());
+        assertEquals(2, stats.entries());
+        assertEquals(8, stats.sizeBytes());
+        assertSame(a, cache.intern(new Attachment("a.txt", "text/plain", "AAAA")));
+    }
+
+    @Test
+    void testOversizedAttachmentIsNotCached() {
+        AttachmentCache cache = new AttachmentCache(4);
+
+        cache.intern(new Attachment("big.txt", "text/plain", "AAAAAAAA"));
+
+        assertEquals(0, cache.stats().entries());
+    }
+}
@@ -0,0 +1,74 @@
+package com.laneful.models;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Base64;
+
+class AttachmentTest {
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    void testStreamedFileSerializesLikeInMemoryFile() throws IOException {
+        Path file = tempDir.resolve("report.txt");
+        Files.writeString(file, "Quarterly report contents");
+
+        Attachment inMemory = Attachment.fromFile(file);
+        Attachment streamed = Attachment.streamFromFile(file);
+
+        assertTrue(streamed.isStreamed());
+        assertFalse(inMemory.isStreamed());
+        assertEquals(
+            objectMapper.writeValueAsString(inMemory),
+            objectMapper.writeValueAsString(streamed)
+        );
+    }
+
+    @Test
+    void testSourceIsEncodedOnSerialization() throws IOException {
+        byte[] data = "streamed bytes".getBytes(StandardCharsets.UTF_8);
+        Attachment attachment = Attachment.fromSource(
+            "data.bin", "application/octet-stream", () -> new ByteArrayInputStream(data)
+        );
+
+        JsonNode json = objectMapper.readTree(objectMapper.writeValueAsString(attachment));
+
+        assertEquals("data.bin", json.get("file_name").asText());
+        assertEquals("application/octet-stream", json.get("content_type").asText());
+        assertEquals(Base64.getEncoder().encodeToString(data), json.get("content").asText());
+        assertEquals(Base64.getEncoder().encodeToString(data), attachment.content());
+    }
+
+    @Test
+    void testStreamFromMissingFile() {
+        assertThrows(IOException.class, () -> Attachment.streamFromFile(tempDir.resolve("missing.pdf")));
+    }
+
+    @Test
+    void testRoundTripThroughJson() throws IOException {
+        Attachment attachment = new Attachment("doc.txt", "text/plain", "ZG9jdW1lbnQ=");
+
+        Attachment parsed = objectMapper.readValue(objectMapper.writeValueAsString(attachment), Attachment.class);
+
+        assertEquals(attachment, parsed);
+    }
+
+    @Test
+    void testInvalidAttachment() {
+        assertThrows(IllegalArgumentException.class, () -> new Attachment("", "text/plain", "ZG9j"));
+        assertThrows(IllegalArgumentException.class, () -> new Attachment("doc.txt", "text/plain", ""));
+        assertThrows(IllegalArgumentException.class, () -> Attachment.fromSource("doc.txt", "text/plain", null));
+    }
+}
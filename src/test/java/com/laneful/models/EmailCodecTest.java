@@ -0,0 +1,153 @@
+package com.laneful.models;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.laneful.exceptions.ValidationException;
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+
+class EmailCodecTest {
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    private Email sampleEmail() throws ValidationException {
+        return new Email.Builder()
+            .from(new Address("sender@example.com", "Sender Ünïcode 🚀"))
+            .to(new Address("one@example.com"))
+            .to(new Address("two@example.com", "Two"))
+            .bcc(new Address("audit@example.com"))
+            .subject("Quarterly report")
+            .htmlContent("<p>Hello</p>")
+            .templateId("report")
+            .templateData(Map.of("count", 3, "big", 5_000_000_000L, "ratio", 0.5,
+                "items", List.of("a", "b"), "nested", Map.of("ok", true)))
+            .attachment(new Attachment("report.txt", "text/plain", "cmVwb3J0IGNvbnRlbnRz"))
+            .headers(Map.of("X-Campaign", "q3"))
+            .replyTo(new Address("reply@example.com"))
+            .sendTime(Instant.now().getEpochSecond() + 3600)
+            .webhookData(Map.of("order", "42"))
+            .tag("reports")
+            .tracking(new TrackingSettings(true, false, true))
+            .build();
+    }
+
+    @Test
+    void testRoundTripMatchesJson() throws Exception {
+        Email email = sampleEmail();
+
+        byte[] encoded = EmailCodec.encode(email);
+        Email decoded = EmailCodec.decode(encoded);
+
+        assertEquals(objectMapper.writeValueAsString(email), objectMapper.writeValueAsString(decoded));
+        assertEquals(email.getTemplateData(), decoded.getTemplateData());
+        assertTrue(encoded.length < objectMapper.writeValueAsBytes(email).length);
+    }
+
+    @Test
+    void testStreamOfRecords() throws Exception {
+        Email first = sampleEmail();
+        Email second = first.withTo(new Address("three@example.com"));
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        EmailCodec.encode(first, out);
+        EmailCodec.encode(second, out);
+
+        ByteArrayInputStream in = new ByteArrayInputStream(out.toByteArray());
+
+        assertEquals("one@example.com", EmailCodec.decode(in).getTo().get(0).email());
+        assertEquals("three@example.com", EmailCodec.decode(in).getTo().get(0).email());
+        assertNull(EmailCodec.decode(in));
+    }
+
+    @Test
+    void testDecodesSendTimeThatHasPassed() throws Exception {
+        long past = Instant.now().getEpochSecond() - 60;
+        Email spooled = sampleEmail().toBuilder().allowPastSendTime().sendTime(past).build();
+
+        Email decoded = EmailCodec.decode(EmailCodec.encode(spooled));
+
+        assertEquals(past, decoded.getSendTime());
+        assertThrows(ValidationException.class, () -> decoded.toBuilder().build());
+    }
+
+    /**
+     * Wraps a hand-written body in a record header; the body length must fit one varint byte.
+     */
+    private static byte[] record(byte[] body) {
+        byte[] record = new byte[4 + body.length];
+        record[0] = 'L';
+        record[1] = 'E';
+        record[2] = (byte) EmailCodec.VERSION;
+        record[3] = (byte) body.length;
+        System.arraycopy(body, 0, record, 4, body.length);
+        return record;
+    }
+
+    @Test
+    void testRejectsInflatedSizesAndDeepNesting() {
+        // Template data holding a list that claims Integer.MAX_VALUE items
+        byte[] inflated = record(new byte[] {9, 6, (byte) 0xFF, (byte) 0xFF, (byte) 0xFF, (byte) 0xFF, 0x07, 0});
+        ValidationException sizeError = assertThrows(ValidationException.class, () -> EmailCodec.decode(inflated));
+        assertTrue(sizeError.getMessage().startsWith("Invalid encoded email"), sizeError.getMessage());
+
+        // A header map claiming more entries than there are bytes
+        byte[] headers = record(new byte[] {11, 100, 0});
+        assertThrows(ValidationException.class, () -> EmailCodec.decode(headers));
+
+        // Lists nested 100,000 deep, too long for a one-byte header length
+        int depth = 100_000;
+        ByteArrayOutputStream body = new ByteArrayOutputStream();
+        // Template data map with one key, "k"
+        body.writeBytes(new byte[] {9, 7, 1, 2, 'k'});
+        for (int i = 0; i < depth; i++) {
+            body.writeBytes(new byte[] {6, 1});
+        }
+        // Null innermost value, then the end tag
+        body.writeBytes(new byte[] {0, 0});
+        ByteArrayOutputStream nested = new ByteArrayOutputStream();
+        nested.write('L');
+        nested.write('E');
+        nested.write(EmailCodec.VERSION);
+        for (int length = body.size(); ; length >>>= 7) {
+            if ((length & ~0x7F) == 0) {
+                nested.write(length);
+                break;
+            }
+            nested.write((length & 0x7F) | 0x80);
+        }
+        nested.writeBytes(body.toByteArray());
+        ValidationException depthError = assertThrows(ValidationException.class,
+            () -> EmailCodec.decode(nested.toByteArray()));
+        assertTrue(depthError.getMessage().contains("nested"), depthError.getMessage());
+    }
+
+    @Test
+    void testRejectsNewerVersionAndCorruptData() throws Exception {
+        byte[] encoded = EmailCodec.encode(sampleEmail());
+        byte[] newer = encoded.clone();
+        newer[2] = (byte) (EmailCodec.VERSION + 1);
+        byte[] truncated = java.util.Arrays.copyOf(encoded, encoded.length - 5);
+
+        ValidationException versionError = assertThrows(ValidationException.class, () -> EmailCodec.decode(newer));
+        assertTrue(versionError.getMessage().contains("version"));
+        assertThrows(ValidationException.class, () -> EmailCodec.decode(truncated));
+        assertThrows(IOException.class, () -> EmailCodec.decode(new ByteArrayInputStream(truncated)));
+    }
+
+    @Test
+    void testUnsupportedTemplateValue() throws ValidationException {
+        Email email = new Email.Builder()
+            .from(new Address("sender@example.com"))
+            .to(new Address("user@example.com"))
+            .templateId("t")
+            .templateData(Map.of("when", Instant.EPOCH))
+            .build();
+
+        assertThrows(ValidationException.class, () -> EmailCodec.encode(email));
+    }
+}
@@ -1,9 +1,12 @@
 package com.laneful.models;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
 import com.laneful.exceptions.ValidationException;
 import org.junit.jupiter.api.Test;
 import static org.junit.jupiter.api.Assertions.*;
 
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
 import java.util.Map;
 import java.util.List;
 
@@ -164,4 +167,128 @@ class EmailTest {
         assertTrue(toString.contains("recipient@example.com"));
         assertTrue(toString.contains("Test Subject"));
     }
+    
+    @Test
+    void testGettersReturnImmutableListsWithoutCopying() throws ValidationException {
+        Email email = new Email.Builder()
+            .from(new Address("sender@example.com"))
+            .to(new Address("recipient@example.com"))
+            .textContent("Test content")
+            .build();
+        
+        assertSame(email.getTo(), email.getTo());
+        assertThrows(UnsupportedOperationException.class, () -> email.getTo().add(new Address("other@example.com")));
+    }
+    
+    @Test
+    void testWithToSharesUnchangedFields() throws ValidationException {
+        Email template = new Email.Builder()
+            .from(new Address("sender@example.com"))
+            .to(new Address("first@example.com"))
+            .cc(new Address("cc@example.com"))
+            .templateId("welcome")
+            .templateData(Map.of("plan", "pro"))
+            .build();
+        
+        Email variant = template.withTo(new Address("second@example.com"));
+        
+        assertEquals("second@example.com", variant.getTo().get(0).email());
+        assertEquals("first@example.com", template.getTo().get(0).email());
+        assertSame(template.getCc(), variant.getCc());
+        assertSame(template.getAttachments(), variant.getAttachments());
+        assertSame(template.getTemplateData(), variant.getTemplateData());
+    }
+    
+    @Test
+    void testToBuilderCopiesOnlyModifiedLists() throws ValidationException {
+        Email original = new Email.Builder()
+            .from(new Address("sender@example.com"))
+            .to(new Address("first@example.com"))
+            .bcc(new Address("audit@example.com"))
+            .textContent("Test content")
+            .build();
+        
+        Email derived = original.toBuilder()
+            .to(new Address("second@example.com"))
+            .subject("Updated")
+            .build();
+        
+        assertEquals(1, original.getTo().size());
+        assertEquals(2, derived.getTo().size());
+        assertSame(original.getBcc(), derived.getBcc());
+        assertEquals("Updated", derived.getSubject());
+    }
+    
+    @Test
+    void testWithToRevalidates() throws ValidationException {
+        Email email = new Email.Builder()
+            .from(new Address("sender@example.com"))
+            .to(new Address("recipient@example.com"))
+            .textContent("Test content")
+            .build();
+        
+        assertThrows(ValidationException.class, () -> email.withTo(List.of()));
+    }
+    
+    @Test
+    void testWithRecipientsReplacesAllRecipientLists() throws ValidationException {
+        Email email = new Email.Builder()
+            .from(new Address("sender@example.com"))
+            .to(new Address("first@example.com"))
+            .cc(new Address("cc@example.com"))
+            .bcc(new Address("audit@example.com"))
+            .textContent("Test content")
+            .build();
+        
+        Email variant = email.withRecipients(List.of(), List.of(new Address("cc@example.com")), List.of());
+        
+        assertTrue(variant.getTo().isEmpty());
+        assertEquals(1, variant.getCc().size());
+        assertTrue(variant.getBcc().isEmpty());
+        assertThrows(ValidationException.class, () -> email.withRecipients(List.of(), List.of(), List.of()));
+    }
+    
+    @Test
+    void testNullRecipientIsRejected() {
+        assertThrows(ValidationException.class, () -> new Email.Builder()
+            .from(new Address("sender@example.com"))
+            .to((Address) null)
+            .textContent("Test content")
+            .build());
+    }
+    
+    @Test
+    void testFromJsonRoundTrip() throws Exception {
+        Email email = new Email.Builder()
+            .from(new Address("sender@example.com", "Sender"))
+            .to(new Address("recipient@example.com"))
+            .cc(new Address("cc@example.com", "CC"))
+            .subject("Test Subject")
+            .htmlContent("<p>Hello</p>")
+            .templateData(Map.of("name", "John"))
+            .attachment(new Attachment("doc.txt", "text/plain", "ZG9jdW1lbnQ="))
+            .headers(Map.of("X-Campaign", "spring"))
+            .tag("newsletter")
+            .tracking(new TrackingSettings(true, false, true))
+            .build();
+        byte[] json = new ObjectMapper().writeValueAsBytes(email);
+        
+        assertEquals(email, Email.fromJson(json));
+        assertEquals(email, Email.fromJson(new ByteArrayInputStream(json)));
+    }
+    
+    @Test
+    void testFromJsonValidation() {
+        String invalidAddress = "{\"from\":{\"email\":\"sender@example.com\"},\"to\":[{\"email\":\"not-an-email\"}],\"text_content\":\"Hi\"}";
+        String missingContent = "{\"from\":{\"email\":\"sender@example.com\"},\"to\":[{\"email\":\"user@example.com\"}]}";
+        
+        ValidationException addressError = assertThrows(ValidationException.class,
+            () -> Email.fromJson(invalidAddress.getBytes(StandardCharsets.UTF_8)));
+        ValidationException contentError = assertThrows(ValidationException.class,
+            () -> Email.fromJson(missingContent.getBytes(StandardCharsets.UTF_8)));
+        
+        assertTrue(addressError.getMessage().startsWith("Invalid to address: "));
+        assertTrue(contentError.getMessage().contains("content"));
+        assertThrows(ValidationException.class, () -> Email.fromJson("{\"from\":".getBytes(StandardCharsets.UTF_8)));
+    }
 }
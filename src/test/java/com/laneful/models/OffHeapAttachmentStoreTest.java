@@ -0,0 +1,93 @@
+package com.laneful.models;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+
+class OffHeapAttachmentStoreTest {
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    void testStoredFileSerializesLikeInMemoryFile() throws IOException {
+        Path file = tempDir.resolve("invoice.pdf");
+        byte[] data = new byte[10_000];
+        Arrays.fill(data, (byte) 7);
+        Files.write(file, data);
+        OffHeapAttachmentStore store = new OffHeapAttachmentStore();
+
+        Attachment offHeap = store.storeFile(file);
+
+        assertEquals(
+            objectMapper.writeValueAsString(Attachment.fromFile(file)),
+            objectMapper.writeValueAsString(offHeap)
+        );
+        assertEquals(1, store.liveBuffers());
+    }
+
+    @Test
+    void testStoreCopiesInlineAndStreamedContent() throws IOException {
+        OffHeapAttachmentStore store = new OffHeapAttachmentStore();
+        Attachment inline = new Attachment("a.txt", "text/plain", "aGVsbG8gd29ybGQ=");
+        Attachment streamed = Attachment.fromSource(
+            "a.txt", "text/plain", () -> new ByteArrayInputStream("hello world".getBytes())
+        );
+
+        assertEquals(inline.content(), store.store(inline).content());
+        assertEquals(inline.content(), store.store(streamed).content());
+        assertEquals(2, store.liveBuffers());
+    }
+
+    @Test
+    void testBufferIsFreedWhenLastReferenceIsReleased() throws IOException {
+        OffHeapAttachmentStore store = new OffHeapAttachmentStore();
+        Attachment attachment = store.store(new Attachment("a.txt", "text/plain", "YWJj"));
+        OffHeapContent content = (OffHeapContent) attachment.source();
+
+        content.retain();
+        assertFalse(content.release());
+        assertEquals(1, store.liveBuffers());
+
+        assertTrue(content.release());
+        assertEquals(0, store.liveBuffers());
+        assertEquals(0, store.allocatedBytes());
+        assertThrows(IllegalStateException.class, content::retain);
+        assertThrows(IOException.class, content::openStream);
+    }
+
+    @Test
+    void testStreamOpenedBeforeReleaseStaysReadable() throws IOException {
+        OffHeapAttachmentStore store = new OffHeapAttachmentStore();
+        Attachment attachment = store.store(new Attachment("a.txt", "text/plain", "YWJj"));
+        OffHeapContent content = (OffHeapContent) attachment.source();
+        InputStream in = content.openStream();
+        assertEquals('Y', in.read());
+
+        content.release();
+
+        // Reads after the release fail cleanly instead of touching freed memory
+        assertThrows(IOException.class, in::read);
+        assertEquals(0, store.liveBuffers());
+    }
+
+    @Test
+    void testStoringOffHeapAttachmentSharesBuffer() throws IOException {
+        OffHeapAttachmentStore store = new OffHeapAttachmentStore();
+        Attachment attachment = store.store(new Attachment("a.txt", "text/plain", "YWJj"));
+
+        assertSame(attachment, store.store(attachment));
+        assertEquals(2, ((OffHeapContent) attachment.source()).refCount());
+        assertEquals(1, store.liveBuffers());
+    }
+}
@@ -0,0 +1,147 @@
+package com.laneful.scheduling;
+
+import com.laneful.models.Address;
+import com.laneful.models.Email;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+
+class EmailSchedulerTest {
+
+    private static final Instant START = Instant.parse("2030-01-01T00:00:00Z");
+
+    private final List<List<Email>> batches = new ArrayList<>();
+
+    private EmailScheduler.Builder builder() {
+        // A one-hour tick keeps the background ticker out of the way; tests drive advanceTo
+        return new EmailScheduler.Builder(emails -> batches.add(List.copyOf(emails)))
+            .tick(Duration.ofHours(1))
+            .clock(Clock.fixed(START, ZoneOffset.UTC))
+            .executor(Runnable::run);
+    }
+
+    private Email email(String to) throws Exception {
+        return new Email.Builder()
+            .from(new Address("sender@example.com"))
+            .to(new Address(to))
+            .subject("Reminder")
+            .textContent("Don't forget")
+            .build();
+    }
+
+    @Test
+    void testReleasesDueEmailsInBatches() throws Exception {
+        try (EmailScheduler scheduler = builder().maxBatchSize(2).build()) {
+            for (int i = 0; i < 5; i++) {
+                scheduler.schedule(email("user" + i + "@example.com"), START.plusSeconds(60));
+            }
+            scheduler.schedule(email("later@example.com"), START.plusSeconds(7200));
+
+            scheduler.advanceTo(START.plusSeconds(59).toEpochMilli());
+            assertTrue(batches.isEmpty());
+
+            scheduler.advanceTo(START.plusSeconds(3600).toEpochMilli());
+            assertEquals(List.of(2, 2, 1), batches.stream().map(List::size).toList());
+            assertEquals(1, scheduler.pendingCount());
+        }
+    }
+
+    @Test
+    void testCancel() throws Exception {
+        try (EmailScheduler scheduler = builder().build()) {
+            ScheduledEmail cancelled = scheduler.schedule(email("cancel@example.com"), START.plusSeconds(10));
+            ScheduledEmail sent = scheduler.schedule(email("send@example.com"), START.plusSeconds(10));
+
+            assertTrue(cancelled.cancel());
+            assertFalse(cancelled.cancel());
+            assertFalse(cancelled.isPending());
+
+            scheduler.advanceTo(START.plusSeconds(3600).toEpochMilli());
+            assertEquals(1, batches.size());
+            assertEquals("send@example.com", batches.get(0).get(0).getTo().get(0).email());
+            assertFalse(sent.cancel());
+        }
+    }
+
+    @Test
+    void testJournalRestoresPendingEmails(@TempDir Path dir) throws Exception {
+        Path journal = dir.resolve("scheduled.log");
+        try (EmailScheduler scheduler = builder().journal(journal).build()) {
+            scheduler.schedule(email("sent@example.com"), START.plusSeconds(10));
+            scheduler.schedule(email("cancelled@example.com"), START.plusSeconds(10)).cancel();
+            scheduler.schedule(email("pending@example.com"), START.plusSeconds(86_400));
+            scheduler.advanceTo(START.plusSeconds(3600).toEpochMilli());
+        }
+        batches.clear();
+
+        // Simulate a crash in the middle of appending a record
+        Files.write(journal, new byte[] {1, 0, 0}, java.nio.file.StandardOpenOption.APPEND);
+
+        try (EmailScheduler restored = builder().journal(journal).build()) {
+            assertEquals(1, restored.pendingCount());
+            ScheduledEmail next = restored.schedule(email("new@example.com"), START.plusSeconds(10));
+            assertTrue(next.id() > 2);
+
+            restored.advanceTo(START.plusSeconds(2 * 86_400).toEpochMilli());
+            List<String> recipients = batches.stream()
+                .flatMap(List::stream)
+                .map(email -> email.getTo().get(0).email())
+                .toList();
+            assertEquals(List.of("new@example.com", "pending@example.com"), recipients);
+        }
+    }
+
+    @Test
+    void testJournalCompactsOnceMostRecordsAreDead(@TempDir Path dir) throws Exception {
+        Path path = dir.resolve("scheduled.log");
+        byte[] email = new byte[100];
+        try (ScheduleJournal journal = new ScheduleJournal(path, 8)) {
+            for (long id = 0; id < 10; id++) {
+                journal.scheduled(id, 0, email);
+            }
+            long full = Files.size(path);
+            for (long id = 0; id < 3; id++) {
+                journal.done(id);
+            }
+            assertTrue(Files.size(path) > full, "below the minimum dead records");
+
+            // Eight dead records now outnumber the six live ones
+            journal.done(3);
+            assertEquals(full / 10 * 6, Files.size(path));
+            journal.done(4);
+            journal.done(5);
+            journal.scheduled(10, 0, email);
+        }
+
+        try (ScheduleJournal reopened = new ScheduleJournal(path)) {
+            assertEquals(List.of(6L, 7L, 8L, 9L, 10L),
+                reopened.pending().stream().map(ScheduleJournal.Entry::id).toList());
+        }
+    }
+
+    @Test
+    void testRejectsScheduleAfterClose() throws Exception {
+        EmailScheduler scheduler = builder().build();
+        scheduler.close();
+
+        assertThrows(IllegalStateException.class,
+            () -> scheduler.schedule(email("user@example.com"), START));
+    }
+
+    @Test
+    void testBuilderValidation() {
+        assertThrows(IllegalArgumentException.class, () -> new EmailScheduler.Builder(null));
+        assertThrows(IllegalArgumentException.class, () -> builder().maxBatchSize(0));
+        assertThrows(IllegalArgumentException.class, () -> builder().tick(Duration.ZERO));
+    }
+}
@@ -0,0 +1,67 @@
+package com.laneful.scheduling;
+
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+class TimingWheelTest {
+
+    @Test
+    void testFiresInDeadlineOrderAcrossLevels() {
+        TimingWheel<Long> wheel = new TimingWheel<>(10, 0);
+        Random random = new Random(42);
+        List<Long> deadlines = new ArrayList<>();
+        for (int i = 0; i < 2_000; i++) {
+            long deadline = 10 + (long) (random.nextDouble() * 10_000_000L);
+            deadlines.add(deadline);
+            wheel.add(deadline, deadline);
+        }
+
+        List<Long> fired = new ArrayList<>();
+        for (long now = 0; now <= 10_010_000L; now += 7_777) {
+            long at = now;
+            wheel.advanceTo(now, timer -> {
+                assertTrue(timer.deadlineMillis <= at);
+                assertTrue(timer.deadlineMillis > at - 7_777 - 10);
+                fired.add(timer.value);
+            });
+        }
+
+        assertEquals(deadlines.size(), fired.size());
+        assertEquals(0, wheel.size());
+    }
+
+    @Test
+    void testPastDeadlineFiresOnNextTick() {
+        TimingWheel<String> wheel = new TimingWheel<>(100, 1_000);
+        wheel.advanceTo(5_000, timer -> fail("Nothing is scheduled"));
+        wheel.add("late", 0);
+
+        List<String> fired = new ArrayList<>();
+        wheel.advanceTo(5_099, timer -> fired.add(timer.value));
+        assertTrue(fired.isEmpty());
+        wheel.advanceTo(5_100, timer -> fired.add(timer.value));
+        assertEquals(List.of("late"), fired);
+    }
+
+    @Test
+    void testCancel() {
+        TimingWheel<String> wheel = new TimingWheel<>(1, 0);
+        TimingWheel.Timer<String> kept = wheel.add("kept", 500);
+        TimingWheel.Timer<String> cancelled = wheel.add("cancelled", 100_000);
+
+        assertTrue(wheel.cancel(cancelled));
+        assertFalse(wheel.cancel(cancelled));
+        assertFalse(cancelled.isPending());
+        assertEquals(1, wheel.size());
+
+        List<String> fired = new ArrayList<>();
+        wheel.advanceTo(200_000, timer -> fired.add(timer.value));
+        assertEquals(List.of("kept"), fired);
+        assertFalse(kept.isPending());
+        assertFalse(wheel.cancel(kept));
+    }
+}
@@ -0,0 +1,125 @@
+package com.laneful.suppression;
+
+import com.laneful.webhooks.BounceEvent;
+import com.laneful.webhooks.DeliveryEvent;
+import com.laneful.webhooks.SpamComplaintEvent;
+import com.laneful.webhooks.UnsubscribeEvent;
+import org.junit.jupiter.api.Test;
+
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SuppressionListTest {
+
+    @Test
+    void testNormalizesAddresses() {
+        SuppressionList list = new SuppressionList.Builder().capacity(100).build();
+
+        assertTrue(list.add(" User@Example.COM "));
+        assertFalse(list.add("user@example.com"));
+        assertTrue(list.contains("USER@example.com"));
+        assertFalse(list.contains("other@example.com"));
+        assertEquals(1, list.size());
+    }
+
+    @Test
+    void testUpdatesFromWebhookEvents() {
+        SuppressionList list = new SuppressionList.Builder().build();
+        Map<String, Object> none = Map.of();
+
+        list.accept(new BounceEvent("hard@example.com", null, "m", 0, null, none, true, null, null));
+        list.accept(new BounceEvent("soft@example.com", null, "m", 0, null, none, false, null, null));
+        list.accept(new SpamComplaintEvent("spam@example.com", null, "m", 0, null, none));
+        list.accept(new UnsubscribeEvent("global@example.com", null, "m", 0, null, none, null));
+        list.accept(new UnsubscribeEvent("group@example.com", null, "m", 0, null, none, "news"));
+        list.accept(new DeliveryEvent("delivered@example.com", null, "m", 0, null, none));
+
+        assertTrue(list.contains("hard@example.com"));
+        assertTrue(list.contains("spam@example.com"));
+        assertTrue(list.contains("global@example.com"));
+        assertFalse(list.contains("soft@example.com"));
+        assertFalse(list.contains("group@example.com"));
+        assertFalse(list.contains("delivered@example.com"));
+
+        SuppressionList groups = new SuppressionList.Builder().suppressGroupUnsubscribes(true).build();
+        groups.accept(new UnsubscribeEvent("group@example.com", null, "m", 0, null, none, "news"));
+        assertTrue(groups.contains("group@example.com"));
+    }
+
+    @Test
+    void testRemoveKeepsCollidingEntriesReachable() {
+        SuppressionList list = new SuppressionList.Builder().capacity(3_000).build();
+        Set<String> kept = new HashSet<>();
+        for (int i = 0; i < 3_000; i++) {
+            assertTrue(list.add("user" + i + "@example.com"));
+        }
+        for (int i = 0; i < 3_000; i++) {
+            String email = "user" + i + "@example.com";
+            if (i % 3 == 0) {
+                assertTrue(list.remove(email));
+            } else {
+                kept.add(email);
+            }
+        }
+
+        assertFalse(list.remove("user0@example.com"));
+        for (int i = 0; i < 3_000; i++) {
+            String email = "user" + i + "@example.com";
+            assertEquals(kept.contains(email), list.contains(email), email);
+        }
+        assertEquals(2_000, list.size());
+    }
+
+    @Test
+    void testCountsOverflowsWhenFull() {
+        SuppressionList list = new SuppressionList.Builder().capacity(2).build();
+
+        assertTrue(list.add("a@example.com"));
+        assertTrue(list.add("b@example.com"));
+        assertFalse(list.add("c@example.com"));
+        assertFalse(list.contains("c@example.com"));
+
+        SuppressionList.Stats stats = list.stats();
+        assertEquals(2, stats.size());
+        assertEquals(1, stats.overflows());
+        assertTrue(stats.offHeapBytes() > 0);
+    }
+
+    @Test
+    void testConcurrentLookupsDuringUpdates() throws Exception {
+        SuppressionList list = new SuppressionList.Builder().capacity(50_000).build();
+        for (int i = 0; i < 1_000; i++) {
+            list.add("stable" + i + "@example.com");
+        }
+        Thread writer = Thread.ofPlatform().start(() -> {
+            for (int i = 0; i < 40_000; i++) {
+                list.add("new" + i + "@example.com");
+            }
+        });
+        List<String> misses = new java.util.concurrent.CopyOnWriteArrayList<>();
+        Thread reader = Thread.ofPlatform().start(() -> {
+            for (int round = 0; round < 20; round++) {
+                for (int i = 0; i < 1_000; i++) {
+                    if (!list.contains("stable" + i + "@example.com")) {
+                        misses.add("stable" + i);
+                    }
+                }
+            }
+        });
+        writer.join();
+        reader.join();
+
+        assertTrue(misses.isEmpty());
+        assertEquals(41_000, list.size());
+    }
+
+    @Test
+    void testBuilderValidation() {
+        assertThrows(IllegalArgumentException.class, () -> new SuppressionList.Builder().capacity(0));
+        assertThrows(IllegalArgumentException.class, () -> new SuppressionList.Builder().build().add(null));
+    }
+}
@@ -0,0 +1,868 @@
+package com.laneful.testing;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.net.SocketException;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.SplittableRandom;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedDeque;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Local stand-in for the Laneful send API, for tests and load runs that
+ * must not reach the real service.
+ *
+ * <p>The server answers {@code POST /v1/email/send} as the API does: it
+ * checks the bearer token and the shape of the JSON body, and accepts valid
+ * batches with one message ID per email. Every request is recorded. Faults
+ * can be injected at configurable rates: added latency drawn from a
+ * {@link Latency} distribution, 429 responses with a {@code Retry-After}
+ * header, 5xx responses, response bodies trickled out slowly, and
+ * connections reset without a response.
+ *
+ * <pre>{@code
+ * try (FakeLanefulServer server = new FakeLanefulServer.Builder("test-token")
+ *         .latency(Latency.logNormal(Duration.ofMillis(20), 0.5))
+ *         .rateLimit(0.05, Duration.ofSeconds(1))
+ *         .build()) {
+ *     server.start();
+ *     LanefulClient client = new LanefulClient(server.baseUrl(), "test-token");
+ *     ...
+ * }
+ * }</pre>
+ *
+ * <p>Faults are decided in a fixed order for each request: reset, latency,
+ * routing, authentication, rate limit, server error, then validation. A
+ * reset request is never answered; a rate-limited one is never also a
+ * server error. With {@link Builder#seed(long)}, the faults each connection
+ * sees are repeatable from run to run.
+ *
+ * <p>The HTTP/1.1 handling covers what HTTP clients send to the API:
+ * keep-alive, {@code Content-Length} and chunked bodies, and
+ * {@code Expect: 100-continue}. Each connection is served on its own virtual
+ * thread.
+ */
+public final class FakeLanefulServer implements AutoCloseable {
+
+    /**
+     * The path sends are posted to.
+     */
+    public static final String SEND_PATH = "/v1/email/send";
+
+    private static final System.Logger LOGGER = System.getLogger(FakeLanefulServer.class.getName());
+    private static final ObjectMapper OBJECT_MAPPER = new ObjectMapper();
+    private static final int MAX_LINE_BYTES = 8 * 1024;
+    private static final int MAX_HEADERS = 100;
+    private static final long SLOW_BODY_TICK_NANOS = TimeUnit.MILLISECONDS.toNanos(100);
+
+    private final String expectedAuthorization;
+    private final Latency latency;
+    private final double rateLimitProbability;
+    private final Duration retryAfter;
+    private final double serverErrorProbability;
+    private final int serverErrorStatus;
+    private final double slowBodyProbability;
+    private final int slowBodyBytesPerSecond;
+    private final double resetProbability;
+    private final int maxRecorded;
+    private final int maxBodyBytes;
+    private final SplittableRandom seeds;
+    private final ServerSocket serverSocket;
+    private final ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+    private final Set<Socket> connections = ConcurrentHashMap.newKeySet();
+    private final Deque<RecordedRequest> recorded = new ConcurrentLinkedDeque<>();
+    private final AtomicInteger recordedCount = new AtomicInteger();
+    private final AtomicLong nextMessageId = new AtomicLong(1);
+    private volatile boolean started;
+    private volatile boolean closed;
+
+    private final LongAdder requests = new LongAdder();
+    private final LongAdder accepted = new LongAdder();
+    private final LongAdder emails = new LongAdder();
+    private final LongAdder unauthorized = new LongAdder();
+    private final LongAdder invalid = new LongAdder();
+    private final LongAdder rateLimited = new LongAdder();
+    private final LongAdder serverErrors = new LongAdder();
+    private final LongAdder slowBodies = new LongAdder();
+    private final LongAdder resets = new LongAdder();
+
+    private FakeLanefulServer(Builder builder) throws IOException {
+        this.expectedAuthorization = "Bearer " + builder.authToken;
+        this.latency = builder.latency;
+        this.rateLimitProbability = builder.rateLimitProbability;
+        this.retryAfter = builder.retryAfter;
+        this.serverErrorProbability = builder.serverErrorProbability;
+        this.serverErrorStatus = builder.serverErrorStatus;
+        this.slowBodyProbability = builder.slowBodyProbability;
+        this.slowBodyBytesPerSecond = builder.slowBodyBytesPerSecond;
+        this.resetProbability = builder.resetProbability;
+        this.maxRecorded = builder.maxRecorded;
+        this.maxBodyBytes = builder.maxBodyBytes;
+        this.seeds = builder.seed == null ? new SplittableRandom() : new SplittableRandom(builder.seed);
+        this.serverSocket = new ServerSocket();
+        serverSocket.bind(builder.address, builder.backlog);
+    }
+
+    /**
+     * Starts accepting connections.
+     */
+    public void start() {
+        if (closed) {
+            throw new IllegalStateException("Server is closed");
+        }
+        if (started) {
+            return;
+        }
+        started = true;
+        Thread.ofVirtual().name("fake-laneful-acceptor").start(this::acceptLoop);
+    }
+
+    /**
+     * The port the server is bound to, useful when built with port 0.
+     */
+    public int port() {
+        return serverSocket.getLocalPort();
+    }
+
+    /**
+     * The base URL to give {@code LanefulClient}, such as
+     * {@code http://127.0.0.1:49152}.
+     */
+    public String baseUrl() {
+        InetAddress address = serverSocket.getInetAddress();
+        String host = address.isAnyLocalAddress() ? "127.0.0.1" : address.getHostAddress();
+        return "http://" + (host.indexOf(':') >= 0 ? "[" + host + "]" : host) + ":" + port();
+    }
+
+    /**
+     * The most recent requests, oldest first, up to the builder's
+     * {@link Builder#maxRecorded(int) limit}.
+     */
+    public List<RecordedRequest> requests() {
+        return List.copyOf(recorded);
+    }
+
+    /**
+     * Forgets the recorded requests. Counters in {@link #stats()} are kept.
+     */
+    public void clearRequests() {
+        while (recorded.pollFirst() != null) {
+            recordedCount.decrementAndGet();
+        }
+    }
+
+    /**
+     * Counters since the server was built.
+     */
+    public Stats stats() {
+        return new Stats(requests.sum(), accepted.sum(), emails.sum(), unauthorized.sum(), invalid.sum(),
+            rateLimited.sum(), serverErrors.sum(), slowBodies.sum(), resets.sum());
+    }
+
+    /**
+     * Stops accepting connections and closes the open ones.
+     */
+    @Override
+    public void close() {
+        closed = true;
+        try {
+            serverSocket.close();
+        } catch (IOException e) {
+            LOGGER.log(System.Logger.Level.DEBUG, "Failed to close server socket", e);
+        }
+        for (Socket socket : connections) {
+            closeQuietly(socket);
+        }
+        executor.shutdownNow();
+    }
+
+    /**
+     * Runs the server standalone until the process is stopped, for pointing
+     * the load generator or an application at.
+     *
+     * <pre>
+     * java com.laneful.testing.FakeLanefulServer --port=8080 --token=load-test-token \
+     *     --latency-ms=20 --rate-limit=0.01 --server-errors=0.01 --resets=0.001
+     * </pre>
+     */
+    public static void main(String[] args) throws IOException, InterruptedException {
+        Map<String, String> options = new HashMap<>();
+        for (String arg : args) {
+            int equals = arg.indexOf('=');
+            if (!arg.startsWith("--") || equals < 0) {
+                throw new IllegalArgumentException("Expected --name=value, got: " + arg);
+            }
+            options.put(arg.substring(2, equals), arg.substring(equals + 1));
+        }
+        Builder builder = new Builder(options.getOrDefault("token", "load-test-token"))
+            .address(new InetSocketAddress(InetAddress.getLoopbackAddress(),
+                Integer.parseInt(options.getOrDefault("port", "8080"))));
+        for (Map.Entry<String, String> option : options.entrySet()) {
+            String value = option.getValue();
+            switch (option.getKey()) {
+                case "port", "token" -> { }
+                case "latency-ms" -> builder.latency(Latency.logNormal(Duration.ofMillis(Long.parseLong(value)), 0.5));
+                case "rate-limit" -> builder.rateLimit(Double.parseDouble(value), Duration.ofSeconds(1));
+                case "server-errors" -> builder.serverErrors(Double.parseDouble(value), 503);
+                case "slow-bodies" -> builder.slowResponses(Double.parseDouble(value), 1024);
+                case "resets" -> builder.connectionResets(Double.parseDouble(value));
+                case "seed" -> builder.seed(Long.parseLong(value));
+                default -> throw new IllegalArgumentException("Unknown option: --" + option.getKey());
+            }
+        }
+        FakeLanefulServer server = builder.maxRecorded(0).build();
+        server.start();
+        System.out.println("Fake Laneful API listening on " + server.baseUrl());
+        Thread.currentThread().join();
+    }
+
+    private void acceptLoop() {
+        while (!closed) {
+            Socket socket;
+            try {
+                socket = serverSocket.accept();
+            } catch (IOException e) {
+                if (!closed) {
+                    LOGGER.log(System.Logger.Level.WARNING, "Failed to accept connection", e);
+                }
+                return;
+            }
+            SplittableRandom random;
+            synchronized (seeds) {
+                random = seeds.split();
+            }
+            connections.add(socket);
+            try {
+                executor.execute(() -> serve(socket, random));
+            } catch (RuntimeException e) {
+                // Closed while accepting
+                connections.remove(socket);
+                closeQuietly(socket);
+            }
+        }
+    }
+
+    private void serve(Socket socket, SplittableRandom random) {
+        try (socket) {
+            socket.setTcpNoDelay(true);
+            InputStream in = new BufferedInputStream(socket.getInputStream());
+            OutputStream out = new BufferedOutputStream(socket.getOutputStream());
+            while (!closed) {
+                Exchange exchange;
+                try {
+                    exchange = readRequest(in, out);
+                } catch (MalformedRequestException e) {
+                    writeResponse(out, new Response(e.status, error("Bad request", e.getMessage()), true, null), 0);
+                    return;
+                }
+                if (exchange == null || !respond(socket, out, exchange, random) || exchange.close) {
+                    return;
+                }
+            }
+        } catch (IOException e) {
+            // The client went away; nothing to answer
+        } finally {
+            connections.remove(socket);
+        }
+    }
+
+    /**
+     * Answers one request.
+     *
+     * @return Whether the connection can carry another request
+     */
+    private boolean respond(Socket socket, OutputStream out, Exchange exchange, SplittableRandom random)
+            throws IOException {
+        requests.increment();
+        if (chance(random, resetProbability)) {
+            resets.increment();
+            record(exchange, 0);
+            socket.setSoLinger(true, 0);
+            socket.close();
+            return false;
+        }
+
+        long delay = latency.sampleNanos(random);
+        if (delay > 0) {
+            LockSupport.parkNanos(delay);
+        }
+
+        Response response = decide(exchange, random);
+        record(exchange, response.status);
+        int bytesPerSecond = 0;
+        if (chance(random, slowBodyProbability)) {
+            slowBodies.increment();
+            bytesPerSecond = slowBodyBytesPerSecond;
+        }
+        writeResponse(out, response, bytesPerSecond);
+        return true;
+    }
+
+    private Response decide(Exchange exchange, SplittableRandom random) {
+        if (!SEND_PATH.equals(exchange.path)) {
+            return new Response(404, error("Not found", exchange.path), false, null);
+        }
+        if (!"POST".equals(exchange.method)) {
+            return new Response(405, error("Method not allowed", exchange.method), false, null);
+        }
+        if (!expectedAuthorization.equals(exchange.headers.get("authorization"))) {
+            unauthorized.increment();
+            return new Response(401, error("Unauthorized", "Invalid or missing bearer token"), false, null);
+        }
+        if (chance(random, rateLimitProbability)) {
+            rateLimited.increment();
+            String seconds = Long.toString(Math.max(0, (retryAfter.toMillis() + 999) / 1000));
+            return new Response(429, error("Too many requests", "Retry after " + seconds + "s"), false, seconds);
+        }
+        if (chance(random, serverErrorProbability)) {
+            serverErrors.increment();
+            return new Response(serverErrorStatus, error("Internal server error", ""), false, null);
+        }
+
+        JsonNode root;
+        String contentType = exchange.headers.getOrDefault("content-type", "");
+        if (!contentType.toLowerCase(Locale.ROOT).startsWith("application/json")) {
+            invalid.increment();
+            return new Response(415, error("Unsupported media type", "Expected application/json"), false, null);
+        }
+        try {
+            root = OBJECT_MAPPER.readTree(exchange.body);
+        } catch (IOException e) {
+            invalid.increment();
+            return new Response(400, error("Invalid JSON",
+                e instanceof JsonProcessingException json ? json.getOriginalMessage() : e.getMessage()), false, null);
+        }
+        String problem = validate(root);
+        if (problem != null) {
+            invalid.increment();
+            return new Response(400, error("Validation failed", problem), false, null);
+        }
+
+        ArrayNode sent = (ArrayNode) root.get("emails");
+        ObjectNode body = OBJECT_MAPPER.createObjectNode();
+        body.put("status", "accepted");
+        ArrayNode ids = body.putArray("message_ids");
+        for (int i = 0; i < sent.size(); i++) {
+            ids.add("fake-" + nextMessageId.getAndIncrement());
+        }
+        accepted.increment();
+        emails.add(sent.size());
+        return new Response(200, body, false, null);
+    }
+
+    /**
+     * Checks the send body against the API's rules.
+     *
+     * @return What is wrong, or null if the body is valid
+     */
+    static String validate(JsonNode root) {
+        if (root == null || !root.isObject()) {
+            return "Request body must be a JSON object";
+        }
+        JsonNode list = root.get("emails");
+        if (list == null || !list.isArray() || list.isEmpty()) {
+            return "emails must be a non-empty array";
+        }
+        for (int i = 0; i < list.size(); i++) {
+            String prefix = "emails[" + i + "]";
+            JsonNode email = list.get(i);
+            if (!email.isObject()) {
+                return prefix + " must be an object";
+            }
+            String problem = address(email.get("from"), prefix + ".from");
+            if (problem != null) {
+                return problem;
+            }
+            int recipients = 0;
+            for (String field : List.of("to", "cc", "bcc")) {
+                JsonNode addresses = email.get(field);
+                if (addresses == null || addresses.isNull()) {
+                    continue;
+                }
+                if (!addresses.isArray()) {
+                    return prefix + "." + field + " must be an array";
+                }
+                for (int j = 0; j < addresses.size(); j++) {
+                    problem = address(addresses.get(j), prefix + "." + field + "[" + j + "]");
+                    if (problem != null) {
+                        return problem;
+                    }
+                }
+                recipients += addresses.size();
+            }
+            if (recipients == 0) {
+                return prefix + " needs at least one recipient";
+            }
+            if (!hasText(email, "template_id")) {
+                if (!hasText(email, "subject")) {
+                    return prefix + ".subject is required without a template_id";
+                }
+                if (!hasText(email, "text_content") && !hasText(email, "html_content")) {
+                    return prefix + " needs text_content, html_content or a template_id";
+                }
+            }
+            JsonNode attachments = email.get("attachments");
+            if (attachments != null && !attachments.isNull()) {
+                if (!attachments.isArray()) {
+                    return prefix + ".attachments must be an array";
+                }
+                for (int j = 0; j < attachments.size(); j++) {
+                    JsonNode attachment = attachments.get(j);
+                    if (!hasText(attachment, "file_name") || !hasText(attachment, "content")) {
+                        return prefix + ".attachments[" + j + "] needs file_name and content";
+                    }
+                }
+            }
+        }
+        return null;
+    }
+
+    private static String address(JsonNode address, String path) {
+        if (address == null || !address.isObject()) {
+            return path + " must be an address object";
+        }
+        JsonNode email = address.get("email");
+        if (email == null || !email.isTextual() || email.asText().indexOf('@') <= 0) {
+            return path + ".email must be an email address";
+        }
+        return null;
+    }
+
+    private static boolean hasText(JsonNode node, String field) {
+        JsonNode value = node.get(field);
+        return value != null && value.isTextual() && !value.asText().isEmpty();
+    }
+
+    private static ObjectNode error(String error, String details) {
+        ObjectNode body = OBJECT_MAPPER.createObjectNode();
+        body.put("error", error);
+        body.put("details", details == null ? "" : details);
+        return body;
+    }
+
+    private void record(Exchange exchange, int status) {
+        if (maxRecorded == 0) {
+            return;
+        }
+        recorded.addLast(new RecordedRequest(exchange.method, exchange.path,
+            Collections.unmodifiableMap(exchange.headers), exchange.body, status));
+        if (recordedCount.incrementAndGet() > maxRecorded && recorded.pollFirst() != null) {
+            recordedCount.decrementAndGet();
+        }
+    }
+
+    private static boolean chance(SplittableRandom random, double probability) {
+        return probability > 0 && random.nextDouble() < probability;
+    }
+
+    private Exchange readRequest(InputStream in, OutputStream out) throws IOException {
+        String requestLine;
+        do {
+            requestLine = readLine(in, true);
+            if (requestLine == null) {
+                return null;
+            }
+        } while (requestLine.isEmpty());
+
+        String[] parts = requestLine.split(" ");
+        if (parts.length != 3 || !parts[2].startsWith("HTTP/1.")) {
+            throw new MalformedRequestException(400, "Malformed request line");
+        }
+        Map<String, String> headers = new HashMap<>();
+        for (int i = 0; ; i++) {
+            String line = readLine(in, false);
+            if (line.isEmpty()) {
+                break;
+            }
+            int colon = line.indexOf(':');
+            if (colon <= 0 || i == MAX_HEADERS) {
+                throw new MalformedRequestException(400, "Malformed header");
+            }
+            headers.put(line.substring(0, colon).trim().toLowerCase(Locale.ROOT), line.substring(colon + 1).trim());
+        }
+
+        if ("100-continue".equalsIgnoreCase(headers.get("expect"))) {
+            out.write("HTTP/1.1 100 Continue\r\n\r\n".getBytes(StandardCharsets.US_ASCII));
+            out.flush();
+        }
+        byte[] body;
+        String transferEncoding = headers.get("transfer-encoding");
+        String contentLength = headers.get("content-length");
+        if (transferEncoding != null && transferEncoding.toLowerCase(Locale.ROOT).contains("chunked")) {
+            body = readChunked(in);
+        } else if (contentLength != null) {
+            long length;
+            try {
+                length = Long.parseLong(contentLength);
+            } catch (NumberFormatException e) {
+                throw new MalformedRequestException(400, "Invalid Content-Length");
+            }
+            if (length < 0 || length > maxBodyBytes) {
+                throw new MalformedRequestException(413, "Body exceeds " + maxBodyBytes + " bytes");
+            }
+            body = in.readNBytes((int) length);
+            if (body.length != length) {
+                throw new EOFException("Body ended early");
+            }
+        } else {
+            body = new byte[0];
+        }
+
+        String target = parts[1];
+        int query = target.indexOf('?');
+        boolean close = "close".equalsIgnoreCase(headers.get("connection")) || parts[2].equals("HTTP/1.0");
+        return new Exchange(parts[0], query < 0 ? target : target.substring(0, query), headers, body, close);
+    }
+
+    private byte[] readChunked(InputStream in) throws IOException {
+        ByteArrayOutputStream body = new ByteArrayOutputStream();
+        while (true) {
+            String line = readLine(in, false);
+            int extension = line.indexOf(';');
+            int size;
+            try {
+                size = Integer.parseInt((extension < 0 ? line : line.substring(0, extension)).trim(), 16);
+            } catch (NumberFormatException e) {
+                throw new MalformedRequestException(400, "Invalid chunk size");
+            }
+            if (size < 0 || body.size() + (long) size > maxBodyBytes) {
+                throw new MalformedRequestException(413, "Body exceeds " + maxBodyBytes + " bytes");
+            }
+            if (size == 0) {
+                // Skip trailers
+                while (!readLine(in, false).isEmpty()) {
+                    // Ignored
+                }
+                return body.toByteArray();
+            }
+            byte[] chunk = in.readNBytes(size);
+            if (chunk.length != size) {
+                throw new EOFException("Chunk ended early");
+            }
+            body.write(chunk);
+            if (!readLine(in, false).isEmpty()) {
+                throw new MalformedRequestException(400, "Malformed chunk");
+            }
+        }
+    }
+
+    /**
+     * Reads one CRLF- or LF-terminated line.
+     *
+     * @param eofAllowed Whether the stream may end before the line starts
+     * @return The line, or null at the end of the stream if allowed
+     */
+    private static String readLine(InputStream in, boolean eofAllowed) throws IOException {
+        ByteArrayOutputStream line = new ByteArrayOutputStream(64);
+        while (true) {
+            int b = in.read();
+            if (b < 0) {
+                if (eofAllowed && line.size() == 0) {
+                    return null;
+                }
+                throw new EOFException("Connection closed mid-request");
+            }
+            if (b == '\n') {
+                break;
+            }
+            if (line.size() == MAX_LINE_BYTES) {
+                throw new MalformedRequestException(431, "Line too long");
+            }
+            line.write(b);
+        }
+        int length = line.size();
+        byte[] bytes = line.toByteArray();
+        if (length > 0 && bytes[length - 1] == '\r') {
+            length--;
+        }
+        return new String(bytes, 0, length, StandardCharsets.ISO_8859_1);
+    }
+
+    private static void writeResponse(OutputStream out, Response response, int bytesPerSecond) throws IOException {
+        byte[] body;
+        try {
+            body = OBJECT_MAPPER.writeValueAsBytes(response.body);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Failed to encode response", e);
+        }
+        StringBuilder head = new StringBuilder(160)
+            .append("HTTP/1.1 ").append(response.status).append(' ').append(reason(response.status)).append("\r\n")
+            .append("Content-Type: application/json\r\n")
+            .append("Content-Length: ").append(body.length).append("\r\n");
+        if (response.retryAfter != null) {
+            head.append("Retry-After: ").append(response.retryAfter).append("\r\n");
+        }
+        if (response.close) {
+            head.append("Connection: close\r\n");
+        }
+        out.write(head.append("\r\n").toString().getBytes(StandardCharsets.US_ASCII));
+        if (bytesPerSecond <= 0) {
+            out.write(body);
+            out.flush();
+            return;
+        }
+        out.flush();
+        int perTick = Math.max(1, bytesPerSecond / 10);
+        for (int offset = 0; offset < body.length; offset += perTick) {
+            LockSupport.parkNanos(SLOW_BODY_TICK_NANOS);
+            out.write(body, offset, Math.min(perTick, body.length - offset));
+            out.flush();
+        }
+    }
+
+    private static String reason(int status) {
+        return switch (status) {
+            case 200 -> "OK";
+            case 400 -> "Bad Request";
+            case 401 -> "Unauthorized";
+            case 404 -> "Not Found";
+            case 405 -> "Method Not Allowed";
+            case 413 -> "Payload Too Large";
+            case 415 -> "Unsupported Media Type";
+            case 429 -> "Too Many Requests";
+            case 431 -> "Request Header Fields Too Large";
+            case 500 -> "Internal Server Error";
+            case 502 -> "Bad Gateway";
+            case 503 -> "Service Unavailable";
+            case 504 -> "Gateway Timeout";
+            default -> "Status";
+        };
+    }
+
+    private static void closeQuietly(Socket socket) {
+        try {
+            socket.close();
+        } catch (IOException e) {
+            // Already closed
+        }
+    }
+
+    private record Exchange(String method, String path, Map<String, String> headers, byte[] body, boolean close) {}
+
+    private record Response(int status, JsonNode body, boolean close, String retryAfter) {}
+
+    /**
+     * A request that cannot be answered normally; the connection is closed
+     * after responding with the status.
+     */
+    private static final class MalformedRequestException extends SocketException {
+        private final int status;
+
+        MalformedRequestException(int status, String message) {
+            super(message);
+            this.status = status;
+        }
+    }
+
+    /**
+     * Counters since the server was built.
+     *
+     * @param requests Requests read, including reset ones
+     * @param accepted Send requests answered with 200
+     * @param emails Emails in accepted requests
+     * @param unauthorized Requests with a missing or wrong token
+     * @param invalid Requests with a body the API would reject
+     * @param rateLimited Requests answered with 429
+     * @param serverErrors Requests answered with an injected 5xx
+     * @param slowBodies Responses written slowly
+     * @param resets Connections reset instead of answering
+     */
+    public record Stats(long requests, long accepted, long emails, long unauthorized, long invalid,
+                        long rateLimited, long serverErrors, long slowBodies, long resets) {}
+
+    /**
+     * Builder for creating FakeLanefulServer instances.
+     */
+    public static class Builder {
+        private final String authToken;
+        private InetSocketAddress address = new InetSocketAddress(InetAddress.getLoopbackAddress(), 0);
+        private int backlog = 0;
+        private Latency latency = Latency.NONE;
+        private double rateLimitProbability;
+        private Duration retryAfter = Duration.ofSeconds(1);
+        private double serverErrorProbability;
+        private int serverErrorStatus = 503;
+        private double slowBodyProbability;
+        private int slowBodyBytesPerSecond = 1024;
+        private double resetProbability;
+        private int maxRecorded = 1000;
+        private int maxBodyBytes = 50 * 1024 * 1024;
+        private Long seed;
+
+        /**
+         * Creates a builder for a server that accepts the given auth token.
+         */
+        public Builder(String authToken) {
+            if (authToken == null || authToken.trim().isEmpty()) {
+                throw new IllegalArgumentException("Auth token cannot be empty");
+            }
+            this.authToken = authToken;
+        }
+
+        /**
+         * Listens on the loopback interface at the given port. Defaults to 0,
+         * which picks a free port.
+         */
+        public Builder port(int port) {
+            this.address = new InetSocketAddress(InetAddress.getLoopbackAddress(), port);
+            return this;
+        }
+
+        /**
+         * Listens on the given address instead of loopback.
+         */
+        public Builder address(InetSocketAddress address) {
+            if (address == null) {
+                throw new IllegalArgumentException("Address cannot be null");
+            }
+            this.address = address;
+            return this;
+        }
+
+        /**
+         * Sets the maximum number of queued incoming connections; 0 uses the
+         * system default.
+         */
+        public Builder backlog(int backlog) {
+            this.backlog = backlog;
+            return this;
+        }
+
+        /**
+         * Adds a delay drawn from the distribution before each response.
+         */
+        public Builder latency(Latency latency) {
+            if (latency == null) {
+                throw new IllegalArgumentException("Latency cannot be null");
+            }
+            this.latency = latency;
+            return this;
+        }
+
+        /**
+         * Answers the given fraction of authenticated sends with 429 and a
+         * {@code Retry-After} header, rounded up to whole seconds.
+         */
+        public Builder rateLimit(double probability, Duration retryAfter) {
+            if (retryAfter == null || retryAfter.isNegative()) {
+                throw new IllegalArgumentException("Retry-After cannot be negative");
+            }
+            this.rateLimitProbability = probability(probability);
+            this.retryAfter = retryAfter;
+            return this;
+        }
+
+        /**
+         * Answers the given fraction of authenticated sends with a 5xx status.
+         */
+        public Builder serverErrors(double probability, int status) {
+            if (status < 500 || status > 599) {
+                throw new IllegalArgumentException("Server error status must be 5xx");
+            }
+            this.serverErrorProbability = probability(probability);
+            this.serverErrorStatus = status;
+            return this;
+        }
+
+        /**
+         * Writes the given fraction of response bodies at a limited rate, in
+         * ten slices a second, to exercise client read timeouts.
+         */
+        public Builder slowResponses(double probability, int bytesPerSecond) {
+            if (bytesPerSecond <= 0) {
+                throw new IllegalArgumentException("Bytes per second must be positive");
+            }
+            this.slowBodyProbability = probability(probability);
+            this.slowBodyBytesPerSecond = bytesPerSecond;
+            return this;
+        }
+
+        /**
+         * Resets the connection instead of answering the given fraction of
+         * requests, after the request has been read.
+         */
+        public Builder connectionResets(double probability) {
+            this.resetProbability = probability(probability);
+            return this;
+        }
+
+        /**
+         * Sets how many of the latest requests {@link #requests()} keeps;
+         * 0 records none. Defaults to 1000.
+         */
+        public Builder maxRecorded(int maxRecorded) {
+            if (maxRecorded < 0) {
+                throw new IllegalArgumentException("Max recorded cannot be negative");
+            }
+            this.maxRecorded = maxRecorded;
+            return this;
+        }
+
+        /**
+         * Sets the largest accepted request body. Defaults to 50 MB.
+         */
+        public Builder maxBodyBytes(int maxBodyBytes) {
+            if (maxBodyBytes <= 0) {
+                throw new IllegalArgumentException("Max body size must be positive");
+            }
+            this.maxBodyBytes = maxBodyBytes;
+            return this;
+        }
+
+        /**
+         * Seeds the random faults and latencies, so that the requests on each
+         * connection, in order, see the same outcomes every run.
+         */
+        public Builder seed(long seed) {
+            this.seed = seed;
+            return this;
+        }
+
+        /**
+         * Binds the server; call {@link FakeLanefulServer#start()} to begin
+         * answering.
+         *
+         * @throws IOException When the address cannot be bound
+         */
+        public FakeLanefulServer build() throws IOException {
+            return new FakeLanefulServer(this);
+        }
+
+        private static double probability(double probability) {
+            if (!(probability >= 0 && probability <= 1)) {
+                throw new IllegalArgumentException("Probability must be between 0 and 1");
+            }
+            return probability;
+        }
+    }
+}
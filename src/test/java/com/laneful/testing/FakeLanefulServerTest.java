@@ -0,0 +1,226 @@
+package com.laneful.testing;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.laneful.webhooks.WebhookEvent;
+import com.laneful.webhooks.WebhookReceiver;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class FakeLanefulServerTest {
+
+    private static final String TOKEN = "test-token";
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+    private static final String VALID = "{\"emails\":[{\"from\":{\"email\":\"sender@example.com\"},"
+        + "\"to\":[{\"email\":\"user@example.com\",\"name\":\"User\"}],"
+        + "\"subject\":\"Hello\",\"text_content\":\"Hi\"},"
+        + "{\"from\":{\"email\":\"sender@example.com\"},\"bcc\":[{\"email\":\"other@example.com\"}],"
+        + "\"template_id\":\"welcome\"}]}";
+
+    private final HttpClient client = HttpClient.newHttpClient();
+    private FakeLanefulServer server;
+
+    @AfterEach
+    void tearDown() {
+        if (server != null) {
+            server.close();
+        }
+    }
+
+    private FakeLanefulServer start(FakeLanefulServer.Builder builder) throws IOException {
+        server = builder.build();
+        server.start();
+        return server;
+    }
+
+    private HttpResponse<String> send(String token, String body) throws Exception {
+        HttpRequest.Builder request = HttpRequest.newBuilder(URI.create(server.baseUrl() + FakeLanefulServer.SEND_PATH))
+            .header("Content-Type", "application/json")
+            .POST(HttpRequest.BodyPublishers.ofString(body));
+        if (token != null) {
+            request.header("Authorization", "Bearer " + token);
+        }
+        return client.send(request.build(), HttpResponse.BodyHandlers.ofString());
+    }
+
+    @Test
+    void testAcceptsValidSendAndRecordsIt() throws Exception {
+        start(new FakeLanefulServer.Builder(TOKEN));
+
+        HttpResponse<String> response = send(TOKEN, VALID);
+
+        assertEquals(200, response.statusCode());
+        JsonNode body = MAPPER.readTree(response.body());
+        assertEquals("accepted", body.get("status").asText());
+        assertEquals(2, body.get("message_ids").size());
+
+        List<RecordedRequest> requests = server.requests();
+        assertEquals(1, requests.size());
+        RecordedRequest recorded = requests.get(0);
+        assertEquals("POST", recorded.method());
+        assertEquals(FakeLanefulServer.SEND_PATH, recorded.path());
+        assertEquals("Bearer " + TOKEN, recorded.header("Authorization"));
+        assertEquals(VALID, recorded.bodyText());
+        assertEquals(200, recorded.status());
+        assertEquals(1, server.stats().accepted());
+        assertEquals(2, server.stats().emails());
+    }
+
+    @Test
+    void testRejectsMissingOrWrongToken() throws Exception {
+        start(new FakeLanefulServer.Builder(TOKEN));
+
+        assertEquals(401, send(null, VALID).statusCode());
+        HttpResponse<String> response = send("wrong", VALID);
+
+        assertEquals(401, response.statusCode());
+        assertEquals("Unauthorized", MAPPER.readTree(response.body()).get("error").asText());
+        assertEquals(2, server.stats().unauthorized());
+    }
+
+    @Test
+    void testRejectsInvalidShapes() throws Exception {
+        start(new FakeLanefulServer.Builder(TOKEN));
+
+        HttpResponse<String> response = send(TOKEN,
+            "{\"emails\":[{\"from\":{\"email\":\"sender@example.com\"},\"subject\":\"Hi\",\"text_content\":\"x\"}]}");
+
+        assertEquals(400, response.statusCode());
+        assertEquals("emails[0] needs at least one recipient",
+            MAPPER.readTree(response.body()).get("details").asText());
+        assertEquals(400, send(TOKEN, "{\"emails\":[]}").statusCode());
+        assertEquals(400, send(TOKEN, "not json").statusCode());
+        assertEquals(3, server.stats().invalid());
+    }
+
+    @Test
+    void testValidatesEachEmail() throws Exception {
+        assertNull(FakeLanefulServer.validate(MAPPER.readTree(VALID)));
+        assertEquals("emails[0].from.email must be an email address", FakeLanefulServer.validate(MAPPER.readTree(
+            "{\"emails\":[{\"from\":{\"email\":\"nope\"},\"to\":[{\"email\":\"a@b.co\"}],\"template_id\":\"t\"}]}")));
+        assertEquals("emails[0].subject is required without a template_id", FakeLanefulServer.validate(MAPPER.readTree(
+            "{\"emails\":[{\"from\":{\"email\":\"s@b.co\"},\"to\":[{\"email\":\"a@b.co\"}],\"text_content\":\"x\"}]}")));
+        assertEquals("emails[0].attachments[0] needs file_name and content", FakeLanefulServer.validate(MAPPER.readTree(
+            "{\"emails\":[{\"from\":{\"email\":\"s@b.co\"},\"to\":[{\"email\":\"a@b.co\"}],\"template_id\":\"t\","
+                + "\"attachments\":[{\"file_name\":\"a.txt\"}]}]}")));
+    }
+
+    @Test
+    void testReadsChunkedBodies() throws Exception {
+        start(new FakeLanefulServer.Builder(TOKEN));
+        HttpRequest request = HttpRequest.newBuilder(URI.create(server.baseUrl() + FakeLanefulServer.SEND_PATH))
+            .header("Content-Type", "application/json")
+            .header("Authorization", "Bearer " + TOKEN)
+            .POST(HttpRequest.BodyPublishers.ofInputStream(
+                () -> new ByteArrayInputStream(VALID.getBytes(StandardCharsets.UTF_8))))
+            .build();
+
+        HttpResponse<String> response = client.send(request, HttpResponse.BodyHandlers.ofString());
+
+        assertEquals(200, response.statusCode());
+        assertEquals(VALID, server.requests().get(0).bodyText());
+    }
+
+    @Test
+    void testInjectsRateLimitsAndServerErrors() throws Exception {
+        start(new FakeLanefulServer.Builder(TOKEN).rateLimit(1.0, Duration.ofMillis(1500)));
+
+        HttpResponse<String> limited = send(TOKEN, VALID);
+
+        assertEquals(429, limited.statusCode());
+        assertEquals("2", limited.headers().firstValue("Retry-After").orElse(null));
+        server.close();
+
+        start(new FakeLanefulServer.Builder(TOKEN).serverErrors(1.0, 502));
+        assertEquals(502, send(TOKEN, VALID).statusCode());
+        assertEquals(401, send("wrong", VALID).statusCode(), "auth is checked before injected errors");
+        assertEquals(1, server.stats().serverErrors());
+    }
+
+    @Test
+    void testResetsConnections() throws Exception {
+        start(new FakeLanefulServer.Builder(TOKEN).connectionResets(1.0));
+
+        assertThrows(IOException.class, () -> send(TOKEN, VALID));
+        assertEquals(0, server.requests().get(0).status());
+        assertTrue(server.stats().resets() >= 1);
+        assertEquals(0, server.stats().accepted());
+    }
+
+    @Test
+    void testAddsLatencyAndSlowBodies() throws Exception {
+        start(new FakeLanefulServer.Builder(TOKEN)
+            .latency(Latency.fixed(Duration.ofMillis(100)))
+            .slowResponses(1.0, 200));
+
+        long start = System.nanoTime();
+        HttpResponse<String> response = send(TOKEN, VALID);
+        long elapsedMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+
+        assertEquals(200, response.statusCode());
+        // 100ms of latency, then a body of about 60 bytes at 20 bytes per 100ms
+        assertTrue(elapsedMillis >= 350, "took " + elapsedMillis + "ms");
+        assertEquals(1, server.stats().slowBodies());
+    }
+
+    @Test
+    void testAnswersUnknownPathsWith404() throws Exception {
+        start(new FakeLanefulServer.Builder(TOKEN));
+        HttpRequest request = HttpRequest.newBuilder(URI.create(server.baseUrl() + "/v1/other")).GET().build();
+
+        assertEquals(404, client.send(request, HttpResponse.BodyHandlers.ofString()).statusCode());
+    }
+
+    @Test
+    void testKeepsOnlyLatestRequests() throws Exception {
+        start(new FakeLanefulServer.Builder(TOKEN).maxRecorded(2));
+
+        for (int i = 0; i < 5; i++) {
+            send(TOKEN, VALID);
+        }
+
+        assertEquals(2, server.requests().size());
+        assertEquals(5, server.stats().requests());
+        server.clearRequests();
+        assertTrue(server.requests().isEmpty());
+    }
+
+    @Test
+    void testFiresSignedBatchesAtReceiver() throws Exception {
+        BlockingQueue<WebhookEvent> received = new LinkedBlockingQueue<>();
+        try (WebhookReceiver receiver = new WebhookReceiver.Builder("webhook-secret")
+                .port(0)
+                .handler(received::add)
+                .build()) {
+            receiver.start();
+            WebhookFirer firer = new WebhookFirer.Builder(
+                URI.create("http://localhost:" + receiver.port() + "/webhooks"), "webhook-secret")
+                .seed(7)
+                .build();
+
+            assertEquals(200, firer.fire(25));
+            for (int i = 0; i < 25; i++) {
+                assertNotNull(received.poll(5, TimeUnit.SECONDS));
+            }
+
+            WebhookFirer wrongSecret = new WebhookFirer.Builder(
+                URI.create("http://localhost:" + receiver.port() + "/webhooks"), "other-secret").build();
+            assertEquals(401, wrongSecret.fire(1));
+        }
+    }
+}
@@ -0,0 +1,75 @@
+package com.laneful.testing;
+
+import java.time.Duration;
+import java.util.random.RandomGenerator;
+
+/**
+ * Distribution of the delay {@link FakeLanefulServer} adds before answering
+ * a request.
+ */
+@FunctionalInterface
+public interface Latency {
+
+    /**
+     * No added delay.
+     */
+    Latency NONE = random -> 0;
+
+    /**
+     * Draws the delay for one request.
+     *
+     * @param random Source of randomness, seeded from the server's builder
+     * @return Delay in nanoseconds
+     */
+    long sampleNanos(RandomGenerator random);
+
+    /**
+     * The same delay for every request.
+     */
+    static Latency fixed(Duration delay) {
+        long nanos = nonNegative(delay);
+        return random -> nanos;
+    }
+
+    /**
+     * Delays spread evenly between two bounds.
+     */
+    static Latency uniform(Duration min, Duration max) {
+        long low = nonNegative(min);
+        long high = nonNegative(max);
+        if (high < low) {
+            throw new IllegalArgumentException("Max latency cannot be below min latency");
+        }
+        return random -> low == high ? low : random.nextLong(low, high + 1);
+    }
+
+    /**
+     * Delays with the given mean where most requests are quick and a few
+     * are much slower, as with queueing.
+     */
+    static Latency exponential(Duration mean) {
+        double nanos = nonNegative(mean);
+        return random -> (long) (random.nextExponential() * nanos);
+    }
+
+    /**
+     * Log-normal delays, which match measured service latencies well: most
+     * requests take about the median, with a long tail whose weight grows
+     * with {@code sigma}. A sigma of 0.5 puts p99 at about 3.2 times the
+     * median.
+     */
+    static Latency logNormal(Duration median, double sigma) {
+        double mu = Math.log(Math.max(1, nonNegative(median)));
+        if (!(sigma >= 0)) {
+            throw new IllegalArgumentException("Sigma cannot be negative");
+        }
+        return random -> (long) Math.exp(mu + sigma * random.nextGaussian());
+    }
+
+    private static long nonNegative(Duration duration) {
+        if (duration == null || duration.isNegative()) {
+            throw new IllegalArgumentException("Latency must be zero or positive");
+        }
+        return duration.toNanos();
+    }
+}
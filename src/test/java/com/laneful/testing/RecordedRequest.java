@@ -0,0 +1,31 @@
+package com.laneful.testing;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * A request received by {@link FakeLanefulServer} and how it was answered.
+ *
+ * @param method HTTP method
+ * @param path Request path, without the query string
+ * @param headers Request headers, with lower-case names; repeated headers keep the last value
+ * @param body Request body, with any chunked transfer encoding removed
+ * @param status Response status, or 0 if the connection was reset instead
+ */
+public record RecordedRequest(String method, String path, Map<String, String> headers, byte[] body, int status) {
+
+    /**
+     * Returns a header value by case-insensitive name, or null.
+     */
+    public String header(String name) {
+        return headers.get(name.toLowerCase(Locale.ROOT));
+    }
+
+    /**
+     * The body decoded as UTF-8.
+     */
+    public String bodyText() {
+        return new String(body, StandardCharsets.UTF_8);
+    }
+}
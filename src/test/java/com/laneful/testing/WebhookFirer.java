@@ -0,0 +1,208 @@
+package com.laneful.testing;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.laneful.webhooks.WebhookEventType;
+import com.laneful.webhooks.WebhookVerifier;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.SplittableRandom;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Builds synthetic webhook batches, signs them as Laneful does and posts
+ * them to a receiver, for exercising webhook endpoints without sending real
+ * email.
+ *
+ * <pre>{@code
+ * WebhookFirer firer = new WebhookFirer.Builder(URI.create("http://localhost:8080/webhooks"), "your-webhook-secret")
+ *     .build();
+ * int status = firer.fire(100);
+ * }</pre>
+ *
+ * <p>Events get unique message IDs, current timestamps and a random type,
+ * with the type-specific fields each type carries. Instances are
+ * thread-safe.
+ */
+public final class WebhookFirer {
+
+    private static final ObjectMapper OBJECT_MAPPER = new ObjectMapper();
+    private static final WebhookEventType[] TYPES = WebhookEventType.values();
+
+    private final URI target;
+    private final WebhookVerifier verifier;
+    private final List<WebhookEventType> types;
+    private final HttpClient httpClient;
+    private final Duration timeout;
+    private final SplittableRandom seeds;
+    private final AtomicLong sequence = new AtomicLong();
+    private final String laneId = UUID.randomUUID().toString();
+
+    private WebhookFirer(Builder builder) {
+        this.target = builder.target;
+        this.verifier = WebhookVerifier.forSecret(builder.secret);
+        this.types = List.copyOf(builder.types);
+        this.timeout = builder.timeout;
+        this.httpClient = HttpClient.newBuilder().connectTimeout(builder.timeout).build();
+        this.seeds = builder.seed == null ? new SplittableRandom() : new SplittableRandom(builder.seed);
+    }
+
+    /**
+     * Builds, signs and posts a batch of synthetic events.
+     *
+     * @param events Number of events in the batch
+     * @return The receiver's response status
+     * @throws IOException When the request fails
+     * @throws InterruptedException When interrupted while waiting for the response
+     */
+    public int fire(int events) throws IOException, InterruptedException {
+        return post(batch(events));
+    }
+
+    /**
+     * Signs and posts a payload as-is, for sending hand-written or
+     * deliberately malformed batches.
+     *
+     * @param payload Raw request body
+     * @return The receiver's response status
+     * @throws IOException When the request fails
+     * @throws InterruptedException When interrupted while waiting for the response
+     */
+    public int post(byte[] payload) throws IOException, InterruptedException {
+        HttpRequest request = HttpRequest.newBuilder(target)
+            .timeout(timeout)
+            .header("Content-Type", "application/json")
+            .header(WebhookVerifier.getSignatureHeaderName(), verifier.sign(payload))
+            .POST(HttpRequest.BodyPublishers.ofByteArray(payload))
+            .build();
+        return httpClient.send(request, HttpResponse.BodyHandlers.discarding()).statusCode();
+    }
+
+    /**
+     * Builds a batch of synthetic events as a JSON array, without sending it.
+     *
+     * @param events Number of events in the batch
+     * @return UTF-8 JSON bytes
+     */
+    public byte[] batch(int events) {
+        if (events <= 0) {
+            throw new IllegalArgumentException("Batch must contain at least one event");
+        }
+        SplittableRandom random;
+        synchronized (seeds) {
+            random = seeds.split();
+        }
+        long now = System.currentTimeMillis() / 1000;
+        List<Map<String, Object>> batch = new ArrayList<>(events);
+        for (int i = 0; i < events; i++) {
+            batch.add(event(types.get(random.nextInt(types.size())), sequence.incrementAndGet(), now, random));
+        }
+        try {
+            return OBJECT_MAPPER.writeValueAsBytes(batch);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Failed to encode webhook batch", e);
+        }
+    }
+
+    private Map<String, Object> event(WebhookEventType type, long seq, long timestamp, SplittableRandom random) {
+        Map<String, Object> event = new LinkedHashMap<>();
+        event.put("event", type.value());
+        event.put("email", "recipient" + seq + "@example.com");
+        event.put("lane_id", laneId);
+        event.put("message_id", "H-synthetic-" + seq);
+        event.put("timestamp", timestamp);
+        event.put("tag", "synthetic");
+        event.put("metadata", Map.of("sequence", seq));
+        switch (type) {
+            case OPEN, CLICK -> {
+                if (type == WebhookEventType.CLICK) {
+                    event.put("url", "https://example.com/link/" + random.nextInt(10));
+                }
+                event.put("client_device", random.nextBoolean() ? "Desktop" : "Mobile");
+                event.put("client_os", random.nextBoolean() ? "macOS" : "Android");
+                event.put("client_ip", "192.0.2." + (1 + random.nextInt(254)));
+            }
+            case BOUNCE -> {
+                boolean hard = random.nextBoolean();
+                event.put("is_hard", hard);
+                event.put("text", hard ? "550 5.1.1 User unknown" : "452 4.2.2 Mailbox full");
+                event.put("reason", hard ? "invalid_recipient" : "mailbox_full");
+            }
+            case DROP -> event.put("reason", "Recipient is suppressed");
+            case UNSUBSCRIBE -> event.put("unsubscribe_group_id", random.nextBoolean() ? null : "newsletter");
+            default -> { }
+        }
+        return event;
+    }
+
+    /**
+     * Builder for creating WebhookFirer instances.
+     */
+    public static class Builder {
+        private final URI target;
+        private final String secret;
+        private List<WebhookEventType> types = List.of(TYPES);
+        private Duration timeout = Duration.ofSeconds(10);
+        private Long seed;
+
+        /**
+         * Creates a builder for posting to the given URL, signed with the
+         * given webhook secret.
+         */
+        public Builder(URI target, String secret) {
+            if (target == null || !("http".equals(target.getScheme()) || "https".equals(target.getScheme()))) {
+                throw new IllegalArgumentException("Target must be an http or https URL");
+            }
+            if (secret == null || secret.trim().isEmpty()) {
+                throw new IllegalArgumentException("Secret cannot be empty");
+            }
+            this.target = target;
+            this.secret = secret;
+        }
+
+        /**
+         * Limits batches to the given event types. Defaults to all types.
+         */
+        public Builder types(WebhookEventType... types) {
+            if (types == null || types.length == 0) {
+                throw new IllegalArgumentException("At least one event type is required");
+            }
+            this.types = List.of(types);
+            return this;
+        }
+
+        /**
+         * Sets the connect and response timeout. Defaults to 10 seconds.
+         */
+        public Builder timeout(Duration timeout) {
+            if (timeout == null || timeout.isNegative() || timeout.isZero()) {
+                throw new IllegalArgumentException("Timeout must be positive");
+            }
+            this.timeout = timeout;
+            return this;
+        }
+
+        /**
+         * Seeds the choice of event types and fields, so the batches are the
+         * same every run apart from IDs and timestamps.
+         */
+        public Builder seed(long seed) {
+            this.seed = seed;
+            return this;
+        }
+
+        public WebhookFirer build() {
+            return new WebhookFirer(this);
+        }
+    }
+}
@@ -0,0 +1,182 @@
+package com.laneful.webhooks;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class EventAggregatorTest {
+
+    private static final UUID LANE = UUID.fromString("5805dd85-ed8c-44db-91a7-1d53a41c86a5");
+    private static final Duration MINUTE = Duration.ofMinutes(1);
+    private static final Duration HOUR = Duration.ofHours(1);
+
+    private static final class MutableClock extends Clock {
+        private Instant instant = Instant.ofEpochSecond(1_753_502_400L);
+
+        void advance(Duration duration) {
+            instant = instant.plus(duration);
+        }
+
+        @Override public ZoneId getZone() { return ZoneOffset.UTC; }
+        @Override public Clock withZone(ZoneId zone) { return this; }
+        @Override public Instant instant() { return instant; }
+    }
+
+    private final MutableClock clock = new MutableClock();
+
+    private EventAggregator aggregator() {
+        return new EventAggregator.Builder()
+            .windows(MINUTE, HOUR)
+            .bucketsPerWindow(6)
+            .clock(clock)
+            .build();
+    }
+
+    private static WebhookEvent delivery(String tag, UUID laneId) {
+        return new DeliveryEvent("user@example.com", laneId, "m", 0, tag, Map.of());
+    }
+
+    private static WebhookEvent bounce(String tag) {
+        return new BounceEvent("user@example.com", LANE, "m", 0, tag, Map.of(), true, null, null);
+    }
+
+    private static WebhookEvent complaint(String tag) {
+        return new SpamComplaintEvent("user@example.com", LANE, "m", 0, tag, Map.of());
+    }
+
+    @Test
+    void testCountsByTypeTagAndLane() {
+        EventAggregator aggregator = aggregator();
+        for (int i = 0; i < 8; i++) {
+            aggregator.accept(delivery("news", LANE));
+        }
+        aggregator.accept(bounce("news"));
+        aggregator.accept(bounce("news"));
+        aggregator.accept(complaint("promo"));
+        aggregator.accept(delivery(null, null));
+
+        EventAggregator.Snapshot news = aggregator.byTag("news", MINUTE);
+        assertEquals(8, news.delivered());
+        assertEquals(2, news.bounced());
+        assertEquals(0.8, news.deliveryRate(), 1e-9);
+        assertEquals(0.2, news.bounceRate(), 1e-9);
+        assertEquals(1, aggregator.byTag("promo", HOUR).count(WebhookEventType.SPAM_COMPLAINT));
+        EventAggregator.Snapshot lane = aggregator.byLane(LANE, MINUTE);
+        assertEquals(10, lane.attempted());
+        assertEquals(1, lane.spamComplaints());
+        assertEquals(9, aggregator.total(MINUTE).delivered());
+        assertEquals(Map.of("news", news, "promo", aggregator.byTag("promo", MINUTE)), aggregator.tags(MINUTE));
+        assertEquals(1, aggregator.lanes(HOUR).size());
+    }
+
+    @Test
+    void testEventsSlideOutOfWindows() {
+        EventAggregator aggregator = aggregator();
+        aggregator.accept(delivery("news", LANE));
+
+        clock.advance(Duration.ofSeconds(30));
+        aggregator.accept(delivery("news", LANE));
+        assertEquals(2, aggregator.total(MINUTE).delivered());
+
+        clock.advance(Duration.ofSeconds(40));
+        assertEquals(1, aggregator.total(MINUTE).delivered());
+        assertEquals(2, aggregator.total(HOUR).delivered());
+
+        clock.advance(Duration.ofMinutes(1));
+        assertEquals(0, aggregator.byTag("news", MINUTE).delivered());
+        assertEquals(2, aggregator.byTag("news", HOUR).delivered());
+
+        clock.advance(HOUR);
+        aggregator.accept(bounce("news"));
+        EventAggregator.Snapshot lastHour = aggregator.total(HOUR);
+        assertEquals(0, lastHour.delivered());
+        assertEquals(1, lastHour.bounced());
+    }
+
+    @Test
+    void testUnknownKeysAndWindows() {
+        EventAggregator aggregator = aggregator();
+        EventAggregator.Snapshot empty = aggregator.byTag("missing", MINUTE);
+        assertEquals(0, empty.attempted());
+        assertEquals(0.0, empty.bounceRate());
+        assertEquals(MINUTE, empty.window());
+        assertThrows(IllegalArgumentException.class, () -> aggregator.total(Duration.ofMinutes(5)));
+    }
+
+    @Test
+    void testLimitsTrackedKeys() {
+        EventAggregator aggregator = new EventAggregator.Builder().maxKeys(2).clock(clock).build();
+        aggregator.accept(delivery("a", null));
+        aggregator.accept(delivery("b", null));
+        aggregator.accept(delivery("c", null));
+        aggregator.accept(delivery("a", null));
+
+        assertEquals(2, aggregator.stats().tags());
+        assertEquals(1, aggregator.stats().overflows());
+        assertEquals(4, aggregator.total(Duration.ofMinutes(5)).delivered());
+        assertEquals(2, aggregator.byTag("a", Duration.ofMinutes(5)).delivered());
+    }
+
+    @Test
+    void testDropsKeysOnceIdleInEveryWindow() {
+        EventAggregator aggregator = new EventAggregator.Builder()
+            .windows(MINUTE, HOUR)
+            .bucketsPerWindow(6)
+            .maxKeys(2)
+            .clock(clock)
+            .build();
+        aggregator.accept(delivery("a", null));
+        aggregator.accept(delivery("b", null));
+
+        // Out of the minute window but still within the hour
+        clock.advance(Duration.ofMinutes(30));
+        aggregator.accept(delivery("c", null));
+        assertEquals(1, aggregator.stats().overflows());
+        assertEquals(Map.of("a", 0L, "b", 0L), counts(aggregator.tags(MINUTE)));
+
+        clock.advance(Duration.ofMinutes(31));
+        aggregator.accept(delivery("c", null));
+        aggregator.accept(delivery("d", null));
+
+        assertEquals(1, aggregator.stats().overflows());
+        assertEquals(Map.of("c", 1L, "d", 1L), counts(aggregator.tags(HOUR)));
+
+        clock.advance(Duration.ofHours(2));
+        assertTrue(aggregator.tags(HOUR).isEmpty());
+        assertEquals(0, aggregator.stats().tags());
+    }
+
+    private static Map<String, Long> counts(Map<String, EventAggregator.Snapshot> snapshots) {
+        Map<String, Long> counts = new java.util.HashMap<>();
+        snapshots.forEach((tag, snapshot) -> counts.put(tag, snapshot.delivered()));
+        return counts;
+    }
+
+    @Test
+    void testConcurrentRecording() throws Exception {
+        EventAggregator aggregator = new EventAggregator.Builder().build();
+        List<Thread> threads = new ArrayList<>();
+        for (int t = 0; t < 8; t++) {
+            threads.add(Thread.ofPlatform().start(() -> {
+                for (int i = 0; i < 10_000; i++) {
+                    aggregator.accept(delivery("tag-" + (i % 4), LANE));
+                }
+            }));
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        assertEquals(80_000, aggregator.total(Duration.ofHours(1)).delivered());
+        assertEquals(4, aggregator.tags(Duration.ofMinutes(1)).size());
+    }
+}
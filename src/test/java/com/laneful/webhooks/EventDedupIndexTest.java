@@ -0,0 +1,134 @@
+package com.laneful.webhooks;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.Map;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class EventDedupIndexTest {
+
+    private static final class MutableClock extends Clock {
+        private Instant instant = Instant.parse("2030-01-01T00:00:00Z");
+
+        void advance(Duration duration) {
+            instant = instant.plus(duration);
+        }
+
+        @Override public ZoneId getZone() { return ZoneOffset.UTC; }
+        @Override public Clock withZone(ZoneId zone) { return this; }
+        @Override public Instant instant() { return instant; }
+    }
+
+    @TempDir
+    Path dir;
+
+    private final MutableClock clock = new MutableClock();
+
+    private EventDedupIndex.Builder builder() {
+        return new EventDedupIndex.Builder(dir.resolve("dedup.idx"))
+            .capacity(1_000)
+            .retention(Duration.ofHours(3))
+            .generations(4)
+            .clock(clock);
+    }
+
+    private static WebhookEvent delivery(String messageId) {
+        return new DeliveryEvent("user@example.com", UUID.randomUUID(), messageId, 1L, null, Map.of());
+    }
+
+    @Test
+    void testMarksDuplicates() throws IOException {
+        try (EventDedupIndex index = builder().open()) {
+            assertTrue(index.markIfAbsent(delivery("m-1")));
+            assertFalse(index.markIfAbsent(delivery("m-1")));
+            assertTrue(index.markIfAbsent("m-1", WebhookEventType.OPEN));
+            assertTrue(index.contains(delivery("m-1")));
+            assertFalse(index.contains(delivery("m-2")));
+            assertEquals(2, index.stats().entries());
+        }
+    }
+
+    @Test
+    void testSurvivesReopen() throws IOException {
+        try (EventDedupIndex index = builder().open()) {
+            for (int i = 0; i < 500; i++) {
+                index.markIfAbsent(delivery("m-" + i));
+            }
+            index.force();
+        }
+
+        clock.advance(Duration.ofHours(2));
+        try (EventDedupIndex index = builder().open()) {
+            for (int i = 0; i < 500; i++) {
+                assertFalse(index.markIfAbsent(delivery("m-" + i)), "m-" + i);
+            }
+            assertTrue(index.markIfAbsent(delivery("m-500")));
+        }
+    }
+
+    @Test
+    void testExpiresOldGenerations() throws IOException {
+        try (EventDedupIndex index = builder().open()) {
+            index.markIfAbsent(delivery("old"));
+
+            clock.advance(Duration.ofHours(3));
+            assertTrue(index.contains(delivery("old")));
+
+            clock.advance(Duration.ofHours(1).plusMinutes(1));
+            assertFalse(index.contains(delivery("old")));
+            assertTrue(index.markIfAbsent(delivery("old")));
+        }
+    }
+
+    @Test
+    void testFullGenerationFailsOpen() throws IOException {
+        try (EventDedupIndex index = builder().capacity(4).open()) {
+            for (int i = 0; i < 6; i++) {
+                assertTrue(index.markIfAbsent(delivery("m-" + i)));
+            }
+            assertEquals(new EventDedupIndex.Stats(4, 2), index.stats());
+        }
+    }
+
+    @Test
+    void testRejectsMismatchedOrForeignFiles() throws IOException {
+        builder().open().close();
+        assertThrows(IOException.class, () -> builder().capacity(100_000).open());
+
+        Path foreign = dir.resolve("foreign.idx");
+        Files.write(foreign, new byte[] {1, 2, 3, 4});
+        assertThrows(IOException.class, () -> new EventDedupIndex.Builder(foreign).open());
+    }
+
+    @Test
+    void testSingleOpener() throws IOException {
+        try (EventDedupIndex index = builder().open()) {
+            assertThrows(IOException.class, () -> {
+                // Closed if it unexpectedly opens, so the failure does not leak it
+                try (EventDedupIndex second = builder().open()) {
+                    assertNotNull(second);
+                }
+            });
+            assertTrue(index.markIfAbsent(delivery("m")));
+        }
+    }
+
+    @Test
+    void testClosedIndex() throws IOException {
+        EventDedupIndex index = builder().open();
+        index.close();
+
+        assertThrows(IllegalStateException.class, () -> index.markIfAbsent(delivery("m")));
+    }
+}
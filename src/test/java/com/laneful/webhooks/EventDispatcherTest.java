@@ -0,0 +1,204 @@
+package com.laneful.webhooks;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class EventDispatcherTest {
+
+    private static DeliveryEvent delivery(String messageId) {
+        return new DeliveryEvent("user@example.com", null, messageId, 1, null, Map.of());
+    }
+
+    private static OpenEvent open(String messageId) {
+        return new OpenEvent("user@example.com", null, messageId, 2, null, Map.of(), null, null, null);
+    }
+
+    private static ClickEvent click(String messageId) {
+        return new ClickEvent("user@example.com", null, messageId, 3, null, Map.of(),
+            "https://example.com", null, null, null);
+    }
+
+    @Test
+    void testKeepsEventsForSameMessageInOrder() {
+        Map<String, List<WebhookEventType>> seen = new ConcurrentHashMap<>();
+        try (EventDispatcher dispatcher = new EventDispatcher.Builder()
+                .partitions(4)
+                .queueCapacity(10_000)
+                .onAny(event -> seen.computeIfAbsent(event.messageId(),
+                    id -> Collections.synchronizedList(new ArrayList<>())).add(event.type()))
+                .build()) {
+            for (int i = 0; i < 500; i++) {
+                String id = "m-" + i;
+                assertTrue(dispatcher.offerAll(List.of(delivery(id), open(id), click(id)), e -> true));
+            }
+        }
+
+        assertEquals(500, seen.size());
+        for (List<WebhookEventType> types : seen.values()) {
+            assertEquals(List.of(WebhookEventType.DELIVERY, WebhookEventType.OPEN, WebhookEventType.CLICK), types);
+        }
+    }
+
+    @Test
+    void testRunsDifferentMessagesInParallel() throws Exception {
+        CountDownLatch bothRunning = new CountDownLatch(2);
+        AtomicInteger overlapped = new AtomicInteger();
+        try (EventDispatcher dispatcher = new EventDispatcher.Builder()
+                .partitions(64)
+                .onAny(event -> {
+                    bothRunning.countDown();
+                    try {
+                        if (bothRunning.await(5, TimeUnit.SECONDS)) {
+                            overlapped.incrementAndGet();
+                        }
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                    }
+                })
+                .build()) {
+            // Find two messages that land on different partitions
+            String first = "m-0";
+            String second = null;
+            for (int i = 1; second == null; i++) {
+                if (EventDispatcher.partition("m-" + i, 64) != EventDispatcher.partition(first, 64)) {
+                    second = "m-" + i;
+                }
+            }
+            assertTrue(dispatcher.offer(delivery(first)));
+            assertTrue(dispatcher.offer(delivery(second)));
+            assertTrue(bothRunning.await(5, TimeUnit.SECONDS));
+        }
+        assertEquals(2, overlapped.get());
+    }
+
+    @Test
+    void testShedsWholeBatchWhenPartitionIsFull() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        List<String> handled = Collections.synchronizedList(new ArrayList<>());
+        try (EventDispatcher dispatcher = new EventDispatcher.Builder()
+                .partitions(1)
+                .queueCapacity(2)
+                .onAny(event -> {
+                    try {
+                        release.await(5, TimeUnit.SECONDS);
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                    }
+                    handled.add(event.messageId());
+                })
+                .build()) {
+            assertTrue(dispatcher.offer(delivery("a")));
+            assertTrue(dispatcher.offer(delivery("b")));
+
+            AtomicInteger filtered = new AtomicInteger();
+            assertFalse(dispatcher.offerAll(List.of(delivery("c")), e -> filtered.incrementAndGet() > 0));
+            assertEquals(0, filtered.get());
+            assertEquals(1, dispatcher.stats().rejected());
+
+            release.countDown();
+        }
+        assertEquals(List.of("a", "b"), handled);
+    }
+
+    @Test
+    void testFilterReleasesSpaceForSkippedEvents() {
+        List<String> handled = Collections.synchronizedList(new ArrayList<>());
+        try (EventDispatcher dispatcher = new EventDispatcher.Builder()
+                .partitions(1)
+                .queueCapacity(2)
+                .onAny(event -> handled.add(event.messageId()))
+                .build()) {
+            for (int i = 0; i < 100; i++) {
+                List<WebhookEvent> batch = List.of(delivery("keep-" + i), delivery("skip-" + i));
+                while (!dispatcher.offerAll(batch, e -> e.messageId().startsWith("keep"))) {
+                    Thread.onSpinWait();
+                }
+            }
+        }
+        assertEquals(100, handled.size());
+        assertTrue(handled.stream().allMatch(id -> id.startsWith("keep")));
+    }
+
+    @Test
+    void testRoutesByEventType() {
+        List<WebhookEvent> clicks = Collections.synchronizedList(new ArrayList<>());
+        List<WebhookEvent> all = Collections.synchronizedList(new ArrayList<>());
+        try (EventDispatcher dispatcher = new EventDispatcher.Builder()
+                .partitions(2)
+                .on(ClickEvent.class, clicks::add)
+                .onAny(all::add)
+                .build()) {
+            dispatcher.offerAll(List.of(delivery("m"), open("m"), click("m")), e -> true);
+        }
+        assertEquals(1, clicks.size());
+        assertInstanceOf(ClickEvent.class, clicks.get(0));
+        assertEquals(3, all.size());
+    }
+
+    @Test
+    void testHandlerErrorsAreReportedAndDoNotStopPartition() {
+        List<String> failed = Collections.synchronizedList(new ArrayList<>());
+        AtomicInteger handled = new AtomicInteger();
+        EventDispatcher dispatcher = new EventDispatcher.Builder()
+            .partitions(1)
+            .on(DeliveryEvent.class, event -> {
+                throw new IllegalStateException("boom");
+            })
+            .onAny(event -> handled.incrementAndGet())
+            .onHandlerError((event, e) -> failed.add(event.messageId()))
+            .build();
+        dispatcher.offer(delivery("x"));
+        dispatcher.offer(delivery("y"));
+        dispatcher.close();
+
+        assertEquals(List.of("x", "y"), failed);
+        assertEquals(2, handled.get());
+        EventDispatcher.Stats stats = dispatcher.stats();
+        assertEquals(2, stats.dispatched());
+        assertEquals(2, stats.handlerErrors());
+        assertEquals(0, stats.queued());
+        assertFalse(dispatcher.offer(delivery("z")));
+    }
+
+    @Test
+    void testErrorsAndFailingReportsDoNotStopPartition() {
+        AtomicInteger handled = new AtomicInteger();
+        EventDispatcher dispatcher = new EventDispatcher.Builder()
+            .partitions(1)
+            .on(DeliveryEvent.class, event -> {
+                throw new AssertionError("boom");
+            })
+            .on(OpenEvent.class, event -> {
+                throw new IllegalStateException("boom");
+            })
+            .onAny(event -> handled.incrementAndGet())
+            .onHandlerError((event, e) -> {
+                throw new IllegalStateException("report failed");
+            })
+            .build();
+        dispatcher.offer(delivery("x"));
+        dispatcher.offer(open("x"));
+        dispatcher.offer(click("x"));
+        dispatcher.close();
+
+        assertEquals(3, handled.get());
+        assertEquals(2, dispatcher.stats().handlerErrors());
+    }
+
+    @Test
+    void testBuilderValidation() {
+        assertThrows(IllegalArgumentException.class, () -> new EventDispatcher.Builder().partitions(0));
+        assertThrows(IllegalArgumentException.class, () -> new EventDispatcher.Builder().queueCapacity(0));
+        assertThrows(IllegalArgumentException.class, () -> new EventDispatcher.Builder().onAny(null));
+    }
+}
@@ -0,0 +1,217 @@
+package com.laneful.webhooks;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ExecutorService;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class EventLogTest {
+
+    private static final UUID LANE = UUID.fromString("5805dd85-ed8c-44db-91a7-1d53a41c86a5");
+
+    @TempDir
+    Path dir;
+
+    private static WebhookEvent delivery(int i) {
+        return new DeliveryEvent("user" + i + "@example.com", LANE, "m-" + i, 1_000 + i, null, Map.of());
+    }
+
+    private List<WebhookEvent> replayAll() throws IOException {
+        List<WebhookEvent> events = new ArrayList<>();
+        new EventLogReader(dir).replay(events::add);
+        return events;
+    }
+
+    @Test
+    void testRoundTripsEveryEventType() throws Exception {
+        List<WebhookEvent> events = List.of(
+            new DeliveryEvent("a@example.com", LANE, "m-1", 1, "news", Map.of("plan", "pro")),
+            new OpenEvent("a@example.com", LANE, "m-1", 2, null, Map.of(), "mobile", "ios", "10.0.0.1"),
+            new ClickEvent("a@example.com", LANE, "m-1", 3, null, Map.of(), "https://example.com", null, null, null),
+            new DropEvent("b@example.com", LANE, "m-2", 4, null, Map.of(), "blocked"),
+            new SpamComplaintEvent("c@example.com", LANE, "m-3", 5, null, Map.of()),
+            new UnsubscribeEvent("d@example.com", LANE, "m-4", 6, null, Map.of(), "group-1"),
+            new BounceEvent("e@example.com", LANE, "m-5", 7, "news", Map.of(), true, "550 No such user", "invalid"));
+
+        try (EventLog log = new EventLog.Builder(dir).open()) {
+            log.append(events).join();
+        }
+
+        assertEquals(events, replayAll());
+    }
+
+    @Test
+    void testGroupsConcurrentAppendsIntoBlocks() throws Exception {
+        List<CompletableFuture<Void>> written = new ArrayList<>();
+        EventLog.Stats stats;
+        try (EventLog log = new EventLog.Builder(dir).fsync(false).open();
+             ExecutorService executor = Executors.newFixedThreadPool(8)) {
+            List<CompletableFuture<CompletableFuture<Void>>> submitted = new ArrayList<>();
+            for (int i = 0; i < 2_000; i++) {
+                int n = i;
+                submitted.add(CompletableFuture.supplyAsync(() -> log.append(delivery(n)), executor));
+            }
+            for (CompletableFuture<CompletableFuture<Void>> future : submitted) {
+                written.add(future.join());
+            }
+            CompletableFuture.allOf(written.toArray(CompletableFuture[]::new)).join();
+            stats = log.stats();
+        }
+
+        assertEquals(2_000, stats.events());
+        assertTrue(stats.blocks() <= 2_000);
+        assertEquals(2_000, replayAll().size());
+    }
+
+    @Test
+    void testRollsSegmentsAndReplaysInOrder() throws Exception {
+        try (EventLog log = new EventLog.Builder(dir).segmentBytes(512).open()) {
+            for (int i = 0; i < 50; i++) {
+                log.append(delivery(i)).join();
+            }
+            assertTrue(log.stats().segment() > 1);
+        }
+
+        List<WebhookEvent> events = replayAll();
+        assertEquals(50, events.size());
+        for (int i = 0; i < 50; i++) {
+            assertEquals("m-" + i, events.get(i).messageId());
+        }
+    }
+
+    @Test
+    void testReplaysFromTimestamp() throws Exception {
+        try (EventLog log = new EventLog.Builder(dir).segmentBytes(1024).open()) {
+            for (int i = 0; i < 100; i++) {
+                log.append(delivery(i)).join();
+            }
+        }
+
+        List<WebhookEvent> events = new ArrayList<>();
+        assertEquals(10, new EventLogReader(dir).replay(1_090, events::add));
+        assertEquals("m-90", events.get(0).messageId());
+    }
+
+    @Test
+    void testParallelReplayDeliversEveryEvent() throws Exception {
+        try (EventLog log = new EventLog.Builder(dir).segmentBytes(4096).maxBatchEvents(64).fsync(false).open()) {
+            List<WebhookEvent> batch = new ArrayList<>();
+            for (int i = 0; i < 5_000; i++) {
+                batch.add(delivery(i));
+                if (batch.size() == 50) {
+                    log.append(batch);
+                    batch = new ArrayList<>();
+                }
+            }
+        }
+
+        List<String> seen = Collections.synchronizedList(new ArrayList<>());
+        long count = new EventLogReader(dir).replayParallel(1_000, event -> seen.add(event.messageId()));
+        assertEquals(5_000, count);
+        assertEquals(5_000, seen.stream().distinct().count());
+
+        assertEquals(100, new EventLogReader(dir).replayParallel(5_900, event -> { }));
+    }
+
+    @Test
+    void testRecoversFromTornTail() throws Exception {
+        try (EventLog log = new EventLog.Builder(dir).open()) {
+            log.append(List.of(delivery(1), delivery(2))).join();
+        }
+        Path segment = EventLogFormat.segments(dir).get(0);
+        try (FileChannel channel = FileChannel.open(segment, StandardOpenOption.WRITE, StandardOpenOption.APPEND)) {
+            ByteBuffer torn = ByteBuffer.allocate(60);
+            torn.putInt(EventLogFormat.BLOCK_MAGIC).putInt(1).position(28);
+            torn.putInt(1_000).rewind();
+            channel.write(torn);
+        }
+
+        // The reader ignores the torn block, and reopening removes it
+        assertEquals(2, replayAll().size());
+        try (EventLog log = new EventLog.Builder(dir).open()) {
+            log.append(delivery(3)).join();
+        }
+        List<WebhookEvent> events = replayAll();
+        assertEquals(List.of("m-1", "m-2", "m-3"), events.stream().map(WebhookEvent::messageId).toList());
+    }
+
+    @Test
+    void testDetectsCorruptBlock() throws Exception {
+        try (EventLog log = new EventLog.Builder(dir).open()) {
+            log.append(List.of(delivery(1), delivery(2))).join();
+            log.append(delivery(3)).join();
+        }
+        Path segment = EventLogFormat.segments(dir).get(0);
+        try (FileChannel channel = FileChannel.open(segment, StandardOpenOption.WRITE)) {
+            channel.write(ByteBuffer.wrap(new byte[] {42}), EventLogFormat.BLOCK_HEADER_SIZE + 2);
+        }
+
+        assertThrows(IOException.class, this::replayAll);
+    }
+
+    @Test
+    void testDetectsCorruptBlockHeader() throws Exception {
+        try (EventLog log = new EventLog.Builder(dir).open()) {
+            log.append(List.of(delivery(1), delivery(2))).join();
+        }
+        Path segment = EventLogFormat.segments(dir).get(0);
+        byte[] original = Files.readAllBytes(segment);
+
+        // Max timestamp, then the JSON length turned negative
+        for (int position : new int[] {23, 24}) {
+            Files.write(segment, original);
+            try (FileChannel channel = FileChannel.open(segment, StandardOpenOption.WRITE)) {
+                channel.write(ByteBuffer.wrap(new byte[] {(byte) (original[position] ^ 0x80)}), position);
+            }
+
+            IOException e = assertThrows(IOException.class, this::replayAll);
+            assertTrue(e.getMessage().contains("Corrupt event log block"), e.getMessage());
+        }
+    }
+
+    @Test
+    void testRejectsSecondWriterAndAppendsAfterClose() throws Exception {
+        EventLog log = new EventLog.Builder(dir).open();
+        assertThrows(IOException.class, () -> new EventLog.Builder(dir).open());
+        log.close();
+
+        assertThrows(IllegalStateException.class, () -> log.append(delivery(1)));
+        assertTrue(Files.exists(EventLogFormat.segmentPath(dir, 1)));
+    }
+    
+    @Test
+    void testStopsAcceptingEventsAfterUnrecoverableWrite() throws Exception {
+        Path logDir = dir.resolve("log");
+        EventLog log = new EventLog.Builder(logDir).segmentBytes(1).open();
+        log.append(delivery(1)).join();
+        // The next block rolls to a segment that can no longer be created
+        try (var files = Files.list(logDir)) {
+            for (Path file : files.toList()) {
+                Files.delete(file);
+            }
+        }
+        Files.delete(logDir);
+
+        assertThrows(CompletionException.class, () -> log.append(delivery(2)).join());
+        CompletionException rejected = assertThrows(CompletionException.class, () -> log.append(delivery(3)).join());
+        assertInstanceOf(IOException.class, rejected.getCause());
+        assertTrue(rejected.getCause().getMessage().contains("no longer accepts events"));
+        log.close();
+    }
+}
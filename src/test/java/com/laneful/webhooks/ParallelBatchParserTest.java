@@ -0,0 +1,96 @@
+package com.laneful.webhooks;
+
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ParallelBatchParserTest {
+
+    private static String event(int i) {
+        return "{\"event\":\"delivery\",\"email\":\"user" + i + "@example.com\","
+            + "\"lane_id\":\"5805dd85-ed8c-44db-91a7-1d53a41c86a5\","
+            + "\"message_id\":\"m-" + i + "\",\"timestamp\":" + (1753502407L + i)
+            + ",\"metadata\":{\"note\":\"a, [tricky] {string} \\\"" + i + "\\\"\"}}";
+    }
+
+    private static byte[] bytes(String payload) {
+        return payload.getBytes(StandardCharsets.UTF_8);
+    }
+
+    @Test
+    void testMatchesSerialParserInOrder() {
+        List<String> items = new ArrayList<>();
+        for (int i = 0; i < 5_000; i++) {
+            items.add(event(i));
+        }
+        byte[] payload = bytes("[\n  " + String.join(",\n  ", items) + "\n]\n");
+
+        BatchParseResult result = WebhookEventParser.parseParallel(payload);
+
+        assertFalse(result.hasErrors());
+        assertEquals(WebhookEventParser.parse(payload), result.events());
+    }
+
+    @Test
+    void testReportsInvalidEventsWithoutFailingBatch() throws Exception {
+        List<String> items = new ArrayList<>();
+        for (int i = 0; i < 1_000; i++) {
+            if (i == 10) {
+                items.add(event(i).replace("delivery", "unknown"));
+            } else if (i == 500) {
+                items.add("{\"event\": broken}");
+            } else if (i == 900) {
+                items.add("\"not an object\"");
+            } else {
+                items.add(event(i));
+            }
+        }
+        byte[] payload = bytes("[" + String.join(",", items) + "]");
+
+        BatchParseResult result;
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            result = WebhookEventParser.parseParallel(payload, executor, 8);
+        }
+
+        assertEquals(997, result.events().size());
+        assertEquals("m-11", result.events().get(10).messageId());
+        assertEquals(List.of(10, 500, 900), result.errors().stream().map(BatchParseResult.EventError::index).toList());
+        assertEquals("Invalid event type: unknown", result.errors().get(0).message());
+        assertTrue(result.errors().get(1).message().startsWith("Invalid JSON payload"));
+        assertEquals("Event must be an object", result.errors().get(2).message());
+    }
+
+    @Test
+    void testSingleEventAndEmptyBatch() {
+        BatchParseResult single = WebhookEventParser.parseParallel(bytes(event(1)));
+        assertEquals(1, single.events().size());
+
+        assertTrue(WebhookEventParser.parseParallel(bytes(" [ ] ")).events().isEmpty());
+    }
+
+    @Test
+    void testSplitRejectsMalformedBatch() {
+        assertThrows(IllegalArgumentException.class, () -> ParallelBatchParser.split(bytes("   ")));
+        assertThrows(IllegalArgumentException.class, () -> ParallelBatchParser.split(bytes("42")));
+        assertThrows(IllegalArgumentException.class, () -> ParallelBatchParser.split(bytes("[" + event(1) + ",]")));
+        assertThrows(IllegalArgumentException.class, () -> ParallelBatchParser.split(bytes("[," + event(1) + "]")));
+        assertThrows(IllegalArgumentException.class, () -> ParallelBatchParser.split(bytes("[" + event(1))));
+        assertThrows(IllegalArgumentException.class, () -> ParallelBatchParser.split(bytes("[] []")));
+    }
+
+    @Test
+    void testSplitOffsets() {
+        String payload = "[ {\"a\":\"]\"} ,\t{\"b\":[1,2]}]";
+
+        int[] bounds = ParallelBatchParser.split(bytes(payload));
+
+        assertEquals("{\"a\":\"]\"}", payload.substring(bounds[0], bounds[1]));
+        assertEquals("{\"b\":[1,2]}", payload.substring(bounds[2], bounds[3]));
+    }
+}
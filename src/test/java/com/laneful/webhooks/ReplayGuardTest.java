@@ -0,0 +1,109 @@
+package com.laneful.webhooks;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.Map;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ReplayGuardTest {
+
+    private static final long NOW = 1_753_502_407L;
+
+    private static final class MutableClock extends Clock {
+        private Instant instant = Instant.ofEpochSecond(NOW);
+
+        void advance(Duration duration) {
+            instant = instant.plus(duration);
+        }
+
+        @Override public ZoneId getZone() { return ZoneOffset.UTC; }
+        @Override public Clock withZone(ZoneId zone) { return this; }
+        @Override public Instant instant() { return instant; }
+    }
+
+    private final MutableClock clock = new MutableClock();
+
+    private static WebhookEvent delivery(String messageId, long timestamp) {
+        return new DeliveryEvent("user@example.com", UUID.randomUUID(), messageId, timestamp, null, Map.of());
+    }
+
+    private ReplayGuard guard() {
+        return new ReplayGuard.Builder().tolerance(Duration.ofMinutes(5)).clock(clock).build();
+    }
+
+    @Test
+    void testRejectsRepeatedSignature() throws Exception {
+        ReplayGuard guard = guard();
+        String signature = "sha256=" + WebhookVerifier.generateSignature("secret", "payload");
+
+        assertTrue(guard.checkSignature(signature));
+        assertFalse(guard.checkSignature(signature));
+        assertFalse(guard.checkSignature(signature.substring(7)));
+        assertTrue(guard.checkSignature(WebhookVerifier.generateSignature("secret", "other")));
+        assertEquals(2, guard.stats().replays());
+    }
+
+    @Test
+    void testRejectsTimestampsOutsideTolerance() {
+        ReplayGuard guard = guard();
+
+        assertTrue(guard.checkEvent(delivery("a", NOW - 300)));
+        assertTrue(guard.checkEvent(delivery("b", NOW + 300)));
+        assertFalse(guard.checkEvent(delivery("c", NOW - 301)));
+        assertFalse(guard.checkEvent(delivery("d", NOW + 301)));
+        assertEquals(2, guard.stats().outsideWindow());
+    }
+
+    @Test
+    void testRemembersEventsForWholeWindow() {
+        ReplayGuard guard = guard();
+        WebhookEvent future = delivery("m-1", NOW + 300);
+        WebhookEvent open = new OpenEvent("user@example.com", UUID.randomUUID(), "m-1", NOW, null, Map.of(),
+            null, null, null);
+
+        assertTrue(guard.checkEvent(future));
+        assertTrue(guard.checkEvent(open));
+
+        // The future-dated event stays within tolerance for ten minutes and must stay remembered
+        clock.advance(Duration.ofMinutes(10));
+        assertFalse(guard.checkEvent(future));
+        clock.advance(Duration.ofSeconds(1));
+        assertFalse(guard.checkEvent(future));
+        assertEquals(1, guard.stats().outsideWindow());
+    }
+
+    @Test
+    void testOldKeysAgeOut() {
+        ReplayGuard guard = guard();
+        assertTrue(guard.checkSignature("0123456789abcdef0123456789abcdef"));
+
+        clock.advance(Duration.ofMinutes(12));
+
+        assertTrue(guard.checkSignature("0123456789abcdef0123456789abcdef"));
+    }
+
+    @Test
+    void testBoundedMemoryFailsOpen() {
+        ReplayGuard guard = new ReplayGuard.Builder().maxEntries(16).clock(clock).build();
+
+        for (int i = 0; i < 10; i++) {
+            assertTrue(guard.checkEvent(delivery("m-" + i, NOW)));
+        }
+
+        assertEquals(8, guard.stats().overflows());
+        assertFalse(guard.checkEvent(delivery("m-0", NOW)));
+    }
+
+    @Test
+    void testBuilderValidation() {
+        assertThrows(IllegalArgumentException.class, () -> new ReplayGuard.Builder().tolerance(Duration.ZERO));
+        assertThrows(IllegalArgumentException.class, () -> new ReplayGuard.Builder().maxEntries(0));
+    }
+}
@@ -0,0 +1,217 @@
+package com.laneful.webhooks;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class WebhookEventParserTest {
+
+    private static final String LANE_ID = "5805dd85-ed8c-44db-91a7-1d53a41c86a5";
+    private static final String COMMON = "\"email\":\"user@example.com\",\"lane_id\":\"" + LANE_ID + "\","
+        + "\"message_id\":\"H-1-019844e340027d728a7cfda632e14d0a\",\"timestamp\":1753502407";
+
+    private static String event(String type, String extra) {
+        return "{\"event\":\"" + type + "\"," + COMMON + extra + "}";
+    }
+
+    @Test
+    void testParsesTypedEvents() {
+        String batch = "[" + String.join(",",
+            event("delivery", ",\"tag\":\"welcome\",\"metadata\":{\"user_id\":42,\"plan\":\"pro\"}"),
+            event("open", ",\"client_device\":\"mobile\",\"client_os\":\"iOS\",\"client_ip\":\"10.0.0.1\""),
+            event("click", ",\"url\":\"https://example.com\""),
+            event("bounce", ",\"is_hard\":true,\"text\":\"550 No such user\""),
+            event("drop", ",\"reason\":\"suppressed\""),
+            event("spam_complaint", ",\"unknown\":{\"nested\":[1,2]}"),
+            event("unsubscribe", ",\"unsubscribe_group_id\":7")) + "]";
+
+        List<WebhookEvent> events = WebhookEventParser.parse(batch);
+
+        assertEquals(7, events.size());
+        DeliveryEvent delivery = assertInstanceOf(DeliveryEvent.class, events.get(0));
+        assertEquals(UUID.fromString(LANE_ID), delivery.laneId());
+        assertEquals(1753502407L, delivery.timestamp());
+        assertEquals("welcome", delivery.tag());
+        assertEquals(Map.of("user_id", 42, "plan", "pro"), delivery.metadata());
+        assertEquals(WebhookEventType.DELIVERY, delivery.type());
+
+        OpenEvent open = assertInstanceOf(OpenEvent.class, events.get(1));
+        assertEquals("iOS", open.clientOs());
+        assertEquals("https://example.com", ((ClickEvent) events.get(2)).url());
+        BounceEvent bounce = assertInstanceOf(BounceEvent.class, events.get(3));
+        assertTrue(bounce.isHard());
+        assertEquals("550 No such user", bounce.text());
+        assertEquals("suppressed", ((DropEvent) events.get(4)).reason());
+        assertEquals(Map.of(), events.get(5).metadata());
+        assertEquals("7", ((UnsubscribeEvent) events.get(6)).unsubscribeGroupId());
+    }
+
+    @Test
+    void testMatchesMapParser() {
+        String payload = event("bounce", ",\"is_hard\":\"true\",\"timestamp\":\"1753502407\",\"reason\":\"mailbox full\"");
+
+        Map<String, Object> map = WebhookVerifier.parseWebhookPayload(payload).getEvents().get(0);
+        BounceEvent bounce = (BounceEvent) WebhookEventParser.parse(payload.getBytes(StandardCharsets.UTF_8)).get(0);
+
+        assertEquals(map.get("email"), bounce.email());
+        assertEquals(map.get("lane_id"), bounce.laneId().toString());
+        assertEquals(map.get("message_id"), bounce.messageId());
+        assertEquals(Long.parseLong((String) map.get("timestamp")), bounce.timestamp());
+        assertEquals(map.get("is_hard"), bounce.isHard());
+        assertEquals(map.get("reason"), bounce.reason());
+    }
+
+    @Test
+    void testSingleEventFromStream() {
+        ByteArrayInputStream in = new ByteArrayInputStream(event("open", "").getBytes(StandardCharsets.UTF_8));
+
+        List<WebhookEvent> events = WebhookEventParser.parse(in);
+
+        assertEquals(1, events.size());
+        assertInstanceOf(OpenEvent.class, events.get(0));
+    }
+
+    @Test
+    void testValidationMessagesMatchMapParser() {
+        String[] invalid = {
+            "{\"email\":\"user@example.com\"}",
+            event("unknown", ""),
+            event("delivery", "").replace("user@example.com", "invalid-email"),
+            event("delivery", "").replace("1753502407", "\"yesterday\""),
+            event("delivery", "").replace(LANE_ID, "5805dd85-ed8c-44db-91a7-1d53a41c86a"),
+            event("delivery", "").replace(LANE_ID, "5805dd85+ed8c-44db-91a7-1d53a41c86a5"),
+            "[\"not an object\"]",
+            "42",
+            "{not json",
+        };
+        for (String payload : invalid) {
+            IllegalArgumentException expected = assertThrows(IllegalArgumentException.class,
+                () -> WebhookVerifier.parseWebhookPayload(payload));
+            IllegalArgumentException actual = assertThrows(IllegalArgumentException.class,
+                () -> WebhookEventParser.parse(payload));
+            assertEquals(expected.getMessage().split(":")[0], actual.getMessage().split(":")[0], payload);
+        }
+        assertThrows(IllegalArgumentException.class, () -> WebhookEventParser.parse(""));
+        assertThrows(IllegalArgumentException.class, () -> WebhookEventParser.parse(new byte[0]));
+    }
+
+    @Test
+    void testParseUuid() {
+        String upper = LANE_ID.toUpperCase();
+
+        assertEquals(UUID.fromString(LANE_ID), WebhookEventParser.parseUuid(upper.toCharArray(), 0, 36));
+        assertEquals(UUID.fromString(LANE_ID), WebhookEventParser.parseUuid(("xx" + LANE_ID).toCharArray(), 2, 36));
+        assertNull(WebhookEventParser.parseUuid(LANE_ID.replace('d', 'g').toCharArray(), 0, 36));
+        assertNull(WebhookEventParser.parseUuid(LANE_ID.toCharArray(), 0, 35));
+    }
+
+    @Test
+    void testVerifyAndParseEvents() throws Exception {
+        WebhookVerifier verifier = WebhookVerifier.forSecret("secret");
+        String payload = "[" + event("click", ",\"url\":\"https://example.com\"") + "]";
+        String signature = verifier.sign(payload);
+
+        List<WebhookEvent> events = verifier.verifyAndParseEvents(
+            new ByteArrayInputStream(payload.getBytes(StandardCharsets.UTF_8)), signature);
+
+        assertInstanceOf(ClickEvent.class, events.get(0));
+        assertEquals(events, verifier.verifyAndParseEvents(payload.getBytes(StandardCharsets.UTF_8), signature));
+        assertThrows(InvalidSignatureException.class, () -> verifier.verifyAndParseEvents(
+            new ByteArrayInputStream(payload.getBytes(StandardCharsets.UTF_8)), verifier.sign("other")));
+    }
+
+    /**
+     * Generates a batch of delivery events on demand and counts bytes handed out.
+     */
+    private static final class GeneratedBatch extends java.io.InputStream {
+        private final int events;
+        private int produced;
+        private byte[] chunk = "[".getBytes(StandardCharsets.UTF_8);
+        private int position;
+        long bytesRead;
+
+        GeneratedBatch(int events) {
+            this.events = events;
+        }
+
+        @Override
+        public int read() {
+            if (position == chunk.length) {
+                if (produced > events) {
+                    return -1;
+                }
+                String next = produced == events ? "]"
+                    : (produced > 0 ? "," : "") + event("delivery", ",\"tag\":\"t" + produced + "\"");
+                produced++;
+                chunk = next.getBytes(StandardCharsets.UTF_8);
+                position = 0;
+            }
+            bytesRead++;
+            return chunk[position++] & 0xFF;
+        }
+    }
+
+    @Test
+    void testForEachHandsOutEventsBeforeBatchIsRead() {
+        GeneratedBatch batch = new GeneratedBatch(50_000);
+        long[] bytesAtFirstEvent = {-1};
+        int[] count = {0};
+
+        WebhookEventParser.forEach(batch, event -> {
+            if (count[0]++ == 0) {
+                bytesAtFirstEvent[0] = batch.bytesRead;
+            }
+            assertEquals("t" + (count[0] - 1), event.tag());
+        });
+
+        assertEquals(50_000, count[0]);
+        assertTrue(bytesAtFirstEvent[0] < batch.bytesRead / 100);
+    }
+
+    @Test
+    void testForEachStopsAtInvalidEvent() {
+        String payload = "[" + event("open", "") + "," + event("unknown", "") + "," + event("click", "") + "]";
+        List<WebhookEvent> handled = new java.util.ArrayList<>();
+
+        IllegalArgumentException error = assertThrows(IllegalArgumentException.class,
+            () -> WebhookEventParser.forEach(payload.getBytes(StandardCharsets.UTF_8), handled::add));
+
+        assertEquals("Invalid event type: unknown", error.getMessage());
+        assertEquals(1, handled.size());
+    }
+
+    @Test
+    void testStreamIsLazy() {
+        GeneratedBatch batch = new GeneratedBatch(10_000);
+
+        try (java.util.stream.Stream<WebhookEvent> events = WebhookEventParser.stream(batch)) {
+            assertEquals(List.of("t0", "t1", "t2"), events.limit(3).map(WebhookEvent::tag).toList());
+        }
+        assertTrue(batch.bytesRead < 64 * 1024);
+
+        ByteArrayInputStream single = new ByteArrayInputStream(event("drop", "").getBytes(StandardCharsets.UTF_8));
+        try (java.util.stream.Stream<WebhookEvent> events = WebhookEventParser.stream(single)) {
+            assertEquals(1, events.filter(DropEvent.class::isInstance).count());
+        }
+    }
+
+    @Test
+    void testVerifyAndForEachChecksSignatureFirst() {
+        WebhookVerifier verifier = WebhookVerifier.forSecret("secret");
+        byte[] payload = ("[" + event("open", "") + "]").getBytes(StandardCharsets.UTF_8);
+        List<WebhookEvent> handled = new java.util.ArrayList<>();
+
+        assertThrows(InvalidSignatureException.class,
+            () -> verifier.verifyAndForEach(payload, verifier.sign("other"), handled::add));
+        assertTrue(handled.isEmpty());
+
+        verifier.verifyAndForEach(payload, verifier.sign(payload), handled::add);
+        assertEquals(1, handled.size());
+    }
+}
@@ -0,0 +1,178 @@
+package com.laneful.webhooks;
+
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class WebhookEventViewTest {
+
+    private static final String LANE_ID = "5805dd85-ed8c-44db-91a7-1d53a41c86a5";
+    private static final String COMMON = "\"email\":\"user@example.com\",\"lane_id\":\"" + LANE_ID + "\","
+        + "\"message_id\":\"H-1-019844e340027d728a7cfda632e14d0a\",\"timestamp\":1753502407";
+
+    private static String event(String type, String extra) {
+        return "{\"event\":\"" + type + "\"," + COMMON + extra + "}";
+    }
+
+    private static byte[] bytes(String json) {
+        return json.getBytes(StandardCharsets.UTF_8);
+    }
+
+    @Test
+    void testReadsRequiredFields() {
+        WebhookEventView view = WebhookEventParser.views(bytes(event("delivery", ""))).get(0);
+
+        assertEquals(WebhookEventType.DELIVERY, view.type());
+        assertEquals("user@example.com", view.email());
+        assertEquals(UUID.fromString(LANE_ID), view.laneId());
+        assertEquals("H-1-019844e340027d728a7cfda632e14d0a", view.messageId());
+        assertEquals(1753502407L, view.timestamp());
+        assertNull(view.tag());
+        assertEquals(Map.of(), view.metadata());
+    }
+
+    @Test
+    void testToEventMatchesParser() {
+        String batch = "[" + String.join(",",
+            event("delivery", ",\"tag\":\"welcome\",\"metadata\":{\"user_id\":42,\"plan\":\"pro\"}"),
+            event("open", ",\"client_device\":\"mobile\",\"client_os\":\"iOS\",\"client_ip\":\"10.0.0.1\""),
+            event("click", ",\"url\":\"https://example.com/?q=\\\"a\\\"\\u00e9\""),
+            event("bounce", ",\"is_hard\":true,\"text\":\"550 No such user\",\"reason\":null"),
+            event("drop", ",\"reason\":\"suppressed\""),
+            event("spam_complaint", ",\"unknown\":{\"nested\":[1,{\"event\":\"open\"}]}"),
+            event("unsubscribe", ",\"unsubscribe_group_id\":7,\"tag\":{\"a\":1}")) + "]";
+
+        List<WebhookEvent> expected = WebhookEventParser.parse(batch);
+        List<WebhookEventView> views = WebhookEventParser.views(bytes(batch));
+
+        assertEquals(expected.size(), views.size());
+        for (int i = 0; i < views.size(); i++) {
+            assertEquals(expected.get(i), views.get(i).toEvent());
+        }
+        assertEquals("https://example.com/?q=\"a\"\u00e9", views.get(2).url());
+        assertEquals("7", views.get(6).unsubscribeGroupId());
+        assertEquals("", views.get(6).tag());
+    }
+
+    @Test
+    void testDecodesEscapesAndUnicode() {
+        String payload = "{\"ev\\u0065nt\":\"op\\u0065n\",\"email\":\"j\u00f6rg@example.com\",\"lane_id\":\""
+            + LANE_ID + "\",\"message_id\":\"m\\n\\t\\\\1\",\"timestamp\":\"1753502407\",\"client_os\":\"\ud83d\ude00\"}";
+
+        WebhookEventView view = WebhookEventParser.views(bytes(payload)).get(0);
+
+        assertEquals(WebhookEventType.OPEN, view.type());
+        assertEquals("j\u00f6rg@example.com", view.email());
+        assertEquals("m\n\t\\1", view.messageId());
+        assertEquals(1753502407L, view.timestamp());
+        assertEquals("\ud83d\ude00", view.clientOs());
+    }
+
+    @Test
+    void testIsHard() {
+        assertTrue(view(event("bounce", ",\"is_hard\":true")).isHard());
+        assertTrue(view(event("bounce", ",\"is_hard\":\" true \"")).isHard());
+        assertTrue(view(event("bounce", ",\"is_hard\":1")).isHard());
+        assertFalse(view(event("bounce", ",\"is_hard\":0")).isHard());
+        assertFalse(view(event("bounce", ",\"is_hard\":false")).isHard());
+        assertFalse(view(event("bounce", ",\"is_hard\":{}")).isHard());
+        assertFalse(view(event("bounce", "")).isHard());
+    }
+
+    @Test
+    void testValidationMatchesParser() {
+        List<String> invalid = List.of(
+            "{\"email\":\"user@example.com\"}",
+            "{\"event\":null," + COMMON + "}",
+            "{\"event\":\"delivery\",\"email\":\"user@example.com\",\"lane_id\":\"" + LANE_ID
+                + "\",\"message_id\":\"m\"}",
+            event("unknown", ""),
+            event("delivery", "").replace("user@example.com", "not-an-email"),
+            event("delivery", "").replace("\"user@example.com\"", "{\"a\":1}"),
+            event("delivery", "").replace("1753502407", "1.5"),
+            event("delivery", "").replace("1753502407", "\"soon\""),
+            event("delivery", "").replace("1753502407", "9223372036854775808"),
+            event("delivery", "").replace(LANE_ID, "not-a-uuid"),
+            event("delivery", "").replace("\"" + LANE_ID + "\"", "12"),
+            "[1]",
+            "\"event\"");
+
+        for (String payload : invalid) {
+            IllegalArgumentException expected = assertThrows(IllegalArgumentException.class,
+                () -> WebhookEventParser.parse(payload), payload);
+            IllegalArgumentException actual = assertThrows(IllegalArgumentException.class,
+                () -> WebhookEventParser.views(bytes(payload)), payload);
+            assertEquals(expected.getMessage(), actual.getMessage(), payload);
+        }
+    }
+
+    @Test
+    void testTimestampLimits() {
+        assertEquals(Long.MIN_VALUE, view(event("delivery", ",\"timestamp\":-9223372036854775808")).timestamp());
+        assertEquals(Long.MAX_VALUE, view(event("delivery", ",\"timestamp\":9223372036854775807")).timestamp());
+    }
+
+    @Test
+    void testRejectsMalformedJson() {
+        for (String payload : List.of(
+                "{\"event\":\"delivery\"",
+                event("delivery", ",\"tag\":tru"),
+                event("delivery", ",\"tag\":\"a\\x\""),
+                event("delivery", ",\"metadata\":{\"a\":[1,}"),
+                event("delivery", ",\"tag\":01x"),
+                event("delivery", "") + " trailing",
+                "[" + event("delivery", "") + "," + "]")) {
+            IllegalArgumentException e = assertThrows(IllegalArgumentException.class,
+                () -> WebhookEventParser.views(bytes(payload)), payload);
+            assertTrue(e.getMessage().startsWith("Invalid JSON payload"), e.getMessage());
+        }
+        assertThrows(IllegalArgumentException.class, () -> WebhookEventParser.views(new byte[0]));
+        assertThrows(IllegalArgumentException.class, () -> WebhookEventParser.views(bytes("  ")));
+    }
+
+    @Test
+    void testRejectsDeepNesting() {
+        String nested = "[".repeat(5000) + "]".repeat(5000);
+
+        IllegalArgumentException e = assertThrows(IllegalArgumentException.class,
+            () -> WebhookEventParser.views(bytes(event("delivery", ",\"extra\":" + nested))));
+        assertTrue(e.getMessage().startsWith("Invalid JSON payload"));
+    }
+
+    @Test
+    void testMetadataDecodedOnlyWhenRead() {
+        WebhookEventView view = view(event("delivery", ",\"metadata\":\"oops\""));
+
+        assertEquals("H-1-019844e340027d728a7cfda632e14d0a", view.messageId());
+        IllegalArgumentException e = assertThrows(IllegalArgumentException.class, view::metadata);
+        assertEquals("Invalid metadata format", e.getMessage());
+    }
+
+    @Test
+    void testEmptyBatch() {
+        assertTrue(WebhookEventParser.views(bytes(" [ ] ")).isEmpty());
+    }
+
+    @Test
+    void testVerifyAndParseViews() throws Exception {
+        String secret = "test-secret";
+        byte[] body = bytes("[" + event("open", "") + "," + event("click", "") + "]");
+        String signature = WebhookVerifier.generateSignature(secret, new String(body, StandardCharsets.UTF_8));
+        WebhookVerifier verifier = WebhookVerifier.forSecret(secret);
+
+        List<WebhookEventView> views = verifier.verifyAndParseViews(body, signature);
+
+        assertEquals(List.of(WebhookEventType.OPEN, WebhookEventType.CLICK),
+            views.stream().map(WebhookEventView::type).toList());
+        assertThrows(InvalidSignatureException.class, () -> verifier.verifyAndParseViews(body, "sha256=00"));
+    }
+
+    private static WebhookEventView view(String json) {
+        return WebhookEventParser.views(bytes(json)).get(0);
+    }
+}
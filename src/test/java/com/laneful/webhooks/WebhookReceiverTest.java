@@ -0,0 +1,199 @@
+package com.laneful.webhooks;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.GZIPOutputStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class WebhookReceiverTest {
+
+    private static final String SECRET = "receiver-secret";
+
+    private final BlockingQueue<WebhookEvent> received = new LinkedBlockingQueue<>();
+    private final HttpClient client = HttpClient.newHttpClient();
+    private WebhookReceiver receiver;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        receiver = new WebhookReceiver.Builder(SECRET)
+            .port(0)
+            .maxBodyBytes(4096)
+            .replayGuard(new ReplayGuard.Builder().build())
+            .handler(received::add)
+            .handler(event -> {
+                throw new IllegalStateException("Handler failures do not affect others");
+            })
+            .onHandlerError((event, e) -> { })
+            .build();
+        receiver.start();
+    }
+
+    @AfterEach
+    void tearDown() {
+        receiver.close();
+    }
+
+    private static String payload(String messageId) {
+        return "[{\"event\":\"delivery\",\"email\":\"user@example.com\","
+            + "\"lane_id\":\"5805dd85-ed8c-44db-91a7-1d53a41c86a5\",\"message_id\":\"" + messageId + "\","
+            + "\"timestamp\":" + Instant.now().getEpochSecond() + "}]";
+    }
+
+    private HttpResponse<String> post(byte[] body, String signature, String encoding) throws Exception {
+        HttpRequest.Builder request = HttpRequest.newBuilder(URI.create("http://localhost:" + receiver.port() + "/webhooks"))
+            .POST(HttpRequest.BodyPublishers.ofByteArray(body));
+        if (signature != null) {
+            request.header("x-webhook-signature", signature);
+        }
+        if (encoding != null) {
+            request.header("Content-Encoding", encoding);
+        }
+        return client.send(request.build(), HttpResponse.BodyHandlers.ofString());
+    }
+
+    private static String sign(String payload) throws Exception {
+        return WebhookVerifier.generateSignature(SECRET, payload, true);
+    }
+
+    @Test
+    void testAcceptsSignedBatchAndDispatches() throws Exception {
+        String payload = payload("m-1");
+
+        HttpResponse<String> response = post(payload.getBytes(StandardCharsets.UTF_8), sign(payload), null);
+
+        assertEquals(200, response.statusCode());
+        WebhookEvent event = received.poll(5, TimeUnit.SECONDS);
+        assertNotNull(event);
+        assertEquals("m-1", event.messageId());
+    }
+
+    @Test
+    void testAcceptsGzipBody() throws Exception {
+        String payload = payload("m-gzip");
+        ByteArrayOutputStream compressed = new ByteArrayOutputStream();
+        try (GZIPOutputStream gzip = new GZIPOutputStream(compressed)) {
+            gzip.write(payload.getBytes(StandardCharsets.UTF_8));
+        }
+
+        assertEquals(200, post(compressed.toByteArray(), sign(payload), "gzip").statusCode());
+        assertEquals("m-gzip", received.poll(5, TimeUnit.SECONDS).messageId());
+        assertEquals(415, post(compressed.toByteArray(), sign(payload), "br").statusCode());
+    }
+
+    @Test
+    void testRejectsBadRequests() throws Exception {
+        String payload = payload("m-2");
+        byte[] body = payload.getBytes(StandardCharsets.UTF_8);
+
+        assertEquals(401, post(body, null, null).statusCode());
+        assertEquals(401, post(body, sign("other"), null).statusCode());
+        assertEquals(400, post("{\"event\":".getBytes(StandardCharsets.UTF_8), sign("{\"event\":"), null).statusCode());
+        String large = "[" + " ".repeat(5000) + "]";
+        assertEquals(413, post(large.getBytes(StandardCharsets.UTF_8), sign(large), null).statusCode());
+
+        HttpResponse<String> get = client.send(HttpRequest.newBuilder(
+            URI.create("http://localhost:" + receiver.port() + "/webhooks")).GET().build(),
+            HttpResponse.BodyHandlers.ofString());
+        assertEquals(405, get.statusCode());
+        assertEquals("POST", get.headers().firstValue("Allow").orElse(null));
+
+        WebhookReceiver.Stats stats = receiver.stats();
+        assertEquals(2, stats.invalidSignatures());
+        assertEquals(1, stats.invalidPayloads());
+        assertEquals(1, stats.tooLarge());
+        assertTrue(received.isEmpty());
+    }
+
+    @Test
+    void testRejectsEmptyBodyAsInvalidPayload() throws Exception {
+        HttpResponse<String> response = post(new byte[0], sign(""), null);
+
+        assertEquals(400, response.statusCode());
+        assertEquals(1, receiver.stats().invalidPayloads());
+        assertEquals(0, receiver.stats().invalidSignatures());
+    }
+
+    @Test
+    void testAcknowledgesButDropsReplayedBatch() throws Exception {
+        String payload = payload("m-3");
+        byte[] body = payload.getBytes(StandardCharsets.UTF_8);
+
+        assertEquals(200, post(body, sign(payload), null).statusCode());
+        assertEquals(200, post(body, sign(payload), null).statusCode());
+
+        assertNotNull(received.poll(5, TimeUnit.SECONDS));
+        assertNull(received.poll(200, TimeUnit.MILLISECONDS));
+        assertEquals(1, receiver.stats().replays());
+    }
+
+    @Test
+    void testShedsWithServiceUnavailableWhenDispatcherIsFull() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        EventDispatcher dispatcher = new EventDispatcher.Builder()
+            .partitions(1)
+            .queueCapacity(1)
+            .onAny(event -> {
+                try {
+                    release.await(5, TimeUnit.SECONDS);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                received.add(event);
+            })
+            .build();
+        receiver.close();
+        receiver = new WebhookReceiver.Builder(SECRET)
+            .port(0)
+            .replayGuard(new ReplayGuard.Builder().build())
+            .dispatcher(dispatcher)
+            .build();
+        receiver.start();
+
+        String first = payload("m-4");
+        String second = payload("m-5");
+        assertEquals(200, post(first.getBytes(StandardCharsets.UTF_8), sign(first), null).statusCode());
+        HttpResponse<String> shed = post(second.getBytes(StandardCharsets.UTF_8), sign(second), null);
+        assertEquals(503, shed.statusCode());
+        assertEquals("1", shed.headers().firstValue("Retry-After").orElse(null));
+
+        release.countDown();
+        assertEquals("m-4", received.poll(5, TimeUnit.SECONDS).messageId());
+        // The retried batch is not mistaken for a replay
+        HttpResponse<String> retried;
+        do {
+            retried = post(second.getBytes(StandardCharsets.UTF_8), sign(second), null);
+        } while (retried.statusCode() == 503);
+        assertEquals(200, retried.statusCode());
+        assertEquals("m-5", received.poll(5, TimeUnit.SECONDS).messageId());
+        assertTrue(receiver.stats().shed() >= 1);
+        dispatcher.close();
+    }
+
+    @Test
+    void testDispatcherCannotBeCombinedWithHandlers() {
+        EventDispatcher dispatcher = new EventDispatcher.Builder().partitions(1).build();
+        try {
+            assertThrows(IllegalArgumentException.class, () -> new WebhookReceiver.Builder(SECRET)
+                .port(0)
+                .dispatcher(dispatcher)
+                .handler(received::add)
+                .build());
+        } finally {
+            dispatcher.close();
+        }
+    }
+}
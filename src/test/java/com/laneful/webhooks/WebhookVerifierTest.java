@@ -107,6 +107,124 @@ class WebhookVerifierTest {
         assertTrue(WebhookVerifier.verifySignature(SECRET, VALID_PAYLOAD, signatureWithPrefix));
     }
 
+    @Test
+    void testInstanceVerifiesLikeStaticMethod() throws NoSuchAlgorithmException, InvalidKeyException {
+        WebhookVerifier verifier = WebhookVerifier.forSecret(SECRET);
+        String signature = generateHmacSignature(SECRET, VALID_PAYLOAD);
+
+        assertTrue(verifier.verify(VALID_PAYLOAD, signature));
+        assertTrue(verifier.verify(VALID_PAYLOAD, "sha256=" + signature));
+        assertTrue(verifier.verify(VALID_PAYLOAD.getBytes(StandardCharsets.UTF_8), signature.toUpperCase()));
+        assertEquals(signature, verifier.sign(VALID_PAYLOAD));
+        assertFalse(verifier.verify(VALID_PAYLOAD + " ", signature));
+        assertFalse(verifier.verify(VALID_PAYLOAD, signature.substring(2)));
+        assertFalse(verifier.verify(VALID_PAYLOAD, signature.replace(signature.charAt(0), 'z')));
+        assertFalse(verifier.verify(VALID_PAYLOAD, null));
+        assertFalse(WebhookVerifier.forSecret("wrong-secret").verify(VALID_PAYLOAD, signature));
+    }
+
+    @Test
+    void testRejectsNonAsciiHexDigits() throws NoSuchAlgorithmException, InvalidKeyException {
+        WebhookVerifier verifier = WebhookVerifier.forSecret(SECRET);
+        String signature = generateHmacSignature(SECRET, VALID_PAYLOAD);
+        StringBuilder fullwidth = new StringBuilder(signature);
+        for (int i = 0; i < fullwidth.length(); i++) {
+            char c = fullwidth.charAt(i);
+            if (c >= '0' && c <= '9') {
+                // U+FF10 to U+FF19, which Character.digit reads as 0 to 9
+                fullwidth.setCharAt(i, (char) ('\uFF10' + (c - '0')));
+            }
+        }
+
+        assertNotEquals(signature, fullwidth.toString());
+        assertFalse(verifier.verify(VALID_PAYLOAD, fullwidth.toString()));
+        assertFalse(WebhookVerifier.verifySignature(SECRET, VALID_PAYLOAD, fullwidth.toString()));
+    }
+
+    @Test
+    void testInstanceRejectsEmptyInputs() {
+        assertThrows(IllegalArgumentException.class, () -> WebhookVerifier.forSecret(" "));
+        assertThrows(IllegalArgumentException.class, () -> WebhookVerifier.forSecret(null));
+        WebhookVerifier verifier = WebhookVerifier.forSecret(SECRET);
+        assertThrows(IllegalArgumentException.class, () -> verifier.verify("", "sig"));
+        assertThrows(IllegalArgumentException.class, () -> verifier.verify(new byte[0], "sig"));
+    }
+
+    @Test
+    void testInstanceIsThreadSafe() throws Exception {
+        WebhookVerifier verifier = WebhookVerifier.forSecret(SECRET);
+        String signature = generateHmacSignature(SECRET, VALID_PAYLOAD);
+        String other = "{\"event\":\"open\"}";
+        String otherSignature = generateHmacSignature(SECRET, other);
+
+        try (var executor = java.util.concurrent.Executors.newVirtualThreadPerTaskExecutor()) {
+            List<java.util.concurrent.Future<Boolean>> results = new java.util.ArrayList<>();
+            for (int i = 0; i < 1_000; i++) {
+                boolean even = i % 2 == 0;
+                results.add(executor.submit(() -> even
+                    ? verifier.verify(VALID_PAYLOAD, signature) && !verifier.verify(VALID_PAYLOAD, otherSignature)
+                    : verifier.verify(other, otherSignature)));
+            }
+            for (java.util.concurrent.Future<Boolean> result : results) {
+                assertTrue(result.get());
+            }
+        }
+    }
+
+    @Test
+    void testVerifyByteBufferKeepsPosition() throws NoSuchAlgorithmException, InvalidKeyException {
+        WebhookVerifier verifier = WebhookVerifier.forSecret(SECRET);
+        String signature = generateHmacSignature(SECRET, VALID_PAYLOAD);
+        byte[] bytes = VALID_PAYLOAD.getBytes(StandardCharsets.UTF_8);
+        java.nio.ByteBuffer direct = java.nio.ByteBuffer.allocateDirect(bytes.length + 3);
+        direct.put(new byte[] {1, 2, 3}).put(bytes).flip().position(3);
+
+        assertTrue(verifier.verify(direct, signature));
+        assertEquals(3, direct.position());
+        assertTrue(verifier.verify(java.nio.ByteBuffer.wrap(bytes), signature));
+        assertFalse(verifier.verify(direct.position(4), signature));
+    }
+
+    @Test
+    void testVerifyAndParseStream() throws Exception {
+        WebhookVerifier verifier = WebhookVerifier.forSecret(SECRET);
+        String batch = "[" + VALID_PAYLOAD + "," + VALID_PAYLOAD.replace("delivery", "open") + "]\n";
+        String signature = "sha256=" + generateHmacSignature(SECRET, batch);
+        java.io.ByteArrayInputStream body = new java.io.ByteArrayInputStream(batch.getBytes(StandardCharsets.UTF_8));
+
+        WebhookVerifier.WebhookData data = verifier.verifyAndParse(body, signature);
+
+        assertTrue(data.isBatch());
+        assertEquals("open", data.getEvents().get(1).get("event"));
+        assertEquals(0, body.available());
+        assertEquals(data.getEvents(),
+            verifier.verifyAndParse(batch.getBytes(StandardCharsets.UTF_8), signature).getEvents());
+    }
+
+    @Test
+    void testVerifyAndParseRejectsForgedBody() throws Exception {
+        WebhookVerifier verifier = WebhookVerifier.forSecret(SECRET);
+        String signature = generateHmacSignature(SECRET, VALID_PAYLOAD);
+        String tampered = VALID_PAYLOAD.replace("user@", "attacker@");
+        String malformed = "{not json";
+
+        assertThrows(InvalidSignatureException.class, () -> verifier.verifyAndParse(stream(tampered), signature));
+        assertThrows(InvalidSignatureException.class, () -> verifier.verifyAndParse(stream(malformed), signature));
+        assertThrows(InvalidSignatureException.class, () -> verifier.verifyAndParse(stream(VALID_PAYLOAD), "bad"));
+        assertThrows(InvalidSignatureException.class,
+            () -> verifier.verifyAndParse(tampered.getBytes(StandardCharsets.UTF_8), signature));
+
+        String malformedSignature = generateHmacSignature(SECRET, malformed);
+        IllegalArgumentException error = assertThrows(IllegalArgumentException.class,
+            () -> verifier.verifyAndParse(stream(malformed), malformedSignature));
+        assertFalse(error instanceof InvalidSignatureException);
+        assertTrue(error.getMessage().contains("Invalid JSON payload"));
+    }
+
+    private static java.io.InputStream stream(String payload) {
+        return new java.io.ByteArrayInputStream(payload.getBytes(StandardCharsets.UTF_8));
+    }
+
     @Test
     void testParseSingleEventPayload() {
         String payload = "{\"event\":\"delivery\",\"email\":\"user@example.com\",\"lane_id\":\"5805dd85-ed8c-44db-91a7-1d53a41c86a5\",\"message_id\":\"H-1-019844e340027d728a7cfda632e14d0a\",\"timestamp\":1753502407,\"metadata\":{\"campaign_id\":\"test\"},\"tag\":\"newsletter\"}";